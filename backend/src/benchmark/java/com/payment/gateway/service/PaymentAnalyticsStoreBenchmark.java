@@ -0,0 +1,108 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.AnalyticsDimension;
+import com.payment.gateway.dto.AnalyticsQuery;
+import com.payment.gateway.dto.AnalyticsResponse;
+import com.payment.gateway.entity.Merchant;
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.entity.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Group-by ของ PaymentAnalyticsStore บนข้อมูลสังเคราะห์ 10 ล้านแถว
+ *
+ * ข้อมูล: 1,000 Merchant, 4 สกุลเงิน, สถานะ/วิธีชำระสุ่ม (บางแถวไม่มีวิธีชำระ), กระจาย 30 วัน
+ * Store ถูกเติมผ่าน record() โดยไม่ใช้ Database
+ *
+ * groupBy:
+ * - STATUS / STATUS,PAYMENT_METHOD,CURRENCY / MERCHANT: กลุ่มน้อย ใช้ Array ตรง
+ * - MERCHANT,HOUR: 720,000 กลุ่มที่เป็นไปได้ ใช้ Hash Table
+ * - STATUS (merchant=1): กรอง Merchant เดียว ยังต้องสแกนทุกแถว
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PaymentAnalyticsStoreBenchmark {
+
+    private static final String[] CURRENCIES = {"THB", "USD", "EUR", "JPY"};
+    private static final int MERCHANTS = 1_000;
+    private static final int DAYS = 30;
+
+    @Param("10000000")
+    private int rows;
+
+    @Param({"STATUS", "STATUS,PAYMENT_METHOD,CURRENCY", "MERCHANT", "MERCHANT,HOUR", "STATUS@1"})
+    private String groupBy;
+
+    private PaymentAnalyticsStore store;
+    private AnalyticsQuery query;
+
+    @Setup(Level.Trial)
+    public void load() {
+        store = new PaymentAnalyticsStore(new SimpleDriverDataSource(), new SimpleMeterRegistry(), rows, 5000);
+        ReflectionTestUtils.setField(store, "enabled", true);
+
+        Merchant[] merchants = new Merchant[MERCHANTS];
+        for (int i = 0; i < MERCHANTS; i++) {
+            merchants[i] = Merchant.builder().id(i + 1L).build();
+        }
+        PaymentStatus[] statuses = PaymentStatus.values();
+        PaymentMethod[] methods = PaymentMethod.values();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        SplittableRandom random = new SplittableRandom(42);
+
+        // record() อ่านค่าทันทีเมื่อไม่มี Transaction จึงใช้ Payment ตัวเดียวซ้ำได้
+        Payment payment = new Payment();
+        for (int id = 1; id <= rows; id++) {
+            payment.setId((long) id);
+            payment.setAmount(BigDecimal.valueOf(random.nextLong(100, 1_000_000), 2));
+            payment.setStatus(statuses[random.nextInt(statuses.length)]);
+            payment.setPaymentMethod(random.nextInt(10) == 0 ? null : methods[random.nextInt(methods.length)]);
+            payment.setCurrency(CURRENCIES[random.nextInt(CURRENCIES.length)]);
+            payment.setMerchant(merchants[random.nextInt(MERCHANTS)]);
+            payment.setCreatedAt(start.plusMinutes(random.nextInt(DAYS * 24 * 60)));
+            store.record(payment);
+        }
+        ReflectionTestUtils.setField(store, "ready", true);
+
+        // "DIMENSIONS@merchantId" = จัดกลุ่มและกรองเฉพาะ Merchant นั้น
+        String[] parts = groupBy.split("@");
+        Set<AnalyticsDimension> dimensions = Arrays.stream(parts[0].split(","))
+            .map(AnalyticsDimension::valueOf)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(AnalyticsDimension.class)));
+        Long merchantId = parts.length > 1 ? Long.valueOf(parts[1]) : null;
+        query = new AnalyticsQuery(null, null, null, merchantId, null, null, dimensions);
+    }
+
+    @Benchmark
+    public AnalyticsResponse query() {
+        return store.query(query);
+    }
+}
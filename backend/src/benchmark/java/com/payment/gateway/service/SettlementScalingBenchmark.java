@@ -0,0 +1,135 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.SettlementRunResult;
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.repository.SettlementBatchRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settlement แบบ Fork/Join เทียบจำนวน Thread (parallelism 1, 2, 4, ... N)
+ *
+ * ข้อมูลสังเคราะห์ใน H2 (In-memory, Process เดียวกัน): merchants Merchant ละ 100 Payment
+ * แต่ละ Payment มี CAPTURE และบางรายการมี REFUND/VOID ทั้งหมดอยู่ในวันที่ settle
+ * SettlementBatchRepository เป็น Stub (ไม่มี Batch เดิม, save ไม่เขียนจริง) จึงวัดเฉพาะการอ่านและรวมยอด
+ * และรัน settle() วันเดิมซ้ำได้ทุกรอบ
+ *
+ * เลือกจำนวน Thread ตามเครื่อง: -p parallelism=1,2,4,8,16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SettlementScalingBenchmark {
+
+    private static final int PAYMENTS_PER_MERCHANT = 100;
+    private static final String[] CURRENCIES = {"THB", "USD"};
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param("1000")
+    private int merchants;
+
+    private SimpleDriverDataSource dataSource;
+    private SettlementService service;
+    private LocalDate date;
+
+    @Setup(Level.Trial)
+    public void load() {
+        dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+            "jdbc:h2:mem:settlement-bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, merchant_id BIGINT NOT NULL, payment_method VARCHAR(30))");
+        jdbc.execute("CREATE INDEX idx_payment_merchant ON payments (merchant_id)");
+        jdbc.execute("CREATE TABLE transactions (id BIGINT AUTO_INCREMENT PRIMARY KEY, payment_id BIGINT NOT NULL, " +
+            "transaction_type VARCHAR(20) NOT NULL, amount DECIMAL(12, 2) NOT NULL, currency VARCHAR(3) NOT NULL, " +
+            "status VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbc.execute("CREATE INDEX idx_transaction_payment ON transactions (payment_id)");
+
+        date = LocalDate.now().minusDays(1);
+        long dayStart = Timestamp.valueOf(date.atStartOfDay()).getTime();
+        PaymentMethod[] methods = PaymentMethod.values();
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> payments = new ArrayList<>();
+        List<Object[]> transactions = new ArrayList<>();
+        long paymentId = 0;
+        for (long merchantId = 1; merchantId <= merchants; merchantId++) {
+            for (int i = 0; i < PAYMENTS_PER_MERCHANT; i++) {
+                paymentId++;
+                payments.add(new Object[] {paymentId, merchantId, methods[random.nextInt(methods.length)].name()});
+                String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+                BigDecimal amount = BigDecimal.valueOf(random.nextLong(100, 1_000_000), 2);
+                Timestamp createdAt = new Timestamp(dayStart + random.nextLong(TimeUnit.DAYS.toMillis(1) - 60_000));
+                transactions.add(new Object[] {paymentId, "CAPTURE", amount, currency, "SUCCESS", createdAt});
+                int extra = random.nextInt(10);
+                if (extra == 0) {
+                    transactions.add(new Object[] {paymentId, "REFUND", amount, currency, "SUCCESS",
+                        new Timestamp(createdAt.getTime() + 30_000)});
+                } else if (extra == 1) {
+                    transactions.add(new Object[] {paymentId, "VOID", amount, currency, "SUCCESS",
+                        new Timestamp(createdAt.getTime() + 30_000)});
+                }
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO payments (id, merchant_id, payment_method) VALUES (?, ?, ?)", payments);
+        jdbc.batchUpdate("INSERT INTO transactions (payment_id, transaction_type, amount, currency, status, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", transactions);
+
+        service = new SettlementService(stubBatchRepository(), dataSource,
+            new DataSourceTransactionManager(dataSource), null, parallelism, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        service.shutdown();
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    @Benchmark
+    public SettlementRunResult settle() {
+        return service.settle(date);
+    }
+
+    /**
+     * ไม่มี Batch เดิมเสมอ และ save คืนค่า Batch เดิมโดยไม่เขียน Database
+     */
+    private static SettlementBatchRepository stubBatchRepository() {
+        return (SettlementBatchRepository) Proxy.newProxyInstance(
+            SettlementBatchRepository.class.getClassLoader(),
+            new Class<?>[] {SettlementBatchRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "existsByMerchantIdAndSettlementDate" -> false;
+                case "save" -> args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "SettlementBatchRepository stub";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
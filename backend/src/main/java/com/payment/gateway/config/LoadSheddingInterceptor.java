@@ -0,0 +1,65 @@
+package com.payment.gateway.config;
+
+import com.payment.gateway.controller.RequestPriority;
+import com.payment.gateway.exception.ServiceUnavailableException;
+import com.payment.gateway.service.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * LoadSheddingInterceptor - คัดกรอง Request ด้วย {@link AdaptiveConcurrencyLimiter} ก่อนเข้า Controller
+ *
+ * ระดับความสำคัญมาจาก {@link RequestPriority} บน Method ของ Controller (ไม่ระบุ = NORMAL)
+ * Request ที่เกิน Limit ได้ 503 ทันทีพร้อม Retry-After แทนการรอ DB Connection จน Timeout
+ */
+public class LoadSheddingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED_AT = LoadSheddingInterceptor.class.getName() + ".startedAt";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+
+    public LoadSheddingInterceptor(AdaptiveConcurrencyLimiter limiter, long retryAfterSeconds) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RequestPriority priority = method.getMethodAnnotation(RequestPriority.class);
+        RequestPriority.Level level = priority != null ? priority.value() : RequestPriority.Level.NORMAL;
+        if (!limiter.tryAcquire(level)) {
+            throw new ServiceUnavailableException("OVERLOADED",
+                "Server is overloaded. Please retry later.", retryAfterSeconds);
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt == null) {
+            return;
+        }
+        request.removeAttribute(STARTED_AT);
+        // ใช้เฉพาะ Request ที่สำเร็จเป็นตัวอย่าง Latency (Error เร็วผิดปกติจะดึง Limit ขึ้นโดยไม่ควร)
+        boolean sample = ex == null && response.getStatus() < 500;
+        limiter.release(sample ? System.nanoTime() - (long) startedAt : -1);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // งาน Async ไม่ได้ถือ Thread ของ Request แล้ว คืนที่ว่างโดยไม่นับ Latency
+        if (request.getAttribute(STARTED_AT) != null) {
+            request.removeAttribute(STARTED_AT);
+            limiter.release(-1);
+        }
+    }
+}
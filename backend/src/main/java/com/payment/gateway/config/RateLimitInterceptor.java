@@ -0,0 +1,44 @@
+package com.payment.gateway.config;
+
+import com.payment.gateway.exception.RateLimitExceededException;
+import com.payment.gateway.service.ApiClientResolver;
+import com.payment.gateway.service.RateLimitService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * RateLimitInterceptor - ตรวจโควตาของ Merchant ก่อนเข้า Controller
+ *
+ * ระบุ Merchant จาก Header X-API-Key ผ่าน {@link ApiClientResolver} (ไม่มี Header หรือ Key ไม่ถูกต้องใช้ IP แทน)
+ * Endpoint คือชื่อ Method ของ Controller (เช่น createPayment)
+ * ทุก Response ที่ผ่านจะมี Header RateLimit-Limit, RateLimit-Remaining, RateLimit-Reset
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitService rateLimitService;
+    private final ApiClientResolver clientResolver;
+
+    public RateLimitInterceptor(RateLimitService rateLimitService, ApiClientResolver clientResolver) {
+        this.rateLimitService = rateLimitService;
+        this.clientResolver = clientResolver;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        String client = clientResolver.resolve(request.getHeader("X-API-Key"), request.getRemoteAddr());
+        RateLimitService.Decision decision = rateLimitService.tryConsume(client, method.getMethod().getName());
+        if (!decision.allowed()) {
+            throw new RateLimitExceededException(decision.limit(), decision.resetSeconds(), decision.retryAfterSeconds());
+        }
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package com.payment.gateway.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ReadWriteRoutingDataSource - เลือก Connection Pool ตามชนิดของ Transaction
+ *
+ * - Transaction แบบ readOnly → Replica
+ *   (เว้นแต่ Replica ล่าช้าเกิน max-lag-ms หรือ Client เพิ่งเขียนข้อมูล)
+ * - Probe ล่าสุดที่ยืนยันว่า Replica ตามทันเก่ากว่า max-lag-ms (Monitor ค้างหรือหยุดทำงาน) → Primary
+ * - Transaction ที่เขียนได้ และงานที่ไม่มี Transaction → Primary
+ *
+ * Read-your-writes: หลัง Commit Transaction ที่เขียนได้ Client เดิมจะอ่านจาก Primary ต่ออีก sticky-ms
+ * (Client คือค่าที่ผูกไว้กับ Thread ผ่าน {@link #bindClient} เช่น Merchant ของ Request จาก ApiClientResolver)
+ *
+ * ต้องห่อด้วย LazyConnectionDataSourceProxy เพราะ Transaction Manager ขอ Connection
+ * ก่อนประกาศว่า Transaction ปัจจุบันเป็น readOnly
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * ปลายทางของ Connection
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    // Client → เวลา (nanoTime) ที่หมดช่วงอ่านจาก Primary
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final long stickyNanos;
+    private final long maxLagNanos;
+    private volatile boolean replicaHealthy;
+    // nanoTime ของ Probe ล่าสุดที่ยืนยันว่า Replica ตามทัน
+    private volatile long replicaHealthyAtNanos;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration sticky, Duration maxLag) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.stickyNanos = sticky.toNanos();
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    /**
+     * ผูก Client กับ Thread ปัจจุบัน (เรียก {@link #clearClient} เมื่อจบ Request)
+     *
+     * @param client รหัส Client
+     */
+    public static void bindClient(String client) {
+        CLIENT.set(client);
+    }
+
+    public static void clearClient() {
+        CLIENT.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String client = CLIENT.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (client != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // นับช่วง Sticky จากเวลา Commit เพราะ Replica เริ่มตามหลังจากจุดนั้น
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        stickyUntil.put(client, System.nanoTime() + stickyNanos);
+                    }
+                });
+            }
+            return Route.PRIMARY;
+        }
+        if (!isReplicaAvailable() || (client != null && isSticky(client))) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private boolean isSticky(String client) {
+        Long until = stickyUntil.get(client);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    /**
+     * ลบ Client ที่หมดช่วง Sticky แล้ว (เรียกเป็นระยะ)
+     */
+    public void pruneSticky() {
+        long now = System.nanoTime();
+        stickyUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    /**
+     * Replica ใช้ได้เมื่อ Probe ล่าสุดพบว่าตามทัน และ Probe นั้นไม่เก่ากว่า max-lag-ms
+     * (ถ้า Monitor ค้าง ผลเดิมจะหมดอายุเองแทนที่จะเปิดใช้ Replica ค้างไว้)
+     */
+    public boolean isReplicaAvailable() {
+        return replicaHealthy && System.nanoTime() - replicaHealthyAtNanos <= maxLagNanos;
+    }
+
+    /**
+     * บันทึกผลของ Probe
+     *
+     * @param healthy Replica ตามทันหรือไม่
+     * @param probedAtNanos nanoTime ตอนเริ่ม Probe
+     */
+    public void recordProbe(boolean healthy, long probedAtNanos) {
+        if (healthy) {
+            replicaHealthyAtNanos = probedAtNanos;
+        }
+        replicaHealthy = healthy;
+    }
+}
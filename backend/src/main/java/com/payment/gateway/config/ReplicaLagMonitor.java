@@ -0,0 +1,105 @@
+package com.payment.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * ReplicaLagMonitor - วัดความล่าช้าของ Replica และเปิด/ปิดการอ่านจาก Replica
+ *
+ * ทุก heartbeat-interval-ms: เขียนเวลาปัจจุบันลงแถวของ Node นี้ที่ Primary
+ * แล้วอ่านแถวเดียวกันจาก Replica ส่วนต่างคือ Lag
+ * ถ้า Lag เกิน max-lag-ms หรืออ่าน Replica ไม่ได้ Transaction readOnly ทั้งหมดจะกลับไปใช้ Primary
+ * จนกว่า Replica จะตามทัน ถ้า Probe หยุด (Scheduler ค้าง หรือ Query ค้าง) ผลล่าสุดหมดอายุหลัง max-lag-ms
+ * และ {@link ReadWriteRoutingDataSource} กลับไปใช้ Primary เอง
+ *
+ * แสดงผลใน /actuator/health (Component: replicaLagMonitor)
+ */
+public class ReplicaLagMonitor implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // แถวของ Node ที่ไม่ได้เขียนนานเกินนี้ถือว่า Node หายไปแล้ว
+    private static final long STALE_ROW_MILLIS = Duration.ofDays(1).toMillis();
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReadWriteRoutingDataSource routing;
+    private final String node;
+    private final long maxLagMillis;
+    private volatile long lagMillis = -1;
+    private volatile String lastError;
+    private boolean rowCreated;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, ReadWriteRoutingDataSource routing,
+                             String node, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.routing = routing;
+        this.node = node;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.datasource.replica.heartbeat-interval-ms:1000}")
+    public void probe() {
+        long startNanos = System.nanoTime();
+        try {
+            writeHeartbeat();
+            Long beat = replica.query("SELECT beat_millis FROM replication_heartbeat WHERE node = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, node);
+            // ยังไม่มีแถวที่ Replica = Replica ยังไม่ได้รับแม้แต่ Heartbeat แรก
+            lagMillis = beat == null ? -1 : Math.max(0, System.currentTimeMillis() - beat);
+            lastError = null;
+        } catch (DataAccessException e) {
+            lagMillis = -1;
+            lastError = e.getMostSpecificCause().getMessage();
+        }
+
+        boolean available = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        if (available != routing.isReplicaAvailable()) {
+            if (available) {
+                logger.info("Replica caught up (lag {} ms), routing read-only transactions to replica", lagMillis);
+            } else {
+                logger.warn("Replica unavailable (lag {} ms, error: {}), routing all reads to primary",
+                    lagMillis, lastError);
+            }
+        }
+        routing.recordProbe(available, startNanos);
+        routing.pruneSticky();
+    }
+
+    private void writeHeartbeat() {
+        long now = System.currentTimeMillis();
+        if (primary.update("UPDATE replication_heartbeat SET beat_millis = ? WHERE node = ?", now, node) > 0) {
+            return;
+        }
+        primary.update("INSERT INTO replication_heartbeat (node, beat_millis) VALUES (?, ?)", node, now);
+        if (!rowCreated) {
+            rowCreated = true;
+            int removed = primary.update("DELETE FROM replication_heartbeat WHERE beat_millis < ?", now - STALE_ROW_MILLIS);
+            if (removed > 0) {
+                logger.debug("Removed {} stale replication heartbeat rows", removed);
+            }
+        }
+    }
+
+    @Override
+    public Health health() {
+        // Replica ล่าช้าไม่ทำให้ระบบใช้ไม่ได้ (อ่านจาก Primary แทน) จึงรายงาน UP พร้อมรายละเอียด
+        Health.Builder builder = Health.up()
+            .withDetail("routing", routing.isReplicaAvailable() ? "primary+replica" : "primary-only")
+            .withDetail("lagMs", lagMillis)
+            .withDetail("maxLagMs", maxLagMillis);
+        if (lastError != null) {
+            builder.withDetail("error", lastError);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.payment.gateway.config;
+
+import com.payment.gateway.service.ApiClientResolver;
+import com.payment.gateway.service.LeaseService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * ReplicaRoutingConfig - แยก Connection Pool อ่าน/เขียน เมื่อกำหนด payment.datasource.replica.url
+ *
+ * - PaymentHikariPool (spring.datasource.*) → Primary สำหรับการเขียนและงานที่ไม่มี Transaction
+ * - PaymentReplicaPool (payment.datasource.replica.*) → Transaction แบบ readOnly
+ *
+ * DataSource หลักของระบบ (JPA, JdbcTemplate) คือ LazyConnectionDataSourceProxy
+ * ครอบ {@link ReadWriteRoutingDataSource} จึงไม่ต้องแก้ Service ใดเลย
+ * ถ้าไม่กำหนด URL ของ Replica จะใช้ DataSource เดียวตามเดิมของ Spring Boot
+ */
+@Configuration
+@ConditionalOnExpression("!'${payment.datasource.replica.url:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("payment.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${payment.datasource.replica.url}") String url,
+            @Value("${payment.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${payment.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+        // Driver จะปฏิเสธการเขียนที่หลุดมาถึง Replica
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${payment.datasource.replica.sticky-ms:5000}") long stickyMs,
+            @Value("${payment.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        if (stickyMs < maxLagMs) {
+            logger.warn("payment.datasource.replica.sticky-ms ({}) is below max-lag-ms ({}); " +
+                "clients may not read their own writes", stickyMs, maxLagMs);
+        }
+        return new ReadWriteRoutingDataSource(primary, replica, Duration.ofMillis(stickyMs),
+            Duration.ofMillis(maxLagMs));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReadWriteRoutingDataSource routingDataSource,
+            LeaseService leaseService,
+            @Value("${payment.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        return new ReplicaLagMonitor(primary, replica, routingDataSource, leaseService.nodeId(),
+            Duration.ofMillis(maxLagMs));
+    }
+
+    /**
+     * ผูก Client ของ Request กับ Thread เพื่อใช้ตัดสิน Read-your-writes
+     * (Merchant ของ API Key ถ้ามี ไม่เช่นนั้นใช้ IP; ไม่ใช้ API Key ดิบเป็น Key ของ Map)
+     */
+    @Bean
+    public OncePerRequestFilter replicaClientFilter(ApiClientResolver clientResolver) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                ReadWriteRoutingDataSource.bindClient(
+                    clientResolver.resolve(request.getHeader("X-API-Key"), request.getRemoteAddr()));
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ReadWriteRoutingDataSource.clearClient();
+                }
+            }
+        };
+    }
+}
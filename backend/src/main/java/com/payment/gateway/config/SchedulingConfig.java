@@ -0,0 +1,29 @@
+package com.payment.gateway.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * SchedulingConfig - Thread Pool ของงาน @Scheduled
+ *
+ * เมื่อเปิด Virtual Threads Spring Boot ใช้ SimpleAsyncTaskScheduler ซึ่งรันงาน fixedDelay
+ * ทั้งหมดบน Scheduler Thread เดียวและไม่สนใจ spring.task.scheduling.pool.size
+ * งานที่รันทุกวินาที (Expiry, Webhook Relay, Replica Heartbeat) จึงรอกันเอง
+ * ที่นี่กำหนด Scheduler แบบ Pool แทน ส่วนงานที่ใช้เวลานานส่งต่อไป Thread ของตัวเอง
+ * (ดู {@link com.payment.gateway.service.BackgroundJob})
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(
+            @Value("${spring.task.scheduling.pool.size:8}") int poolSize,
+            @Value("${spring.task.scheduling.thread-name-prefix:scheduling-}") String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        return scheduler;
+    }
+}
@@ -0,0 +1,52 @@
+package com.payment.gateway.config;
+
+import com.payment.gateway.service.AdaptiveConcurrencyLimiter;
+import com.payment.gateway.service.ApiClientResolver;
+import com.payment.gateway.service.RateLimitService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * WebConfig - การตั้งค่า Spring MVC
+ *
+ * - Rate Limit: โควตาต่อ Merchant/Endpoint ของ Payment API (payment.rate-limit.*) ตรวจก่อน Load Shedding
+ *   เพื่อไม่ให้ Merchant ที่ส่งเกินโควตากินที่ว่างของ Limiter
+ * - Load Shedding: จำกัด Request พร้อมกันของ Payment API และ Webhook (payment.load-shedding.*)
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final RateLimitService rateLimitService;
+    private final ApiClientResolver clientResolver;
+
+    @Value("${payment.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${payment.load-shedding.enabled:true}")
+    private boolean loadSheddingEnabled;
+
+    @Value("${payment.load-shedding.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    public WebConfig(AdaptiveConcurrencyLimiter limiter, RateLimitService rateLimitService,
+                     ApiClientResolver clientResolver) {
+        this.limiter = limiter;
+        this.rateLimitService = rateLimitService;
+        this.clientResolver = clientResolver;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (rateLimitEnabled) {
+            registry.addInterceptor(new RateLimitInterceptor(rateLimitService, clientResolver))
+                .addPathPatterns("/api/v1/payments", "/api/v1/payments/**");
+        }
+        if (loadSheddingEnabled) {
+            registry.addInterceptor(new LoadSheddingInterceptor(limiter, retryAfterSeconds))
+                .addPathPatterns("/api/v1/payments", "/api/v1/payments/**", "/api/v1/webhooks/**");
+        }
+    }
+}
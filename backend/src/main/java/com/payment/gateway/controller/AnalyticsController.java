@@ -0,0 +1,67 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.AnalyticsDimension;
+import com.payment.gateway.dto.AnalyticsQuery;
+import com.payment.gateway.dto.AnalyticsResponse;
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.service.PaymentAnalyticsStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * AnalyticsController - REST Controller สำหรับ Query สถิติ Payment แบบ Ad-hoc
+ *
+ * Endpoints:
+ * - GET /api/v1/analytics/payments - กรองและจัดกลุ่มตาม สถานะ/วิธีชำระ/สกุลเงิน/Merchant/ชั่วโมง
+ *
+ * ตอบจาก PaymentAnalyticsStore ในหน่วยความจำ ไม่ Query Database
+ */
+@RestController
+@RequestMapping("/api/v1/analytics")
+@CrossOrigin(origins = "*")
+@Tag(name = "Analytics", description = "📊 สถิติ Payment แบบกรอง/จัดกลุ่มได้สำหรับ Dashboard")
+public class AnalyticsController {
+
+    private final PaymentAnalyticsStore analyticsStore;
+
+    public AnalyticsController(PaymentAnalyticsStore analyticsStore) {
+        this.analyticsStore = analyticsStore;
+    }
+
+    /**
+     * สถิติ Payment ตามเงื่อนไข
+     *
+     * @return จำนวนและยอดรวมของแต่ละกลุ่ม
+     */
+    @GetMapping("/payments")
+    @Operation(
+        summary = "สถิติ Payment แบบกรองและจัดกลุ่ม",
+        description = "เช่น groupBy=STATUS,CURRENCY หรือ groupBy=HOUR&status=COMPLETED (ข้อมูลช้ากว่าจริงไม่เกินรอบ Sync)"
+    )
+    public ResponseEntity<AnalyticsResponse> query(
+            @Parameter(description = "สถานะ (ระบุได้หลายค่า)")
+            @RequestParam(required = false) Set<PaymentStatus> status,
+            @Parameter(description = "วิธีชำระเงิน (ระบุได้หลายค่า)")
+            @RequestParam(required = false) Set<PaymentMethod> paymentMethod,
+            @Parameter(description = "สกุลเงิน (ระบุได้หลายค่า)")
+            @RequestParam(required = false) Set<String> currency,
+            @Parameter(description = "Merchant ID")
+            @RequestParam(required = false) Long merchantId,
+            @Parameter(description = "สร้างตั้งแต่ (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "สร้างก่อน (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "จัดกลุ่มตาม: STATUS, PAYMENT_METHOD, CURRENCY, MERCHANT, HOUR")
+            @RequestParam(required = false) Set<AnalyticsDimension> groupBy) {
+        AnalyticsQuery query = new AnalyticsQuery(status, paymentMethod, currency, merchantId, from, to, groupBy);
+        return ResponseEntity.ok(analyticsStore.query(query));
+    }
+}
@@ -0,0 +1,42 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.ArchiveRunResult;
+import com.payment.gateway.service.PaymentArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * ArchiveController - REST Controller สำหรับย้ายข้อมูลเก่าไป Cold Storage
+ * 
+ * Endpoints:
+ * - POST /api/v1/archive/run - ย้าย Payment ที่จบแล้วและเก่ากว่าที่กำหนดทันที
+ */
+@RestController
+@RequestMapping("/api/v1/archive")
+@CrossOrigin(origins = "*")
+@Tag(name = "Archive", description = "🗄️ ย้าย Payment ที่จบแล้วไป Cold Storage")
+public class ArchiveController {
+
+    private final PaymentArchiveService archiveService;
+
+    public ArchiveController(PaymentArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * ย้ายข้อมูลทันที
+     * 
+     * @return สรุปผล
+     */
+    @PostMapping("/run")
+    @Operation(
+        summary = "ย้าย Payment ไป Archive",
+        description = "ย้าย Payment สถานะสุดท้ายที่ไม่ถูกแก้ไขนานกว่า payment.archive.min-age-days " +
+                      "พร้อม Transaction ไปตาราง *_archive ทีละ Batch"
+    )
+    public ResponseEntity<ArchiveRunResult> run() {
+        return ResponseEntity.ok(archiveService.archive());
+    }
+}
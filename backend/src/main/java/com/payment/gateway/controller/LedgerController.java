@@ -0,0 +1,90 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.LedgerBalanceResponse;
+import com.payment.gateway.dto.LedgerCheckpointResponse;
+import com.payment.gateway.dto.LedgerVerificationResult;
+import com.payment.gateway.service.LedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LedgerController - REST Controller สำหรับสมุดบัญชีของ Merchant
+ *
+ * Endpoints:
+ * - GET /api/v1/ledger/merchants/{merchantId}/balances - ยอดคงเหลือ (O(1))
+ * - GET /api/v1/ledger/merchants/{merchantId}/checkpoints - Checkpoint ล่าสุด
+ * - POST /api/v1/ledger/checkpoints - บันทึก Checkpoint ทันที
+ * - POST /api/v1/ledger/verify - ตรวจสอบยอดคงเหลือเทียบกับรายการบัญชี
+ */
+@RestController
+@RequestMapping("/api/v1/ledger")
+@CrossOrigin(origins = "*")
+@Tag(name = "Ledger", description = "📒 สมุดบัญชีคู่และยอดคงเหลือของ Merchant")
+public class LedgerController {
+
+    private final LedgerService ledgerService;
+
+    public LedgerController(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    /**
+     * ดูยอดคงเหลือของ Merchant
+     *
+     * @param merchantId Merchant ID
+     * @return รายการ LedgerBalanceResponse
+     */
+    @GetMapping("/merchants/{merchantId}/balances")
+    @Operation(
+        summary = "ดูยอดคงเหลือของ Merchant",
+        description = "ยอดของทุกบัญชีแยกตามสกุลเงิน (MERCHANT_PAYABLE = ยอดที่ใช้ได้)"
+    )
+    public ResponseEntity<List<LedgerBalanceResponse>> getBalances(
+            @Parameter(description = "Merchant ID") @PathVariable Long merchantId) {
+        return ResponseEntity.ok(ledgerService.getBalances(merchantId));
+    }
+
+    /**
+     * ดู Checkpoint ล่าสุดของ Merchant
+     *
+     * @param merchantId Merchant ID
+     * @return รายการ LedgerCheckpointResponse (ใหม่สุดก่อน, สูงสุด 50)
+     */
+    @GetMapping("/merchants/{merchantId}/checkpoints")
+    @Operation(summary = "ดู Checkpoint ของ Merchant", description = "ยอดคงเหลือที่บันทึกไว้เป็นรอบ (ใหม่สุดก่อน)")
+    public ResponseEntity<List<LedgerCheckpointResponse>> getCheckpoints(
+            @Parameter(description = "Merchant ID") @PathVariable Long merchantId) {
+        return ResponseEntity.ok(ledgerService.getCheckpoints(merchantId));
+    }
+
+    /**
+     * บันทึก Checkpoint ทันที
+     *
+     * @return รหัสรอบและจำนวนบัญชี
+     */
+    @PostMapping("/checkpoints")
+    @Operation(summary = "บันทึก Checkpoint", description = "คัดลอกยอดคงเหลือทุกบัญชีเป็น Checkpoint ในคำสั่งเดียว")
+    public ResponseEntity<Map<String, Object>> checkpoint() {
+        return ResponseEntity.ok(ledgerService.checkpoint());
+    }
+
+    /**
+     * ตรวจสอบ Ledger
+     *
+     * @return ผลการตรวจสอบ
+     */
+    @PostMapping("/verify")
+    @Operation(
+        summary = "ตรวจสอบ Ledger",
+        description = "คำนวณยอดจากรายการบัญชีใหม่แบบขนานทีละ Merchant แล้วเทียบกับยอดคงเหลือที่บันทึกไว้"
+    )
+    public ResponseEntity<LedgerVerificationResult> verify() {
+        return ResponseEntity.ok(ledgerService.verify());
+    }
+}
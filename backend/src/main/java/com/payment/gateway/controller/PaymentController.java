@@ -2,6 +2,8 @@ package com.payment.gateway.controller;
 
 import com.payment.gateway.dto.*;
 import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.service.BulkOperationService;
+import com.payment.gateway.service.PaymentExportService;
 import com.payment.gateway.service.PaymentService;
 import com.payment.gateway.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,15 +14,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -29,10 +38,14 @@ import java.util.List;
  * Endpoints:
  * - POST /api/v1/payments - สร้าง Payment ใหม่
  * - GET /api/v1/payments - ดึงรายการ Payment ทั้งหมด
+ * - GET /api/v1/payments/export - Export Payment แบบ Streaming (NDJSON/CSV)
  * - GET /api/v1/payments/{referenceId} - ดึง Payment ตาม Reference ID
+ * - POST /api/v1/payments/status:batch - ดึงสถานะหลายรายการในครั้งเดียว
  * - POST /api/v1/payments/{referenceId}/complete - ยืนยันการชำระเงิน
  * - POST /api/v1/payments/{referenceId}/cancel - ยกเลิก Payment
  * - POST /api/v1/payments/refund - คืนเงิน
+ * - POST /api/v1/payments/bulk/refund - คืนเงินหลายรายการจากไฟล์ CSV/NDJSON
+ * - POST /api/v1/payments/bulk/cancel - ยกเลิกหลายรายการจากไฟล์ CSV/NDJSON
  * - GET /api/v1/payments/{id}/transactions - ดึงรายการ Transaction
  */
 @RestController
@@ -44,10 +57,18 @@ public class PaymentController {
 
     private final PaymentService paymentService;
     private final TransactionService transactionService;
+    private final BulkOperationService bulkOperationService;
+    private final PaymentExportService paymentExportService;
 
-    public PaymentController(PaymentService paymentService, TransactionService transactionService) {
+    public PaymentController(
+            PaymentService paymentService,
+            TransactionService transactionService,
+            BulkOperationService bulkOperationService,
+            PaymentExportService paymentExportService) {
         this.paymentService = paymentService;
         this.transactionService = transactionService;
+        this.bulkOperationService = bulkOperationService;
+        this.paymentExportService = paymentExportService;
     }
 
     /**
@@ -57,6 +78,7 @@ public class PaymentController {
      * @param apiKey API Key จาก Header
      * @return PaymentResponse
      */
+    @RequestPriority(RequestPriority.Level.CRITICAL)
     @PostMapping
     @Operation(
         summary = "สร้าง Payment ใหม่",
@@ -96,6 +118,7 @@ public class PaymentController {
      * @param status กรอง Status (optional)
      * @return Page ของ PaymentSummary
      */
+    @RequestPriority(RequestPriority.Level.LOW)
     @GetMapping
     @Operation(
         summary = "ดึงรายการ Payment ทั้งหมด",
@@ -124,6 +147,44 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Export Payment แบบ Streaming
+     * 
+     * @param format รูปแบบไฟล์ (NDJSON/CSV)
+     * @param merchantId กรองตาม Merchant (optional)
+     * @param status กรองตามสถานะ (optional)
+     * @param startDate วันที่สร้างเริ่มต้น (optional)
+     * @param endDate วันที่สร้างสิ้นสุด (optional)
+     * @param response HttpServletResponse
+     */
+    @RequestPriority(RequestPriority.Level.LOW)
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export Payment (NDJSON/CSV)",
+        description = "ส่ง PaymentSummary ทั้งหมดที่ตรงเงื่อนไขแบบ Streaming เรียงตาม ID " +
+                      "ไม่มี Pagination และใช้ Memory คงที่ เหมาะกับข้อมูลจำนวนมาก"
+    )
+    @ApiResponse(responseCode = "200", description = "ไฟล์ NDJSON หรือ CSV")
+    public void exportPayments(
+            @Parameter(description = "รูปแบบไฟล์")
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @Parameter(description = "กรองตาม Merchant ID")
+            @RequestParam(required = false) Long merchantId,
+            @Parameter(description = "กรองตามสถานะ")
+            @RequestParam(required = false) PaymentStatus status,
+            @Parameter(description = "วันที่สร้างเริ่มต้น (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "วันที่สร้างสิ้นสุด (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletResponse response) throws IOException {
+        
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"payments." + format.getExtension() + "\"");
+        paymentExportService.export(format, merchantId, status, startDate, endDate, response.getOutputStream());
+    }
+
     /**
      * ดึง Payment ตาม Reference ID
      * 
@@ -154,12 +215,47 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * ดึงสถานะหลายรายการในครั้งเดียว (Batch Status)
+     * 
+     * @param request รายการ Reference ID / Order ID
+     * @param apiKey API Key จาก Header (ใช้กับ Order ID)
+     * @return BatchStatusResponse
+     */
+    @PostMapping("/status:batch")
+    @Operation(
+        summary = "ดึงสถานะหลายรายการ (Batch Status)",
+        description = "ดึงสถานะของ Payment สูงสุด 5000 Reference ID และ 5000 Order ID ในครั้งเดียว " +
+                      "สำหรับการกระทบยอด (Reconciliation) แทนการเรียกทีละรายการ"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "สำเร็จ",
+            content = @Content(schema = @Schema(implementation = BatchStatusResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "ไม่ระบุรายการ หรือเกินจำนวนที่กำหนด",
+            content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+        )
+    })
+    public ResponseEntity<BatchStatusResponse> getStatusBatch(
+            @Valid @RequestBody BatchStatusRequest request,
+            @Parameter(description = "API Key ของ Merchant")
+            @RequestHeader(value = "X-API-Key", defaultValue = "pk_live_demo_key_for_testing") String apiKey) {
+        
+        BatchStatusResponse response = paymentService.getStatusBatch(request, apiKey);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * ยืนยันการชำระเงินสำเร็จ (จำลอง)
      * 
      * @param referenceId Reference ID
      * @return PaymentResponse
      */
+    @RequestPriority(RequestPriority.Level.CRITICAL)
     @PostMapping("/{referenceId}/complete")
     @Operation(
         summary = "ยืนยันการชำระเงินสำเร็จ",
@@ -196,6 +292,7 @@ public class PaymentController {
      * @param reason เหตุผล (optional)
      * @return PaymentResponse
      */
+    @RequestPriority(RequestPriority.Level.CRITICAL)
     @PostMapping("/{referenceId}/cancel")
     @Operation(
         summary = "ยกเลิก Payment",
@@ -229,6 +326,7 @@ public class PaymentController {
      * @param request RefundRequest
      * @return PaymentResponse
      */
+    @RequestPriority(RequestPriority.Level.CRITICAL)
     @PostMapping("/refund")
     @Operation(
         summary = "คืนเงิน (Refund)",
@@ -252,6 +350,56 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * คืนเงินหลายรายการ (Bulk Refund)
+     * 
+     * รับไฟล์แบบ Streaming และส่งผลลัพธ์กลับเป็น NDJSON ทีละแถวระหว่างประมวลผล
+     * 
+     * @param request HttpServletRequest (Body = CSV หรือ NDJSON)
+     * @param response HttpServletResponse (NDJSON ของ BulkItemResult)
+     */
+    @RequestPriority(RequestPriority.Level.LOW)
+    @PostMapping(value = "/bulk/refund", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "คืนเงินหลายรายการ (Bulk Refund)",
+        description = "รับ CSV (Header: referenceId,amount,reason) หรือ NDJSON ของ RefundRequest " +
+                      "และส่งผลลัพธ์ของแต่ละแถวกลับเป็น NDJSON ทันทีที่ทำเสร็จ (ลำดับอาจไม่ตรงกับไฟล์)"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "NDJSON ของผลลัพธ์แต่ละแถว",
+        content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                           schema = @Schema(implementation = BulkItemResult.class))
+    )
+    public void bulkRefund(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        bulkOperationService.refund(request.getInputStream(), isCsv(request), response.getOutputStream());
+    }
+
+    /**
+     * ยกเลิกหลายรายการ (Bulk Cancel)
+     * 
+     * @param request HttpServletRequest (Body = CSV หรือ NDJSON)
+     * @param response HttpServletResponse (NDJSON ของ BulkItemResult)
+     */
+    @RequestPriority(RequestPriority.Level.LOW)
+    @PostMapping(value = "/bulk/cancel", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "ยกเลิกหลายรายการ (Bulk Cancel)",
+        description = "รับ CSV (Header: referenceId,reason) หรือ NDJSON ของ CancelRequest " +
+                      "และส่งผลลัพธ์ของแต่ละแถวกลับเป็น NDJSON ทันทีที่ทำเสร็จ (ลำดับอาจไม่ตรงกับไฟล์)"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "NDJSON ของผลลัพธ์แต่ละแถว",
+        content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                           schema = @Schema(implementation = BulkItemResult.class))
+    )
+    public void bulkCancel(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        bulkOperationService.cancel(request.getInputStream(), isCsv(request), response.getOutputStream());
+    }
+
     /**
      * ดึงรายการ Transaction ของ Payment
      * 
@@ -275,6 +423,7 @@ public class PaymentController {
      * 
      * @return DashboardStats
      */
+    @RequestPriority(RequestPriority.Level.LOW)
     @GetMapping("/stats")
     @Tag(name = "Dashboard")
     @Operation(
@@ -285,4 +434,11 @@ public class PaymentController {
         DashboardStats stats = paymentService.getDashboardStats();
         return ResponseEntity.ok(stats);
     }
+
+    /**
+     * ตรวจสอบว่า Body เป็น CSV หรือไม่ (นอกนั้นถือเป็น NDJSON)
+     */
+    private boolean isCsv(HttpServletRequest request) {
+        return request.getContentType() != null && request.getContentType().startsWith("text/csv");
+    }
 }
@@ -0,0 +1,55 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.ReconciliationReport;
+import com.payment.gateway.service.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * ReconciliationController - REST Controller สำหรับกระทบยอดไฟล์ Settlement ของ Gateway
+ *
+ * Endpoints:
+ * - POST /api/v1/reconciliations - อัปโหลดไฟล์ CSV แล้วกระทบยอดกับ Transaction ของวันที่กำหนด
+ */
+@RestController
+@RequestMapping("/api/v1/reconciliations")
+@CrossOrigin(origins = "*")
+@Tag(name = "Reconciliation", description = "🔍 กระทบยอดไฟล์ Settlement ของ Gateway")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    /**
+     * กระทบยอดไฟล์ Settlement
+     *
+     * Body เป็นไฟล์ CSV ดิบ (text/csv หรือ application/octet-stream)
+     *
+     * @param date วันที่ของ Transaction
+     * @param request HTTP Request (อ่าน Body แบบ Stream)
+     * @return ผลการกระทบยอด
+     */
+    @PostMapping(consumes = {"text/csv", "application/octet-stream"})
+    @Operation(
+        summary = "กระทบยอดไฟล์ Settlement",
+        description = "เทียบไฟล์ CSV (คอลัมน์ gateway_reference, amount) กับ Transaction ที่สำเร็จของวันที่กำหนด " +
+                      "แล้วรายงานรายการที่ตรง, จำนวนเงินไม่ตรง, ไม่พบในระบบ และไม่พบในไฟล์"
+    )
+    public ResponseEntity<ReconciliationReport> reconcile(
+            @Parameter(description = "วันที่ของ Transaction (YYYY-MM-DD)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(reconciliationService.reconcile(date, request.getInputStream()));
+    }
+}
@@ -0,0 +1,138 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.ReportJobRequest;
+import com.payment.gateway.dto.ReportJobResponse;
+import com.payment.gateway.service.ReportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ReportController - REST Controller สำหรับงานสร้างรายงาน
+ * 
+ * Endpoints:
+ * - POST /api/v1/reports - สั่งสร้างรายงาน (คืน Job ID ทันที)
+ * - GET /api/v1/reports/{jobId} - ดูสถานะ/ความคืบหน้า
+ * - GET /api/v1/reports/{jobId}/file - ดาวน์โหลดไฟล์ (sendfile ของ Tomcat เมื่อรองรับ)
+ */
+@RestController
+@RequestMapping("/api/v1/reports")
+@CrossOrigin(origins = "*")
+@Tag(name = "Reports", description = "📄 สร้างรายงาน Payment แบบ Asynchronous")
+public class ReportController {
+
+    // Request Attributes ของ Tomcat สำหรับ sendfile (ส่งไฟล์จาก Kernel โดยตรง)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    private final ReportJobService reportJobService;
+
+    public ReportController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    /**
+     * สั่งสร้างรายงาน
+     * 
+     * @param request เงื่อนไขของรายงาน
+     * @return สถานะงาน (202 Accepted)
+     */
+    @PostMapping
+    @Operation(
+        summary = "สั่งสร้างรายงาน Payment",
+        description = "สร้างไฟล์ CSV/NDJSON (บีบอัด GZIP ได้) ตามเงื่อนไขแบบ Background " +
+                      "แล้วใช้ Job ID ที่ได้ติดตามสถานะและดาวน์โหลดไฟล์"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "รับงานแล้ว",
+            content = @Content(schema = @Schema(implementation = ReportJobResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "คิวเต็ม (ดู Header Retry-After)",
+            content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+        )
+    })
+    public ResponseEntity<ReportJobResponse> submit(@RequestBody ReportJobRequest request) {
+        ReportJobResponse response = reportJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * ดูสถานะงาน
+     * 
+     * @param jobId Job ID
+     * @return ReportJobResponse
+     */
+    @GetMapping("/{jobId}")
+    @Operation(summary = "ดูสถานะงานสร้างรายงาน", description = "ดูสถานะและจำนวนแถวที่เขียนแล้ว")
+    public ResponseEntity<ReportJobResponse> getJob(
+            @Parameter(description = "Job ID") @PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    /**
+     * ดาวน์โหลดไฟล์รายงาน
+     * 
+     * ใช้ sendfile ของ Tomcat ถ้ารองรับ (Kernel ส่งจากไฟล์ไป Socket โดยตรง ไม่ผ่าน Heap)
+     * ไม่เช่นนั้นคัดลอกผ่าน OutputStream ของ Servlet ซึ่งไม่ใช่ Zero-copy:
+     * ปลายทางไม่ใช่ Socket Channel transferTo จึงอ่านไฟล์เข้า Buffer แล้วเขียนต่อ
+     * (เกิดเมื่อ Connector ไม่รองรับหรือปิด sendfile)
+     * 
+     * @param jobId Job ID
+     */
+    @GetMapping("/{jobId}/file")
+    @Operation(summary = "ดาวน์โหลดไฟล์รายงาน", description = "ดาวน์โหลดไฟล์ของงานที่ COMPLETED แล้ว")
+    public void download(
+            @Parameter(description = "Job ID") @PathVariable String jobId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        Path file = reportJobService.getFile(jobId);
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(size);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + reportJobService.fileName(jobId) + "\"");
+            
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+            
+            // คัดลอกผ่าน Buffer (ไม่ใช่ Zero-copy)
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
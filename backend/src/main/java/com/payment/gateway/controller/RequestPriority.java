@@ -0,0 +1,32 @@
+package com.payment.gateway.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * RequestPriority - ลำดับความสำคัญของ Endpoint เมื่อระบบรับโหลดเกิน
+ *
+ * Endpoint ที่ไม่ระบุถือเป็น NORMAL
+ * เมื่อจำนวน Request ที่กำลังทำใกล้ถึง Limit ระดับ LOW จะถูกปฏิเสธก่อน ตามด้วย NORMAL
+ * ส่วน CRITICAL ใช้ได้เต็ม Limit (ดู LoadSheddingInterceptor)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestPriority {
+
+    Level value();
+
+    /**
+     * ระดับความสำคัญ
+     */
+    enum Level {
+        /** สร้าง/Complete/Cancel/Refund Payment และ Webhook จาก Gateway */
+        CRITICAL,
+        /** อ่านข้อมูลตาม Key */
+        NORMAL,
+        /** List/Search, สถิติ, Export และงาน Bulk */
+        LOW
+    }
+}
@@ -0,0 +1,70 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.SettlementBatchResponse;
+import com.payment.gateway.dto.SettlementRunResult;
+import com.payment.gateway.service.SettlementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SettlementController - REST Controller สำหรับ Settlement รายวัน
+ * 
+ * Endpoints:
+ * - POST /api/v1/settlements/run - คำนวณ Settlement ของวันที่กำหนด (รันซ้ำได้)
+ * - GET /api/v1/settlements - ดู Settlement Batch ของวันที่กำหนด
+ */
+@RestController
+@RequestMapping("/api/v1/settlements")
+@CrossOrigin(origins = "*")
+@Tag(name = "Settlements", description = "💰 ยอดชำระคืนให้ Merchant รายวัน")
+public class SettlementController {
+
+    private final SettlementService settlementService;
+
+    public SettlementController(SettlementService settlementService) {
+        this.settlementService = settlementService;
+    }
+
+    /**
+     * คำนวณ Settlement
+     * 
+     * @param date วันที่ที่ผ่านไปแล้ว (default: เมื่อวาน)
+     * @return สรุปผล
+     */
+    @PostMapping("/run")
+    @Operation(
+        summary = "คำนวณ Settlement",
+        description = "คำนวณยอด gross/refund/net แยกตาม Merchant, PaymentMethod และสกุลเงิน " +
+                      "Merchant ที่มี Batch ของวันนั้นแล้วจะถูกข้าม วันนี้หรือวันในอนาคตตอบ 400"
+    )
+    public ResponseEntity<SettlementRunResult> run(
+            @Parameter(description = "วันที่ (YYYY-MM-DD) ค่าเริ่มต้นคือเมื่อวาน")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate settlementDate = date != null ? date : LocalDate.now().minusDays(1);
+        return ResponseEntity.ok(settlementService.settle(settlementDate));
+    }
+
+    /**
+     * ดู Settlement Batch
+     * 
+     * @param date วันที่
+     * @param merchantId Merchant ID (optional)
+     * @return รายการ SettlementBatchResponse
+     */
+    @GetMapping
+    @Operation(summary = "ดู Settlement Batch", description = "ดู Batch ของวันที่กำหนด พร้อมยอดแยกตามวิธีชำระเงิน")
+    public ResponseEntity<List<SettlementBatchResponse>> getBatches(
+            @Parameter(description = "วันที่ (YYYY-MM-DD)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Parameter(description = "กรองตาม Merchant ID")
+            @RequestParam(required = false) Long merchantId) {
+        return ResponseEntity.ok(settlementService.getBatches(date, merchantId));
+    }
+}
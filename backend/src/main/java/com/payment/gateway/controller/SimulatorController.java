@@ -0,0 +1,59 @@
+package com.payment.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.SimulationReport;
+import com.payment.gateway.dto.SimulationRequest;
+import com.payment.gateway.security.HmacSignatureService;
+import com.payment.gateway.simulator.GatewaySimulator;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * SimulatorController - รัน GatewaySimulator กับ Gateway ตัวเอง (Load Test บนเครื่อง)
+ * 
+ * Endpoints:
+ * - POST /api/v1/simulator/runs - รันการจำลองและคืนผล Throughput/Latency
+ * 
+ * เปิดใช้เฉพาะเมื่อ payment.simulator.enabled=true (ห้ามเปิดใน Production)
+ */
+@RestController
+@RequestMapping("/api/v1/simulator")
+@ConditionalOnProperty(name = "payment.simulator.enabled", havingValue = "true")
+public class SimulatorController {
+
+    private final ObjectMapper objectMapper;
+    private final HmacSignatureService hmacSignatureService;
+
+    @Value("${payment.simulator.target-url:http://localhost:${server.port:8080}}")
+    private String targetUrl;
+
+    @Value("${payment.webhook.secret}")
+    private String webhookSecret;
+
+    public SimulatorController(ObjectMapper objectMapper, HmacSignatureService hmacSignatureService) {
+        this.objectMapper = objectMapper;
+        this.hmacSignatureService = hmacSignatureService;
+    }
+
+    /**
+     * รันการจำลองหนึ่งรอบ
+     * 
+     * @param request การตั้งค่าการจำลอง
+     * @param apiKey API Key ของ Merchant ที่ใช้สร้าง Payment
+     * @return SimulationReport
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<SimulationReport> run(
+            @Valid @RequestBody SimulationRequest request,
+            @RequestHeader(value = "X-API-Key", defaultValue = "pk_live_demo_key_for_testing") String apiKey)
+            throws InterruptedException {
+        
+        try (GatewaySimulator simulator = new GatewaySimulator(
+                targetUrl, apiKey, webhookSecret, objectMapper, hmacSignatureService)) {
+            return ResponseEntity.ok(simulator.run(request));
+        }
+    }
+}
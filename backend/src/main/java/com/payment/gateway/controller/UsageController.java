@@ -0,0 +1,58 @@
+package com.payment.gateway.controller;
+
+import com.payment.gateway.dto.UsageGranularity;
+import com.payment.gateway.dto.UsageResponse;
+import com.payment.gateway.service.UsageMeteringService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * UsageController - REST Controller สำหรับดูการใช้งานของ Merchant (Billing)
+ *
+ * Endpoints:
+ * - GET /api/v1/usage/merchants/{merchantId} - จำนวนการใช้งานตามช่วงเวลา
+ */
+@RestController
+@RequestMapping("/api/v1/usage")
+@CrossOrigin(origins = "*")
+@Tag(name = "Usage", description = "📈 การใช้งานของ Merchant สำหรับคิดค่าบริการ")
+public class UsageController {
+
+    private final UsageMeteringService usageMeteringService;
+
+    public UsageController(UsageMeteringService usageMeteringService) {
+        this.usageMeteringService = usageMeteringService;
+    }
+
+    /**
+     * ดูการใช้งานของ Merchant
+     *
+     * @param merchantId Merchant ID
+     * @param from เวลาเริ่มต้น
+     * @param to เวลาสิ้นสุด (ไม่รวม)
+     * @param granularity HOUR หรือ DAY
+     * @return รายการ UsageResponse เรียงตามเวลา
+     */
+    @GetMapping("/merchants/{merchantId}")
+    @Operation(
+        summary = "ดูการใช้งานของ Merchant",
+        description = "จำนวนครั้งแยกตามประเภทและช่วงเวลา (ยอดล่าสุดอาจช้ากว่าจริงไม่เกินรอบ Flush)"
+    )
+    public ResponseEntity<List<UsageResponse>> getUsage(
+            @Parameter(description = "Merchant ID") @PathVariable Long merchantId,
+            @Parameter(description = "เวลาเริ่มต้น (ISO-8601)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "เวลาสิ้นสุด ไม่รวม (ISO-8601)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "ความละเอียด: HOUR, DAY")
+            @RequestParam(defaultValue = "HOUR") UsageGranularity granularity) {
+        return ResponseEntity.ok(usageMeteringService.getUsage(merchantId, from, to, granularity));
+    }
+}
@@ -1,9 +1,12 @@
 package com.payment.gateway.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.WebhookDestinationStats;
 import com.payment.gateway.dto.WebhookPayload;
 import com.payment.gateway.security.HmacSignatureService;
+import com.payment.gateway.security.SignedPayload;
 import com.payment.gateway.service.PaymentService;
+import com.payment.gateway.service.WebhookDestinationRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Validator;
 import jakarta.validation.ConstraintViolation;
@@ -14,7 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -23,6 +26,7 @@ import java.util.Set;
  * 
  * Endpoints:
  * - POST /api/v1/webhooks/payment - รับ Webhook จาก Payment Gateway
+ * - GET /api/v1/webhooks/outbound/destinations - สถานะการส่ง Webhook ไปยัง Merchant
  * 
  * Security:
  * - ตรวจสอบ HMAC-SHA256 Signature ใน Header
@@ -37,16 +41,19 @@ public class WebhookController {
     private final HmacSignatureService hmacSignatureService;
     private final ObjectMapper objectMapper;
     private final Validator validator;
+    private final WebhookDestinationRegistry destinationRegistry;
 
     public WebhookController(
             PaymentService paymentService, 
             HmacSignatureService hmacSignatureService,
             ObjectMapper objectMapper,
-            Validator validator) {
+            Validator validator,
+            WebhookDestinationRegistry destinationRegistry) {
         this.paymentService = paymentService;
         this.hmacSignatureService = hmacSignatureService;
         this.objectMapper = objectMapper;
         this.validator = validator;
+        this.destinationRegistry = destinationRegistry;
     }
 
     /**
@@ -56,24 +63,26 @@ public class WebhookController {
      * - X-Webhook-Signature: sha256=<signature>
      * 
      * วิธีแก้ปัญหา @RequestBody 2 ตัว:
-     * - อ่าน raw body จาก HttpServletRequest
-     * - แปลงเป็น Object ด้วย ObjectMapper
+     * - อ่าน raw body จาก HttpServletRequest เป็น byte[] พร้อมคำนวณ HMAC
+     * - แปลงเป็น Object ด้วย ObjectMapper จาก byte[] เดียวกัน
      * - Validate ด้วย Validator
      * 
      * @param request HttpServletRequest
      * @param signature Signature จาก Header
      * @return Response
      */
+    @RequestPriority(RequestPriority.Level.CRITICAL)
     @PostMapping("/payment")
     public ResponseEntity<Map<String, Object>> handlePaymentWebhook(
             HttpServletRequest request,
             @RequestHeader(value = "X-Webhook-Signature", required = false) String signature) throws IOException {
         
-        // 1. อ่าน raw body (สำหรับตรวจ signature)
-        String rawBody = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        // 1. อ่าน raw body ครั้งเดียว พร้อมคำนวณ HMAC ระหว่างอ่าน
+        SignedPayload rawBody = hmacSignatureService.readAndSign(
+            request.getInputStream(), request.getContentLength());
         
-        // 2. แปลง JSON เป็น Object
-        WebhookPayload payload = objectMapper.readValue(rawBody, WebhookPayload.class);
+        // 2. แปลง JSON เป็น Object จาก Buffer เดียวกัน (ไม่แปลงเป็น String)
+        WebhookPayload payload = objectMapper.readValue(rawBody.body(), 0, rawBody.length(), WebhookPayload.class);
         
         // 3. Validate payload
         Set<ConstraintViolation<WebhookPayload>> violations = validator.validate(payload);
@@ -124,4 +133,15 @@ public class WebhookController {
             "body", body
         ));
     }
+
+    /**
+     * สถานะการส่ง Webhook ขาออกแยกตาม Merchant
+     * (Backlog, Latency, Circuit Breaker, Timeout ปัจจุบัน)
+     * 
+     * @return รายการ WebhookDestinationStats
+     */
+    @GetMapping("/outbound/destinations")
+    public ResponseEntity<List<WebhookDestinationStats>> getOutboundDestinations() {
+        return ResponseEntity.ok(destinationRegistry.stats());
+    }
 }
@@ -0,0 +1,32 @@
+package com.payment.gateway.dto;
+
+/**
+ * AnalyticsDimension - มิติที่ใช้จัดกลุ่มใน Analytics ของ Payment
+ */
+public enum AnalyticsDimension {
+    
+    /**
+     * สถานะ Payment
+     */
+    STATUS,
+    
+    /**
+     * วิธีชำระเงิน
+     */
+    PAYMENT_METHOD,
+    
+    /**
+     * สกุลเงิน
+     */
+    CURRENCY,
+    
+    /**
+     * Merchant
+     */
+    MERCHANT,
+    
+    /**
+     * ชั่วโมงที่สร้าง Payment
+     */
+    HOUR
+}
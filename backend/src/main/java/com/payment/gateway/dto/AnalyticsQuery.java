@@ -0,0 +1,50 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.entity.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * AnalyticsQuery - เงื่อนไขและการจัดกลุ่มของ Analytics Query
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO (Set ว่าง = ไม่กรองมิตินั้น)
+ */
+public record AnalyticsQuery(
+    
+    /**
+     * สถานะที่ต้องการ
+     */
+    Set<PaymentStatus> statuses,
+    
+    /**
+     * วิธีชำระเงินที่ต้องการ
+     */
+    Set<PaymentMethod> paymentMethods,
+    
+    /**
+     * สกุลเงินที่ต้องการ
+     */
+    Set<String> currencies,
+    
+    /**
+     * Merchant ID (null = ทุก Merchant)
+     */
+    Long merchantId,
+    
+    /**
+     * สร้างตั้งแต่ (รวม, null = ไม่จำกัด)
+     */
+    LocalDateTime from,
+    
+    /**
+     * สร้างก่อน (ไม่รวม, null = ไม่จำกัด)
+     */
+    LocalDateTime to,
+    
+    /**
+     * มิติที่ใช้จัดกลุ่ม (ว่าง = รวมเป็นกลุ่มเดียว)
+     */
+    Set<AnalyticsDimension> groupBy
+) {}
@@ -0,0 +1,26 @@
+package com.payment.gateway.dto;
+
+import java.util.List;
+
+/**
+ * AnalyticsResponse - ผลของ Analytics Query
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record AnalyticsResponse(
+    
+    /**
+     * จำนวนแถวที่สแกน
+     */
+    long scannedRows,
+    
+    /**
+     * เวลาที่ใช้ (Microseconds)
+     */
+    long tookMicros,
+    
+    /**
+     * ผลแต่ละกลุ่ม
+     */
+    List<AnalyticsRow> groups
+) {}
@@ -0,0 +1,50 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * AnalyticsRow - ผลรวมของหนึ่งกลุ่ม
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO (มิติที่ไม่ได้จัดกลุ่มเป็น null)
+ */
+public record AnalyticsRow(
+    
+    /**
+     * สถานะ
+     */
+    PaymentStatus status,
+    
+    /**
+     * วิธีชำระเงิน
+     */
+    PaymentMethod paymentMethod,
+    
+    /**
+     * สกุลเงิน
+     */
+    String currency,
+    
+    /**
+     * Merchant ID
+     */
+    Long merchantId,
+    
+    /**
+     * ต้นชั่วโมงที่สร้าง
+     */
+    LocalDateTime hour,
+    
+    /**
+     * จำนวน Payment
+     */
+    long count,
+    
+    /**
+     * ยอดรวม (ถ้าไม่จัดกลุ่มตาม CURRENCY อาจรวมหลายสกุลเงิน)
+     */
+    BigDecimal totalAmount
+) {}
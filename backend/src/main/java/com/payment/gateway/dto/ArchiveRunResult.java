@@ -0,0 +1,36 @@
+package com.payment.gateway.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * ArchiveRunResult - สรุปผลการย้าย Payment ไป Cold Storage หนึ่งรอบ
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record ArchiveRunResult(
+    
+    /**
+     * ย้ายเฉพาะ Payment ที่อัพเดทล่าสุดก่อนเวลานี้
+     */
+    LocalDateTime cutoff,
+    
+    /**
+     * จำนวน Batch ที่ทำ
+     */
+    int batches,
+    
+    /**
+     * จำนวน Payment ที่ย้าย
+     */
+    long paymentsArchived,
+    
+    /**
+     * จำนวน Transaction ที่ย้าย
+     */
+    long transactionsArchived,
+    
+    /**
+     * เวลาที่ใช้ (ms)
+     */
+    long durationMs
+) {}
@@ -0,0 +1,31 @@
+package com.payment.gateway.dto;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * BatchStatusRequest - DTO สำหรับถามสถานะ Payment หลายรายการในครั้งเดียว
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ * ระบุได้ทั้ง Reference ID และ Order ID (Order ID ค้นหาเฉพาะของ Merchant ที่เรียก)
+ */
+public record BatchStatusRequest(
+    
+    /**
+     * รายการ Reference ID
+     */
+    @Size(max = 5000, message = "At most 5000 reference IDs per request")
+    List<String> referenceIds,
+    
+    /**
+     * รายการ Order ID ของ Merchant
+     */
+    @Size(max = 5000, message = "At most 5000 order IDs per request")
+    List<String> orderIds
+) {
+    public BatchStatusRequest {
+        referenceIds = referenceIds == null ? List.of() : referenceIds;
+        orderIds = orderIds == null ? List.of() : orderIds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.payment.gateway.dto;
+
+import java.util.List;
+
+/**
+ * BatchStatusResponse - ผลลัพธ์ของ Batch Status
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record BatchStatusResponse(
+    
+    /**
+     * Payment ที่พบ
+     */
+    List<PaymentStatusItem> payments,
+    
+    /**
+     * Reference ID ที่ไม่พบ
+     */
+    List<String> missingReferenceIds,
+    
+    /**
+     * Order ID ที่ไม่พบ
+     */
+    List<String> missingOrderIds
+) {}
@@ -0,0 +1,52 @@
+package com.payment.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.payment.gateway.entity.PaymentStatus;
+
+/**
+ * BulkItemResult - ผลลัพธ์ของแต่ละแถวใน Bulk Refund/Cancel
+ * 
+ * ถูกส่งกลับเป็น NDJSON ทีละบรรทัดทันทีที่แต่ละ Chunk ทำเสร็จ
+ * (ลำดับอาจไม่ตรงกับไฟล์ ให้ใช้ line อ้างอิง)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(
+    
+    /**
+     * เลขบรรทัดในไฟล์ที่ส่งมา
+     */
+    long line,
+    
+    /**
+     * Payment Reference ID (null ถ้า Parse แถวไม่ได้)
+     */
+    String referenceId,
+    
+    /**
+     * สำเร็จหรือไม่
+     */
+    boolean success,
+    
+    /**
+     * สถานะของ Payment หลังทำรายการ
+     */
+    PaymentStatus status,
+    
+    /**
+     * รหัสข้อผิดพลาด (กรณีไม่สำเร็จ)
+     */
+    String errorCode,
+    
+    /**
+     * ข้อความข้อผิดพลาด (กรณีไม่สำเร็จ)
+     */
+    String message
+) {
+    public static BulkItemResult success(long line, PaymentResponse payment) {
+        return new BulkItemResult(line, payment.referenceId(), true, payment.status(), null, null);
+    }
+
+    public static BulkItemResult failure(long line, String referenceId, String errorCode, String message) {
+        return new BulkItemResult(line, referenceId, false, null, errorCode, message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.payment.gateway.dto;
+
+/**
+ * BulkRow - หนึ่งแถวจากไฟล์ Bulk (CSV/NDJSON) พร้อมเลขบรรทัด
+ * 
+ * @param line เลขบรรทัดในไฟล์ (เริ่มที่ 1 รวม Header)
+ * @param request ข้อมูลที่ Parse แล้ว
+ */
+public record BulkRow<T>(long line, T request) {}
@@ -0,0 +1,30 @@
+package com.payment.gateway.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * CancelRequest - DTO สำหรับขอยกเลิก Payment (ใช้ใน Bulk Cancel)
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record CancelRequest(
+    
+    /**
+     * Payment Reference ID ที่ต้องการยกเลิก
+     */
+    @NotBlank(message = "Reference ID is required")
+    String referenceId,
+    
+    /**
+     * เหตุผลในการยกเลิก
+     */
+    @Size(max = 500, message = "Reason must not exceed 500 characters")
+    String reason
+) {
+    public CancelRequest {
+        if (reason == null || reason.isBlank()) {
+            reason = "Cancelled by bulk request";
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.payment.gateway.dto;
+
+/**
+ * ExportFormat - รูปแบบไฟล์สำหรับ Export ข้อมูล Payment
+ */
+public enum ExportFormat {
+    
+    /**
+     * Newline-Delimited JSON (หนึ่ง Object ต่อบรรทัด)
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    
+    /**
+     * CSV พร้อม Header
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,44 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.LedgerAccount;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * LedgerBalanceResponse - DTO สำหรับแสดงยอดคงเหลือของบัญชี
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record LedgerBalanceResponse(
+    
+    /**
+     * Merchant ID
+     */
+    Long merchantId,
+    
+    /**
+     * บัญชี (MERCHANT_PAYABLE = ยอดที่ใช้ได้ของ Merchant)
+     */
+    LedgerAccount account,
+    
+    /**
+     * สกุลเงิน
+     */
+    String currency,
+    
+    /**
+     * ยอดคงเหลือ (Credit - Debit)
+     */
+    BigDecimal balance,
+    
+    /**
+     * จำนวนรายการที่รวมแล้ว
+     */
+    Long entryCount,
+    
+    /**
+     * วันที่อัพเดทล่าสุด
+     */
+    LocalDateTime updatedAt
+) {}
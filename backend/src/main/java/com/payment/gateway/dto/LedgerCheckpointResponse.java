@@ -0,0 +1,44 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.LedgerAccount;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * LedgerCheckpointResponse - DTO สำหรับแสดง Checkpoint ของยอดคงเหลือ
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record LedgerCheckpointResponse(
+    
+    /**
+     * รหัสรอบของ Checkpoint
+     */
+    String checkpointId,
+    
+    /**
+     * บัญชี
+     */
+    LedgerAccount account,
+    
+    /**
+     * สกุลเงิน
+     */
+    String currency,
+    
+    /**
+     * ยอดคงเหลือ ณ เวลาที่สร้าง
+     */
+    BigDecimal balance,
+    
+    /**
+     * จำนวนรายการ ณ เวลาที่สร้าง
+     */
+    Long entryCount,
+    
+    /**
+     * วันที่สร้าง
+     */
+    LocalDateTime createdAt
+) {}
@@ -0,0 +1,60 @@
+package com.payment.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.payment.gateway.entity.LedgerAccount;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * LedgerVerificationResult - ผลการตรวจสอบยอดคงเหลือเทียบกับรายการบัญชี
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record LedgerVerificationResult(
+    
+    /**
+     * จำนวน Merchant ที่ตรวจ
+     */
+    int merchants,
+    
+    /**
+     * จำนวนบัญชี (Merchant + Account + สกุลเงิน) ที่ตรวจ
+     */
+    int accounts,
+    
+    /**
+     * true ถ้าไม่พบความผิดปกติ
+     */
+    boolean consistent,
+    
+    /**
+     * จำนวน Thread ที่ใช้ตรวจ
+     */
+    int parallelism,
+    
+    /**
+     * เวลาที่ใช้ (ms)
+     */
+    long durationMs,
+    
+    /**
+     * รายการที่ไม่ตรง
+     */
+    List<Mismatch> mismatches
+) {
+    /**
+     * Mismatch - บัญชีที่ยอดไม่ตรง
+     * account เป็น null เมื่อผลรวมทุกบัญชีของสกุลเงินนั้นไม่เป็น 0
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Mismatch(
+        Long merchantId,
+        LedgerAccount account,
+        String currency,
+        BigDecimal expectedBalance,
+        BigDecimal recordedBalance,
+        Long expectedEntries,
+        Long recordedEntries
+    ) {}
+}
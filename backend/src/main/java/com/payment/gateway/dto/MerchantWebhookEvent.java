@@ -0,0 +1,59 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * MerchantWebhookEvent - DTO สำหรับ Payload ที่ส่งไปยัง Webhook ของ Merchant
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record MerchantWebhookEvent(
+    
+    /**
+     * Event ID (ใช้ตรวจ Event ซ้ำฝั่ง Merchant)
+     */
+    String eventId,
+    
+    /**
+     * Event Type (payment.completed, payment.refunded, etc.)
+     */
+    String eventType,
+    
+    /**
+     * Payment Reference ID
+     */
+    String referenceId,
+    
+    /**
+     * Order ID ของร้านค้า
+     */
+    String orderId,
+    
+    /**
+     * สถานะ Payment ณ เวลาที่เกิด Event
+     */
+    PaymentStatus status,
+    
+    /**
+     * จำนวนเงิน
+     */
+    BigDecimal amount,
+    
+    /**
+     * สกุลเงิน
+     */
+    String currency,
+    
+    /**
+     * เหตุผลกรณีล้มเหลว/ยกเลิก
+     */
+    String failureReason,
+    
+    /**
+     * เวลาที่เกิด Event
+     */
+    LocalDateTime occurredAt
+) {}
@@ -1,5 +1,6 @@
 package com.payment.gateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.payment.gateway.entity.PaymentMethod;
 import com.payment.gateway.entity.PaymentStatus;
 
@@ -86,7 +87,13 @@ public record PaymentResponse(
     /**
      * URL สำหรับชำระเงิน
      */
-    String paymentUrl
+    String paymentUrl,
+    
+    /**
+     * Merchant เจ้าของ Payment (ใช้ตรวจสิทธิ์เมื่ออ่านจาก Cache ไม่ส่งออกใน JSON)
+     */
+    @JsonIgnore
+    Long merchantId
 ) {
     /**
      * Customer Info - ข้อมูลลูกค้า
@@ -0,0 +1,62 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * PaymentStatusItem - สถานะ Payment แบบย่อ (ใช้ใน Batch Status)
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ * ถูกสร้างตรงจาก JPQL (SELECT new ...) โดยไม่โหลด Entity
+ */
+public record PaymentStatusItem(
+    
+    /**
+     * Reference ID
+     */
+    String referenceId,
+    
+    /**
+     * Order ID
+     */
+    String orderId,
+    
+    /**
+     * สถานะ
+     */
+    PaymentStatus status,
+    
+    /**
+     * จำนวนเงิน
+     */
+    BigDecimal amount,
+    
+    /**
+     * สกุลเงิน
+     */
+    String currency,
+    
+    /**
+     * วันที่ชำระเงินสำเร็จ
+     */
+    LocalDateTime paidAt,
+    
+    /**
+     * วันที่อัพเดทล่าสุด
+     */
+    LocalDateTime updatedAt
+) {
+    public static PaymentStatusItem from(PaymentResponse payment) {
+        return new PaymentStatusItem(
+            payment.referenceId(),
+            payment.orderId(),
+            payment.status(),
+            payment.amount(),
+            payment.currency(),
+            payment.paidAt(),
+            payment.updatedAt()
+        );
+    }
+}
@@ -0,0 +1,93 @@
+package com.payment.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ReconciliationReport - ผลการกระทบยอดไฟล์ Settlement ของ Gateway กับ Transaction ในระบบ
+ *
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record ReconciliationReport(
+
+    /**
+     * วันที่ของ Transaction ที่นำมากระทบยอด
+     */
+    LocalDate date,
+
+    /**
+     * จำนวนแถวข้อมูลในไฟล์ (ไม่รวม Header)
+     */
+    long fileRows,
+
+    /**
+     * จำนวน Transaction ในระบบที่มี gatewayReference ของวันนั้น
+     */
+    long transactions,
+
+    /**
+     * จำนวนที่ตรงกันทั้ง Reference และจำนวนเงิน
+     */
+    long matched,
+
+    /**
+     * จำนวนที่ Reference ตรงแต่จำนวนเงินไม่ตรง
+     */
+    long amountMismatched,
+
+    /**
+     * จำนวนแถวในไฟล์ที่ไม่พบในระบบ
+     */
+    long missingInSystem,
+
+    /**
+     * จำนวน Transaction ในระบบที่ไม่พบในไฟล์
+     */
+    long missingInFile,
+
+    /**
+     * จำนวนแถวที่ Reference ซ้ำกับแถวก่อนหน้าในไฟล์
+     */
+    long duplicateInFile,
+
+    /**
+     * จำนวนแถวที่อ่านไม่ได้ (ไม่มี Reference หรือจำนวนเงินผิดรูปแบบ)
+     */
+    long invalidRows,
+
+    /**
+     * เวลาที่ใช้ (ms)
+     */
+    long durationMs,
+
+    /**
+     * ตัวอย่างรายการที่ไม่ตรง (จำกัดจำนวนตาม payment.reconciliation.max-discrepancies)
+     */
+    List<Discrepancy> discrepancies
+) {
+    /**
+     * ประเภทของรายการที่ไม่ตรง
+     */
+    public enum DiscrepancyType {
+        AMOUNT_MISMATCH,
+        MISSING_IN_SYSTEM,
+        MISSING_IN_FILE,
+        DUPLICATE_IN_FILE,
+        INVALID_ROW
+    }
+
+    /**
+     * Discrepancy - รายการที่ไม่ตรงหนึ่งรายการ
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Discrepancy(
+        DiscrepancyType type,
+        String gatewayReference,
+        BigDecimal fileAmount,
+        BigDecimal systemAmount,
+        Long line
+    ) {}
+}
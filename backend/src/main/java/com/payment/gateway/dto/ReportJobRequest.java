@@ -0,0 +1,53 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * ReportJobRequest - DTO สำหรับสั่งสร้างรายงาน Payment
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ * เงื่อนไขเดียวกับ PaymentRepository.findByFilters (ทุกเงื่อนไขเป็น Optional)
+ */
+public record ReportJobRequest(
+    
+    /**
+     * รูปแบบไฟล์ (default: CSV)
+     */
+    ExportFormat format,
+    
+    /**
+     * บีบอัดด้วย GZIP (default: true)
+     */
+    Boolean gzip,
+    
+    /**
+     * กรองตาม Merchant ID
+     */
+    Long merchantId,
+    
+    /**
+     * กรองตามสถานะ
+     */
+    PaymentStatus status,
+    
+    /**
+     * วันที่สร้างเริ่มต้น
+     */
+    LocalDateTime startDate,
+    
+    /**
+     * วันที่สร้างสิ้นสุด
+     */
+    LocalDateTime endDate
+) {
+    public ReportJobRequest {
+        if (format == null) {
+            format = ExportFormat.CSV;
+        }
+        if (gzip == null) {
+            gzip = true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.payment.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.payment.gateway.entity.ReportJobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * ReportJobResponse - DTO สำหรับสถานะงานสร้างรายงาน
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReportJobResponse(
+    
+    /**
+     * Job ID
+     */
+    String jobId,
+    
+    /**
+     * สถานะของงาน
+     */
+    ReportJobStatus status,
+    
+    /**
+     * รูปแบบไฟล์
+     */
+    ExportFormat format,
+    
+    /**
+     * บีบอัดด้วย GZIP หรือไม่
+     */
+    boolean gzip,
+    
+    /**
+     * จำนวนแถวที่เขียนแล้ว
+     */
+    long rowsWritten,
+    
+    /**
+     * ขนาดไฟล์ (Bytes) เมื่อเสร็จ
+     */
+    Long fileSize,
+    
+    /**
+     * ข้อความ Error (กรณี FAILED)
+     */
+    String error,
+    
+    /**
+     * วันที่สร้าง
+     */
+    LocalDateTime createdAt,
+    
+    /**
+     * วันที่เริ่มทำงาน
+     */
+    LocalDateTime startedAt,
+    
+    /**
+     * วันที่เสร็จ
+     */
+    LocalDateTime completedAt,
+    
+    /**
+     * URL สำหรับดาวน์โหลด (เมื่อ COMPLETED)
+     */
+    String downloadUrl
+) {}
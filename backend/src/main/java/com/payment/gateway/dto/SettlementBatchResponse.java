@@ -0,0 +1,60 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * SettlementBatchResponse - DTO สำหรับแสดง Settlement Batch
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record SettlementBatchResponse(
+    
+    /**
+     * Batch ID
+     */
+    String batchId,
+    
+    /**
+     * Merchant ID
+     */
+    Long merchantId,
+    
+    /**
+     * วันที่ของรายการ
+     */
+    LocalDate settlementDate,
+    
+    /**
+     * จำนวน Transaction
+     */
+    Long transactionCount,
+    
+    /**
+     * วันที่สร้าง
+     */
+    LocalDateTime createdAt,
+    
+    /**
+     * ยอดแยกตามวิธีชำระเงินและสกุลเงิน
+     */
+    List<Line> lines
+) {
+    /**
+     * Line - ยอดของหนึ่ง PaymentMethod + สกุลเงิน
+     */
+    public record Line(
+        PaymentMethod paymentMethod,
+        String currency,
+        long captureCount,
+        BigDecimal grossAmount,
+        long refundCount,
+        BigDecimal refundAmount,
+        long voidCount,
+        BigDecimal netAmount
+    ) {}
+}
@@ -0,0 +1,46 @@
+package com.payment.gateway.dto;
+
+import java.time.LocalDate;
+
+/**
+ * SettlementRunResult - สรุปผลการรัน Settlement ของหนึ่งวัน
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record SettlementRunResult(
+    
+    /**
+     * วันที่ที่คำนวณ
+     */
+    LocalDate settlementDate,
+    
+    /**
+     * จำนวน Merchant ที่มีรายการในวันนั้น
+     */
+    int merchants,
+    
+    /**
+     * จำนวน Batch ที่สร้างใหม่
+     */
+    int batchesCreated,
+    
+    /**
+     * จำนวน Batch ที่มีอยู่แล้ว (ข้าม)
+     */
+    int batchesSkipped,
+    
+    /**
+     * จำนวน Transaction ที่นำมาคำนวณ
+     */
+    long transactions,
+    
+    /**
+     * จำนวน Thread ที่ใช้คำนวณ
+     */
+    int parallelism,
+    
+    /**
+     * เวลาที่ใช้ (ms)
+     */
+    long durationMs
+) {}
@@ -0,0 +1,71 @@
+package com.payment.gateway.dto;
+
+import java.util.Map;
+
+/**
+ * SimulationReport - DTO สำหรับผลการจำลอง Payment Gateway
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record SimulationReport(
+    
+    /**
+     * จำนวน Payment ที่สร้างสำเร็จ
+     */
+    int paymentsCreated,
+    
+    /**
+     * จำนวน Payment ที่สร้างไม่สำเร็จ
+     */
+    int paymentCreateErrors,
+    
+    /**
+     * จำนวน Webhook ที่ส่งทั้งหมด (รวม Duplicate)
+     */
+    int webhooksSent,
+    
+    /**
+     * จำนวน Webhook ที่ส่งซ้ำ
+     */
+    int duplicatesSent,
+    
+    /**
+     * จำนวน Webhook ที่ส่งสลับลำดับ
+     */
+    int reorderedSent,
+    
+    /**
+     * จำนวน Response แยกตาม HTTP Status (0 = เชื่อมต่อไม่ได้)
+     */
+    Map<Integer, Integer> responsesByStatus,
+    
+    /**
+     * จำนวน Event แยกตามประเภท
+     */
+    Map<String, Integer> eventsByType,
+    
+    /**
+     * เวลาที่ใช้ในการสร้าง Payment (ms)
+     */
+    long createPhaseMs,
+    
+    /**
+     * เวลาที่ใช้ในการส่ง Webhook (ms)
+     */
+    long webhookPhaseMs,
+    
+    /**
+     * Throughput ของ Webhook ที่ได้รับ 2xx (ครั้ง/วินาที)
+     */
+    double webhookThroughput,
+    
+    /**
+     * Latency ของ Webhook Request (ms) - p50, p95, p99, max
+     */
+    Map<String, Double> webhookLatencyMs,
+    
+    /**
+     * End-to-End Latency ตั้งแต่สร้าง Payment จนถึง Webhook แรกที่สำเร็จ (ms)
+     */
+    Map<String, Double> completionLatencyMs
+) {}
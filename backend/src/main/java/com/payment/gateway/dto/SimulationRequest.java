@@ -0,0 +1,113 @@
+package com.payment.gateway.dto;
+
+import jakarta.validation.constraints.*;
+
+/**
+ * SimulationRequest - DTO สำหรับกำหนดการจำลอง Payment Gateway
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ * ค่าที่ไม่ได้ส่งมาจะใช้ค่า Default
+ */
+public record SimulationRequest(
+    
+    /**
+     * จำนวน Payment ที่จะสร้าง
+     */
+    @Min(value = 1, message = "Payments must be at least 1")
+    @Max(value = 1_000_000, message = "Payments must not exceed 1,000,000")
+    Integer payments,
+    
+    /**
+     * อัตราการส่ง Webhook (ครั้ง/วินาที)
+     */
+    @Min(value = 1, message = "Rate must be at least 1 per second")
+    Integer webhooksPerSecond,
+    
+    /**
+     * จำนวน Request พร้อมกันสูงสุด
+     */
+    @Min(value = 1, message = "Concurrency must be at least 1")
+    @Max(value = 10_000, message = "Concurrency must not exceed 10,000")
+    Integer concurrency,
+    
+    /**
+     * น้ำหนักของ payment.completed
+     */
+    @PositiveOrZero Double completedWeight,
+    
+    /**
+     * น้ำหนักของ payment.failed
+     */
+    @PositiveOrZero Double failedWeight,
+    
+    /**
+     * น้ำหนักของ payment.expired
+     */
+    @PositiveOrZero Double expiredWeight,
+    
+    /**
+     * สัดส่วน Event ที่ส่งซ้ำ (0.0 - 1.0)
+     */
+    @DecimalMin("0.0") @DecimalMax("1.0")
+    Double duplicateRate,
+    
+    /**
+     * สัดส่วน Event ที่ถูกสลับลำดับ (0.0 - 1.0)
+     */
+    @DecimalMin("0.0") @DecimalMax("1.0")
+    Double reorderRate,
+    
+    /**
+     * Delay ขั้นต่ำหลังสร้าง Payment ก่อนส่ง Webhook (ms)
+     */
+    @PositiveOrZero Long minDelayMs,
+    
+    /**
+     * Delay สูงสุดหลังสร้าง Payment ก่อนส่ง Webhook (ms)
+     */
+    @PositiveOrZero Long maxDelayMs,
+    
+    /**
+     * Seed สำหรับ Random (ให้ผลซ้ำได้)
+     */
+    Long seed
+) {
+    /**
+     * Constructor พร้อมค่า Default
+     */
+    public SimulationRequest {
+        if (payments == null) {
+            payments = 100;
+        }
+        if (webhooksPerSecond == null) {
+            webhooksPerSecond = 200;
+        }
+        if (concurrency == null) {
+            concurrency = 64;
+        }
+        if (completedWeight == null) {
+            completedWeight = 0.85;
+        }
+        if (failedWeight == null) {
+            failedWeight = 0.10;
+        }
+        if (expiredWeight == null) {
+            expiredWeight = 0.05;
+        }
+        if (duplicateRate == null) {
+            duplicateRate = 0.02;
+        }
+        if (reorderRate == null) {
+            reorderRate = 0.05;
+        }
+        if (minDelayMs == null) {
+            minDelayMs = 0L;
+        }
+        if (maxDelayMs == null || maxDelayMs < minDelayMs) {
+            maxDelayMs = Math.max(minDelayMs, 500L);
+        }
+        if (seed == null) {
+            seed = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.payment.gateway.dto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * UsageGranularity - ความละเอียดของช่วงเวลาในรายงานการใช้งาน
+ */
+public enum UsageGranularity {
+    
+    /**
+     * รายชั่วโมง (ตามที่บันทึก)
+     */
+    HOUR,
+    
+    /**
+     * รายวัน (รวมทุกชั่วโมงของวัน)
+     */
+    DAY;
+
+    /**
+     * ต้นช่วงของเวลาที่กำหนด
+     * 
+     * @param time เวลา
+     * @return ต้นชั่วโมงหรือต้นวัน
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(this == HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+    }
+}
@@ -0,0 +1,33 @@
+package com.payment.gateway.dto;
+
+import com.payment.gateway.entity.UsageOperation;
+
+import java.time.LocalDateTime;
+
+/**
+ * UsageResponse - DTO สำหรับจำนวนการใช้งานของ Merchant ต่อช่วงเวลา
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record UsageResponse(
+    
+    /**
+     * Merchant ID
+     */
+    Long merchantId,
+    
+    /**
+     * ประเภทการใช้งาน
+     */
+    UsageOperation operation,
+    
+    /**
+     * ต้นช่วงเวลา (ต้นชั่วโมงหรือต้นวัน)
+     */
+    LocalDateTime periodStart,
+    
+    /**
+     * จำนวนครั้ง
+     */
+    long count
+) {}
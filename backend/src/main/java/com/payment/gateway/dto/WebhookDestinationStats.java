@@ -0,0 +1,54 @@
+package com.payment.gateway.dto;
+
+/**
+ * WebhookDestinationStats - DTO สำหรับสถานะการส่ง Webhook ของแต่ละ Merchant
+ * 
+ * ใช้ Java Record สำหรับ Immutable DTO
+ */
+public record WebhookDestinationStats(
+    
+    /**
+     * Merchant ID
+     */
+    Long merchantId,
+    
+    /**
+     * สถานะ Circuit Breaker (CLOSED, OPEN, HALF_OPEN)
+     */
+    String breakerState,
+    
+    /**
+     * จำนวน Request ที่กำลังส่งอยู่
+     */
+    int inFlight,
+    
+    /**
+     * จำนวน Event ที่ค้างอยู่ใน Outbox
+     */
+    long backlog,
+    
+    /**
+     * จำนวนครั้งที่ล้มเหลวติดต่อกัน
+     */
+    int consecutiveFailures,
+    
+    /**
+     * Timeout ปัจจุบัน (Adaptive) หน่วย ms
+     */
+    long timeoutMs,
+    
+    /**
+     * Latency p50 (ms)
+     */
+    double latencyP50Ms,
+    
+    /**
+     * Latency p99 (ms)
+     */
+    double latencyP99Ms,
+    
+    /**
+     * จำนวนครั้งที่ส่งทั้งหมด
+     */
+    long deliveries
+) {}
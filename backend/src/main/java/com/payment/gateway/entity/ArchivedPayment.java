@@ -0,0 +1,90 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ArchivedPayment Entity - Payment ที่ย้ายออกจากตารางหลักแล้ว (Cold Storage)
+ * 
+ * คอลัมน์เหมือนตาราง payments ทุกประการ (ID เดิม) แต่ไม่มี Foreign Key
+ * เก็บเฉพาะ Payment ที่อยู่ในสถานะสุดท้าย จึงอ่านได้อย่างเดียว
+ */
+@Entity
+@Table(name = "payments_archive", indexes = {
+    @Index(name = "idx_archive_payment_reference", columnList = "reference_id", unique = true),
+    @Index(name = "idx_archive_payment_order", columnList = "merchant_id, order_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedPayment {
+
+    @Id
+    private Long id;
+
+    @Column(name = "reference_id", nullable = false, length = 36)
+    private String referenceId;
+
+    @Column(name = "order_id", nullable = false, length = 100)
+    private String orderId;
+
+    @Column(name = "amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal refundedAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private PaymentStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", length = 30)
+    private PaymentMethod paymentMethod;
+
+    @Column(name = "description", length = 500)
+    private String description;
+
+    @Column(name = "customer_name", length = 255)
+    private String customerName;
+
+    @Column(name = "customer_email", length = 255)
+    private String customerEmail;
+
+    @Column(name = "customer_phone", length = 20)
+    private String customerPhone;
+
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+
+    /**
+     * ID ใน payment_metadata (ไม่ได้ย้าย)
+     */
+    @Column(name = "metadata_id")
+    private Long metadataId;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+}
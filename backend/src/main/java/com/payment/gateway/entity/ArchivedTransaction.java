@@ -0,0 +1,71 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ArchivedTransaction Entity - Transaction ของ Payment ที่ย้ายไป Cold Storage แล้ว
+ * 
+ * คอลัมน์เหมือนตาราง transactions ทุกประการ (ID เดิม) แต่ไม่มี Foreign Key
+ */
+@Entity
+@Table(name = "transactions_archive", indexes = {
+    @Index(name = "idx_archive_transaction_payment", columnList = "payment_id"),
+    @Index(name = "idx_archive_transaction_id", columnList = "transaction_id", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTransaction {
+
+    @Id
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false, length = 36)
+    private String transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 20, columnDefinition = "VARCHAR(20)")
+    private TransactionType transactionType;
+
+    @Column(name = "amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private TransactionStatus status;
+
+    @Column(name = "gateway_reference", length = 100)
+    private String gatewayReference;
+
+    @Column(name = "response_code", length = 10)
+    private String responseCode;
+
+    @Column(name = "response_message", length = 500)
+    private String responseMessage;
+
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+
+    @Column(name = "user_agent", length = 500)
+    private String userAgent;
+
+    /**
+     * ID ใน transaction_payloads (ไม่ได้ย้าย)
+     */
+    @Column(name = "payload_id")
+    private Long payloadId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+}
@@ -0,0 +1,104 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * CompressedTextConverter - แปลงข้อความยาว (JSON) เป็น Byte ที่บีบอัดด้วย Deflate
+ * 
+ * รูปแบบที่เก็บ:
+ * - [0x00][UTF-8] ข้อความสั้น หรือบีบอัดแล้วไม่เล็กลง
+ * - [0x01][ความยาวเดิม 4 Byte][Deflate] ข้อความที่บีบอัดแล้ว
+ * 
+ * คลายการบีบอัดอัตโนมัติตอนโหลด Entity
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATE = 1;
+    
+    // ข้อความสั้นกว่านี้เก็บตรง ๆ (บีบอัดแล้วแทบไม่ได้อะไร)
+    private static final int MIN_COMPRESS_BYTES = 256;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length >= MIN_COMPRESS_BYTES) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length + 5 < raw.length) {
+                return ByteBuffer.allocate(compressed.length + 5)
+                    .put(DEFLATE)
+                    .putInt(raw.length)
+                    .put(compressed)
+                    .array();
+            }
+        }
+        byte[] stored = new byte[raw.length + 1];
+        stored[0] = PLAIN;
+        System.arraycopy(raw, 0, stored, 1, raw.length);
+        return stored;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        if (stored == null || stored.length == 0) {
+            return null;
+        }
+        if (stored[0] == PLAIN) {
+            return new String(stored, 1, stored.length - 1, StandardCharsets.UTF_8);
+        }
+        int length = ByteBuffer.wrap(stored, 1, 4).getInt();
+        return new String(inflate(stored, 5, length), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored, int offset, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(stored, offset, stored.length - offset);
+            byte[] raw = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IllegalStateException("Corrupted compressed text: expected " + length + " bytes, got " + read);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.payment.gateway.entity;
+
+/**
+ * Ledger Account Enum - บัญชีในสมุดบัญชีคู่ของแต่ละ Merchant
+ * 
+ * ยอดของทุกบัญชีคิดเป็น Credit - Debit
+ * ผลรวมยอดทุกบัญชีของ Merchant/สกุลเงินเดียวกันต้องเป็น 0 เสมอ
+ */
+public enum LedgerAccount {
+    
+    /**
+     * ยอดที่ต้องจ่ายให้ Merchant (= ยอดคงเหลือที่ใช้ได้ของ Merchant)
+     */
+    MERCHANT_PAYABLE,
+    
+    /**
+     * เงินที่รอรับจาก Payment Gateway (ฝั่งตรงข้ามของ MERCHANT_PAYABLE)
+     */
+    GATEWAY_CLEARING
+}
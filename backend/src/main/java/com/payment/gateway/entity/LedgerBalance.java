@@ -0,0 +1,67 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * LedgerBalance Entity - ยอดคงเหลือปัจจุบันของบัญชี
+ * 
+ * อัพเดทแบบสะสม (balance = balance + ?) ใน Transaction เดียวกับการลง LedgerEntry
+ * จึงอ่านยอดได้ O(1) โดยไม่ต้องรวมรายการย้อนหลัง
+ * Unique: merchant_id + account + currency
+ */
+@Entity
+@Table(name = "ledger_balances",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_ledger_balance", columnNames = {"merchant_id", "account", "currency"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Merchant เจ้าของบัญชี
+     */
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    /**
+     * บัญชี
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account", nullable = false, length = 30)
+    private LedgerAccount account;
+
+    /**
+     * สกุลเงิน
+     */
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    /**
+     * ยอดคงเหลือ (Credit - Debit)
+     */
+    @Column(name = "balance", nullable = false, precision = 16, scale = 2)
+    private BigDecimal balance;
+
+    /**
+     * จำนวนรายการที่รวมแล้ว
+     */
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+
+    /**
+     * วันที่อัพเดทล่าสุด
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,76 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * LedgerCheckpoint Entity - ภาพยอดคงเหลือ ณ เวลาหนึ่ง สำหรับ Audit
+ * 
+ * ถูกสร้างเป็นรอบจาก ledger_balances (ทุกบัญชีในรอบเดียวกันใช้ checkpoint_id เดียวกัน)
+ * ไม่มีการแก้ไขหลังบันทึก
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_checkpoints", indexes = {
+    @Index(name = "idx_checkpoint_merchant", columnList = "merchant_id, created_at"),
+    @Index(name = "idx_checkpoint_id", columnList = "checkpoint_id")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * รหัสรอบของ Checkpoint
+     */
+    @Column(name = "checkpoint_id", nullable = false, updatable = false, length = 36)
+    private String checkpointId;
+
+    /**
+     * Merchant เจ้าของบัญชี
+     */
+    @Column(name = "merchant_id", nullable = false, updatable = false)
+    private Long merchantId;
+
+    /**
+     * บัญชี
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account", nullable = false, updatable = false, length = 30)
+    private LedgerAccount account;
+
+    /**
+     * สกุลเงิน
+     */
+    @Column(name = "currency", nullable = false, updatable = false, length = 3)
+    private String currency;
+
+    /**
+     * ยอดคงเหลือ ณ เวลาที่สร้าง
+     */
+    @Column(name = "balance", nullable = false, updatable = false, precision = 16, scale = 2)
+    private BigDecimal balance;
+
+    /**
+     * จำนวนรายการ ณ เวลาที่สร้าง
+     */
+    @Column(name = "entry_count", nullable = false, updatable = false)
+    private Long entryCount;
+
+    /**
+     * วันที่สร้าง
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
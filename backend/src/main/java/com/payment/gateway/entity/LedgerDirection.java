@@ -0,0 +1,17 @@
+package com.payment.gateway.entity;
+
+/**
+ * Ledger Direction Enum - ด้านของรายการบัญชี
+ */
+public enum LedgerDirection {
+    
+    /**
+     * เดบิต (ลดยอดของบัญชี)
+     */
+    DEBIT,
+    
+    /**
+     * เครดิต (เพิ่มยอดของบัญชี)
+     */
+    CREDIT
+}
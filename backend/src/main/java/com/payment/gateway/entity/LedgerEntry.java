@@ -0,0 +1,90 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * LedgerEntry Entity - รายการบัญชีคู่ (Append-only)
+ * 
+ * ทุก Transaction ที่มีผลต่อยอดเงินจะสร้าง 2 รายการ (Debit + Credit) จำนวนเท่ากัน
+ * รายการที่บันทึกแล้วแก้ไขไม่ได้ การแก้ยอดต้องลงรายการกลับด้านใหม่
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entries", indexes = {
+    @Index(name = "idx_ledger_merchant_account", columnList = "merchant_id, account, currency"),
+    @Index(name = "idx_ledger_transaction", columnList = "transaction_id")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Merchant เจ้าของบัญชี
+     */
+    @Column(name = "merchant_id", nullable = false, updatable = false)
+    private Long merchantId;
+
+    /**
+     * Payment ที่เกี่ยวข้อง
+     */
+    @Column(name = "payment_id", nullable = false, updatable = false)
+    private Long paymentId;
+
+    /**
+     * Transaction ID ที่เป็นที่มาของรายการ
+     */
+    @Column(name = "transaction_id", nullable = false, updatable = false, length = 36)
+    private String transactionId;
+
+    /**
+     * บัญชี
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account", nullable = false, updatable = false, length = 30)
+    private LedgerAccount account;
+
+    /**
+     * ด้าน Debit/Credit
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "direction", nullable = false, updatable = false, length = 10)
+    private LedgerDirection direction;
+
+    /**
+     * จำนวนเงิน (บวกเสมอ)
+     */
+    @Column(name = "amount", nullable = false, updatable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * สกุลเงิน
+     */
+    @Column(name = "currency", nullable = false, updatable = false, length = 3)
+    private String currency;
+
+    /**
+     * วันที่บันทึก
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * ยอดที่มีผลต่อบัญชี (Credit = +, Debit = -)
+     */
+    public BigDecimal signedAmount() {
+        return direction == LedgerDirection.CREDIT ? amount : amount.negate();
+    }
+}
@@ -0,0 +1,60 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * MerchantUsage Entity - จำนวนการใช้งานของ Merchant รายชั่วโมง
+ * 
+ * แถวถูกเพิ่มค่าแบบสะสม (usage_count = usage_count + ?) จากตัวนับในหน่วยความจำของแต่ละ Node
+ * Unique: merchant_id + operation + period_start
+ */
+@Entity
+@Table(name = "merchant_usage",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_merchant_usage", columnNames = {"merchant_id", "operation", "period_start"}),
+    indexes = @Index(name = "idx_merchant_usage_period", columnList = "merchant_id, period_start"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Merchant ที่ใช้งาน
+     */
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    /**
+     * ประเภทการใช้งาน
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 30)
+    private UsageOperation operation;
+
+    /**
+     * ต้นชั่วโมงของช่วงที่นับ
+     */
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    /**
+     * จำนวนครั้ง
+     */
+    @Column(name = "usage_count", nullable = false)
+    private Long usageCount;
+
+    /**
+     * เวลาที่เพิ่มค่าล่าสุด
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
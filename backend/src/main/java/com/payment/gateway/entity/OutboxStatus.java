@@ -0,0 +1,24 @@
+package com.payment.gateway.entity;
+
+/**
+ * Outbox Status Enum - สถานะการส่ง Webhook ไปยัง Merchant
+ * 
+ * กำหนดสถานะของ Event ใน Outbox
+ */
+public enum OutboxStatus {
+    
+    /**
+     * รอส่ง (รวมถึงรอ Retry)
+     */
+    PENDING,
+    
+    /**
+     * ส่งสำเร็จ (Merchant ตอบ 2xx)
+     */
+    DELIVERED,
+    
+    /**
+     * ส่งไม่สำเร็จจนครบจำนวนครั้งที่กำหนด
+     */
+    FAILED
+}
@@ -20,7 +20,9 @@ import java.util.List;
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payment_reference", columnList = "reference_id"),
     @Index(name = "idx_payment_status", columnList = "status"),
-    @Index(name = "idx_payment_created", columnList = "created_at")
+    @Index(name = "idx_payment_created", columnList = "created_at"),
+    // Rescan ของ PaymentAnalyticsStore (updated_at >= ?)
+    @Index(name = "idx_payment_updated", columnList = "updated_at, id")
 })
 @Getter
 @Setter
@@ -59,6 +61,15 @@ public class Payment {
     @Builder.Default
     private String currency = "THB";
 
+    /**
+     * ยอดที่คืนเงินแล้วสะสม
+     * อัพเดทพร้อมกับสถานะทุกครั้งที่ Refund (ไม่ต้อง Sum จาก Transaction)
+     */
+    @Column(name = "refunded_amount", nullable = false, precision = 12, scale = 2,
+            columnDefinition = "DECIMAL(12,2) DEFAULT 0")
+    @Builder.Default
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
     /**
      * สถานะการชำระเงิน
      */
@@ -105,10 +116,12 @@ public class Payment {
     private String failureReason;
 
     /**
-     * Metadata เพิ่มเติม (JSON)
+     * Metadata เพิ่มเติม (JSON) เก็บแยกตารางแบบบีบอัด
+     * โหลดเมื่อเรียกใช้ครั้งแรกเท่านั้น
      */
-    @Column(name = "metadata", columnDefinition = "TEXT")
-    private String metadata;
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "metadata_id")
+    private PaymentMetadata metadata;
 
     /**
      * วันที่ชำระเงินสำเร็จ
@@ -122,6 +135,15 @@ public class Payment {
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
+    /**
+     * Version สำหรับ Optimistic Locking
+     * ทุก UPDATE ผ่าน JPA จะมีเงื่อนไข version = ? กำกับ
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    @Builder.Default
+    private Long version = 0L;
+
     /**
      * วันที่สร้าง
      */
@@ -0,0 +1,38 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * PaymentMetadata Entity - Metadata (JSON) ของ Payment
+ * 
+ * แยกออกจากตาราง payments เพื่อให้แถวของตารางหลักเล็ก
+ * เก็บแบบบีบอัดผ่าน CompressedTextConverter
+ */
+@Entity
+@Table(name = "payment_metadata")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentMetadata {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Metadata (JSON)
+     */
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content", columnDefinition = "MEDIUMBLOB")
+    private String content;
+
+    /**
+     * สร้างจากข้อความ (null ถ้าไม่มี Metadata)
+     */
+    public static PaymentMetadata of(String content) {
+        return content == null || content.isBlank() ? null : PaymentMetadata.builder().content(content).build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * ReplicationHeartbeat Entity - ค่าเวลาที่แต่ละ Node เขียนลง Primary เพื่อวัด Replica Lag
+ *
+ * Node เขียนเวลาปัจจุบันลง Primary แล้วอ่านแถวเดียวกันจาก Replica
+ * ส่วนต่างของเวลาคือความล่าช้าของ Replica (ใช้นาฬิกาของ Node เดียวกันทั้งสองฝั่ง)
+ */
+@Entity
+@Table(name = "replication_heartbeat")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplicationHeartbeat {
+
+    /**
+     * Node ที่เขียน (เดียวกับเจ้าของ Lease)
+     */
+    @Id
+    @Column(name = "node", length = 100)
+    private String node;
+
+    /**
+     * เวลาที่เขียน (Epoch Milliseconds)
+     */
+    @Column(name = "beat_millis", nullable = false)
+    private long beatMillis;
+}
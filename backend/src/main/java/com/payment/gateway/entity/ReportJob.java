@@ -0,0 +1,131 @@
+package com.payment.gateway.entity;
+
+import com.payment.gateway.dto.ExportFormat;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * ReportJob Entity - งานสร้างไฟล์รายงาน Payment แบบ Asynchronous
+ * 
+ * ไฟล์ผลลัพธ์อยู่บน Local Disk ของ Node ที่สร้าง (node, file_path)
+ */
+@Entity
+@Table(name = "report_jobs", indexes = {
+    @Index(name = "idx_report_job_created", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Job ID - รหัสที่ส่งให้ผู้เรียกใช้ติดตามสถานะ
+     */
+    @Column(name = "job_id", nullable = false, unique = true, length = 36)
+    private String jobId;
+
+    /**
+     * สถานะของงาน
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ReportJobStatus status = ReportJobStatus.QUEUED;
+
+    /**
+     * ชื่อเครื่องของ Node ที่รับงาน (ไฟล์อยู่บน Disk ของเครื่องนี้)
+     */
+    @Column(name = "node", length = 255)
+    private String node;
+
+    /**
+     * รูปแบบไฟล์
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 10)
+    private ExportFormat format;
+
+    /**
+     * บีบอัดไฟล์ด้วย GZIP หรือไม่
+     */
+    @Column(name = "gzip", nullable = false)
+    private Boolean gzip;
+
+    /**
+     * เงื่อนไข: Merchant ID
+     */
+    @Column(name = "merchant_id")
+    private Long merchantId;
+
+    /**
+     * เงื่อนไข: สถานะ Payment
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private PaymentStatus paymentStatus;
+
+    /**
+     * เงื่อนไข: วันที่สร้างเริ่มต้น
+     */
+    @Column(name = "start_date")
+    private LocalDateTime startDate;
+
+    /**
+     * เงื่อนไข: วันที่สร้างสิ้นสุด
+     */
+    @Column(name = "end_date")
+    private LocalDateTime endDate;
+
+    /**
+     * จำนวนแถวที่เขียนแล้ว (อัพเดทเป็นระยะระหว่างทำงาน)
+     */
+    @Column(name = "rows_written", nullable = false)
+    @Builder.Default
+    private Long rowsWritten = 0L;
+
+    /**
+     * ขนาดไฟล์ (Bytes) เมื่อเสร็จ
+     */
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    /**
+     * Path ของไฟล์บน Local Disk
+     */
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+
+    /**
+     * ข้อความ Error (กรณี FAILED)
+     */
+    @Column(name = "error", length = 500)
+    private String error;
+
+    /**
+     * วันที่สร้าง
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * วันที่เริ่มทำงาน
+     */
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    /**
+     * วันที่เสร็จ
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,27 @@
+package com.payment.gateway.entity;
+
+/**
+ * ReportJobStatus Enum - สถานะของงานสร้างรายงาน
+ */
+public enum ReportJobStatus {
+    
+    /**
+     * รอคิว
+     */
+    QUEUED,
+    
+    /**
+     * กำลังเขียนไฟล์
+     */
+    RUNNING,
+    
+    /**
+     * เสร็จแล้ว ดาวน์โหลดได้
+     */
+    COMPLETED,
+    
+    /**
+     * ล้มเหลว
+     */
+    FAILED
+}
@@ -0,0 +1,41 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * SchedulerLease Entity - สิทธิ์การรันงานตั้งเวลาแบบ Node เดียว
+ * 
+ * งานที่ต้องรันเพียง Node เดียวในคลัสเตอร์ (เช่น Payment Expiry)
+ * จะต่ออายุ Lease เป็นระยะ Node อื่นจะเข้ามาแทนได้เมื่อ Lease หมดอายุ
+ */
+@Entity
+@Table(name = "scheduler_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchedulerLease {
+
+    /**
+     * ชื่องาน (เช่น payment-expiry)
+     */
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    /**
+     * Node ที่ถือ Lease อยู่
+     */
+    @Column(name = "owner", nullable = false, length = 100)
+    private String owner;
+
+    /**
+     * เวลาหมดอายุของ Lease
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,72 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SettlementBatch Entity - ยอดชำระคืนให้ Merchant ประจำวัน
+ * 
+ * หนึ่ง Merchant มีได้หนึ่ง Batch ต่อวัน (Unique: merchant_id + settlement_date)
+ * การรันซ้ำของวันเดิมจึงไม่สร้างยอดซ้ำ
+ */
+@Entity
+@Table(name = "settlement_batches",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_settlement_merchant_date", columnNames = {"merchant_id", "settlement_date"}),
+    indexes = @Index(name = "idx_settlement_date", columnList = "settlement_date"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Batch ID - รหัสอ้างอิงของรอบชำระ
+     */
+    @Column(name = "batch_id", nullable = false, unique = true, length = 36)
+    private String batchId;
+
+    /**
+     * Merchant ที่รับเงิน
+     */
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    /**
+     * วันที่ของรายการที่นำมาคำนวณ
+     */
+    @Column(name = "settlement_date", nullable = false)
+    private LocalDate settlementDate;
+
+    /**
+     * จำนวน Transaction ที่นำมาคำนวณ
+     */
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    /**
+     * วันที่สร้าง
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * ยอดแยกตามวิธีชำระเงินและสกุลเงิน
+     * Relationship: One-to-Many
+     */
+    @OneToMany(mappedBy = "batch", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Builder.Default
+    private List<SettlementLine> lines = new ArrayList<>();
+}
@@ -0,0 +1,83 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * SettlementLine Entity - ยอดของหนึ่ง Batch แยกตาม PaymentMethod และสกุลเงิน
+ * 
+ * net = gross (CAPTURE) - refunds (REFUND)
+ * VOID ถูกนับจำนวนไว้อย่างเดียว เพราะเป็นการยกเลิกก่อนเก็บเงิน
+ */
+@Entity
+@Table(name = "settlement_lines")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Batch ที่เป็นเจ้าของ
+     * Relationship: Many-to-One
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "batch_id", nullable = false)
+    private SettlementBatch batch;
+
+    /**
+     * วิธีการชำระเงิน (null = ไม่ระบุ)
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", length = 30)
+    private PaymentMethod paymentMethod;
+
+    /**
+     * สกุลเงิน
+     */
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    /**
+     * จำนวน CAPTURE
+     */
+    @Column(name = "capture_count", nullable = false)
+    private Long captureCount;
+
+    /**
+     * ยอดรวม CAPTURE
+     */
+    @Column(name = "gross_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal grossAmount;
+
+    /**
+     * จำนวน REFUND
+     */
+    @Column(name = "refund_count", nullable = false)
+    private Long refundCount;
+
+    /**
+     * ยอดรวม REFUND
+     */
+    @Column(name = "refund_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal refundAmount;
+
+    /**
+     * จำนวน VOID
+     */
+    @Column(name = "void_count", nullable = false)
+    private Long voidCount;
+
+    /**
+     * ยอดสุทธิที่ต้องจ่าย Merchant
+     */
+    @Column(name = "net_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal netAmount;
+}
@@ -39,7 +39,8 @@ public class Transaction {
      * ประเภทธุรกรรม
      */
     @Enumerated(EnumType.STRING)
-    @Column(name = "transaction_type", nullable = false, length = 20)
+    // VARCHAR แทน ENUM ของ MySQL: ddl-auto update ไม่เพิ่มค่าใหม่ให้ Column ENUM ที่มีอยู่แล้ว
+    @Column(name = "transaction_type", nullable = false, length = 20, columnDefinition = "VARCHAR(20)")
     private TransactionType transactionType;
 
     /**
@@ -94,16 +95,12 @@ public class Transaction {
     private String userAgent;
 
     /**
-     * Raw Request (JSON)
+     * Raw Request/Response (JSON) เก็บแยกตารางแบบบีบอัด
+     * โหลดเมื่อเรียกใช้ครั้งแรกเท่านั้น
      */
-    @Column(name = "raw_request", columnDefinition = "TEXT")
-    private String rawRequest;
-
-    /**
-     * Raw Response (JSON)
-     */
-    @Column(name = "raw_response", columnDefinition = "TEXT")
-    private String rawResponse;
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "payload_id")
+    private TransactionPayload payload;
 
     /**
      * วันที่สร้าง
@@ -0,0 +1,39 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * TransactionPayload Entity - Raw Request/Response ของ Transaction
+ * 
+ * แยกออกจากตาราง transactions เพื่อให้แถวของตารางหลักเล็ก
+ * (รายการ Transaction ทั่วไปไม่ต้องอ่านข้อมูลก้อนใหญ่นี้)
+ * เก็บแบบบีบอัดผ่าน CompressedTextConverter
+ */
+@Entity
+@Table(name = "transaction_payloads")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionPayload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Raw Request (JSON)
+     */
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "raw_request", columnDefinition = "MEDIUMBLOB")
+    private String rawRequest;
+
+    /**
+     * Raw Response (JSON)
+     */
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "raw_response", columnDefinition = "MEDIUMBLOB")
+    private String rawResponse;
+}
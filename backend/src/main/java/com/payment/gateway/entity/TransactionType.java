@@ -35,5 +35,10 @@ public enum TransactionType {
     /**
      * รับแจ้งจาก Webhook
      */
-    WEBHOOK
+    WEBHOOK,
+    
+    /**
+     * หมดอายุ (ไม่ได้ชำระภายในเวลาที่กำหนด)
+     */
+    EXPIRE
 }
@@ -0,0 +1,37 @@
+package com.payment.gateway.entity;
+
+/**
+ * UsageOperation Enum - ประเภทการใช้งานที่นับเพื่อคิดค่าบริการ Merchant
+ */
+public enum UsageOperation {
+    
+    /**
+     * สร้าง Payment
+     */
+    PAYMENT_CREATED,
+    
+    /**
+     * Payment ชำระสำเร็จ
+     */
+    PAYMENT_COMPLETED,
+    
+    /**
+     * ยกเลิก Payment
+     */
+    PAYMENT_CANCELLED,
+    
+    /**
+     * คืนเงิน (นับต่อครั้ง)
+     */
+    PAYMENT_REFUNDED,
+    
+    /**
+     * เรียก Batch Status
+     */
+    STATUS_LOOKUP,
+    
+    /**
+     * Webhook จาก Gateway ที่ประมวลผลแล้ว
+     */
+    WEBHOOK_RECEIVED
+}
@@ -0,0 +1,109 @@
+package com.payment.gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * WebhookOutbox Entity - Event ที่รอส่งไปยัง Webhook ของ Merchant
+ * 
+ * ถูกเขียนใน Database Transaction เดียวกับการเปลี่ยนสถานะ Payment
+ * (Transactional Outbox) จึงไม่มี Event หายแม้ Application ล่มหลัง Commit
+ * WebhookRelay จะดึงไปส่งและอัพเดทผลลัพธ์ภายหลัง
+ */
+@Entity
+@Table(name = "webhook_outbox", indexes = {
+    @Index(name = "idx_outbox_status_next", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_outbox_merchant", columnList = "merchant_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Event ID - ส่งให้ Merchant ใช้ตรวจ Event ซ้ำ (Idempotency)
+     */
+    @Column(name = "event_id", nullable = false, unique = true, length = 36)
+    private String eventId;
+
+    /**
+     * Merchant ที่ต้องส่ง Event ไปให้
+     * เก็บเป็น ID เพื่อไม่ให้ SELECT ... FOR UPDATE ไปล็อคแถวของ merchants
+     */
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    /**
+     * Payment ที่เกี่ยวข้อง
+     */
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    /**
+     * ประเภท Event (payment.completed, payment.refunded, etc.)
+     */
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    /**
+     * Payload ที่จะส่ง (JSON)
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * สถานะการส่ง
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    /**
+     * จำนวนครั้งที่พยายามส่งแล้ว
+     */
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /**
+     * เวลาที่พร้อมส่งครั้งถัดไป
+     * ระหว่างกำลังส่งจะถูกเลื่อนออกไปเป็น Lease ป้องกัน Relay ตัวอื่นหยิบซ้ำ
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * HTTP Status ล่าสุดที่ได้รับจาก Merchant
+     */
+    @Column(name = "last_response_status")
+    private Integer lastResponseStatus;
+
+    /**
+     * ข้อผิดพลาดล่าสุด
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * วันที่สร้าง
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * วันที่ส่งสำเร็จ
+     */
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+}
@@ -2,8 +2,11 @@ package com.payment.gateway.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -82,6 +85,26 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    /**
+     * จัดการ Optimistic Lock Conflict (409)
+     * เกิดเมื่อ Payment ถูกแก้ไขพร้อมกันและลองใหม่ครบแล้ว
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Concurrent update conflict: {}", ex.getMessage());
+        
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+            HttpStatus.CONFLICT,
+            "Payment was modified concurrently. Please retry."
+        );
+        problemDetail.setTitle("Concurrent Update");
+        problemDetail.setType(URI.create("https://api.payment-gateway.com/errors/concurrent-update"));
+        problemDetail.setProperty("errorCode", "CONCURRENT_UPDATE");
+        problemDetail.setProperty("timestamp", Instant.now());
+        
+        return problemDetail;
+    }
+
     /**
      * จัดการ WebhookSignatureException (401)
      */
@@ -101,6 +124,73 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    /**
+     * จัดการ PayloadTooLargeException (413)
+     */
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ProblemDetail> handlePayloadTooLargeException(PayloadTooLargeException ex) {
+        logger.warn("Payload too large: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+            HttpStatus.PAYLOAD_TOO_LARGE,
+            ex.getMessage()
+        );
+        problemDetail.setTitle("Payload Too Large");
+        problemDetail.setType(URI.create("https://api.payment-gateway.com/errors/payload-too-large"));
+        problemDetail.setProperty("errorCode", ex.getErrorCode());
+        problemDetail.setProperty("maxBytes", ex.getMaxBytes());
+        problemDetail.setProperty("timestamp", Instant.now());
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+            .header(HttpHeaders.CONNECTION, "close")
+            .body(problemDetail);
+    }
+
+    /**
+     * จัดการ ServiceUnavailableException (503 + Retry-After)
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        logger.warn("Service unavailable: {}", ex.getMessage());
+        
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ex.getMessage()
+        );
+        problemDetail.setTitle("Service Unavailable");
+        problemDetail.setType(URI.create("https://api.payment-gateway.com/errors/service-unavailable"));
+        problemDetail.setProperty("errorCode", ex.getErrorCode());
+        problemDetail.setProperty("timestamp", Instant.now());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(problemDetail);
+    }
+
+    /**
+     * จัดการ RateLimitExceededException (429 + RateLimit-* และ Retry-After)
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimitExceededException(RateLimitExceededException ex) {
+        logger.debug("Rate limited: {}", ex.getMessage());
+        
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+            HttpStatus.TOO_MANY_REQUESTS,
+            ex.getMessage()
+        );
+        problemDetail.setTitle("Too Many Requests");
+        problemDetail.setType(URI.create("https://api.payment-gateway.com/errors/rate-limited"));
+        problemDetail.setProperty("errorCode", ex.getErrorCode());
+        problemDetail.setProperty("timestamp", Instant.now());
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header("RateLimit-Limit", String.valueOf(ex.getLimit()))
+            .header("RateLimit-Remaining", "0")
+            .header("RateLimit-Reset", String.valueOf(ex.getResetSeconds()))
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(problemDetail);
+    }
+
     /**
      * จัดการ PaymentException (400)
      */
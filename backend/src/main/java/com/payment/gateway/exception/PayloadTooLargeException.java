@@ -0,0 +1,20 @@
+package com.payment.gateway.exception;
+
+/**
+ * PayloadTooLargeException - Exception เมื่อ Request Body ใหญ่เกินที่กำหนด
+ *
+ * ส่งกลับเป็น 413
+ */
+public class PayloadTooLargeException extends PaymentException {
+
+    private final long maxBytes;
+
+    public PayloadTooLargeException(long maxBytes) {
+        super("PAYLOAD_TOO_LARGE", "Request body exceeds " + maxBytes + " bytes");
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
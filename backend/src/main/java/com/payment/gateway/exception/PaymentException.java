@@ -24,6 +24,14 @@ public class PaymentException extends RuntimeException {
         this.errorCode = "PAYMENT_ERROR";
     }
     
+    /**
+     * สำหรับ Exception ที่เกิดบ่อยและไม่ต้องการ Stack Trace (ไม่เสียเวลา fillInStackTrace)
+     */
+    protected PaymentException(String errorCode, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+    }
+    
     public String getErrorCode() {
         return errorCode;
     }
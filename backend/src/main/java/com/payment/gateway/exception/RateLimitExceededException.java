@@ -0,0 +1,32 @@
+package com.payment.gateway.exception;
+
+/**
+ * RateLimitExceededException - Exception เมื่อ Merchant ส่ง Request เกินโควตา
+ * 
+ * ส่งกลับเป็น 429 พร้อม Header RateLimit-* และ Retry-After
+ */
+public class RateLimitExceededException extends PaymentException {
+    
+    private final long limit;
+    private final long resetSeconds;
+    private final long retryAfterSeconds;
+    
+    public RateLimitExceededException(long limit, long resetSeconds, long retryAfterSeconds) {
+        super("RATE_LIMITED", "Rate limit exceeded. Please retry after " + retryAfterSeconds + " second(s).");
+        this.limit = limit;
+        this.resetSeconds = resetSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getLimit() {
+        return limit;
+    }
+    
+    public long getResetSeconds() {
+        return resetSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -14,4 +14,16 @@ public class ResourceNotFoundException extends PaymentException {
     public ResourceNotFoundException(String message) {
         super("NOT_FOUND", message);
     }
+    
+    private ResourceNotFoundException(String message, boolean writableStackTrace) {
+        super("NOT_FOUND", message, writableStackTrace);
+    }
+    
+    /**
+     * 404 แบบไม่มี Stack Trace สำหรับ Path ที่ถูกเรียกด้วย Key มั่ว ๆ จำนวนมาก
+     */
+    public static ResourceNotFoundException withoutStackTrace(String resourceName, String fieldName, Object fieldValue) {
+        return new ResourceNotFoundException(
+            String.format("%s not found with %s: '%s'", resourceName, fieldName, fieldValue), false);
+    }
 }
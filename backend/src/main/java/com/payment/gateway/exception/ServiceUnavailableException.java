@@ -0,0 +1,25 @@
+package com.payment.gateway.exception;
+
+/**
+ * ServiceUnavailableException - Exception เมื่อระบบรับงานเพิ่มไม่ได้ชั่วคราว
+ * 
+ * ส่งกลับเป็น 503 พร้อม Header Retry-After
+ */
+public class ServiceUnavailableException extends PaymentException {
+    
+    private final long retryAfterSeconds;
+    
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super("SERVICE_UNAVAILABLE", message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public ServiceUnavailableException(String errorCode, String message, long retryAfterSeconds) {
+        super(errorCode, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
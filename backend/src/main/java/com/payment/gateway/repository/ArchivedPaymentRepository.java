@@ -0,0 +1,68 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.dto.PaymentStatusItem;
+import com.payment.gateway.entity.ArchivedPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ArchivedPaymentRepository - Repository สำหรับ Payment ใน Cold Storage
+ * 
+ * ใช้เป็นที่อ่านสำรองเมื่อไม่พบในตารางหลัก
+ */
+@Repository
+public interface ArchivedPaymentRepository extends JpaRepository<ArchivedPayment, Long> {
+
+    /**
+     * ค้นหาจาก Reference ID
+     * 
+     * @param referenceId Reference ID
+     * @return Optional ของ ArchivedPayment
+     */
+    Optional<ArchivedPayment> findByReferenceId(String referenceId);
+
+    /**
+     * ตรวจสอบว่า Order ID ของ Merchant เคยถูกใช้แล้วหรือไม่
+     * 
+     * @param orderId Order ID
+     * @param merchantId Merchant ID
+     * @return true ถ้ามีแล้ว
+     */
+    boolean existsByOrderIdAndMerchantId(String orderId, Long merchantId);
+
+    /**
+     * ดึงสถานะแบบย่อจาก Reference ID ของ Merchant (ไม่โหลด Entity)
+     * 
+     * @param merchantId Merchant ID
+     * @param referenceIds รายการ Reference ID
+     * @return สถานะของ Payment ที่พบ
+     */
+    @Query("SELECT new com.payment.gateway.dto.PaymentStatusItem(" +
+           "p.referenceId, p.orderId, p.status, p.amount, p.currency, p.paidAt, p.updatedAt) " +
+           "FROM ArchivedPayment p WHERE p.merchantId = :merchantId AND p.referenceId IN :referenceIds")
+    List<PaymentStatusItem> findStatusByReferenceIds(
+        @Param("merchantId") Long merchantId,
+        @Param("referenceIds") Collection<String> referenceIds
+    );
+
+    /**
+     * ดึงสถานะแบบย่อจาก Order ID ของ Merchant (ไม่โหลด Entity)
+     * 
+     * @param merchantId Merchant ID
+     * @param orderIds รายการ Order ID
+     * @return สถานะของ Payment ที่พบ
+     */
+    @Query("SELECT new com.payment.gateway.dto.PaymentStatusItem(" +
+           "p.referenceId, p.orderId, p.status, p.amount, p.currency, p.paidAt, p.updatedAt) " +
+           "FROM ArchivedPayment p WHERE p.merchantId = :merchantId AND p.orderId IN :orderIds")
+    List<PaymentStatusItem> findStatusByOrderIds(
+        @Param("merchantId") Long merchantId,
+        @Param("orderIds") Collection<String> orderIds
+    );
+}
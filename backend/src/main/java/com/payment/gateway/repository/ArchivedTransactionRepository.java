@@ -0,0 +1,33 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.ArchivedTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ArchivedTransactionRepository - Repository สำหรับ Transaction ใน Cold Storage
+ * 
+ * ใช้เป็นที่อ่านสำรองเมื่อไม่พบในตารางหลัก
+ */
+@Repository
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long> {
+
+    /**
+     * ค้นหาจาก Transaction ID
+     * 
+     * @param transactionId Transaction ID
+     * @return Optional ของ ArchivedTransaction
+     */
+    Optional<ArchivedTransaction> findByTransactionId(String transactionId);
+
+    /**
+     * ดึง Transaction ของ Payment (ใหม่สุดก่อน)
+     * 
+     * @param paymentId Payment ID
+     * @return รายการ ArchivedTransaction
+     */
+    List<ArchivedTransaction> findByPaymentIdOrderByCreatedAtDesc(Long paymentId);
+}
@@ -0,0 +1,54 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.LedgerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * LedgerBalanceRepository - Repository สำหรับยอดคงเหลือของบัญชี
+ * 
+ * ใช้ Spring Data JPA
+ */
+@Repository
+public interface LedgerBalanceRepository extends JpaRepository<LedgerBalance, Long> {
+
+    /**
+     * ดึงยอดคงเหลือทุกบัญชีของ Merchant
+     * 
+     * @param merchantId Merchant ID
+     * @return รายการ LedgerBalance
+     */
+    List<LedgerBalance> findByMerchantIdOrderByAccountAscCurrencyAsc(Long merchantId);
+
+    /**
+     * เพิ่มยอดของบัญชีแบบ Atomic (สร้างแถวใหม่ถ้ายังไม่มี)
+     * 
+     * แถวถูก Lock จนจบ Transaction จึงไม่มี Lost Update ระหว่าง Request พร้อมกัน
+     * 
+     * @param merchantId Merchant ID
+     * @param account ชื่อบัญชี
+     * @param currency สกุลเงิน
+     * @param delta ยอดที่เปลี่ยน (Credit = +, Debit = -)
+     * @param entries จำนวนรายการที่เพิ่ม
+     * @param now เวลาปัจจุบัน
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ledger_balances (merchant_id, account, currency, balance, entry_count, updated_at) " +
+                   "VALUES (:merchantId, :account, :currency, :delta, :entries, :now) " +
+                   "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance), " +
+                   "entry_count = entry_count + VALUES(entry_count), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    void applyDelta(@Param("merchantId") Long merchantId,
+                    @Param("account") String account,
+                    @Param("currency") String currency,
+                    @Param("delta") BigDecimal delta,
+                    @Param("entries") long entries,
+                    @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,41 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * LedgerCheckpointRepository - Repository สำหรับ Checkpoint ของยอดคงเหลือ
+ * 
+ * ใช้ Spring Data JPA
+ */
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Long> {
+
+    /**
+     * ดึง Checkpoint ล่าสุดของ Merchant
+     * 
+     * @param merchantId Merchant ID
+     * @return รายการ LedgerCheckpoint (ใหม่สุดก่อน)
+     */
+    List<LedgerCheckpoint> findTop50ByMerchantIdOrderByIdDesc(Long merchantId);
+
+    /**
+     * คัดลอกยอดคงเหลือทุกบัญชีเป็น Checkpoint ในคำสั่งเดียว (ได้ Snapshot ที่สอดคล้องกัน)
+     * 
+     * @param checkpointId รหัสรอบ
+     * @param now เวลาปัจจุบัน
+     * @return จำนวนบัญชีที่บันทึก
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ledger_checkpoints (checkpoint_id, merchant_id, account, currency, balance, entry_count, created_at) " +
+                   "SELECT :checkpointId, merchant_id, account, currency, balance, entry_count, :now FROM ledger_balances",
+           nativeQuery = true)
+    int snapshotBalances(@Param("checkpointId") String checkpointId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * LedgerEntryRepository - Repository สำหรับรายการบัญชีคู่
+ * 
+ * ใช้ Spring Data JPA (เพิ่มได้อย่างเดียว)
+ */
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /**
+     * ดึงรายการบัญชีของ Transaction
+     * 
+     * @param transactionId Transaction ID
+     * @return รายการ LedgerEntry
+     */
+    List<LedgerEntry> findByTransactionIdOrderById(String transactionId);
+}
@@ -0,0 +1,28 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.MerchantUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * MerchantUsageRepository - Repository สำหรับจำนวนการใช้งานรายชั่วโมงของ Merchant
+ * 
+ * การเขียนทำผ่าน Batch Upsert ใน UsageMeteringService (JDBC) ส่วนนี้ใช้อ่านอย่างเดียว
+ */
+@Repository
+public interface MerchantUsageRepository extends JpaRepository<MerchantUsage, Long> {
+
+    /**
+     * ดึงการใช้งานของ Merchant ในช่วงเวลา
+     * 
+     * @param merchantId Merchant ID
+     * @param from ต้นชั่วโมงเริ่มต้น (รวม)
+     * @param to เวลาสิ้นสุด (ไม่รวม)
+     * @return รายการเรียงตามเวลา
+     */
+    List<MerchantUsage> findByMerchantIdAndPeriodStartGreaterThanEqualAndPeriodStartLessThanOrderByPeriodStartAsc(
+        Long merchantId, LocalDateTime from, LocalDateTime to);
+}
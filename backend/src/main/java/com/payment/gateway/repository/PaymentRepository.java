@@ -1,18 +1,25 @@
 package com.payment.gateway.repository;
 
+import com.payment.gateway.dto.PaymentStatusItem;
+import com.payment.gateway.dto.PaymentSummary;
 import com.payment.gateway.entity.Payment;
 import com.payment.gateway.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * PaymentRepository - Repository สำหรับจัดการข้อมูล Payment
@@ -30,6 +37,54 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      */
     Optional<Payment> findByReferenceId(String referenceId);
     
+    /**
+     * ค้นหา Payment หลายรายการจาก Reference ID (ใช้ใน Bulk Operations)
+     * 
+     * @param referenceIds รายการ Reference ID
+     * @return Payment ที่พบ
+     */
+    List<Payment> findByReferenceIdIn(Collection<String> referenceIds);
+    
+    /**
+     * โหลด Payment หลายรายการจาก ID พร้อม Merchant ใน Query เดียว
+     * (ใช้แจ้ง PaymentTransitionListener หลังเปลี่ยนสถานะเป็น Batch)
+     * 
+     * @param ids Payment IDs
+     * @return Payment ที่พบ
+     */
+    @Query("SELECT p FROM Payment p JOIN FETCH p.merchant WHERE p.id IN :ids")
+    List<Payment> findWithMerchantByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * ดึงสถานะแบบย่อจาก Reference ID ของ Merchant (ไม่โหลด Entity)
+     * 
+     * @param merchantId Merchant ID
+     * @param referenceIds รายการ Reference ID
+     * @return สถานะของ Payment ที่พบ
+     */
+    @Query("SELECT new com.payment.gateway.dto.PaymentStatusItem(" +
+           "p.referenceId, p.orderId, p.status, p.amount, p.currency, p.paidAt, p.updatedAt) " +
+           "FROM Payment p WHERE p.merchant.id = :merchantId AND p.referenceId IN :referenceIds")
+    List<PaymentStatusItem> findStatusByReferenceIds(
+        @Param("merchantId") Long merchantId,
+        @Param("referenceIds") Collection<String> referenceIds
+    );
+    
+    /**
+     * ดึงสถานะแบบย่อจาก Order ID ของ Merchant (ไม่โหลด Entity)
+     * 
+     * @param merchantId Merchant ID
+     * @param orderIds รายการ Order ID
+     * @return สถานะของ Payment ที่พบ
+     */
+    @Query("SELECT new com.payment.gateway.dto.PaymentStatusItem(" +
+           "p.referenceId, p.orderId, p.status, p.amount, p.currency, p.paidAt, p.updatedAt) " +
+           "FROM Payment p WHERE p.merchant.id = :merchantId AND p.orderId IN :orderIds")
+    List<PaymentStatusItem> findStatusByOrderIds(
+        @Param("merchantId") Long merchantId,
+        @Param("orderIds") Collection<String> orderIds
+    );
+    
     /**
      * ค้นหา Payment จาก Order ID และ Merchant
      * 
@@ -66,6 +121,33 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      */
     List<Payment> findByStatusAndExpiresAtBefore(PaymentStatus status, LocalDateTime expiresAt);
     
+    /**
+     * เปลี่ยนสถานะแบบ Compare-and-Set
+     * สำเร็จเฉพาะเมื่อสถานะปัจจุบันอยู่ใน expected
+     * 
+     * @param id Payment ID
+     * @param expected สถานะต้นทางที่อนุญาต
+     * @param status สถานะใหม่
+     * @param paidAt วันที่ชำระ (null = ไม่เปลี่ยน)
+     * @param failureReason เหตุผล (null = ไม่เปลี่ยน)
+     * @param now เวลาปัจจุบัน
+     * @return จำนวนแถวที่อัพเดท (0 หรือ 1)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :status, " +
+           "p.paidAt = COALESCE(:paidAt, p.paidAt), " +
+           "p.failureReason = COALESCE(:failureReason, p.failureReason), " +
+           "p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status IN :expected")
+    int compareAndSetStatus(
+        @Param("id") Long id,
+        @Param("expected") Collection<PaymentStatus> expected,
+        @Param("status") PaymentStatus status,
+        @Param("paidAt") LocalDateTime paidAt,
+        @Param("failureReason") String failureReason,
+        @Param("now") LocalDateTime now
+    );
+    
     /**
      * นับจำนวน Payment ตามสถานะ
      * 
@@ -123,6 +205,41 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
         @Param("endDate") LocalDateTime endDate,
         Pageable pageable
     );
+    
+    /**
+     * Stream PaymentSummary ตามเงื่อนไขเดียวกับ findByFilters (สำหรับ Export)
+     * 
+     * ใช้ Forward-only Cursor พร้อม Fetch Size (MySQL ต้องเปิด useCursorFetch=true)
+     * สร้าง DTO ตรงจาก Query จึงไม่สะสม Entity ใน Persistence Context
+     * ต้องเรียกภายใน Transaction และปิด Stream หลังใช้งาน
+     * 
+     * @param merchantId Merchant ID (optional)
+     * @param status สถานะ (optional)
+     * @param startDate วันที่เริ่มต้น (optional)
+     * @param endDate วันที่สิ้นสุด (optional)
+     * @return Stream ของ PaymentSummary เรียงตาม ID
+     */
+    @Query("SELECT new com.payment.gateway.dto.PaymentSummary(" +
+           "p.id, p.referenceId, p.orderId, p.amount, p.currency, p.status, " +
+           "p.paymentMethod, p.customerName, p.createdAt) " +
+           "FROM Payment p WHERE " +
+           "(:merchantId IS NULL OR p.merchant.id = :merchantId) AND " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:startDate IS NULL OR p.createdAt >= :startDate) AND " +
+           "(:endDate IS NULL OR p.createdAt <= :endDate) " +
+           "ORDER BY p.id")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    Stream<PaymentSummary> streamSummariesByFilters(
+        @Param("merchantId") Long merchantId,
+        @Param("status") PaymentStatus status,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+
     /**
      * ค้นหา Payment ตามคำค้นหา (Reference ID, Customer Name, Email)
      * 
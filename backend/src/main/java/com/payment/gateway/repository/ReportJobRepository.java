@@ -0,0 +1,65 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.ReportJob;
+import com.payment.gateway.entity.ReportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ReportJobRepository - Repository สำหรับงานสร้างรายงาน
+ * 
+ * ใช้ Spring Data JPA
+ */
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+
+    /**
+     * ค้นหางานจาก Job ID
+     * 
+     * @param jobId Job ID
+     * @return ReportJob ที่พบ
+     */
+    Optional<ReportJob> findByJobId(String jobId);
+
+    /**
+     * ค้นหางานที่สร้างก่อนเวลาที่กำหนด (สำหรับลบไฟล์เก่า)
+     * 
+     * @param before เวลา
+     * @return รายการ ReportJob
+     */
+    List<ReportJob> findByCreatedAtBefore(LocalDateTime before);
+
+    /**
+     * ค้นหางานของ Node ตามสถานะ (สำหรับกู้งานที่ค้างหลัง Restart)
+     * 
+     * @param node ชื่อ Node ที่รับงาน
+     * @param statuses สถานะ
+     * @return รายการ ReportJob
+     */
+    List<ReportJob> findByNodeAndStatusIn(String node, Collection<ReportJobStatus> statuses);
+
+    /**
+     * อัพเดทความคืบหน้า (ไม่โหลด Entity)
+     * 
+     * ถูกเรียกจากภายใน Export ที่เป็น Transaction แบบ readOnly
+     * จึงต้องแยก Transaction ของตัวเอง (Connection แบบเขียนได้ และ Commit ทันทีให้ผู้ Poll เห็น)
+     * 
+     * @param jobId Job ID
+     * @param rowsWritten จำนวนแถวที่เขียนแล้ว
+     * @return จำนวนแถวที่อัพเดท
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.rowsWritten = :rowsWritten WHERE j.jobId = :jobId")
+    int updateProgress(@Param("jobId") String jobId, @Param("rowsWritten") long rowsWritten);
+}
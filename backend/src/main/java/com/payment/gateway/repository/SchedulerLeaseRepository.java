@@ -0,0 +1,50 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * SchedulerLeaseRepository - Repository สำหรับ Lease ของงานตั้งเวลา
+ * 
+ * ใช้ Spring Data JPA
+ */
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * ต่ออายุ Lease (ถ้าเป็นเจ้าของอยู่แล้ว) หรือยึด Lease ที่หมดอายุแล้ว
+     * 
+     * @param name ชื่องาน
+     * @param owner Node ที่ขอ Lease
+     * @param now เวลาปัจจุบัน
+     * @param until เวลาหมดอายุใหม่
+     * @return จำนวนแถวที่อัพเดท (1 = ได้ Lease)
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.expiresAt = :until " +
+           "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt < :now)")
+    int tryAcquire(
+        @Param("name") String name,
+        @Param("owner") String owner,
+        @Param("now") LocalDateTime now,
+        @Param("until") LocalDateTime until
+    );
+
+    /**
+     * คืน Lease (ให้ Node อื่นเข้ามาแทนได้ทันที)
+     * 
+     * @param name ชื่องาน
+     * @param owner Node ที่ถือ Lease
+     * @param now เวลาปัจจุบัน
+     * @return จำนวนแถวที่อัพเดท
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :now WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,46 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.SettlementBatch;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SettlementBatchRepository - Repository สำหรับ Settlement Batch
+ * 
+ * ใช้ Spring Data JPA
+ */
+@Repository
+public interface SettlementBatchRepository extends JpaRepository<SettlementBatch, Long> {
+
+    /**
+     * ตรวจสอบว่า Merchant มี Batch ของวันนี้แล้วหรือยัง
+     * 
+     * @param merchantId Merchant ID
+     * @param settlementDate วันที่
+     * @return true ถ้ามีแล้ว
+     */
+    boolean existsByMerchantIdAndSettlementDate(Long merchantId, LocalDate settlementDate);
+
+    /**
+     * ดึง Batch ทั้งหมดของวัน (พร้อม Lines)
+     * 
+     * @param settlementDate วันที่
+     * @return รายการ SettlementBatch
+     */
+    @EntityGraph(attributePaths = "lines")
+    List<SettlementBatch> findBySettlementDateOrderByMerchantId(LocalDate settlementDate);
+
+    /**
+     * ดึง Batch ของ Merchant ในวันที่กำหนด (พร้อม Lines)
+     * 
+     * @param settlementDate วันที่
+     * @param merchantId Merchant ID
+     * @return รายการ SettlementBatch
+     */
+    @EntityGraph(attributePaths = "lines")
+    List<SettlementBatch> findBySettlementDateAndMerchantId(LocalDate settlementDate, Long merchantId);
+}
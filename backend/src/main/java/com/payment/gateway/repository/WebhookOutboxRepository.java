@@ -0,0 +1,66 @@
+package com.payment.gateway.repository;
+
+import com.payment.gateway.entity.OutboxStatus;
+import com.payment.gateway.entity.WebhookOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * WebhookOutboxRepository - Repository สำหรับ Outbox ของ Webhook ขาออก
+ * 
+ * ใช้ Spring Data JPA
+ */
+@Repository
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutbox, Long> {
+
+    /**
+     * ดึง Event ที่ถึงเวลาส่งพร้อมล็อคแถว
+     * 
+     * Lock Timeout -2 = SKIP LOCKED (Hibernate)
+     * ทำให้ Relay หลาย Node ดึงคนละชุดกันได้โดยไม่รอกัน
+     * 
+     * @param status สถานะ (PENDING)
+     * @param now เวลาปัจจุบัน
+     * @param excludedMerchantIds Merchant ที่ยังไม่พร้อมรับ (Breaker เปิด / Bulkhead เต็ม)
+     * @param pageable จำนวนที่ต้องการ (Batch Size)
+     * @return รายการ Event ที่ถูกล็อคไว้
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM WebhookOutbox o WHERE o.status = :status AND o.nextAttemptAt <= :now " +
+           "AND o.merchantId NOT IN :excludedMerchantIds ORDER BY o.id")
+    List<WebhookOutbox> findDueForUpdate(
+        @Param("status") OutboxStatus status,
+        @Param("now") LocalDateTime now,
+        @Param("excludedMerchantIds") Collection<Long> excludedMerchantIds,
+        Pageable pageable
+    );
+
+    /**
+     * นับจำนวน Event ค้างส่งแยกตาม Merchant
+     * 
+     * @param status สถานะ (PENDING)
+     * @return รายการ [merchantId, count]
+     */
+    @Query("SELECT o.merchantId, COUNT(o) FROM WebhookOutbox o WHERE o.status = :status GROUP BY o.merchantId")
+    List<Object[]> countByMerchant(@Param("status") OutboxStatus status);
+
+    /**
+     * นับจำนวน Event ตามสถานะ
+     * 
+     * @param status สถานะ
+     * @return จำนวน
+     */
+    long countByStatus(OutboxStatus status);
+}
@@ -1,5 +1,6 @@
 package com.payment.gateway.security;
 
+import com.payment.gateway.exception.PayloadTooLargeException;
 import com.payment.gateway.exception.WebhookSignatureException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,9 +9,13 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HexFormat;
 
 /**
@@ -27,10 +32,14 @@ public class HmacSignatureService {
 
     private static final Logger logger = LoggerFactory.getLogger(HmacSignatureService.class);
     private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int READ_CHUNK_SIZE = 8192;
 
     @Value("${payment.webhook.secret}")
     private String webhookSecret;
 
+    @Value("${payment.webhook.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
     /**
      * สร้าง HMAC-SHA256 Signature
      * 
@@ -49,23 +58,85 @@ public class HmacSignatureService {
      * @return Signature ในรูปแบบ Hex String
      */
     public String generateSignature(String payload, String secret) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return HexFormat.of().formatHex(generateSignature(bytes, 0, bytes.length, secret));
+    }
+
+    /**
+     * สร้าง HMAC-SHA256 Signature จาก Byte Array โดยตรง (ไม่ต้องแปลงเป็น String)
+     * 
+     * @param payload Buffer ที่ต้องการ Sign
+     * @param offset ตำแหน่งเริ่มต้นใน Buffer
+     * @param length จำนวน Byte ที่ต้องการ Sign
+     * @param secret Secret Key สำหรับ Sign
+     * @return Signature ในรูปแบบ Raw Bytes
+     */
+    public byte[] generateSignature(byte[] payload, int offset, int length, String secret) {
+        Mac mac = newMac(secret);
+        mac.update(payload, offset, length);
+        return mac.doFinal();
+    }
+
+    /**
+     * อ่าน Body จาก Stream พร้อมคำนวณ HMAC ไปในรอบเดียวกัน
+     * 
+     * ถ้ารู้ Content-Length จะจอง Buffer ขนาดพอดีและอ่านลงไปตรงๆ
+     * ทำให้ Body ถูก Copy เพียงครั้งเดียว (Socket -> Buffer)
+     * Buffer เดียวกันนี้ส่งต่อให้ Jackson Parse ได้เลย
+     * 
+     * Body ใหญ่เกิน payment.webhook.max-body-bytes ถูกปฏิเสธ (ทั้งจาก Content-Length และ Chunked)
+     * Buffer เริ่มต้นไม่เกินเพดานนี้ จึงไม่เชื่อ Content-Length ที่ Client ส่งมาในการจองหน่วยความจำ
+     * 
+     * @param in InputStream ของ Request Body
+     * @param contentLength Content-Length (-1 ถ้าไม่ทราบ)
+     * @return SignedPayload พร้อม Body และ HMAC
+     * @throws IOException ถ้าอ่าน Stream ไม่สำเร็จ
+     * @throws PayloadTooLargeException ถ้า Body ใหญ่เกินที่กำหนด
+     */
+    public SignedPayload readAndSign(InputStream in, int contentLength) throws IOException {
+        if (contentLength > maxBodyBytes) {
+            throw new PayloadTooLargeException(maxBodyBytes);
+        }
+        Mac mac = newMac(webhookSecret);
+        byte[] buffer = new byte[contentLength > 0 ? contentLength : Math.min(READ_CHUNK_SIZE, maxBodyBytes)];
+        int length = 0;
+        
+        while (true) {
+            if (length == buffer.length) {
+                // Buffer เต็ม - ตรวจว่ายังมีข้อมูลเหลืออีกหรือไม่ก่อนขยาย
+                int next = in.read();
+                if (next < 0) {
+                    break;
+                }
+                if (length >= maxBodyBytes) {
+                    throw new PayloadTooLargeException(maxBodyBytes);
+                }
+                buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length * 2, READ_CHUNK_SIZE), maxBodyBytes));
+                buffer[length++] = (byte) next;
+                mac.update((byte) next);
+                continue;
+            }
+            
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            // Feed HMAC ทีละ Chunk ระหว่างอ่าน
+            mac.update(buffer, length, read);
+            length += read;
+        }
+        
+        return new SignedPayload(buffer, length, mac.doFinal());
+    }
+
+    /**
+     * สร้าง Mac Instance ที่ Init ด้วย Secret แล้ว
+     */
+    private Mac newMac(String secret) {
         try {
-            // สร้าง HMAC-SHA256 Mac Instance
             Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-            
-            // ตั้งค่า Secret Key
-            SecretKeySpec secretKeySpec = new SecretKeySpec(
-                secret.getBytes(StandardCharsets.UTF_8),
-                HMAC_ALGORITHM
-            );
-            mac.init(secretKeySpec);
-            
-            // คำนวณ HMAC
-            byte[] hmacBytes = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            
-            // แปลงเป็น Hex String (lowercase)
-            return HexFormat.of().formatHex(hmacBytes);
-            
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return mac;
         } catch (NoSuchAlgorithmException | InvalidKeyException e) {
             logger.error("Failed to generate HMAC signature", e);
             throw new RuntimeException("Failed to generate signature", e);
@@ -118,6 +189,44 @@ public class HmacSignatureService {
         logger.debug("Webhook signature verified successfully");
     }
 
+    /**
+     * ตรวจสอบ Signature ของ Body ที่อ่านผ่าน readAndSign
+     * เปรียบเทียบแบบ Raw Bytes ด้วย Constant Time
+     * 
+     * @param payload SignedPayload ที่มี HMAC คำนวณไว้แล้ว
+     * @param receivedSignature Signature ที่ได้รับมา (Hex)
+     * @throws WebhookSignatureException ถ้า Signature ไม่ถูกต้อง
+     */
+    public void validateSignature(SignedPayload payload, String receivedSignature) {
+        if (!verifySignature(payload, receivedSignature)) {
+            logger.warn("Invalid webhook signature received");
+            throw new WebhookSignatureException("Invalid webhook signature");
+        }
+        logger.debug("Webhook signature verified successfully");
+    }
+
+    /**
+     * ตรวจสอบ Signature ของ SignedPayload
+     * 
+     * @param payload SignedPayload ที่มี HMAC คำนวณไว้แล้ว
+     * @param receivedSignature Signature ที่ได้รับมา (Hex)
+     * @return true ถ้า Signature ถูกต้อง
+     */
+    public boolean verifySignature(SignedPayload payload, String receivedSignature) {
+        if (payload == null || receivedSignature == null) {
+            return false;
+        }
+        
+        byte[] received;
+        try {
+            received = HexFormat.of().parseHex(receivedSignature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        
+        return MessageDigest.isEqual(payload.hmac(), received);
+    }
+
     /**
      * ตรวจสอบ Signature ด้วย Merchant's API Secret
      * 
@@ -0,0 +1,13 @@
+package com.payment.gateway.security;
+
+/**
+ * SignedPayload - Raw Body ที่อ่านมาพร้อม HMAC ที่คำนวณระหว่างอ่าน
+ *
+ * body อาจมีขนาดใหญ่กว่า length (Buffer ที่จองไว้)
+ * ให้ใช้เฉพาะช่วง [0, length) เสมอ
+ *
+ * @param body Buffer ที่เก็บ Raw Body
+ * @param length จำนวน Byte ที่อ่านได้จริง
+ * @param hmac HMAC-SHA256 ของ Body (Raw Bytes ไม่ใช่ Hex)
+ */
+public record SignedPayload(byte[] body, int length, byte[] hmac) {}
@@ -0,0 +1,167 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.controller.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AdaptiveConcurrencyLimiter - จำกัดจำนวน Request ที่ทำพร้อมกันโดยปรับ Limit ตาม Latency จริง
+ *
+ * ใช้ Gradient Algorithm (แนวเดียวกับ TCP Vegas):
+ * - longRtt: Latency พื้นฐาน (ค่าเฉลี่ยแบบ EMA ระยะยาว)
+ * - shortRtt: Latency เฉลี่ยของช่วงล่าสุด (window-ms)
+ * - gradient = tolerance * longRtt / shortRtt (0.5 - 1.0) เมื่อเริ่มมีคิว Latency สูงขึ้น Limit จะลดลง
+ * - newLimit = limit * gradient + sqrt(limit) (เผื่อคิวเล็กน้อยให้ Limit ค่อย ๆ ขยายได้)
+ *
+ * Request ที่เกิน Limit ถูกปฏิเสธทันที (ไม่ต่อคิวรอ DB Pool) จึงรักษา Throughput ไว้ใกล้จุดสูงสุด
+ * ระดับ NORMAL/LOW ใช้ได้เพียงสัดส่วนหนึ่งของ Limit เพื่อเหลือที่ว่างให้ CRITICAL
+ *
+ * Metrics: http.limiter.limit, http.limiter.in.flight, http.limiter.rejected (Tag priority)
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    // จำนวน Window ที่ใช้เฉลี่ย longRtt
+    private static final double LONG_WINDOW = 100;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<RequestPriority.Level, Double> shares = new EnumMap<>(RequestPriority.Level.class);
+    private final Map<RequestPriority.Level, Counter> rejected = new EnumMap<>(RequestPriority.Level.class);
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private volatile double limit;
+
+    // สถิติของ Window ปัจจุบัน (แก้ไขภายใต้ synchronized)
+    private long windowStart = System.nanoTime();
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowMaxInFlight;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${payment.load-shedding.initial-limit:100}") int initialLimit,
+            @Value("${payment.load-shedding.min-limit:20}") int minLimit,
+            @Value("${payment.load-shedding.max-limit:1000}") int maxLimit,
+            @Value("${payment.load-shedding.tolerance:1.5}") double tolerance,
+            @Value("${payment.load-shedding.smoothing:0.2}") double smoothing,
+            @Value("${payment.load-shedding.window-ms:100}") long windowMs,
+            @Value("${payment.load-shedding.min-window-samples:10}") int minWindowSamples,
+            @Value("${payment.load-shedding.share.normal:0.8}") double normalShare,
+            @Value("${payment.load-shedding.share.low:0.5}") double lowShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.minWindowSamples = minWindowSamples;
+        shares.put(RequestPriority.Level.CRITICAL, 1.0);
+        shares.put(RequestPriority.Level.NORMAL, normalShare);
+        shares.put(RequestPriority.Level.LOW, lowShare);
+
+        Gauge.builder("http.limiter.limit", this, l -> l.limit)
+            .description("Current adaptive concurrency limit")
+            .register(meterRegistry);
+        Gauge.builder("http.limiter.in.flight", inFlight, AtomicInteger::get)
+            .description("Requests currently admitted by the limiter")
+            .register(meterRegistry);
+        for (RequestPriority.Level level : RequestPriority.Level.values()) {
+            rejected.put(level, Counter.builder("http.limiter.rejected")
+                .description("Requests shed by the adaptive concurrency limiter")
+                .tag("priority", level.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * ขอเข้าทำงาน (ไม่รอ)
+     *
+     * @param priority ระดับความสำคัญของ Request
+     * @return true ถ้ารับ Request (ต้องเรียก {@link #release} เมื่อจบ)
+     */
+    public boolean tryAcquire(RequestPriority.Level priority) {
+        int allowed = Math.max(1, (int) (limit * shares.get(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * คืนที่ว่างเมื่อ Request จบ
+     *
+     * @param rttNanos เวลาที่ใช้ (ติดลบ = ไม่นำไปคำนวณ Limit เช่น Request ที่ผิดพลาดทันที)
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        if (rttNanos >= 0) {
+            onSample(rttNanos, current);
+        }
+    }
+
+    public int currentLimit() {
+        return (int) limit;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtEnd) {
+        windowSamples++;
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtEnd);
+
+        long now = System.nanoTime();
+        if (windowSamples < minWindowSamples || now - windowStart < windowNanos) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = now;
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowMaxInFlight = 0;
+
+        longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / LONG_WINDOW;
+        if (longRtt / shortRtt > 2) {
+            // หลังช่วงโหลดหนัก longRtt ค้างสูง: ลดลงเร็วเพื่อให้ตรวจจับคิวได้อีกครั้ง
+            longRtt *= 0.95;
+        }
+        if (maxInFlight < limit / 2) {
+            // ใช้ไม่ถึงครึ่ง Limit: Latency ไม่ได้บอกอะไรเกี่ยวกับ Limit ที่สูงกว่านี้
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        if ((int) newLimit != (int) limit) {
+            logger.debug("Concurrency limit {} -> {} (rtt short={}ms long={}ms)",
+                (int) limit, (int) newLimit, String.format("%.1f", shortRtt / 1e6), String.format("%.1f", longRtt / 1e6));
+        }
+        limit = newLimit;
+    }
+}
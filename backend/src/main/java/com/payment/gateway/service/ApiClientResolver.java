@@ -0,0 +1,92 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.Merchant;
+import com.payment.gateway.repository.MerchantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiClientResolver - ระบุ Client ของ Request สำหรับ Rate Limit และ Read-your-writes
+ *
+ * - API Key ของ Merchant ที่มีอยู่จริง → "merchant:{id}"
+ * - ไม่มี API Key หรือไม่พบ Merchant → "ip:{address}"
+ *
+ * ไม่ใช้ API Key ดิบเป็น Key ของ Map หรือ Redis: Cache เก็บด้วย SHA-256 ของ Key
+ * ผลที่ไม่พบก็ถูก Cache ไว้ Key สุ่มจึงไม่ทำให้ค้น Database ทุก Request
+ * (Cache เต็มแล้วจะค้นตรงโดยไม่เก็บเพิ่มจนกว่าจะลบรายการที่หมดอายุ)
+ */
+@Service
+public class ApiClientResolver {
+
+    private static final long UNKNOWN = 0L;
+
+    private record Entry(long merchantId, long expiresAtNanos) {
+    }
+
+    private final MerchantRepository merchantRepository;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public ApiClientResolver(
+            MerchantRepository merchantRepository,
+            @Value("${payment.api-client.cache-ttl-ms:300000}") long cacheTtlMs,
+            @Value("${payment.api-client.cache-max-entries:100000}") int maxEntries) {
+        this.merchantRepository = merchantRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMs);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * รหัส Client ของ Request
+     *
+     * @param apiKey Header X-API-Key (null ถ้าไม่มี)
+     * @param remoteAddr IP ของผู้เรียก
+     * @return "merchant:{id}" หรือ "ip:{address}"
+     */
+    public String resolve(String apiKey, String remoteAddr) {
+        long merchantId = apiKey != null && !apiKey.isBlank() ? merchantId(apiKey) : UNKNOWN;
+        return merchantId != UNKNOWN ? "merchant:" + merchantId : "ip:" + remoteAddr;
+    }
+
+    private long merchantId(String apiKey) {
+        String hash = hash(apiKey);
+        long now = System.nanoTime();
+        Entry entry = cache.get(hash);
+        if (entry != null && entry.expiresAtNanos() - now > 0) {
+            return entry.merchantId();
+        }
+        long merchantId = merchantRepository.findByApiKey(apiKey).map(Merchant::getId).orElse(UNKNOWN);
+        if (entry != null || cache.size() < maxEntries) {
+            cache.put(hash, new Entry(merchantId, now + ttlNanos));
+        }
+        return merchantId;
+    }
+
+    /**
+     * ลบรายการที่หมดอายุ
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+    }
+
+    private static String hash(String apiKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.payment.gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BackgroundJob - รันงานที่ใช้เวลานานบน Thread ของตัวเองแทน Thread ของ Scheduler
+ *
+ * งาน @Scheduled ทั้งหมดใช้ Pool เดียวกัน (spring.task.scheduling.pool.size)
+ * งานอย่าง Archive, Settlement หรือการโหลดข้อมูลทั้งหมดตอนเริ่มระบบจึงส่งต่อมาที่นี่
+ * เพื่อไม่ให้งานสั้นที่ต้องรันทุกวินาที (Expiry, Webhook Relay, Replica Heartbeat) ต้องรอ
+ *
+ * - รันได้ทีละงาน: ถ้ารอบก่อนยังไม่จบ รอบใหม่ถูกข้าม (ไม่เข้าคิว)
+ * - Exception ถูก Log ไว้ ไม่ทำให้ Thread ตาย
+ */
+public final class BackgroundJob implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundJob.class);
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param name ชื่องาน (ใช้เป็นชื่อ Thread)
+     */
+    public BackgroundJob(String name) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(),
+            Thread.ofPlatform().name(name).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * เริ่มงานบน Thread ของงานนี้
+     *
+     * @param task งาน
+     * @return false ถ้ารอบก่อนยังทำงานอยู่ (งานนี้ถูกข้าม)
+     */
+    public boolean submit(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Background job {} failed", name, e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.debug("Background job {} is still running, skipping", name);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
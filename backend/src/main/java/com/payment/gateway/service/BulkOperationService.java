@@ -0,0 +1,350 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.BulkItemResult;
+import com.payment.gateway.dto.BulkRow;
+import com.payment.gateway.dto.CancelRequest;
+import com.payment.gateway.dto.PaymentResponse;
+import com.payment.gateway.dto.RefundRequest;
+import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.exception.PaymentException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * BulkOperationService - Bulk Refund / Bulk Cancel จากไฟล์ CSV หรือ NDJSON
+ * 
+ * การทำงาน:
+ * - อ่านไฟล์ทีละบรรทัดจาก InputStream (ไม่โหลดทั้งไฟล์เข้า Memory)
+ * - รวมแถวเป็น Chunk แล้วประมวลผลบน Virtual Threads แบบขนาน
+ * - แต่ละ Chunk ทำใน Transaction เดียว (Commit ครั้งเดียวต่อ Chunk)
+ * - ถ้า Chunk ชน Version กับคำขออื่น จะทำทีละแถวพร้อม Retry แทน
+ * - เขียนผลลัพธ์กลับเป็น NDJSON ทันทีที่แต่ละ Chunk เสร็จ
+ * 
+ * จำนวน Chunk ที่ค้างอยู่ถูกจำกัดด้วย Semaphore (การอ่านไฟล์จะรอเมื่อเต็ม)
+ */
+@Service
+public class BulkOperationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkOperationService.class);
+    private static final byte[] NEWLINE = {'\n'};
+    
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${payment.bulk.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${payment.bulk.parallelism:8}")
+    private int parallelism;
+
+    public BulkOperationService(PaymentService paymentService, ObjectMapper objectMapper, Validator validator) {
+        this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Bulk Refund
+     * CSV Header: referenceId,amount,reason (amount ว่าง = คืนทั้งหมด)
+     * 
+     * @param input ไฟล์ที่ส่งมา
+     * @param csv true = CSV, false = NDJSON
+     * @param output ที่เขียนผลลัพธ์ NDJSON
+     */
+    public void refund(InputStream input, boolean csv, OutputStream output) throws IOException {
+        run("refund", input, output,
+            csv ? csvParser(columns -> new RefundRequest(
+                    columns.get("referenceid"),
+                    parseAmount(columns.get("amount")),
+                    columns.get("reason")))
+                : line -> objectMapper.readValue(line, RefundRequest.class),
+            RefundRequest::referenceId,
+            paymentService::refundChunk,
+            paymentService::refundPayment);
+    }
+
+    /**
+     * Bulk Cancel
+     * CSV Header: referenceId,reason
+     * 
+     * @param input ไฟล์ที่ส่งมา
+     * @param csv true = CSV, false = NDJSON
+     * @param output ที่เขียนผลลัพธ์ NDJSON
+     */
+    public void cancel(InputStream input, boolean csv, OutputStream output) throws IOException {
+        run("cancel", input, output,
+            csv ? csvParser(columns -> new CancelRequest(columns.get("referenceid"), columns.get("reason")))
+                : line -> objectMapper.readValue(line, CancelRequest.class),
+            CancelRequest::referenceId,
+            paymentService::cancelChunk,
+            request -> paymentService.cancelPayment(request.referenceId(), request.reason()));
+    }
+
+    /**
+     * อ่านไฟล์ แบ่ง Chunk และประมวลผลแบบขนาน
+     */
+    private <T> void run(
+            String operation,
+            InputStream input,
+            OutputStream output,
+            RowParser<T> parser,
+            Function<T, String> referenceIdOf,
+            Function<List<BulkRow<T>>, List<BulkItemResult>> chunkHandler,
+            Function<T, PaymentResponse> rowHandler) throws IOException {
+        
+        long started = System.currentTimeMillis();
+        ResultWriter writer = new ResultWriter(output);
+        Semaphore inFlight = new Semaphore(parallelism);
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            
+            List<BulkRow<T>> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 0;
+            String line;
+            while (!writer.isBroken() && (line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                
+                T request;
+                try {
+                    request = parser.parse(line);
+                    if (request == null) {
+                        continue; // Header
+                    }
+                    validate(request);
+                } catch (Exception e) {
+                    writer.write(List.of(BulkItemResult.failure(lineNumber, null, "INVALID_ROW", e.getMessage())));
+                    continue;
+                }
+                
+                chunk.add(new BulkRow<>(lineNumber, request));
+                if (chunk.size() == chunkSize) {
+                    submit(executor, inFlight, chunk, writer, referenceIdOf, chunkHandler, rowHandler);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(executor, inFlight, chunk, writer, referenceIdOf, chunkHandler, rowHandler);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("Bulk " + operation + " interrupted", e);
+        }
+        
+        logger.info("Bulk {} finished: {} succeeded, {} failed in {} ms",
+            operation, writer.succeeded, writer.failed, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * ส่ง Chunk ไปทำบน Virtual Thread (รอถ้ามี Chunk ค้างครบ parallelism แล้ว)
+     */
+    private <T> void submit(
+            ExecutorService executor,
+            Semaphore inFlight,
+            List<BulkRow<T>> chunk,
+            ResultWriter writer,
+            Function<T, String> referenceIdOf,
+            Function<List<BulkRow<T>>, List<BulkItemResult>> chunkHandler,
+            Function<T, PaymentResponse> rowHandler) throws InterruptedException {
+        
+        inFlight.acquire();
+        executor.submit(() -> {
+            try {
+                writer.write(processChunk(chunk, referenceIdOf, chunkHandler, rowHandler));
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * ทำทั้ง Chunk ใน Transaction เดียว ถ้าล้มเหลวจะทำทีละแถวแทน
+     */
+    private <T> List<BulkItemResult> processChunk(
+            List<BulkRow<T>> chunk,
+            Function<T, String> referenceIdOf,
+            Function<List<BulkRow<T>>, List<BulkItemResult>> chunkHandler,
+            Function<T, PaymentResponse> rowHandler) {
+        try {
+            return chunkHandler.apply(chunk);
+        } catch (RuntimeException e) {
+            logger.debug("Bulk chunk starting at line {} failed ({}), falling back to single rows",
+                chunk.getFirst().line(), e.getMessage());
+        }
+        
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        for (BulkRow<T> row : chunk) {
+            String referenceId = referenceIdOf.apply(row.request());
+            try {
+                results.add(BulkItemResult.success(row.line(), rowHandler.apply(row.request())));
+            } catch (PaymentException e) {
+                results.add(BulkItemResult.failure(row.line(), referenceId, e.getErrorCode(), e.getMessage()));
+            } catch (OptimisticLockingFailureException e) {
+                results.add(BulkItemResult.failure(row.line(), referenceId, "CONCURRENT_UPDATE", "Payment was modified concurrently"));
+            } catch (RuntimeException e) {
+                logger.error("Bulk row {} failed for payment {}", row.line(), referenceId, e);
+                results.add(BulkItemResult.failure(row.line(), referenceId, "INTERNAL_ERROR", "An unexpected error occurred"));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * ตรวจสอบ Bean Validation (@NotBlank, @DecimalMin, ...)
+     */
+    private void validate(Object request) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * สร้าง Parser สำหรับ CSV: บรรทัดแรกเป็น Header (ชื่อคอลัมน์ไม่สนตัวพิมพ์ และไม่สน _)
+     */
+    private <T> RowParser<T> csvParser(Function<Map<String, String>, T> mapper) {
+        return new RowParser<>() {
+            private String[] header;
+
+            @Override
+            public T parse(String line) {
+                List<String> fields = splitCsv(line);
+                if (header == null) {
+                    header = fields.stream()
+                        .map(name -> name.replace("_", "").toLowerCase(Locale.ROOT))
+                        .toArray(String[]::new);
+                    return null;
+                }
+                Map<String, String> columns = new HashMap<>();
+                for (int i = 0; i < header.length && i < fields.size(); i++) {
+                    String value = fields.get(i);
+                    columns.put(header[i], value.isEmpty() ? null : value);
+                }
+                return mapper.apply(columns);
+            }
+        };
+    }
+
+    /**
+     * แยกคอลัมน์ CSV หนึ่งบรรทัด (รองรับ "..." และ "" ภายใน Quote, ไม่รองรับขึ้นบรรทัดใหม่ใน Quote)
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("amount: Invalid number '" + value + "'");
+        }
+    }
+
+    /**
+     * แปลงหนึ่งบรรทัดเป็น Request (คืน null = ข้ามบรรทัด)
+     */
+    @FunctionalInterface
+    private interface RowParser<T> {
+        T parse(String line) throws IOException;
+    }
+
+    /**
+     * เขียนผลลัพธ์ NDJSON จากหลาย Virtual Threads (Synchronized)
+     * ถ้า Client ปิด Connection จะหยุดอ่านไฟล์ต่อ
+     */
+    private final class ResultWriter {
+        private final OutputStream output;
+        private volatile boolean broken;
+        private long succeeded;
+        private long failed;
+
+        ResultWriter(OutputStream output) {
+            this.output = output;
+        }
+
+        synchronized void write(List<BulkItemResult> results) {
+            if (broken) {
+                return;
+            }
+            try {
+                for (BulkItemResult result : results) {
+                    output.write(objectMapper.writeValueAsBytes(result));
+                    output.write(NEWLINE);
+                    if (result.success()) {
+                        succeeded++;
+                    } else {
+                        failed++;
+                    }
+                }
+                output.flush();
+            } catch (IOException e) {
+                broken = true;
+                logger.warn("Bulk result stream closed by client: {}", e.getMessage());
+            }
+        }
+
+        boolean isBroken() {
+            return broken;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.payment.gateway.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bulkhead - กำหนดกลุ่มการใช้ DB Connection ของ Method (ดู {@link BulkheadAspect})
+ *
+ * แต่ละกลุ่มมีจำนวนงานพร้อมกันสูงสุดของตัวเอง งาน Search/Dashboard ที่ช้า
+ * จึงใช้ Connection ได้ไม่เกินโควตาของกลุ่ม และเหลือ Connection ให้การสร้าง/เปลี่ยนสถานะ Payment เสมอ
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    Type value();
+
+    /**
+     * กลุ่มงาน
+     */
+    enum Type {
+        /** สร้าง/เปลี่ยนสถานะ Payment (รอนานได้ ไม่ปฏิเสธเร็ว) */
+        CRITICAL,
+        /** อ่านรายการเดียวหรือไม่กี่รายการตาม Key */
+        LOOKUP,
+        /** Search, สถิติ และ Export ที่อาจสแกนทั้งตาราง */
+        ANALYTICS
+    }
+}
@@ -0,0 +1,170 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * BulkheadAspect - แบ่งโควตา DB Connection ตามกลุ่มงานของ {@link Bulkhead}
+ *
+ * - แต่ละกลุ่มมี Semaphore ขนาด payment.bulkhead.{กลุ่ม}.max-concurrent (Fair: ใครรอก่อนได้ก่อน)
+ * - ถ้ารอเกิน max-wait-ms จะตอบ 503 พร้อม Retry-After แทนการรอ Connection Pool จน Timeout
+ * - ทำงานก่อน @Transactional (Order สูงกว่า) จึงยังไม่ได้ถือ Connection ขณะรอ
+ *
+ * ผลรวมโควตาของ LOOKUP + ANALYTICS ควรน้อยกว่าขนาด Pool เพื่อกัน Connection ที่เหลือไว้ให้งาน CRITICAL
+ *
+ * Metrics (/actuator/metrics, Tag bulkhead):
+ * - db.bulkhead.wait: เวลารอ Permit
+ * - db.bulkhead.active / db.bulkhead.waiting: งานที่กำลังทำ / กำลังรอ
+ * - db.bulkhead.saturation: active / max-concurrent
+ * - db.bulkhead.rejected: จำนวนครั้งที่รอไม่ทัน
+ */
+@Aspect
+@Component
+@Order(0)
+public class BulkheadAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadAspect.class);
+
+    // กลุ่มของ Method ชั้นนอกสุดที่ Thread นี้กำลังทำ (Method ที่เรียกต่อกันใช้ Permit เดียว)
+    private static final ThreadLocal<Bulkhead.Type> CURRENT = new ThreadLocal<>();
+
+    private final Map<Bulkhead.Type, Compartment> compartments = new EnumMap<>(Bulkhead.Type.class);
+
+    public BulkheadAspect(Environment environment, MeterRegistry meterRegistry) {
+        for (Bulkhead.Type type : Bulkhead.Type.values()) {
+            String name = type.name().toLowerCase(Locale.ROOT);
+            String prefix = "payment.bulkhead." + name + ".";
+            int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, 10);
+            long maxWaitMs = environment.getProperty(prefix + "max-wait-ms", Long.class, 1000L);
+            Compartment compartment = new Compartment(type, maxConcurrent, maxWaitMs, meterRegistry);
+            compartments.put(type, compartment);
+            logger.info("Bulkhead {}: max-concurrent={}, max-wait-ms={}", name, maxConcurrent, maxWaitMs);
+        }
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object guard(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        if (CURRENT.get() != null) {
+            // ถือ Permit อยู่แล้ว: ขอซ้อนอีกอาจรอกันเองจน Timeout เมื่อกลุ่มเต็ม
+            return joinPoint.proceed();
+        }
+        Compartment compartment = enter(bulkhead.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            exit(compartment);
+        }
+    }
+
+    /**
+     * ทำงานภายใต้ Bulkhead แบบไม่ใช้ Annotation
+     * (สำหรับงานที่ทำเพียงบางกรณีภายใน Method เช่นการโหลดของ Leader ใน {@link SingleFlight})
+     *
+     * @param type กลุ่ม
+     * @param action งานที่ใช้ Database
+     * @return ผลของงาน
+     */
+    public <T> T execute(Bulkhead.Type type, Supplier<T> action) {
+        if (CURRENT.get() != null) {
+            return action.get();
+        }
+        Compartment compartment;
+        try {
+            compartment = enter(type);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("BULKHEAD_FULL", "Interrupted while waiting for a database permit", 1);
+        }
+        try {
+            return action.get();
+        } finally {
+            exit(compartment);
+        }
+    }
+
+    private Compartment enter(Bulkhead.Type type) throws InterruptedException {
+        Compartment compartment = compartments.get(type);
+        compartment.acquire();
+        CURRENT.set(type);
+        return compartment;
+    }
+
+    private void exit(Compartment compartment) {
+        CURRENT.remove();
+        compartment.permits.release();
+    }
+
+    /**
+     * Semaphore และ Metrics ของหนึ่งกลุ่ม
+     */
+    private static final class Compartment {
+
+        private final Bulkhead.Type type;
+        private final Semaphore permits;
+        private final int maxConcurrent;
+        private final long maxWaitMs;
+        private final Timer waitTimer;
+        private final Counter rejected;
+
+        private Compartment(Bulkhead.Type type, int maxConcurrent, long maxWaitMs, MeterRegistry meterRegistry) {
+            this.type = type;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaitMs = maxWaitMs;
+
+            String tag = type.name().toLowerCase(Locale.ROOT);
+            this.waitTimer = Timer.builder("db.bulkhead.wait")
+                .description("Time spent waiting for a database bulkhead permit")
+                .tag("bulkhead", tag)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+            this.rejected = Counter.builder("db.bulkhead.rejected")
+                .description("Calls rejected because the bulkhead stayed full for max-wait-ms")
+                .tag("bulkhead", tag)
+                .register(meterRegistry);
+            Gauge.builder("db.bulkhead.active", this, Compartment::active)
+                .tag("bulkhead", tag)
+                .register(meterRegistry);
+            Gauge.builder("db.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .tag("bulkhead", tag)
+                .register(meterRegistry);
+            Gauge.builder("db.bulkhead.saturation", this, c -> (double) c.active() / c.maxConcurrent)
+                .tag("bulkhead", tag)
+                .register(meterRegistry);
+        }
+
+        private int active() {
+            return maxConcurrent - permits.availablePermits();
+        }
+
+        private void acquire() throws InterruptedException {
+            long start = System.nanoTime();
+            boolean acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejected.increment();
+                throw new ServiceUnavailableException("BULKHEAD_FULL",
+                    "Too many concurrent " + type.name().toLowerCase(Locale.ROOT) + " requests. Please retry later.",
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMs)));
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.payment.gateway.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * HierarchicalTimingWheel - ตัวตั้งเวลาแบบวงล้อหลายชั้นสำหรับงานจำนวนมาก
+ * 
+ * ใช้ติดตามเวลาหมดอายุของ Payment จำนวนมากในหน่วยความจำ
+ * - schedule: O(1)
+ * - advance: O(จำนวนที่ถึงเวลา + จำนวนที่ต้องเลื่อนชั้น)
+ * 
+ * ชั้นที่ 0 มี Slot ละ 1 Tick, ชั้นที่ L มี Slot ละ slots^L Ticks
+ * เมื่อชั้นล่างหมุนครบรอบ รายการใน Slot ปัจจุบันของชั้นบนจะถูกเลื่อนลงมา (Cascade)
+ * 
+ * Class นี้ Thread-safe (synchronized ทุก Method)
+ */
+public final class HierarchicalTimingWheel {
+
+    private final long tickMs;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final List<List<Entry>> buckets;
+    private List<Entry> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMs ความละเอียดของเวลา (ms ต่อ Tick)
+     * @param slotBits จำนวน Bit ของ Slot ต่อชั้น (เช่น 6 = 64 Slots)
+     * @param levels จำนวนชั้น
+     * @param startMs เวลาเริ่มต้น (epoch ms)
+     */
+    public HierarchicalTimingWheel(long tickMs, int slotBits, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.bits = slotBits;
+        this.mask = (1 << slotBits) - 1;
+        this.levels = levels;
+        this.buckets = new ArrayList<>(levels << slotBits);
+        for (int i = 0; i < levels << slotBits; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * ตั้งเวลาให้ ID หนึ่งรายการ
+     * 
+     * @param id ID ของงาน (Payment ID)
+     * @param deadlineMs เวลาที่ถึงกำหนด (epoch ms)
+     */
+    public synchronized void schedule(long id, long deadlineMs) {
+        place(new Entry(id, deadlineMs / tickMs));
+        size++;
+    }
+
+    /**
+     * เลื่อนเวลาไปจนถึง nowMs แล้วส่ง ID ที่ถึงกำหนดให้ Consumer
+     * 
+     * @param nowMs เวลาปัจจุบัน (epoch ms)
+     * @param expired Consumer ที่รับ ID ที่ถึงกำหนด
+     * @return จำนวน ID ที่ถึงกำหนด
+     */
+    public synchronized int advance(long nowMs, LongConsumer expired) {
+        int fired = 0;
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            
+            // Cascade จากชั้นบนลงชั้นล่างเมื่อชั้นล่างหมุนครบรอบ
+            for (int level = 1; level < levels; level++) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) != 0) {
+                    break;
+                }
+                List<Entry> bucket = take(level, slotOf(currentTick, level));
+                for (Entry entry : bucket) {
+                    place(entry);
+                }
+            }
+            
+            List<Entry> bucket = take(0, slotOf(currentTick, 0));
+            for (Entry entry : bucket) {
+                if (entry.tick() <= currentTick) {
+                    expired.accept(entry.id());
+                    fired++;
+                } else {
+                    place(entry);
+                }
+            }
+        }
+        
+        // รายการที่เลยกำหนดแล้ว (ตั้งเวลาย้อนหลัง หรือเลื่อนชั้นมาตรงเวลาพอดี)
+        fired += drain(overdue, expired);
+        overdue = new ArrayList<>();
+        
+        size -= fired;
+        return fired;
+    }
+
+    /**
+     * จำนวนรายการที่ยังรออยู่
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * วางรายการลงชั้นที่เหมาะกับระยะห่างจากเวลาปัจจุบัน
+     */
+    private void place(Entry entry) {
+        long delta = entry.tick() - currentTick;
+        if (delta <= 0) {
+            overdue.add(entry);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            long span = 1L << (bits * (level + 1));
+            if (delta < span || level == levels - 1) {
+                buckets.get((level << bits) + slotOf(entry.tick(), level)).add(entry);
+                return;
+            }
+        }
+    }
+
+    private int slotOf(long tick, int level) {
+        return (int) ((tick >>> (bits * level)) & mask);
+    }
+
+    private List<Entry> take(int level, int slot) {
+        int index = (level << bits) + slot;
+        List<Entry> bucket = buckets.get(index);
+        if (bucket.isEmpty()) {
+            return bucket;
+        }
+        buckets.set(index, new ArrayList<>());
+        return bucket;
+    }
+
+    private int drain(List<Entry> entries, LongConsumer expired) {
+        for (Entry entry : entries) {
+            expired.accept(entry.id());
+        }
+        return entries.size();
+    }
+
+    /**
+     * รายการในวงล้อ (ID และ Tick ที่ถึงกำหนด)
+     */
+    private record Entry(long id, long tick) {}
+}
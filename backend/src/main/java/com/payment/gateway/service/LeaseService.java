@@ -0,0 +1,109 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.SchedulerLease;
+import com.payment.gateway.repository.SchedulerLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * LeaseService - เลือก Node เดียวให้รันงานตั้งเวลาผ่าน Lease ใน Database
+ * 
+ * รับผิดชอบ:
+ * - ขอ/ต่ออายุ Lease (Conditional UPDATE)
+ * - สร้างแถว Lease ครั้งแรก (ถ้าชนกันกับ Node อื่นถือว่าไม่ได้ Lease)
+ * - คืน Lease ตอนปิด Application
+ */
+@Service
+public class LeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseService.class);
+    
+    private final SchedulerLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String hostName;
+    private final String nodeId;
+
+    public LeaseService(SchedulerLeaseRepository leaseRepository, PlatformTransactionManager transactionManager) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hostName = resolveHostName();
+        this.nodeId = hostName + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * ID ของ Node นี้
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * ชื่อเครื่องของ Node นี้ (คงเดิมหลัง Restart ต่างจาก {@link #nodeId})
+     */
+    public String hostName() {
+        return hostName;
+    }
+
+    /**
+     * ขอหรือต่ออายุ Lease
+     * 
+     * @param name ชื่องาน
+     * @param duration อายุของ Lease
+     * @return true ถ้า Node นี้ถือ Lease อยู่
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(duration);
+        
+        Integer updated = transactionTemplate.execute(status -> leaseRepository.tryAcquire(name, nodeId, now, until));
+        if (updated != null && updated == 1) {
+            return true;
+        }
+        
+        // ยังไม่มีแถว Lease - สร้างใหม่ (Node ที่ Insert ไม่สำเร็จถือว่าแพ้)
+        try {
+            Boolean created = transactionTemplate.execute(status -> {
+                if (leaseRepository.existsById(name)) {
+                    return false;
+                }
+                leaseRepository.saveAndFlush(new SchedulerLease(name, nodeId, until));
+                return true;
+            });
+            if (Boolean.TRUE.equals(created)) {
+                logger.info("Lease {} created by {}", name, nodeId);
+                return true;
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Lease {} was created concurrently by another node", name);
+        }
+        return false;
+    }
+
+    /**
+     * คืน Lease
+     * 
+     * @param name ชื่องาน
+     */
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(
+            status -> leaseRepository.release(name, nodeId, LocalDateTime.now()));
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.LedgerBalanceResponse;
+import com.payment.gateway.dto.LedgerCheckpointResponse;
+import com.payment.gateway.dto.LedgerVerificationResult;
+import com.payment.gateway.dto.LedgerVerificationResult.Mismatch;
+import com.payment.gateway.entity.LedgerAccount;
+import com.payment.gateway.entity.LedgerDirection;
+import com.payment.gateway.entity.LedgerEntry;
+import com.payment.gateway.entity.Transaction;
+import com.payment.gateway.entity.TransactionStatus;
+import com.payment.gateway.repository.LedgerBalanceRepository;
+import com.payment.gateway.repository.LedgerCheckpointRepository;
+import com.payment.gateway.repository.LedgerEntryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * LedgerService - สมุดบัญชีคู่ของ Merchant
+ *
+ * รับผิดชอบ:
+ * - ลงรายการบัญชี (Append-only) พร้อมกับ Transaction ที่มีผลต่อยอดเงิน
+ * - อัพเดทยอดคงเหลือแบบสะสมใน Transaction เดียวกัน (อ่านยอดได้ O(1))
+ * - สร้าง Checkpoint ของยอดคงเหลือเป็นรอบสำหรับ Audit
+ * - ตรวจสอบยอดคงเหลือเทียบกับผลรวมรายการแบบขนานทีละ Merchant
+ *
+ * การลงบัญชี:
+ * - CAPTURE/CHARGE: Dr GATEWAY_CLEARING / Cr MERCHANT_PAYABLE
+ * - REFUND: Dr MERCHANT_PAYABLE / Cr GATEWAY_CLEARING
+ * - ประเภทอื่นไม่มีผลต่อยอดเงิน
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+    private static final String CHECKPOINT_LEASE = "ledger-checkpoint";
+    private static final String VERIFY_LEASE = "ledger-verify";
+
+    private static final String MERCHANTS_SQL =
+        "SELECT merchant_id FROM ledger_balances UNION SELECT merchant_id FROM ledger_entries";
+
+    private static final String ENTRY_TOTALS_SQL =
+        "SELECT account, currency, SUM(CASE WHEN direction = 'CREDIT' THEN amount ELSE -amount END), COUNT(*) " +
+        "FROM ledger_entries WHERE merchant_id = ? GROUP BY account, currency";
+
+    private static final String ENTRY_INSERT_SQL =
+        "INSERT INTO ledger_entries (merchant_id, payment_id, transaction_id, account, direction, amount, currency, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // ลำดับเดียวกับ post(): Merchant แล้วตามลำดับบัญชี
+    private static final Comparator<BalanceKey> BALANCE_ORDER = Comparator
+        .comparing(BalanceKey::merchantId)
+        .thenComparing(BalanceKey::account)
+        .thenComparing(BalanceKey::currency);
+
+    private static final String BALANCES_SQL =
+        "SELECT account, currency, balance, entry_count FROM ledger_balances WHERE merchant_id = ?";
+
+    private final LedgerEntryRepository entryRepository;
+    private final LedgerBalanceRepository balanceRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final LeaseService leaseService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final ForkJoinPool pool;
+    private final BackgroundJob verifyJob = new BackgroundJob("ledger-verify");
+
+    @Value("${payment.ledger.jobs-enabled:true}")
+    private boolean jobsEnabled;
+
+    public LedgerService(
+            LedgerEntryRepository entryRepository,
+            LedgerBalanceRepository balanceRepository,
+            LedgerCheckpointRepository checkpointRepository,
+            LeaseService leaseService,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${payment.ledger.verify-parallelism:4}") int parallelism) {
+        this.entryRepository = entryRepository;
+        this.balanceRepository = balanceRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.leaseService = leaseService;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // อ่านรายการและยอดคงเหลือของ Merchant จาก Snapshot เดียวกัน
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * ลงบัญชีของ Transaction (ต้องเรียกภายใน Transaction เดียวกับที่บันทึก Transaction)
+     *
+     * @param transaction Transaction ที่บันทึกแล้ว
+     */
+    @Transactional
+    public void post(Transaction transaction) {
+        Posting posting = postingOf(transaction);
+        if (posting == null) {
+            return;
+        }
+
+        Long merchantId = transaction.getPayment().getMerchant().getId();
+        BigDecimal amount = transaction.getAmount();
+        String currency = transaction.getCurrency();
+        entryRepository.saveAll(List.of(
+            entry(transaction, merchantId, posting.debit(), LedgerDirection.DEBIT),
+            entry(transaction, merchantId, posting.credit(), LedgerDirection.CREDIT)
+        ));
+
+        // อัพเดทยอดตามลำดับบัญชีที่แน่นอนเสมอ เพื่อไม่ให้เกิด Deadlock ระหว่าง CAPTURE กับ REFUND
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerAccount account : LedgerAccount.values()) {
+            if (account == posting.credit()) {
+                balanceRepository.applyDelta(merchantId, account.name(), currency, amount, 1, now);
+            } else if (account == posting.debit()) {
+                balanceRepository.applyDelta(merchantId, account.name(), currency, amount.negate(), 1, now);
+            }
+        }
+    }
+
+    /**
+     * ลงบัญชีหลาย Transaction พร้อมกัน (ใช้กับ Bulk Refund)
+     *
+     * LedgerEntry ใช้ ID แบบ IDENTITY ซึ่ง Hibernate ไม่รวม INSERT เป็น Batch
+     * จึงเขียนรายการทั้งหมดด้วย JDBC Batch INSERT เดียว แล้วรวมยอดต่อบัญชีก่อน applyDelta
+     * (หนึ่งคำสั่งต่อบัญชีแทนสองคำสั่งต่อ Transaction) โดยเรียงตาม Merchant และบัญชีเพื่อไม่ให้เกิด Deadlock
+     *
+     * @param transactions Transaction ที่บันทึกแล้ว
+     */
+    @Transactional
+    public void postAll(List<Transaction> transactions) {
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerEntry> entries = new ArrayList<>();
+        Map<BalanceKey, Totals> deltas = new TreeMap<>(BALANCE_ORDER);
+        for (Transaction transaction : transactions) {
+            Posting posting = postingOf(transaction);
+            if (posting == null) {
+                continue;
+            }
+            Long merchantId = transaction.getPayment().getMerchant().getId();
+            BigDecimal amount = transaction.getAmount();
+            String currency = transaction.getCurrency();
+            entries.add(entry(transaction, merchantId, posting.debit(), LedgerDirection.DEBIT));
+            entries.add(entry(transaction, merchantId, posting.credit(), LedgerDirection.CREDIT));
+            deltas.merge(new BalanceKey(merchantId, posting.debit(), currency),
+                new Totals(amount.negate(), 1), Totals::plus);
+            deltas.merge(new BalanceKey(merchantId, posting.credit(), currency),
+                new Totals(amount, 1), Totals::plus);
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(ENTRY_INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getMerchantId());
+            ps.setLong(2, entry.getPaymentId());
+            ps.setString(3, entry.getTransactionId());
+            ps.setString(4, entry.getAccount().name());
+            ps.setString(5, entry.getDirection().name());
+            ps.setBigDecimal(6, entry.getAmount());
+            ps.setString(7, entry.getCurrency());
+            ps.setTimestamp(8, Timestamp.valueOf(now));
+        });
+        deltas.forEach((key, totals) -> balanceRepository.applyDelta(
+            key.merchantId(), key.account().name(), key.currency(), totals.balance(), totals.entries(), now));
+    }
+
+    /**
+     * ดึงยอดคงเหลือทุกบัญชีของ Merchant
+     *
+     * @param merchantId Merchant ID
+     * @return รายการ LedgerBalanceResponse
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerBalanceResponse> getBalances(Long merchantId) {
+        return balanceRepository.findByMerchantIdOrderByAccountAscCurrencyAsc(merchantId).stream()
+            .map(balance -> new LedgerBalanceResponse(
+                balance.getMerchantId(),
+                balance.getAccount(),
+                balance.getCurrency(),
+                balance.getBalance(),
+                balance.getEntryCount(),
+                balance.getUpdatedAt()))
+            .toList();
+    }
+
+    /**
+     * ดึง Checkpoint ล่าสุดของ Merchant
+     *
+     * @param merchantId Merchant ID
+     * @return รายการ LedgerCheckpointResponse (ใหม่สุดก่อน)
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerCheckpointResponse> getCheckpoints(Long merchantId) {
+        return checkpointRepository.findTop50ByMerchantIdOrderByIdDesc(merchantId).stream()
+            .map(checkpoint -> new LedgerCheckpointResponse(
+                checkpoint.getCheckpointId(),
+                checkpoint.getAccount(),
+                checkpoint.getCurrency(),
+                checkpoint.getBalance(),
+                checkpoint.getEntryCount(),
+                checkpoint.getCreatedAt()))
+            .toList();
+    }
+
+    /**
+     * บันทึก Checkpoint ของยอดคงเหลือทุกบัญชี
+     *
+     * @return รหัสรอบและจำนวนบัญชีที่บันทึก
+     */
+    public Map<String, Object> checkpoint() {
+        String checkpointId = "CKP-" + UUID.randomUUID().toString().toUpperCase().substring(0, 18);
+        Integer accounts = writeTemplate.execute(status ->
+            checkpointRepository.snapshotBalances(checkpointId, LocalDateTime.now()));
+        logger.info("Ledger checkpoint {}: {} accounts", checkpointId, accounts);
+        return Map.of("checkpointId", checkpointId, "accounts", accounts != null ? accounts : 0);
+    }
+
+    /**
+     * ตรวจสอบยอดคงเหลือทุกบัญชีเทียบกับผลรวมรายการบัญชี (ขนานทีละ Merchant)
+     *
+     * ตรวจ 2 เงื่อนไข:
+     * - ยอดและจำนวนรายการใน ledger_balances ตรงกับผลรวมจาก ledger_entries
+     * - ผลรวมยอดทุกบัญชีของแต่ละสกุลเงินเป็น 0 (Debit = Credit)
+     *
+     * @return ผลการตรวจสอบ
+     */
+    public LedgerVerificationResult verify() {
+        long started = System.currentTimeMillis();
+        List<Long> merchantIds = jdbcTemplate.queryForList(MERCHANTS_SQL, Long.class);
+
+        List<MerchantCheck> checks = pool.submit(() -> merchantIds.parallelStream()
+            .map(this::verifyMerchant)
+            .toList()).join();
+
+        List<Mismatch> mismatches = checks.stream().flatMap(check -> check.mismatches().stream()).toList();
+        LedgerVerificationResult result = new LedgerVerificationResult(
+            merchantIds.size(),
+            checks.stream().mapToInt(MerchantCheck::accounts).sum(),
+            mismatches.isEmpty(),
+            pool.getParallelism(),
+            System.currentTimeMillis() - started,
+            mismatches
+        );
+        if (result.consistent()) {
+            logger.info("Ledger verified: {} merchants, {} accounts in {} ms",
+                result.merchants(), result.accounts(), result.durationMs());
+        } else {
+            logger.error("Ledger verification found {} mismatches: {}", mismatches.size(), mismatches);
+        }
+        return result;
+    }
+
+    /**
+     * บันทึก Checkpoint ตามเวลาที่ตั้ง (Node เดียวผ่าน Lease)
+     */
+    @Scheduled(cron = "${payment.ledger.checkpoint-cron:0 0 * * * *}")
+    public void scheduledCheckpoint() {
+        if (!jobsEnabled || !leaseService.tryAcquire(CHECKPOINT_LEASE, Duration.ofMinutes(10))) {
+            return;
+        }
+        try {
+            checkpoint();
+        } finally {
+            leaseService.release(CHECKPOINT_LEASE);
+        }
+    }
+
+    /**
+     * ตรวจสอบ Ledger ตามเวลาที่ตั้ง (Node เดียวผ่าน Lease)
+     */
+    @Scheduled(cron = "${payment.ledger.verify-cron:0 15 3 * * *}")
+    public void scheduledVerify() {
+        if (!jobsEnabled) {
+            return;
+        }
+        verifyJob.submit(() -> {
+            if (!leaseService.tryAcquire(VERIFY_LEASE, Duration.ofHours(1))) {
+                return;
+            }
+            try {
+                verify();
+            } finally {
+                leaseService.release(VERIFY_LEASE);
+            }
+        });
+    }
+
+    /**
+     * ตรวจหนึ่ง Merchant จาก Snapshot เดียวกัน
+     */
+    private MerchantCheck verifyMerchant(Long merchantId) {
+        return snapshotTemplate.execute(status -> {
+            Map<String, Totals> expected = new HashMap<>();
+            jdbcTemplate.query(ENTRY_TOTALS_SQL, rs -> {
+                expected.put(rs.getString(1) + "|" + rs.getString(2), new Totals(rs.getBigDecimal(3), rs.getLong(4)));
+            }, merchantId);
+            Map<String, Totals> recorded = new HashMap<>();
+            jdbcTemplate.query(BALANCES_SQL, rs -> {
+                recorded.put(rs.getString(1) + "|" + rs.getString(2), new Totals(rs.getBigDecimal(3), rs.getLong(4)));
+            }, merchantId);
+
+            List<Mismatch> mismatches = new ArrayList<>();
+            Map<String, BigDecimal> currencyTotals = new HashMap<>();
+            Map<String, Totals> keys = new HashMap<>(recorded);
+            keys.putAll(expected);
+            keys.keySet().forEach(key -> {
+                Totals want = expected.getOrDefault(key, Totals.EMPTY);
+                Totals have = recorded.getOrDefault(key, Totals.EMPTY);
+                String[] parts = key.split("\\|", 2);
+                currencyTotals.merge(parts[1], want.balance(), BigDecimal::add);
+                if (want.balance().compareTo(have.balance()) != 0 || want.entries() != have.entries()) {
+                    mismatches.add(new Mismatch(merchantId, LedgerAccount.valueOf(parts[0]), parts[1],
+                        want.balance(), have.balance(), want.entries(), have.entries()));
+                }
+            });
+            currencyTotals.forEach((currency, total) -> {
+                if (total.signum() != 0) {
+                    mismatches.add(new Mismatch(merchantId, null, currency, BigDecimal.ZERO, total, null, null));
+                }
+            });
+            return new MerchantCheck(keys.size(), mismatches);
+        });
+    }
+
+    /**
+     * บัญชีฝั่ง Debit/Credit ของ Transaction (null = ไม่มีผลต่อยอดเงิน)
+     */
+    private static Posting postingOf(Transaction transaction) {
+        if (transaction.getStatus() != TransactionStatus.SUCCESS || transaction.getAmount().signum() == 0) {
+            return null;
+        }
+        return switch (transaction.getTransactionType()) {
+            case CAPTURE, CHARGE -> new Posting(LedgerAccount.GATEWAY_CLEARING, LedgerAccount.MERCHANT_PAYABLE);
+            case REFUND -> new Posting(LedgerAccount.MERCHANT_PAYABLE, LedgerAccount.GATEWAY_CLEARING);
+            default -> null;
+        };
+    }
+
+    private LedgerEntry entry(Transaction transaction, Long merchantId, LedgerAccount account, LedgerDirection direction) {
+        return LedgerEntry.builder()
+            .merchantId(merchantId)
+            .paymentId(transaction.getPayment().getId())
+            .transactionId(transaction.getTransactionId())
+            .account(account)
+            .direction(direction)
+            .amount(transaction.getAmount())
+            .currency(transaction.getCurrency())
+            .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifyJob.close();
+        pool.shutdownNow();
+    }
+
+    /**
+     * ยอดรวมและจำนวนรายการของหนึ่งบัญชี
+     */
+    private record Totals(BigDecimal balance, long entries) {
+        static final Totals EMPTY = new Totals(BigDecimal.ZERO, 0);
+
+        Totals plus(Totals other) {
+            return new Totals(balance.add(other.balance), entries + other.entries);
+        }
+    }
+
+    private record Posting(LedgerAccount debit, LedgerAccount credit) {}
+
+    private record BalanceKey(Long merchantId, LedgerAccount account, String currency) {}
+
+    /**
+     * ผลตรวจของหนึ่ง Merchant
+     */
+    private record MerchantCheck(int accounts, List<Mismatch> mismatches) {}
+}
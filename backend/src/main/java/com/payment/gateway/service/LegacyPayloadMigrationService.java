@@ -0,0 +1,183 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.PaymentMetadata;
+import com.payment.gateway.entity.TransactionPayload;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * LegacyPayloadMigrationService - ย้ายข้อมูลจาก Column TEXT เดิมไปตารางแยกแบบบีบอัด
+ *
+ * ก่อนแยกตาราง Metadata ของ Payment อยู่ใน payments.metadata
+ * และ Raw Request/Response อยู่ใน transactions.raw_request / raw_response
+ * Entity ไม่ได้ Map Column เหล่านี้แล้ว ข้อมูลเดิมจึงต้องถูกย้ายมาที่ payment_metadata / transaction_payloads
+ *
+ * การทำงาน (Node เดียวผ่าน Lease, ทำซ้ำทุก interval-ms จนเสร็จ):
+ * - ไล่ตาม ID ทีละ batch-size: สร้างแถวในตารางใหม่, ตั้ง metadata_id / payload_id และล้าง Column เดิมเป็น NULL
+ * - UPDATE payments เพิ่ม version ด้วย (การ Save ผ่าน JPA ที่โหลดไว้ก่อนจะชน Version แทนการเขียน metadata_id ทับเป็น NULL)
+ * - เมื่อไม่เหลือแถวเดิม (หรือไม่มี Column เดิมตั้งแต่แรก) ถือว่าเสร็จ และ DROP Column เดิมได้
+ *
+ * PaymentArchiveService รอจนย้ายเสร็จ เพราะ Archive คัดลอกเฉพาะ metadata_id / payload_id
+ */
+@Service
+public class LegacyPayloadMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyPayloadMigrationService.class);
+    private static final String LEASE_NAME = "legacy-payload-migration";
+
+    private static final String PAYMENTS_SQL =
+        "SELECT id, metadata FROM payments WHERE id > ? AND metadata IS NOT NULL AND metadata_id IS NULL " +
+        "ORDER BY id LIMIT ?";
+
+    private static final String TRANSACTIONS_SQL =
+        "SELECT id, raw_request, raw_response FROM transactions " +
+        "WHERE id > ? AND (raw_request IS NOT NULL OR raw_response IS NOT NULL) AND payload_id IS NULL " +
+        "ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final LeaseService leaseService;
+
+    @Value("${payment.legacy-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.legacy-migration.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean complete;
+
+    public LegacyPayloadMigrationService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManager entityManager,
+            LeaseService leaseService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.leaseService = leaseService;
+    }
+
+    /**
+     * ย้ายข้อมูลเดิมหมดแล้วหรือยัง
+     */
+    public boolean isComplete() {
+        if (!complete && !hasColumn("payments", "metadata") && !hasColumn("transactions", "raw_request")) {
+            complete = true;
+        }
+        return complete;
+    }
+
+    /**
+     * ย้ายข้อมูลที่เหลือ (Node เดียวผ่าน Lease)
+     */
+    @Scheduled(initialDelayString = "${payment.legacy-migration.initial-delay-ms:30000}",
+               fixedDelayString = "${payment.legacy-migration.interval-ms:600000}")
+    public void migrate() {
+        if (!enabled || isComplete() || !leaseService.tryAcquire(LEASE_NAME, Duration.ofMinutes(5))) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            long payments = hasColumn("payments", "metadata") ? migratePayments() : 0;
+            long transactions = hasColumn("transactions", "raw_request") ? migrateTransactions() : 0;
+            if (payments >= 0 && transactions >= 0) {
+                complete = true;
+                logger.info("Legacy payload migration finished: {} payments, {} transactions ({} ms). " +
+                    "Columns payments.metadata, transactions.raw_request and transactions.raw_response can be dropped",
+                    payments, transactions, System.currentTimeMillis() - started);
+            }
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    /**
+     * @return จำนวนที่ย้าย หรือ -1 ถ้าเสีย Lease ระหว่างทาง
+     */
+    private long migratePayments() {
+        long migrated = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(PAYMENTS_SQL,
+                (rs, i) -> new Object[] {rs.getLong(1), rs.getString(2)}, afterId, batchSize);
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+            transactionTemplate.executeWithoutResult(status -> rows.forEach(row -> {
+                PaymentMetadata metadata = PaymentMetadata.of((String) row[1]);
+                if (metadata != null) {
+                    entityManager.persist(metadata);
+                }
+                jdbcTemplate.update(
+                    "UPDATE payments SET metadata_id = ?, metadata = NULL, version = version + 1 " +
+                    "WHERE id = ? AND metadata_id IS NULL",
+                    metadata != null ? metadata.getId() : null, row[0]);
+            }));
+            migrated += rows.size();
+            afterId = (Long) rows.getLast()[0];
+            if (!renewLease()) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @return จำนวนที่ย้าย หรือ -1 ถ้าเสีย Lease ระหว่างทาง
+     */
+    private long migrateTransactions() {
+        long migrated = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(TRANSACTIONS_SQL,
+                (rs, i) -> new Object[] {rs.getLong(1), rs.getString(2), rs.getString(3)}, afterId, batchSize);
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+            transactionTemplate.executeWithoutResult(status -> rows.forEach(row -> {
+                TransactionPayload payload = TransactionPayload.builder()
+                    .rawRequest((String) row[1])
+                    .rawResponse((String) row[2])
+                    .build();
+                entityManager.persist(payload);
+                jdbcTemplate.update(
+                    "UPDATE transactions SET payload_id = ?, raw_request = NULL, raw_response = NULL " +
+                    "WHERE id = ? AND payload_id IS NULL",
+                    payload.getId(), row[0]);
+            }));
+            migrated += rows.size();
+            afterId = (Long) rows.getLast()[0];
+            if (!renewLease()) {
+                return -1;
+            }
+        }
+    }
+
+    private boolean renewLease() {
+        if (leaseService.tryAcquire(LEASE_NAME, Duration.ofMinutes(5))) {
+            return true;
+        }
+        logger.warn("Lost the legacy payload migration lease, stopping");
+        return false;
+    }
+
+    private boolean hasColumn(String table, String column) {
+        try {
+            jdbcTemplate.queryForList("SELECT " + column + " FROM " + table + " WHERE 1 = 0");
+            return true;
+        } catch (BadSqlGrammarException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.payment.gateway.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapReferenceIndex - Hash Index จาก referenceId ไป Payment ID ที่เก็บนอก Java Heap
+ *
+ * - Open Addressing (Linear Probing) ใน Direct ByteBuffer ก้อนเดียว Slot ละ 16 Byte: [Hash 64 บิต][ID]
+ *   ไม่เก็บตัว referenceId จึงใช้ประมาณ 23 Byte ต่อรายการ และไม่เพิ่มงานให้ GC
+ * - Hash 64 บิตชนกันได้ในทางทฤษฎี: ผลที่ได้จึงเป็น "ID ที่น่าจะใช่" ผู้เรียกต้องเทียบ referenceId กับแถวจริง
+ *   แต่ถ้าไม่พบแปลว่าไม่มีแน่นอน
+ * - อ่านได้พร้อมกันโดยไม่ Lock (ID เขียนก่อน Hash แบบ Release, อ่าน Hash แบบ Acquire)
+ *   การเขียนทำทีละ Thread (synchronized) ขยายตารางโดยสร้างใหม่แล้วสลับ Reference
+ */
+public final class OffHeapReferenceIndex {
+
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int SLOT_BYTES = 16;
+    private static final int MAX_LOAD_PERCENT = 70;
+    // 1 GB (ประมาณ 47 ล้านรายการ)
+    private static final int MAX_SLOTS = 1 << 26;
+
+    private volatile Table table;
+    private int size;
+
+    private record Table(ByteBuffer buffer, int mask) {
+
+        private static Table allocate(int slots) {
+            return new Table(ByteBuffer.allocateDirect(slots * SLOT_BYTES).order(ByteOrder.nativeOrder()), slots - 1);
+        }
+
+        private int slots() {
+            return mask + 1;
+        }
+    }
+
+    /**
+     * @param expectedSize จำนวนรายการที่คาดไว้ (ใช้จองพื้นที่ล่วงหน้า)
+     */
+    public OffHeapReferenceIndex(int expectedSize) {
+        long wanted = Math.max(1024L, (long) expectedSize * 100 / MAX_LOAD_PERCENT + 1);
+        int slots = (int) Math.min(MAX_SLOTS, Long.highestOneBit(wanted - 1) << 1);
+        this.table = Table.allocate(slots);
+    }
+
+    /**
+     * ค้นหา Payment ID
+     *
+     * @param referenceId Reference ID
+     * @return Payment ID หรือ 0 ถ้าไม่มี
+     */
+    public long get(String referenceId) {
+        long hash = hash(referenceId);
+        Table current = table;
+        int slot = (int) hash & current.mask();
+        while (true) {
+            int offset = slot * SLOT_BYTES;
+            long stored = (long) LONGS.getAcquire(current.buffer(), offset);
+            if (stored == 0) {
+                return 0;
+            }
+            if (stored == hash) {
+                return (long) LONGS.get(current.buffer(), offset + 8);
+            }
+            slot = (slot + 1) & current.mask();
+        }
+    }
+
+    /**
+     * เพิ่มหรือแทนที่รายการ
+     *
+     * @param referenceId Reference ID
+     * @param paymentId Payment ID (มากกว่า 0)
+     * @throws IllegalStateException เมื่อตารางเต็มที่ขนาดสูงสุด
+     */
+    public synchronized void put(String referenceId, long paymentId) {
+        long hash = hash(referenceId);
+        if (insert(table, hash, paymentId)) {
+            size++;
+            if ((long) size * 100 > (long) table.slots() * MAX_LOAD_PERCENT) {
+                grow();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * จำนวน Byte นอก Heap ที่ใช้อยู่
+     */
+    public long offHeapBytes() {
+        return (long) table.slots() * SLOT_BYTES;
+    }
+
+    /**
+     * @return true ถ้าเป็นรายการใหม่
+     */
+    private static boolean insert(Table target, long hash, long paymentId) {
+        int slot = (int) hash & target.mask();
+        while (true) {
+            int offset = slot * SLOT_BYTES;
+            long stored = (long) LONGS.get(target.buffer(), offset);
+            if (stored == hash) {
+                LONGS.setRelease(target.buffer(), offset + 8, paymentId);
+                return false;
+            }
+            if (stored == 0) {
+                LONGS.set(target.buffer(), offset + 8, paymentId);
+                LONGS.setRelease(target.buffer(), offset, hash);
+                return true;
+            }
+            slot = (slot + 1) & target.mask();
+        }
+    }
+
+    private void grow() {
+        Table current = table;
+        if (current.slots() >= MAX_SLOTS) {
+            if ((long) size * 100 > (long) MAX_SLOTS * 90) {
+                throw new IllegalStateException("Reference index is full (" + size + " entries)");
+            }
+            return;
+        }
+        Table bigger = Table.allocate(current.slots() << 1);
+        for (int slot = 0; slot < current.slots(); slot++) {
+            int offset = slot * SLOT_BYTES;
+            long hash = (long) LONGS.get(current.buffer(), offset);
+            if (hash != 0) {
+                insert(bigger, hash, (long) LONGS.get(current.buffer(), offset + 8));
+            }
+        }
+        table = bigger;
+    }
+
+    /**
+     * FNV-1a 64 บิต ตามด้วย Finalizer ของ MurmurHash3 (0 สงวนไว้แทน Slot ว่าง)
+     */
+    private static long hash(String referenceId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < referenceId.length(); i++) {
+            h ^= referenceId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,634 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.AnalyticsDimension;
+import com.payment.gateway.dto.AnalyticsQuery;
+import com.payment.gateway.dto.AnalyticsResponse;
+import com.payment.gateway.dto.AnalyticsRow;
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * PaymentAnalyticsStore - เก็บข้อมูล Payment แบบ Columnar ในหน่วยความจำสำหรับ Query ของ Dashboard
+ *
+ * แต่ละ Column เป็น Primitive Array (หนึ่ง Payment = หนึ่งแถว ประมาณ 23 Byte):
+ * - amount: หน่วยสตางค์ (scale 2 ตาม Column ใน Database)
+ * - status / method / currency: Ordinal หรือรหัสจาก Dictionary (byte)
+ * - merchant: รหัสจาก Dictionary (int), minute: นาทีที่สร้างนับจาก Epoch (int)
+ *
+ * การอัพเดท:
+ * - ตอนเริ่มระบบ Stream payments และ payments_archive ทั้งหมด
+ * - Payment ที่สร้าง/เปลี่ยนสถานะบน Node นี้ถูกเขียนหลัง Commit
+ * - ทุก sync-interval-ms ดึงแถวที่ updated_at ใหม่กว่ารอบก่อน (รวม Node อื่น และงานที่แก้ผ่าน JDBC ตรง)
+ *
+ * Query สแกนเป็นช่วงละ 65,536 แถวขนานกันบน ForkJoinPool (Loop ตรงบน Array ไม่สร้าง Object ต่อแถว)
+ * Group Key เป็นเลขหลายฐานของรหัสแต่ละมิติ ถ้าจำนวนกลุ่มที่เป็นไปได้น้อยรวมผลใน Array ตรง
+ * ไม่เช่นนั้นใช้ Hash Table แบบ Primitive
+ * ผู้เขียนมีทีละ Thread ผู้อ่านไม่ต้อง Lock (แถวที่กำลังถูกแก้อาจเห็นค่าเดิมหรือค่าใหม่)
+ */
+@Component
+public class PaymentAnalyticsStore implements PaymentTransitionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentAnalyticsStore.class);
+
+    private static final int CHUNK_ROWS = 1 << 16;
+    private static final int MAX_ID = Integer.MAX_VALUE - 8;
+    private static final int MAX_CURRENCIES = 256;
+    private static final int MAX_MERCHANTS = 1 << 22;
+
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+    // รหัสของ payment_method ที่เป็น NULL
+    private static final int NO_METHOD = 31;
+
+    private static final int METHOD_RADIX = NO_METHOD + 1;
+    // จำนวนกลุ่มที่เป็นไปได้ไม่เกินนี้ใช้ Array ตรงแทน Hash Table
+    private static final int DENSE_LIMIT = 1 << 14;
+
+    private static final String SELECT_COLUMNS =
+        "SELECT id, amount, status, payment_method, currency, merchant_id, created_at FROM ";
+
+    /**
+     * Array ของทุก Column (แทนที่ทั้งชุดเมื่อขยาย)
+     */
+    private record Columns(long[] amounts, byte[] statuses, byte[] methods, byte[] currencies,
+                           int[] merchants, int[] minutes) {
+
+        private static Columns allocate(int capacity) {
+            return new Columns(new long[capacity], new byte[capacity], new byte[capacity], new byte[capacity],
+                new int[capacity], new int[capacity]);
+        }
+
+        private int capacity() {
+            return amounts.length;
+        }
+
+        private Columns copyOf(int capacity) {
+            return new Columns(Arrays.copyOf(amounts, capacity), Arrays.copyOf(statuses, capacity),
+                Arrays.copyOf(methods, capacity), Arrays.copyOf(currencies, capacity),
+                Arrays.copyOf(merchants, capacity), Arrays.copyOf(minutes, capacity));
+        }
+    }
+
+    /**
+     * เงื่อนไขที่แปลงเป็นรหัสของ Column แล้ว (null = ไม่กรอง)
+     *
+     * Group Key เป็นเลขหลายฐาน (Mixed Radix) ของมิติที่จัดกลุ่มตามลำดับ
+     * status, method, currency, merchant, hour (มิติที่ไม่จัดกลุ่มมีฐานเป็น 1)
+     */
+    private record Filter(boolean[] statuses, boolean[] methods, boolean[] currencies,
+                          int merchant, int fromMinute, int toMinute, Set<AnalyticsDimension> groupBy,
+                          int statusRadix, int methodRadix, int currencyRadix, int merchantRadix,
+                          boolean byHour, int firstHour, int hourRadix, long cardinality) {
+    }
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final BackgroundJob loader = new BackgroundJob("analytics-loader");
+
+    // Dictionary: รหัส -> ค่า (Copy-on-write ให้ผู้อ่านใช้ได้โดยไม่ Lock) และ ค่า -> รหัส
+    private final Map<String, Integer> currencyCodes = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> merchantCodes = new ConcurrentHashMap<>();
+    private volatile String[] currencyNames = new String[0];
+    private volatile long[] merchantIds = new long[0];
+
+    private volatile Columns columns;
+    private volatile int size;
+    private volatile int minMinute = Integer.MAX_VALUE;
+    private volatile int maxMinute = Integer.MIN_VALUE;
+    private volatile boolean ready;
+    // Payment ID -> แถว + 1 (ID เป็น Auto Increment จึงใช้ Array ตรงได้)
+    private int[] rowById = new int[0];
+    private LocalDateTime lastSyncAt;
+
+    @Value("${payment.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.analytics.sync-slack-ms:5000}")
+    private long syncSlackMs;
+
+    public PaymentAnalyticsStore(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${payment.analytics.initial-capacity:65536}") int initialCapacity,
+            @Value("${payment.analytics.fetch-size:5000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.columns = Columns.allocate(Math.max(1024, initialCapacity));
+        Gauge.builder("payment.analytics.rows", this, s -> s.size)
+            .description("Payments held in the in-memory analytics store")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Query แบบกรองและจัดกลุ่ม
+     *
+     * @param query เงื่อนไข
+     * @return ผลรวมแต่ละกลุ่ม (เรียงตามชั่วโมง แล้วตามจำนวนมากไปน้อย)
+     * @throws ServiceUnavailableException ถ้ายังโหลดข้อมูลไม่เสร็จ
+     */
+    public AnalyticsResponse query(AnalyticsQuery query) {
+        if (!ready) {
+            throw new ServiceUnavailableException("ANALYTICS_WARMING_UP",
+                "Analytics store is still loading. Please retry later.", 5);
+        }
+        if (query.from() != null && query.to() != null && !query.from().isBefore(query.to())) {
+            throw new InvalidRequestException("'from' must be before 'to'");
+        }
+        long start = System.nanoTime();
+        // อ่าน size ก่อน columns: Array ที่ได้มีแถวครบทุกแถวที่นับใน size
+        int rows = size;
+        Columns snapshot = columns;
+        Filter filter = compile(query);
+
+        GroupTable total = new GroupTable();
+        if (filter != null && rows > 0) {
+            int chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            if (filter.cardinality() <= DENSE_LIMIT) {
+                Partial dense = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> scanDense(snapshot, filter, chunk * CHUNK_ROWS, Math.min(rows, (chunk + 1) * CHUNK_ROWS)))
+                    .reduce(Partial::merge)
+                    .orElseThrow();
+                for (int key = 0; key < dense.counts.length; key++) {
+                    if (dense.counts[key] > 0) {
+                        total.add(key, dense.counts[key], dense.sums[key]);
+                    }
+                }
+            } else {
+                total = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> scan(snapshot, filter, chunk * CHUNK_ROWS, Math.min(rows, (chunk + 1) * CHUNK_ROWS)))
+                    .reduce(GroupTable::merge)
+                    .orElse(total);
+            }
+        }
+
+        List<AnalyticsRow> groups = decode(total, filter);
+        return new AnalyticsResponse(rows, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), groups);
+    }
+
+    /**
+     * บันทึกค่าปัจจุบันของ Payment (ถ้าอยู่ใน Transaction จะเขียนเมื่อ Commit สำเร็จ)
+     *
+     * @param payment Payment ที่เพิ่งสร้างหรือเปลี่ยน
+     */
+    public void record(Payment payment) {
+        if (!enabled || payment.getId() == null) {
+            return;
+        }
+        long id = payment.getId();
+        long amount = toMinorUnits(payment.getAmount());
+        PaymentStatus status = payment.getStatus();
+        PaymentMethod method = payment.getPaymentMethod();
+        String currency = payment.getCurrency();
+        long merchantId = payment.getMerchant().getId();
+        LocalDateTime createdAt = payment.getCreatedAt() != null ? payment.getCreatedAt() : LocalDateTime.now();
+        Runnable write = () -> upsert(id, amount, status, method, currency, merchantId, toEpochMinute(createdAt));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    @Override
+    public void onTransition(Payment payment, PaymentStatus from, PaymentStatus to) {
+        record(payment);
+    }
+
+    /**
+     * โหลดข้อมูลทั้งหมด (รอบแรก) หรือดึงแถวที่เปลี่ยนตั้งแต่รอบก่อน
+     * รอบแรก Stream ทั้งตารางจึงรันบน Thread ของตัวเอง ไม่ให้ Scheduler ถูกกัน
+     */
+    @Scheduled(fixedDelayString = "${payment.analytics.sync-interval-ms:5000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        if (!ready) {
+            loader.submit(this::loadAll);
+            return;
+        }
+        LocalDateTime startAt = LocalDateTime.now();
+        try {
+            streamingJdbcTemplate.query(SELECT_COLUMNS + "payments WHERE updated_at >= ?", this::load,
+                Timestamp.valueOf(lastSyncAt.minus(Duration.ofMillis(syncSlackMs))));
+            lastSyncAt = startAt;
+        } catch (RuntimeException e) {
+            logger.warn("Analytics store sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void loadAll() {
+        LocalDateTime startAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        try {
+            streamingJdbcTemplate.query(SELECT_COLUMNS + "payments_archive", this::load);
+            streamingJdbcTemplate.query(SELECT_COLUMNS + "payments", this::load);
+            lastSyncAt = startAt;
+            ready = true;
+            logger.info("Analytics store loaded {} payments in {} ms",
+                size, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            logger.warn("Analytics store load failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.close();
+    }
+
+    private void load(ResultSet rs) throws SQLException {
+        String method = rs.getString(4);
+        upsert(rs.getLong(1),
+            toMinorUnits(rs.getBigDecimal(2)),
+            PaymentStatus.valueOf(rs.getString(3)),
+            method != null ? PaymentMethod.valueOf(method) : null,
+            rs.getString(5),
+            rs.getLong(6),
+            toEpochMinute(rs.getTimestamp(7).toLocalDateTime()));
+    }
+
+    private synchronized void upsert(long id, long amount, PaymentStatus status, PaymentMethod method,
+                                     String currency, long merchantId, int minute) {
+        if (id <= 0 || id > MAX_ID) {
+            return;
+        }
+        int currencyCode = code(currencyCodes, currency, MAX_CURRENCIES);
+        int merchantCode = code(merchantCodes, merchantId, MAX_MERCHANTS);
+        if (currencyCode < 0 || merchantCode < 0) {
+            logger.warn("Analytics dictionary full, skipping payment {}", id);
+            return;
+        }
+
+        int row = id < rowById.length ? rowById[(int) id] - 1 : -1;
+        Columns target = columns;
+        boolean append = row < 0;
+        if (append) {
+            row = size;
+            if (row == target.capacity()) {
+                target = target.copyOf(target.capacity() * 2);
+                columns = target;
+            }
+            if (id >= rowById.length) {
+                rowById = Arrays.copyOf(rowById, (int) Math.min(MAX_ID + 1L, Math.max(id + 1, rowById.length * 2L)));
+            }
+            rowById[(int) id] = row + 1;
+        }
+        target.amounts()[row] = amount;
+        target.statuses()[row] = (byte) status.ordinal();
+        target.methods()[row] = (byte) (method != null ? method.ordinal() : NO_METHOD);
+        target.currencies()[row] = (byte) currencyCode;
+        target.merchants()[row] = merchantCode;
+        target.minutes()[row] = minute;
+        if (minute < minMinute) {
+            minMinute = minute;
+        }
+        if (minute > maxMinute) {
+            maxMinute = minute;
+        }
+        if (append) {
+            size = row + 1;
+        }
+    }
+
+    private int code(Map<String, Integer> codes, String currency, int max) {
+        Integer existing = codes.get(currency);
+        if (existing != null) {
+            return existing;
+        }
+        String[] names = currencyNames;
+        if (names.length >= max) {
+            return -1;
+        }
+        String[] grown = Arrays.copyOf(names, names.length + 1);
+        grown[names.length] = currency;
+        currencyNames = grown;
+        codes.put(currency, names.length);
+        return names.length;
+    }
+
+    private int code(Map<Long, Integer> codes, long merchantId, int max) {
+        Integer existing = codes.get(merchantId);
+        if (existing != null) {
+            return existing;
+        }
+        long[] ids = merchantIds;
+        if (ids.length >= max) {
+            return -1;
+        }
+        long[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = merchantId;
+        merchantIds = grown;
+        codes.put(merchantId, ids.length);
+        return ids.length;
+    }
+
+    /**
+     * แปลง Query เป็นรหัสของ Column (null = ไม่มีแถวใดตรงเงื่อนไขแน่นอน)
+     */
+    private Filter compile(AnalyticsQuery query) {
+        boolean[] statuses = null;
+        if (query.statuses() != null && !query.statuses().isEmpty()) {
+            statuses = new boolean[STATUSES.length];
+            for (PaymentStatus status : query.statuses()) {
+                statuses[status.ordinal()] = true;
+            }
+        }
+        boolean[] methods = null;
+        if (query.paymentMethods() != null && !query.paymentMethods().isEmpty()) {
+            methods = new boolean[NO_METHOD + 1];
+            for (PaymentMethod method : query.paymentMethods()) {
+                methods[method.ordinal()] = true;
+            }
+        }
+        boolean[] currencies = null;
+        if (query.currencies() != null && !query.currencies().isEmpty()) {
+            currencies = new boolean[MAX_CURRENCIES];
+            boolean any = false;
+            for (String currency : query.currencies()) {
+                Integer code = currencyCodes.get(currency);
+                if (code != null) {
+                    currencies[code] = true;
+                    any = true;
+                }
+            }
+            if (!any) {
+                return null;
+            }
+        }
+        int merchant = -1;
+        if (query.merchantId() != null) {
+            Integer code = merchantCodes.get(query.merchantId());
+            if (code == null) {
+                return null;
+            }
+            merchant = code;
+        }
+        int fromMinute = query.from() != null ? toEpochMinute(query.from()) : Integer.MIN_VALUE;
+        int toMinute = query.to() != null ? toEpochMinute(query.to()) : Integer.MAX_VALUE;
+
+        Set<AnalyticsDimension> groupBy = query.groupBy() != null ? query.groupBy() : Set.of();
+        int statusRadix = groupBy.contains(AnalyticsDimension.STATUS) ? STATUSES.length : 1;
+        int methodRadix = groupBy.contains(AnalyticsDimension.PAYMENT_METHOD) ? METHOD_RADIX : 1;
+        int currencyRadix = groupBy.contains(AnalyticsDimension.CURRENCY) ? Math.max(1, currencyNames.length) : 1;
+        int merchantRadix = groupBy.contains(AnalyticsDimension.MERCHANT) ? Math.max(1, merchantIds.length) : 1;
+        int firstHour = 0;
+        int hourRadix = 1;
+        if (groupBy.contains(AnalyticsDimension.HOUR)) {
+            // ช่วงชั่วโมงที่มีข้อมูลจริง ตัดด้วยเงื่อนไขเวลา
+            int first = Math.floorDiv(Math.max(minMinute, fromMinute), 60);
+            int last = Math.floorDiv(Math.min(maxMinute, toMinute - 1), 60);
+            if (last < first) {
+                return null;
+            }
+            firstHour = first;
+            hourRadix = last - first + 1;
+        }
+        long cardinality = (long) statusRadix * methodRadix * currencyRadix;
+        try {
+            cardinality = Math.multiplyExact(Math.multiplyExact(cardinality, merchantRadix), hourRadix);
+        } catch (ArithmeticException e) {
+            throw new InvalidRequestException("Too many groups. Narrow the time range or group by fewer dimensions.");
+        }
+        return new Filter(statuses, methods, currencies, merchant, fromMinute, toMinute, groupBy,
+            statusRadix, methodRadix, currencyRadix, merchantRadix,
+            groupBy.contains(AnalyticsDimension.HOUR), firstHour, hourRadix, cardinality);
+    }
+
+    /**
+     * Group Key ของหนึ่งแถว
+     */
+    private static long groupKey(Filter f, int status, int method, int currency, int merchant, int minute) {
+        long key = f.statusRadix() > 1 ? status : 0;
+        key = key * f.methodRadix() + (f.methodRadix() > 1 ? method : 0);
+        key = key * f.currencyRadix() + (f.currencyRadix() > 1 ? currency : 0);
+        key = key * f.merchantRadix() + (f.merchantRadix() > 1 ? merchant : 0);
+        return key * f.hourRadix() + (f.hourRadix() > 1 ? Math.floorDiv(minute, 60) - f.firstHour() : 0);
+    }
+
+    /**
+     * ผลรวมของช่วงแถวเมื่อจำนวนกลุ่มน้อย (Index ตรงด้วย Group Key)
+     */
+    private record Partial(long[] counts, long[] sums) {
+
+        private Partial merge(Partial other) {
+            for (int key = 0; key < counts.length; key++) {
+                counts[key] += other.counts[key];
+                sums[key] += other.sums[key];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * สแกนหนึ่งช่วงแถว (จำนวนกลุ่มไม่เกิน DENSE_LIMIT)
+     */
+    private static Partial scanDense(Columns c, Filter f, int from, int to) {
+        long[] counts = new long[(int) f.cardinality()];
+        long[] sums = new long[counts.length];
+        long[] amounts = c.amounts();
+        byte[] statuses = c.statuses();
+        byte[] methods = c.methods();
+        byte[] currencies = c.currencies();
+        int[] merchants = c.merchants();
+        int[] minutes = c.minutes();
+        for (int row = from; row < to; row++) {
+            int minute = minutes[row];
+            int status = statuses[row];
+            int method = methods[row];
+            int currency = currencies[row] & 0xFF;
+            int merchant = merchants[row];
+            if (!matches(f, minute, status, method, currency, merchant)) {
+                continue;
+            }
+            int key = (int) groupKey(f, status, method, currency, merchant, minute);
+            counts[key]++;
+            sums[key] += amounts[row];
+        }
+        return new Partial(counts, sums);
+    }
+
+    private static boolean matches(Filter f, int minute, int status, int method, int currency, int merchant) {
+        return minute >= f.fromMinute() && minute < f.toMinute()
+            && (f.statuses() == null || f.statuses()[status])
+            && (f.methods() == null || f.methods()[method])
+            && (f.currencies() == null || f.currencies()[currency])
+            && (f.merchant() < 0 || merchant == f.merchant())
+            // แถวนอกช่วงชั่วโมงที่อ่านตอนเริ่ม Query (ถูกแก้ระหว่างสแกน) ไม่นับ
+            && (!f.byHour() || Integer.compareUnsigned(Math.floorDiv(minute, 60) - f.firstHour(), f.hourRadix()) < 0);
+    }
+
+    /**
+     * สแกนหนึ่งช่วงแถว (จำนวนกลุ่มมาก ใช้ Hash Table)
+     */
+    private static GroupTable scan(Columns c, Filter f, int from, int to) {
+        long[] amounts = c.amounts();
+        byte[] statuses = c.statuses();
+        byte[] methods = c.methods();
+        byte[] currencies = c.currencies();
+        int[] merchants = c.merchants();
+        int[] minutes = c.minutes();
+        GroupTable groups = new GroupTable();
+        for (int row = from; row < to; row++) {
+            int minute = minutes[row];
+            int status = statuses[row];
+            int method = methods[row];
+            int currency = currencies[row] & 0xFF;
+            int merchant = merchants[row];
+            if (!matches(f, minute, status, method, currency, merchant)) {
+                continue;
+            }
+            groups.add(groupKey(f, status, method, currency, merchant, minute), 1, amounts[row]);
+        }
+        return groups;
+    }
+
+    private List<AnalyticsRow> decode(GroupTable table, Filter f) {
+        List<AnalyticsRow> rows = new ArrayList<>(table.size);
+        if (f == null) {
+            return rows;
+        }
+        String[] currencies = currencyNames;
+        long[] merchants = merchantIds;
+        for (int slot = 0; slot < table.keys.length; slot++) {
+            if (!table.used[slot]) {
+                continue;
+            }
+            long key = table.keys[slot];
+            LocalDateTime hour = LocalDateTime.ofEpochSecond((f.firstHour() + key % f.hourRadix()) * 3600L, 0, ZoneOffset.UTC);
+            key /= f.hourRadix();
+            int merchant = (int) (key % f.merchantRadix());
+            key /= f.merchantRadix();
+            int currency = (int) (key % f.currencyRadix());
+            key /= f.currencyRadix();
+            int method = (int) (key % f.methodRadix());
+            int status = (int) (key / f.methodRadix());
+            Set<AnalyticsDimension> groupBy = f.groupBy();
+            rows.add(new AnalyticsRow(
+                groupBy.contains(AnalyticsDimension.STATUS) ? STATUSES[status] : null,
+                groupBy.contains(AnalyticsDimension.PAYMENT_METHOD) && method != NO_METHOD ? METHODS[method] : null,
+                groupBy.contains(AnalyticsDimension.CURRENCY) ? currencies[currency] : null,
+                groupBy.contains(AnalyticsDimension.MERCHANT) ? merchants[merchant] : null,
+                groupBy.contains(AnalyticsDimension.HOUR) ? hour : null,
+                table.counts[slot],
+                BigDecimal.valueOf(table.sums[slot], 2)));
+        }
+        rows.sort(Comparator.comparing(AnalyticsRow::hour, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Comparator.comparingLong(AnalyticsRow::count).reversed()));
+        return rows;
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    /**
+     * นาทีจาก Epoch ของเวลาท้องถิ่น (ใช้ Wall Clock ตรง ๆ เหมือน LocalDateTime ใน Database)
+     */
+    private static int toEpochMinute(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Hash Table แบบ Primitive สำหรับผลรวมของแต่ละกลุ่ม (ใช้ภายในหนึ่ง Thread)
+     */
+    private static final class GroupTable {
+
+        private long[] keys = new long[16];
+        private long[] counts = new long[16];
+        private long[] sums = new long[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        private void add(long key, long count, long sum) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                if ((size + 1) * 2 > keys.length) {
+                    grow();
+                    add(key, count, sum);
+                    return;
+                }
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot] += count;
+            sums[slot] += sum;
+        }
+
+        private GroupTable merge(GroupTable other) {
+            GroupTable into = size >= other.size ? this : other;
+            GroupTable from = into == this ? other : this;
+            for (int slot = 0; slot < from.keys.length; slot++) {
+                if (from.used[slot]) {
+                    into.add(from.keys[slot], from.counts[slot], from.sums[slot]);
+                }
+            }
+            return into;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            long[] oldSums = sums;
+            boolean[] oldUsed = used;
+            int capacity = oldKeys.length * 2;
+            keys = new long[capacity];
+            counts = new long[capacity];
+            sums = new long[capacity];
+            used = new boolean[capacity];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldUsed[slot]) {
+                    add(oldKeys[slot], oldCounts[slot], oldSums[slot]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.ArchiveRunResult;
+import com.payment.gateway.entity.PaymentStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PaymentArchiveService - ย้าย Payment ที่จบแล้วและ Transaction ของมันไป Cold Storage
+ * 
+ * การทำงาน:
+ * - เลือก Payment สถานะสุดท้าย (ตาม State Machine) ที่ไม่ถูกแก้ไขนานกว่า min-age-days
+ * - ไล่ตาม ID จากน้อยไปมาก ทีละ batch-size (จำกัดช่วง ID ด้วย created_at ของ cutoff)
+ * - แต่ละ Batch: Lock แถว ตรวจเงื่อนไขซ้ำ แล้ว INSERT ... SELECT ไปตาราง *_archive และ DELETE ใน Transaction เดียว
+ * - พัก pause-ms ระหว่าง Batch เพื่อไม่แย่ง I/O กับงานปกติ
+ * 
+ * ตารางหลักจึงเหลือเฉพาะข้อมูลล่าสุด (Index เล็กพออยู่ใน Buffer Pool)
+ * การอ่านใน PaymentService/TransactionService จะไปหาใน Archive เมื่อไม่พบในตารางหลัก
+ */
+@Service
+public class PaymentArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentArchiveService.class);
+    private static final String LEASE_NAME = "payment-archive";
+
+    private static final String PAYMENT_COLUMNS =
+        "id, reference_id, order_id, amount, currency, refunded_amount, status, payment_method, description, " +
+        "customer_name, customer_email, customer_phone, failure_reason, metadata_id, paid_at, expires_at, " +
+        "version, created_at, updated_at, merchant_id";
+
+    private static final String TRANSACTION_COLUMNS =
+        "id, transaction_id, transaction_type, amount, currency, status, gateway_reference, response_code, " +
+        "response_message, ip_address, user_agent, payload_id, created_at, payment_id";
+
+    private static final String MAX_ID_SQL =
+        "SELECT MAX(id) FROM payments WHERE created_at < :cutoff";
+
+    private static final String CANDIDATES_SQL =
+        "SELECT id FROM payments WHERE id > :afterId AND id <= :maxId " +
+        "AND status IN (:statuses) AND updated_at < :cutoff ORDER BY id LIMIT :limit";
+
+    private static final String LOCK_SQL =
+        "SELECT id FROM payments WHERE id IN (:ids) AND status IN (:statuses) AND updated_at < :cutoff FOR UPDATE";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaseService leaseService;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final LegacyPayloadMigrationService legacyMigration;
+    private final BackgroundJob job = new BackgroundJob("payment-archive");
+    private final List<String> terminalStatuses;
+
+    @Value("${payment.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${payment.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.archive.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${payment.archive.max-batches-per-run:2000}")
+    private int maxBatchesPerRun;
+
+    public PaymentArchiveService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            LeaseService leaseService,
+            ObjectProvider<CacheManager> cacheManager,
+            PaymentStateMachine stateMachine,
+            LegacyPayloadMigrationService legacyMigration) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseService = leaseService;
+        this.cacheManager = cacheManager;
+        this.legacyMigration = legacyMigration;
+        // สถานะที่เปลี่ยนต่อไม่ได้ เช่น REFUNDED, FAILED, CANCELLED, EXPIRED
+        this.terminalStatuses = Arrays.stream(PaymentStatus.values())
+            .filter(stateMachine::isTerminal)
+            .map(Enum::name)
+            .toList();
+    }
+
+    /**
+     * ย้าย Payment ที่เข้าเงื่อนไขไป Archive
+     * 
+     * @return สรุปผล
+     */
+    public ArchiveRunResult archive() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        // Archive คัดลอกเฉพาะ metadata_id / payload_id ข้อมูลใน Column เดิมจะหายถ้ายังย้ายไม่เสร็จ
+        if (!legacyMigration.isComplete()) {
+            logger.warn("Skipping archive run: legacy metadata/payload migration has not finished");
+            return new ArchiveRunResult(cutoff, 0, 0, 0, System.currentTimeMillis() - started);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("cutoff", Timestamp.valueOf(cutoff))
+            .addValue("statuses", terminalStatuses)
+            .addValue("limit", batchSize);
+
+        Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, params, Long.class);
+        int batches = 0;
+        long payments = 0;
+        long transactions = 0;
+        long afterId = 0;
+        while (maxId != null && batches < maxBatchesPerRun) {
+            params.addValue("afterId", afterId).addValue("maxId", maxId);
+            List<Long> ids = jdbcTemplate.queryForList(CANDIDATES_SQL, params, Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.getLast();
+            long[] moved = transactionTemplate.execute(status -> moveBatch(ids, params));
+            batches++;
+            payments += moved[0];
+            transactions += moved[1];
+            if (!pause()) {
+                break;
+            }
+        }
+
+        if (payments > 0) {
+            evictListCaches();
+        }
+        ArchiveRunResult result = new ArchiveRunResult(cutoff, batches, payments, transactions,
+            System.currentTimeMillis() - started);
+        logger.info("Archived {} payments and {} transactions in {} batches ({} ms)",
+            payments, transactions, batches, result.durationMs());
+        return result;
+    }
+
+    /**
+     * ย้ายตามเวลาที่ตั้ง (Node เดียวผ่าน Lease)
+     * รันบน Thread ของตัวเอง เพราะพักระหว่าง Batch และอาจใช้เวลาเป็นชั่วโมง
+     */
+    @Scheduled(cron = "${payment.archive.cron:0 0 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        job.submit(() -> {
+            if (!leaseService.tryAcquire(LEASE_NAME, Duration.ofHours(2))) {
+                return;
+            }
+            try {
+                archive();
+            } finally {
+                leaseService.release(LEASE_NAME);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        job.close();
+    }
+
+    /**
+     * ย้ายหนึ่ง Batch (ภายใน Transaction)
+     * Lock แถวและตรวจเงื่อนไขซ้ำ เผื่อ Payment ถูกแก้ไขระหว่างเลือก
+     * 
+     * @return [จำนวน Payment, จำนวน Transaction]
+     */
+    private long[] moveBatch(List<Long> candidates, MapSqlParameterSource base) {
+        MapSqlParameterSource params = new MapSqlParameterSource(base.getValues()).addValue("ids", candidates);
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_SQL, params, Long.class);
+        if (ids.isEmpty()) {
+            return new long[] {0, 0};
+        }
+        params.addValue("ids", ids);
+        jdbcTemplate.update("INSERT INTO payments_archive (" + PAYMENT_COLUMNS + ") " +
+            "SELECT " + PAYMENT_COLUMNS + " FROM payments WHERE id IN (:ids)", params);
+        int transactions = jdbcTemplate.update("INSERT INTO transactions_archive (" + TRANSACTION_COLUMNS + ") " +
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE payment_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM transactions WHERE payment_id IN (:ids)", params);
+        int payments = jdbcTemplate.update("DELETE FROM payments WHERE id IN (:ids)", params);
+        return new long[] {payments, transactions};
+    }
+
+    /**
+     * พักระหว่าง Batch
+     * 
+     * @return false ถ้าถูก Interrupt (หยุดรอบนี้)
+     */
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * ล้าง Cache ที่เป็นรายการรวม (ข้อมูลรายตัวยังถูกต้อง เพราะ Archive อ่านได้เหมือนเดิม)
+     */
+    private void evictListCaches() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager == null) {
+            return;
+        }
+        for (String name : List.of("payment-list", "dashboard-stats")) {
+            Cache cache = manager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
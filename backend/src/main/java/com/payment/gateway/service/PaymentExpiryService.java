@@ -0,0 +1,334 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.entity.Transaction;
+import com.payment.gateway.entity.TransactionStatus;
+import com.payment.gateway.entity.TransactionType;
+import com.payment.gateway.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * PaymentExpiryService - ตั้งเวลาและทำให้ Payment ที่ไม่ชำระหมดอายุ
+ * 
+ * รับผิดชอบ:
+ * - เก็บเวลาหมดอายุของ Payment ที่ยัง PENDING/PROCESSING ไว้ใน HierarchicalTimingWheel
+ * - โหลดจาก Database ตอนได้เป็น Leader และรับรายการใหม่จาก createPayment
+ * - เมื่อถึงเวลา: UPDATE ... SET status = 'EXPIRED' เป็น Batch พร้อมบันทึก EXPIRE Transaction (ผ่าน TransactionWriter)
+ *   แล้วแจ้ง PaymentTransitionListener ทุกตัวใน Transaction เดียวกัน (Outbox Event, Cache, Analytics)
+ * - Batch ที่ล้มเหลวถูกตั้งเวลาใหม่หลัง retry-delay-ms (รายการถูกนำออกจากวงล้อแล้ว ไม่เช่นนั้นจะหายไป)
+ * 
+ * รันเพียง Node เดียวในคลัสเตอร์ (เลือกผ่าน LeaseService)
+ * Node ที่เป็น Leader จะ Rescan Payment ที่สร้างใหม่จาก Node อื่นเป็นระยะ
+ * รายการซ้ำในวงล้อไม่เป็นปัญหา เพราะ UPDATE มีเงื่อนไขสถานะกำกับอยู่
+ */
+@Service
+public class PaymentExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExpiryService.class);
+    private static final String LEASE_NAME = "payment-expiry";
+    private static final int WHEEL_SLOT_BITS = 6;
+    private static final int WHEEL_LEVELS = 4;
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaseService leaseService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentStateMachine stateMachine;
+    private final TransactionWriter transactionWriter;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final String activeStatuses;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    @Value("${payment.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.expiry.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${payment.expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.expiry.lease-seconds:15}")
+    private long leaseSeconds;
+
+    @Value("${payment.expiry.rescan-interval-ms:60000}")
+    private long rescanIntervalMs;
+
+    @Value("${payment.expiry.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    private volatile HierarchicalTimingWheel wheel;
+    private volatile boolean leader;
+    private long leaseRenewAt;
+    private long nextRescanAt;
+    private LocalDateTime lastScanAt;
+
+    public PaymentExpiryService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            LeaseService leaseService,
+            PaymentRepository paymentRepository,
+            ObjectProvider<CacheManager> cacheManager,
+            PaymentStateMachine stateMachine,
+            TransactionWriter transactionWriter,
+            @Value("${payment.expiry.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseService = leaseService;
+        this.paymentRepository = paymentRepository;
+        this.stateMachine = stateMachine;
+        this.transactionWriter = transactionWriter;
+        this.cacheManager = cacheManager;
+        // สถานะที่เปลี่ยนเป็น EXPIRED ได้ตาม State Machine เช่น ('PENDING', 'PROCESSING')
+        this.activeStatuses = stateMachine.sourcesOf(PaymentStatus.EXPIRED).stream()
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * ตั้งเวลาหมดอายุให้ Payment ที่เพิ่งสร้าง
+     * (ถ้า Node นี้ไม่ใช่ Leader จะถูกเก็บโดย Rescan ของ Leader)
+     * 
+     * @param paymentId Payment ID
+     * @param expiresAt เวลาหมดอายุ
+     */
+    public void schedule(Long paymentId, LocalDateTime expiresAt) {
+        HierarchicalTimingWheel current = wheel;
+        if (!leader || current == null || paymentId == null || expiresAt == null) {
+            return;
+        }
+        current.schedule(paymentId, toEpochMillis(expiresAt));
+    }
+
+    /**
+     * จำนวน Payment ที่รอหมดอายุในวงล้อ (0 ถ้าไม่ใช่ Leader)
+     */
+    public int scheduledCount() {
+        HierarchicalTimingWheel current = wheel;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * หมุนวงล้อหนึ่งรอบ: ต่ออายุ Lease, Rescan, แล้ว Expire รายการที่ถึงเวลา
+     */
+    @Scheduled(fixedDelayString = "${payment.expiry.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (now >= leaseRenewAt) {
+            renewLeadership(now);
+        }
+        if (!leader) {
+            return;
+        }
+        
+        if (now >= nextRescanAt) {
+            rescan();
+            nextRescanAt = now + rescanIntervalMs;
+        }
+        
+        List<Long> due = new ArrayList<>();
+        wheel.advance(now, due::add);
+        
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                expired += expireBatch(batch);
+            } catch (RuntimeException e) {
+                logger.error("Failed to expire {} payments, retrying in {} ms: {}",
+                    batch.size(), retryDelayMs, e.getMessage());
+                batch.forEach(id -> wheel.schedule(id, now + retryDelayMs));
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} payments ({} still scheduled)", expired, wheel.size());
+        }
+    }
+
+    /**
+     * ขอ/ต่ออายุ Lease และโหลดวงล้อใหม่เมื่อเพิ่งได้เป็น Leader
+     */
+    private void renewLeadership(long now) {
+        boolean acquired = leaseService.tryAcquire(LEASE_NAME, Duration.ofSeconds(leaseSeconds));
+        // ต่ออายุทุก 1/3 ของอายุ Lease
+        leaseRenewAt = now + leaseSeconds * 1000 / 3;
+        
+        if (acquired && !leader) {
+            logger.info("Node {} is now the payment expiry leader", leaseService.nodeId());
+            wheel = new HierarchicalTimingWheel(tickMs, WHEEL_SLOT_BITS, WHEEL_LEVELS, now);
+            leader = true;
+            loadPending(null);
+            nextRescanAt = now + rescanIntervalMs;
+        } else if (!acquired && leader) {
+            logger.warn("Node {} lost the payment expiry lease", leaseService.nodeId());
+            leader = false;
+            wheel = null;
+        }
+    }
+
+    /**
+     * ดึง Payment ที่สร้างใหม่ตั้งแต่รอบก่อน (รวม Node อื่น)
+     * ย้อนเวลาเผื่อไว้หนึ่งรอบสำหรับ Transaction ที่ Commit ช้า
+     */
+    private void rescan() {
+        loadPending(lastScanAt.minus(Duration.ofMillis(rescanIntervalMs)));
+    }
+
+    /**
+     * โหลด Payment ที่ยังรอชำระเข้าวงล้อแบบ Streaming (ไม่โหลดทั้งหมดเข้า Memory)
+     * 
+     * @param createdSince null = โหลดทั้งหมด
+     */
+    private void loadPending(LocalDateTime createdSince) {
+        HierarchicalTimingWheel target = wheel;
+        LocalDateTime scanStart = LocalDateTime.now();
+        int[] loaded = {0};
+        
+        String sql = "SELECT id, expires_at FROM payments WHERE status IN " + activeStatuses
+            + " AND expires_at IS NOT NULL"
+            + (createdSince != null ? " AND created_at >= ?" : "");
+        Object[] args = createdSince != null ? new Object[]{Timestamp.valueOf(createdSince)} : new Object[0];
+        
+        streamingJdbcTemplate.query(sql, rs -> {
+            target.schedule(rs.getLong(1), toEpochMillis(rs.getTimestamp(2).toLocalDateTime()));
+            loaded[0]++;
+        }, args);
+        
+        lastScanAt = scanStart;
+        logger.debug("Loaded {} pending payments into expiry wheel", loaded[0]);
+    }
+
+    /**
+     * Expire หนึ่ง Batch ใน Transaction เดียว
+     * 
+     * @param ids Payment IDs ที่ถึงเวลา
+     * @return จำนวนที่ Expire จริง
+     */
+    private int expireBatch(List<Long> ids) {
+        Integer expired = transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", now);
+            
+            // ล็อคเฉพาะแถวที่ยังรอชำระและหมดอายุจริง (อาจถูก Complete/Cancel ไปแล้ว)
+            List<ExpiredPayment> rows = jdbcTemplate.query(
+                "SELECT id, reference_id, status FROM payments " +
+                "WHERE id IN (:ids) AND status IN " + activeStatuses + " AND expires_at <= :now FOR UPDATE",
+                params,
+                (rs, i) -> new ExpiredPayment(
+                    rs.getLong("id"), rs.getString("reference_id"),
+                    PaymentStatus.valueOf(rs.getString("status"))));
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            
+            List<Long> lockedIds = rows.stream().map(ExpiredPayment::id).toList();
+            jdbcTemplate.update(
+                "UPDATE payments SET status = 'EXPIRED', updated_at = :now, version = version + 1 " +
+                "WHERE id IN (:ids) AND status IN " + activeStatuses,
+                new MapSqlParameterSource().addValue("ids", lockedIds).addValue("now", now));
+            
+            recordExpirations(rows);
+            evictCaches(rows);
+            return rows.size();
+        });
+        return expired == null ? 0 : expired;
+    }
+
+    /**
+     * บันทึก EXPIRE Transaction และแจ้ง Listener ของ State Machine เหมือนการเปลี่ยนสถานะทางอื่น
+     * โหลด Entity หลัง UPDATE (Connection เดียวกัน) จึงเห็นสถานะ EXPIRED แล้ว
+     */
+    private void recordExpirations(List<ExpiredPayment> rows) {
+        Map<Long, PaymentStatus> previous = rows.stream()
+            .collect(Collectors.toMap(ExpiredPayment::id, ExpiredPayment::status));
+        for (Payment payment : paymentRepository.findWithMerchantByIdIn(previous.keySet())) {
+            transactionWriter.write(Transaction.builder()
+                .transactionId("TXN-" + UUID.randomUUID().toString().toUpperCase().substring(0, 18))
+                .transactionType(TransactionType.EXPIRE)
+                .amount(payment.getAmount())
+                .currency(payment.getCurrency())
+                .status(TransactionStatus.SUCCESS)
+                .responseMessage("Payment expired")
+                .payment(payment)
+                .build());
+            stateMachine.fire(payment, previous.get(payment.getId()), PaymentStatus.EXPIRED);
+        }
+    }
+
+    /**
+     * ล้าง Cache ของ Payment ที่เปลี่ยนสถานะ
+     */
+    private void evictCaches(List<ExpiredPayment> rows) {
+        CacheManager cacheManager = this.cacheManager.getIfAvailable();
+        if (cacheManager == null) {
+            return;
+        }
+        Cache byRef = cacheManager.getCache("payment-by-ref");
+        Cache byId = cacheManager.getCache("payments");
+        for (ExpiredPayment row : rows) {
+            if (byRef != null) {
+                byRef.evict(row.referenceId());
+            }
+            if (byId != null) {
+                byId.evict(row.id());
+            }
+        }
+        for (String name : List.of("payment-list", "dashboard-stats")) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (leader) {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    /**
+     * ข้อมูลของ Payment ที่กำลังจะ Expire
+     */
+    private record ExpiredPayment(long id, String referenceId, PaymentStatus status) {}
+}
@@ -0,0 +1,143 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.ExportFormat;
+import com.payment.gateway.dto.PaymentSummary;
+import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * PaymentExportService - Export Payment แบบ Streaming (NDJSON/CSV)
+ * 
+ * อ่านจาก Database ผ่าน Cursor และเขียนลง OutputStream ทีละแถว
+ * ใช้ Memory คงที่ไม่ว่าจะ Export กี่แถว (ไม่มี Count Query และไม่มี Paging)
+ */
+@Service
+@Transactional(readOnly = true)
+public class PaymentExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExportService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 10_000;
+    private static final String CSV_HEADER =
+        "id,referenceId,orderId,amount,currency,status,paymentMethod,customerName,createdAt\n";
+    
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+
+    public PaymentExportService(PaymentRepository paymentRepository, ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Export Payment ตามเงื่อนไข (เงื่อนไขเดียวกับ findByFilters)
+     * 
+     * @param format รูปแบบไฟล์
+     * @param merchantId Merchant ID (optional)
+     * @param status สถานะ (optional)
+     * @param startDate วันที่เริ่มต้น (optional)
+     * @param endDate วันที่สิ้นสุด (optional)
+     * @param output ที่เขียนข้อมูล
+     * @return จำนวนแถวที่ Export
+     */
+    @Bulkhead(Bulkhead.Type.ANALYTICS)
+    public long export(
+            ExportFormat format,
+            Long merchantId,
+            PaymentStatus status,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            OutputStream output) throws IOException {
+        return export(format, merchantId, status, startDate, endDate, output, rows -> { });
+    }
+
+    /**
+     * Export Payment พร้อมรายงานความคืบหน้า
+     * 
+     * @param progress ถูกเรียกทุก PROGRESS_INTERVAL แถว พร้อมจำนวนแถวที่เขียนแล้ว
+     */
+    @Bulkhead(Bulkhead.Type.ANALYTICS)
+    public long export(
+            ExportFormat format,
+            Long merchantId,
+            PaymentStatus status,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            OutputStream output,
+            LongConsumer progress) throws IOException {
+        
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        OutputStream out = new BufferedOutputStream(output, BUFFER_SIZE);
+        
+        if (format == ExportFormat.CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        try (Stream<PaymentSummary> stream =
+                 paymentRepository.streamSummariesByFilters(merchantId, status, startDate, endDate)) {
+            Iterator<PaymentSummary> it = stream.iterator();
+            while (it.hasNext()) {
+                PaymentSummary row = it.next();
+                if (format == ExportFormat.CSV) {
+                    out.write(toCsv(row).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(objectMapper.writeValueAsBytes(row));
+                    out.write('\n');
+                }
+                if (++rows % PROGRESS_INTERVAL == 0) {
+                    progress.accept(rows);
+                }
+            }
+        }
+        out.flush();
+        
+        logger.info("Exported {} payments as {} in {} ms", rows, format, System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    /**
+     * แปลงหนึ่งแถวเป็น CSV
+     */
+    private String toCsv(PaymentSummary row) {
+        return new StringBuilder(160)
+            .append(row.id()).append(',')
+            .append(csv(row.referenceId())).append(',')
+            .append(csv(row.orderId())).append(',')
+            .append(row.amount().toPlainString()).append(',')
+            .append(csv(row.currency())).append(',')
+            .append(row.status()).append(',')
+            .append(row.paymentMethod() != null ? row.paymentMethod() : "").append(',')
+            .append(csv(row.customerName())).append(',')
+            .append(row.createdAt() != null ? row.createdAt() : "")
+            .append('\n')
+            .toString();
+    }
+
+    /**
+     * Escape ค่าตามกฎ CSV (ครอบด้วย " เมื่อมี , " หรือขึ้นบรรทัดใหม่)
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
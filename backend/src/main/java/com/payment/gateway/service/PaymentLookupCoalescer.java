@@ -0,0 +1,136 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.PaymentResponse;
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * PaymentLookupCoalescer - รวม Query ค้นหา Payment ที่ซ้ำกันและเกิดพร้อมกัน (Single-Flight)
+ *
+ * ช่วง Checkout หรือหลัง Cache ถูกล้าง/Deploy ใหม่ Request จำนวนมากค้นหา referenceId เดียวกันพร้อมกัน
+ * แทนที่ทุก Request จะ Query เอง จะมี Query จริงเพียงครั้งเดียวต่อ Key และทุกคนใช้ผลเดียวกัน
+ *
+ * เปิด payment.lookup.stale-while-revalidate เพื่อตอบค่าล่าสุดระหว่างโหลดใหม่เบื้องหลัง
+ * ค่าที่เก็บไว้ถูกลบทันทีเมื่อ Payment เปลี่ยนสถานะ (ทั้งใน Transaction และหลัง Commit)
+ *
+ * Metrics (Tag lookup = reference, id):
+ * - payment.lookup.loads: จำนวน Query จริง
+ * - payment.lookup.coalesced: จำนวนผู้เรียกที่ใช้ผลของ Query ที่กำลังทำอยู่
+ * - payment.lookup.stale: จำนวนครั้งที่ตอบค่าเดิมระหว่างโหลดใหม่
+ */
+@Component
+public class PaymentLookupCoalescer implements PaymentTransitionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentLookupCoalescer.class);
+
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+    private final SingleFlight<String, PaymentResponse> byReference;
+    private final SingleFlight<Long, PaymentResponse> byId;
+
+    public PaymentLookupCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${payment.lookup.stale-while-revalidate:false}") boolean staleWhileRevalidate,
+            @Value("${payment.lookup.fresh-ms:500}") long freshMs,
+            @Value("${payment.lookup.stale-ms:5000}") long staleMs,
+            @Value("${payment.lookup.max-entries:10000}") int maxEntries) {
+        long freshNanos = TimeUnit.MILLISECONDS.toNanos(freshMs);
+        long staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMs);
+        this.byReference = new SingleFlight<>(staleWhileRevalidate, freshNanos, staleNanos, maxEntries, refresher);
+        this.byId = new SingleFlight<>(staleWhileRevalidate, freshNanos, staleNanos, maxEntries, refresher);
+        registerMetrics(meterRegistry, "reference", byReference);
+        registerMetrics(meterRegistry, "id", byId);
+        logger.info("Payment lookup coalescing: stale-while-revalidate={}, fresh-ms={}, stale-ms={}",
+            staleWhileRevalidate, freshMs, staleMs);
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, String lookup, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("payment.lookup.loads", flight, SingleFlight::loads)
+            .description("Payment lookups that reached the database")
+            .tag("lookup", lookup)
+            .register(meterRegistry);
+        FunctionCounter.builder("payment.lookup.coalesced", flight, SingleFlight::coalesced)
+            .description("Payment lookups that joined an identical in-flight query")
+            .tag("lookup", lookup)
+            .register(meterRegistry);
+        FunctionCounter.builder("payment.lookup.stale", flight, SingleFlight::staleServed)
+            .description("Payment lookups answered with a stale value while refreshing")
+            .tag("lookup", lookup)
+            .register(meterRegistry);
+        Gauge.builder("payment.lookup.entries", flight, SingleFlight::size)
+            .tag("lookup", lookup)
+            .register(meterRegistry);
+    }
+
+    /**
+     * ค้นหาจาก Reference ID
+     *
+     * @param referenceId Reference ID
+     * @param loader Query จริง
+     * @return PaymentResponse
+     */
+    public PaymentResponse byReferenceId(String referenceId, Supplier<PaymentResponse> loader) {
+        return byReference.get(referenceId, loader);
+    }
+
+    /**
+     * ค้นหาจาก ID
+     *
+     * @param id Payment ID
+     * @param loader Query จริง
+     * @return PaymentResponse
+     */
+    public PaymentResponse byId(Long id, Supplier<PaymentResponse> loader) {
+        return byId.get(id, loader);
+    }
+
+    @Override
+    public void onTransition(Payment payment, PaymentStatus from, PaymentStatus to) {
+        String referenceId = payment.getReferenceId();
+        Long id = payment.getId();
+        invalidate(referenceId, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Query ที่เริ่มหลังจากนี้แต่ก่อน Commit ยังเห็นค่าเดิม: ลบอีกครั้งหลัง Commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(referenceId, id);
+                }
+            });
+        }
+    }
+
+    private void invalidate(String referenceId, Long id) {
+        byReference.invalidate(referenceId);
+        byId.invalidate(id);
+    }
+
+    /**
+     * ลบค่าที่หมดอายุ
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void prune() {
+        byReference.prune();
+        byId.prune();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,303 @@
+package com.payment.gateway.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PaymentReferenceIndex - ตรวจว่า referenceId มีอยู่จริงก่อนแตะ Database
+ *
+ * - ตอนเริ่มระบบ: Stream id + reference_id ของ payments และ payments_archive ทั้งหมดเข้า {@link OffHeapReferenceIndex}
+ * - Payment ที่สร้างบน Node นี้ถูกเพิ่มทันที ({@link #add})
+ * - ทุก sync-interval-ms: ดึง Payment ที่ id มากกว่า ID สูงสุดที่เห็นแล้ว ย้อนเผื่อ sync-slack-ids
+ *   (ID ที่จองก่อนแต่ Commit ทีหลัง) ไม่ใช้นาฬิกาของ Node จึงไม่พลาดเมื่อนาฬิการะหว่าง Node ต่างกัน
+ * - ทุก rebuild-interval-ms: สร้าง Index ใหม่ทั้งหมดแล้วสลับ (เก็บแถวที่ Commit ช้าเกิน sync-slack-ids)
+ * - ไม่พบใน Index: Sync เพิ่มหนึ่งรอบที่เริ่มหลัง Request มาถึง (Request ที่ไม่พบพร้อมกันใช้รอบเดียวกัน)
+ *   ถ้ายังไม่พบจึงตอบว่าไม่มี Payment ที่เพิ่งสร้างบน Node อื่นจึงไม่ถูกตอบ 404 ผิด ๆ
+ *
+ * ระหว่างสร้าง Index, เมื่อ Sync ไม่สำเร็จ หรือเมื่อ Index ไม่ได้ถูกสร้างใหม่เกินสองรอบ rebuild-interval-ms
+ * ผลที่ไม่พบเป็น {@link #UNAVAILABLE} และผู้เรียกค้นจาก Database ตามปกติ
+ */
+@Component
+public class PaymentReferenceIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReferenceIndex.class);
+
+    /**
+     * ไม่มี Payment นี้แน่นอน
+     */
+    public static final long MISSING = 0L;
+
+    /**
+     * Index ยังใช้ไม่ได้ (ให้ค้นจาก Database)
+     */
+    public static final long UNAVAILABLE = -1L;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final BackgroundJob loader = new BackgroundJob("reference-index-loader");
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${payment.reference-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.reference-index.sync-slack-ids:5000}")
+    private long syncSlackIds;
+
+    @Value("${payment.reference-index.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMs;
+
+    @Value("${payment.reference-index.miss-wait-ms:200}")
+    private long missWaitMs;
+
+    @Value("${payment.reference-index.initial-capacity:100000}")
+    private int initialCapacity;
+
+    private volatile OffHeapReferenceIndex index;
+    private volatile long lastSyncStartNanos;
+    private volatile long lastBuildStartNanos;
+    // ID สูงสุดของ payments ที่อ่านแล้ว (แก้ภายใต้ syncLock)
+    private long maxId;
+
+    public PaymentReferenceIndex(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${payment.reference-index.fetch-size:5000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.hits = Counter.builder("payment.reference.index")
+            .description("Reference lookups answered by the in-memory index")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("payment.reference.index")
+            .description("Reference lookups answered by the in-memory index")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("payment.reference.index.size", this, i -> i.index == null ? 0 : i.index.size())
+            .register(meterRegistry);
+        Gauge.builder("payment.reference.index.bytes", this, i -> i.index == null ? 0 : i.index.offHeapBytes())
+            .description("Off-heap memory used by the reference index")
+            .register(meterRegistry);
+    }
+
+    /**
+     * ค้นหา Payment ID จาก Reference ID
+     *
+     * @param referenceId Reference ID
+     * @return Payment ID (ต้องเทียบ referenceId กับแถวจริงอีกครั้ง), {@link #MISSING} หรือ {@link #UNAVAILABLE}
+     */
+    public long lookup(String referenceId) {
+        OffHeapReferenceIndex current = index;
+        if (current == null) {
+            return UNAVAILABLE;
+        }
+        long id = current.get(referenceId);
+        if (id != MISSING) {
+            hits.increment();
+            return id;
+        }
+
+        long arrivedAt = System.nanoTime();
+        try {
+            if (!syncLock.tryLock(missWaitMs, TimeUnit.MILLISECONDS)) {
+                return UNAVAILABLE;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return UNAVAILABLE;
+        }
+        try {
+            if (lastSyncStartNanos - arrivedAt < 0) {
+                // รอบล่าสุดเริ่มก่อน Request นี้: อาจยังไม่เห็น Payment ที่เพิ่งสร้างบน Node อื่น
+                syncLocked();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Reference index sync failed: {}", e.getMessage());
+            return UNAVAILABLE;
+        } finally {
+            syncLock.unlock();
+        }
+
+        OffHeapReferenceIndex synced = index;
+        if (synced == null) {
+            return UNAVAILABLE;
+        }
+        id = synced.get(referenceId);
+        if (id == MISSING) {
+            if (System.nanoTime() - lastBuildStartNanos > TimeUnit.MILLISECONDS.toNanos(rebuildIntervalMs * 2)) {
+                // Rebuild ไม่สำเร็จมาเกินหนึ่งรอบ: แถวที่ Commit ช้าอาจยังไม่อยู่ใน Index
+                return UNAVAILABLE;
+            }
+            misses.increment();
+        }
+        return id;
+    }
+
+    /**
+     * เพิ่ม Payment ที่เพิ่งสร้าง (เรียกได้ก่อน Commit: ถ้า Rollback จะค้นไม่พบใน Database ตามปกติ)
+     *
+     * @param referenceId Reference ID
+     * @param paymentId Payment ID
+     */
+    public void add(String referenceId, Long paymentId) {
+        OffHeapReferenceIndex current = index;
+        if (current == null || paymentId == null) {
+            return;
+        }
+        try {
+            current.put(referenceId, paymentId);
+        } catch (IllegalStateException e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * สร้าง Index (รอบแรก) หรือดึง Payment ที่สร้างใหม่
+     * รอบแรก Stream ทั้งตารางจึงรันบน Thread ของตัวเอง ไม่ให้ Scheduler ถูกกัน
+     */
+    @Scheduled(fixedDelayString = "${payment.reference-index.sync-interval-ms:1000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        if (index == null) {
+            loader.submit(this::syncNow);
+            return;
+        }
+        syncNow();
+    }
+
+    /**
+     * สร้าง Index ใหม่ทั้งหมดบน Thread ของ Loader แล้วสลับแทนของเดิม
+     */
+    @Scheduled(initialDelayString = "${payment.reference-index.rebuild-interval-ms:600000}",
+               fixedDelayString = "${payment.reference-index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled || index == null) {
+            return;
+        }
+        loader.submit(this::rebuildNow);
+    }
+
+    private void rebuildNow() {
+        long startNanos = System.nanoTime();
+        Built built;
+        try {
+            built = build();
+        } catch (IllegalStateException e) {
+            disable(e);
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Reference index rebuild failed: {}", e.getMessage());
+            return;
+        }
+        syncLock.lock();
+        try {
+            // แถวที่ Commit ระหว่าง Build (รวมที่ add() ลง Index เดิม) อยู่ในช่วง ID ของ Sync รอบนี้
+            long syncStartNanos = System.nanoTime();
+            maxId = syncFrom(built.index(), Math.max(built.maxId(), maxId));
+            index = built.index();
+            lastBuildStartNanos = startNanos;
+            lastSyncStartNanos = syncStartNanos;
+            logger.info("Reference index rebuilt: {} payments in {} ms",
+                built.index().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (IllegalStateException e) {
+            disable(e);
+        } catch (RuntimeException e) {
+            logger.warn("Reference index rebuild failed: {}", e.getMessage());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncNow() {
+        syncLock.lock();
+        try {
+            syncLocked();
+        } catch (RuntimeException e) {
+            logger.warn("Reference index sync failed: {}", e.getMessage());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncLocked() {
+        long startNanos = System.nanoTime();
+        OffHeapReferenceIndex current = index;
+        try {
+            if (current == null) {
+                Built built = build();
+                logger.info("Reference index built: {} payments, {} KB off-heap in {} ms",
+                    built.index().size(), built.index().offHeapBytes() / 1024,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                maxId = built.maxId();
+                index = built.index();
+                lastBuildStartNanos = startNanos;
+            } else {
+                maxId = syncFrom(current, maxId);
+            }
+        } catch (IllegalStateException e) {
+            disable(e);
+            return;
+        }
+        lastSyncStartNanos = startNanos;
+    }
+
+    /**
+     * ดึง Payment ที่ id มากกว่า fromMaxId - sync-slack-ids
+     *
+     * @return ID สูงสุดที่เห็น
+     */
+    private long syncFrom(OffHeapReferenceIndex target, long fromMaxId) {
+        long[] seen = {fromMaxId};
+        streamingJdbcTemplate.query("SELECT id, reference_id FROM payments WHERE id > ?", rs -> {
+            long id = rs.getLong(1);
+            target.put(rs.getString(2), id);
+            seen[0] = Math.max(seen[0], id);
+        }, Math.max(0, fromMaxId - syncSlackIds));
+        return seen[0];
+    }
+
+    private Built build() {
+        OffHeapReferenceIndex built = new OffHeapReferenceIndex(
+            Math.max(initialCapacity, index != null ? index.size() : 0));
+        streamingJdbcTemplate.query("SELECT id, reference_id FROM payments_archive", rs -> {
+            built.put(rs.getString(2), rs.getLong(1));
+        });
+        long[] seen = {0};
+        streamingJdbcTemplate.query("SELECT id, reference_id FROM payments", rs -> {
+            long id = rs.getLong(1);
+            built.put(rs.getString(2), id);
+            seen[0] = Math.max(seen[0], id);
+        });
+        return new Built(built, seen[0]);
+    }
+
+    /**
+     * Index ที่สร้างจากทั้งตาราง และ ID สูงสุดของ payments ตอนสร้าง
+     */
+    private record Built(OffHeapReferenceIndex index, long maxId) {}
+
+    private void disable(IllegalStateException e) {
+        logger.error("Disabling reference index: {}", e.getMessage());
+        enabled = false;
+        index = null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.close();
+    }
+}
@@ -3,23 +3,47 @@ package com.payment.gateway.service;
 import com.payment.gateway.dto.*;
 import com.payment.gateway.entity.*;
 import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.exception.PaymentException;
 import com.payment.gateway.exception.ResourceNotFoundException;
+import com.payment.gateway.repository.ArchivedPaymentRepository;
 import com.payment.gateway.repository.PaymentRepository;
 import com.payment.gateway.repository.TransactionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * PaymentService - บริการจัดการ Payment
@@ -41,18 +65,61 @@ public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
     private static final int PAYMENT_EXPIRY_MINUTES = 30;
+    private static final int IN_CLAUSE_CHUNK = 1000;
     
     private final PaymentRepository paymentRepository;
+    private final ArchivedPaymentRepository archivedPaymentRepository;
     private final TransactionRepository transactionRepository;
     private final MerchantService merchantService;
+    private final PaymentStateMachine stateMachine;
+    private final PaymentExpiryService paymentExpiryService;
+    private final LedgerService ledgerService;
+    private final TransactionWriter transactionWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final UsageMeteringService usageMeteringService;
+    private final PaymentLookupCoalescer lookupCoalescer;
+    private final BulkheadAspect bulkheads;
+    private final PaymentReferenceIndex referenceIndex;
+    private final PaymentAnalyticsStore analyticsStore;
+
+    @Value("${payment.refund.max-attempts:5}")
+    private int refundMaxAttempts;
 
     public PaymentService(
             PaymentRepository paymentRepository,
+            ArchivedPaymentRepository archivedPaymentRepository,
             TransactionRepository transactionRepository,
-            MerchantService merchantService) {
+            MerchantService merchantService,
+            PaymentStateMachine stateMachine,
+            PaymentExpiryService paymentExpiryService,
+            LedgerService ledgerService,
+            TransactionWriter transactionWriter,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<CacheManager> cacheManager,
+            UsageMeteringService usageMeteringService,
+            PaymentLookupCoalescer lookupCoalescer,
+            BulkheadAspect bulkheads,
+            PaymentReferenceIndex referenceIndex,
+            PaymentAnalyticsStore analyticsStore) {
         this.paymentRepository = paymentRepository;
+        this.archivedPaymentRepository = archivedPaymentRepository;
         this.transactionRepository = transactionRepository;
         this.merchantService = merchantService;
+        this.stateMachine = stateMachine;
+        this.paymentExpiryService = paymentExpiryService;
+        this.ledgerService = ledgerService;
+        this.transactionWriter = transactionWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.cacheManager = cacheManager;
+        this.usageMeteringService = usageMeteringService;
+        this.lookupCoalescer = lookupCoalescer;
+        this.bulkheads = bulkheads;
+        this.referenceIndex = referenceIndex;
+        this.analyticsStore = analyticsStore;
     }
 
     /**
@@ -66,6 +133,7 @@ public class PaymentService {
         @CacheEvict(value = "payment-list", allEntries = true),
         @CacheEvict(value = "dashboard-stats", allEntries = true)
     })
+    @Bulkhead(Bulkhead.Type.CRITICAL)
     public PaymentResponse createPayment(CreatePaymentRequest request, String apiKey) {
         logger.info("Creating payment for order: {}", request.orderId());
         
@@ -77,8 +145,9 @@ public class PaymentService {
             throw new InvalidRequestException("Merchant is not active");
         }
         
-        // ตรวจสอบว่า Order ID ซ้ำหรือไม่
-        if (paymentRepository.findByOrderIdAndMerchantId(request.orderId(), merchant.getId()).isPresent()) {
+        // ตรวจสอบว่า Order ID ซ้ำหรือไม่ (รวม Payment ที่ย้ายไป Archive แล้ว)
+        if (paymentRepository.findByOrderIdAndMerchantId(request.orderId(), merchant.getId()).isPresent()
+                || archivedPaymentRepository.existsByOrderIdAndMerchantId(request.orderId(), merchant.getId())) {
             throw new InvalidRequestException("DUPLICATE_ORDER", "Order ID already exists: " + request.orderId());
         }
         
@@ -97,17 +166,24 @@ public class PaymentService {
             .customerName(request.customerName())
             .customerEmail(request.customerEmail())
             .customerPhone(request.customerPhone())
-            .metadata(request.metadata())
+            .metadata(PaymentMetadata.of(request.metadata()))
             .expiresAt(LocalDateTime.now().plusMinutes(PAYMENT_EXPIRY_MINUTES))
             .merchant(merchant)
             .build();
         
         // บันทึก Payment
         payment = paymentRepository.save(payment);
+        referenceIndex.add(referenceId, payment.getId());
+        analyticsStore.record(payment);
         
         // สร้าง Transaction สำหรับการสร้าง Payment
         createTransaction(payment, TransactionType.AUTHORIZE, request.amount(), TransactionStatus.SUCCESS);
         
+        // ตั้งเวลาหมดอายุ
+        paymentExpiryService.schedule(payment.getId(), payment.getExpiresAt());
+        
+        usageMeteringService.record(merchant.getId(), UsageOperation.PAYMENT_CREATED);
+        
         logger.info("Payment created successfully: {}", referenceId);
         return toResponse(payment);
     }
@@ -115,30 +191,144 @@ public class PaymentService {
     /**
      * ค้นหา Payment จาก Reference ID
      * 
+     * - Reference ID ที่ไม่มีใน PaymentReferenceIndex ตอบ 404 ทันทีโดยไม่แตะ Database
+     * - ที่มีอยู่ค้นด้วย Primary Key แทน Index ของ reference_id
+     * - Request ที่ค้นหา Reference ID เดียวกันพร้อมกันใช้ Query เดียว (ดู PaymentLookupCoalescer)
+     *   เฉพาะผู้ที่ Query จริงถือ Permit ของ Bulkhead LOOKUP และ Transaction
+     * 
      * @param referenceId Reference ID
      * @return PaymentResponse
      */
-    @Transactional(readOnly = true)
     @Cacheable(value = "payment-by-ref", key = "#referenceId")
     public PaymentResponse getPaymentByReferenceId(String referenceId) {
-        logger.debug("Cache MISS - Fetching payment from database: {}", referenceId);
-        Payment payment = findPaymentByReferenceId(referenceId);
-        return toResponse(payment);
+        long indexedId = referenceIndex.lookup(referenceId);
+        if (indexedId == PaymentReferenceIndex.MISSING) {
+            throw ResourceNotFoundException.withoutStackTrace("Payment", "referenceId", referenceId);
+        }
+        return lookupCoalescer.byReferenceId(referenceId, () -> bulkheads.execute(Bulkhead.Type.LOOKUP, () ->
+            readOnlyTemplate.execute(status -> {
+                logger.debug("Cache MISS - Fetching payment from database: {}", referenceId);
+                return findResponseByReferenceId(referenceId, indexedId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment", "referenceId", referenceId));
+            })));
+    }
+
+    /**
+     * ค้นหาด้วย ID จาก Index ก่อน (Hash ของ Index อาจชนกันจึงเทียบ referenceId อีกครั้ง)
+     * ถ้าไม่ตรงหรือ Index ใช้ไม่ได้ค้นด้วย referenceId
+     */
+    private Optional<PaymentResponse> findResponseByReferenceId(String referenceId, long indexedId) {
+        if (indexedId > 0) {
+            Optional<PaymentResponse> byId = paymentRepository.findById(indexedId)
+                .filter(p -> referenceId.equals(p.getReferenceId()))
+                .map(this::toResponse)
+                .or(() -> archivedPaymentRepository.findById(indexedId)
+                    .filter(p -> referenceId.equals(p.getReferenceId()))
+                    .map(this::toResponse));
+            if (byId.isPresent()) {
+                return byId;
+            }
+        }
+        return paymentRepository.findByReferenceId(referenceId)
+            .map(this::toResponse)
+            .or(() -> archivedPaymentRepository.findByReferenceId(referenceId).map(this::toResponse));
     }
 
     /**
-     * ค้นหา Payment จาก ID
+     * ค้นหา Payment จาก ID (รวม Query ที่ซ้ำกันเหมือน {@link #getPaymentByReferenceId})
      * 
      * @param id Payment ID
      * @return PaymentResponse
      */
-    @Transactional(readOnly = true)
     @Cacheable(value = "payments", key = "#id")
     public PaymentResponse getPaymentById(Long id) {
-        logger.debug("Cache MISS - Fetching payment by ID from database: {}", id);
-        Payment payment = paymentRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", id));
-        return toResponse(payment);
+        return lookupCoalescer.byId(id, () -> bulkheads.execute(Bulkhead.Type.LOOKUP, () ->
+            readOnlyTemplate.execute(status -> {
+                logger.debug("Cache MISS - Fetching payment by ID from database: {}", id);
+                return paymentRepository.findById(id)
+                    .map(this::toResponse)
+                    .or(() -> archivedPaymentRepository.findById(id).map(this::toResponse))
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", id));
+            })));
+    }
+
+    /**
+     * ดึงสถานะ Payment หลายรายการในครั้งเดียว (สำหรับ Reconciliation)
+     * 
+     * ทั้ง Reference ID และ Order ID ค้นเฉพาะ Payment ของ Merchant ที่เรียก
+     * (ของ Merchant อื่นนับเป็นไม่พบ)
+     * 
+     * Reference ID: ดูจาก Cache payment-by-ref ก่อน ที่เหลือใช้ IN Query
+     * Order ID: ใช้ IN Query
+     * 
+     * @param request รายการ Reference ID / Order ID
+     * @param apiKey API Key ของ Merchant
+     * @return สถานะที่พบและรายการที่ไม่พบ
+     */
+    @Transactional(readOnly = true)
+    @Bulkhead(Bulkhead.Type.LOOKUP)
+    public BatchStatusResponse getStatusBatch(BatchStatusRequest request, String apiKey) {
+        if (request.referenceIds().isEmpty() && request.orderIds().isEmpty()) {
+            throw new InvalidRequestException("referenceIds or orderIds is required");
+        }
+        
+        // Merchant ของผู้เรียก (ใช้จำกัดผลการค้นและนับการใช้งาน)
+        Long callerId = merchantService.getMerchantByApiKey(apiKey).getId();
+        usageMeteringService.record(callerId, UsageOperation.STATUS_LOOKUP);
+        
+        List<PaymentStatusItem> found = new ArrayList<>();
+        
+        // 1. Reference ID - Cache ก่อน (ข้าม Entry ของ Merchant อื่น)
+        Set<String> referenceMisses = new LinkedHashSet<>(request.referenceIds());
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager != null ? manager.getCache("payment-by-ref") : null;
+        if (cache != null) {
+            for (Iterator<String> it = referenceMisses.iterator(); it.hasNext(); ) {
+                PaymentResponse cached = cache.get(it.next(), PaymentResponse.class);
+                if (cached != null && callerId.equals(cached.merchantId())) {
+                    found.add(PaymentStatusItem.from(cached));
+                    it.remove();
+                }
+            }
+        }
+        
+        // 2. Reference ID ที่ไม่อยู่ใน Cache - IN Query
+        for (List<String> chunk : chunks(referenceMisses)) {
+            for (PaymentStatusItem item : paymentRepository.findStatusByReferenceIds(callerId, chunk)) {
+                found.add(item);
+                referenceMisses.remove(item.referenceId());
+            }
+        }
+        
+        // 3. Order ID - IN Query ของ Merchant
+        Set<String> orderMisses = new LinkedHashSet<>(request.orderIds());
+        Long merchantId = orderMisses.isEmpty() ? null : callerId;
+        if (merchantId != null) {
+            for (List<String> chunk : chunks(orderMisses)) {
+                for (PaymentStatusItem item : paymentRepository.findStatusByOrderIds(merchantId, chunk)) {
+                    found.add(item);
+                    orderMisses.remove(item.orderId());
+                }
+            }
+        }
+        
+        // 4. ที่ยังไม่พบ - ดูใน Archive
+        for (List<String> chunk : chunks(referenceMisses)) {
+            for (PaymentStatusItem item : archivedPaymentRepository.findStatusByReferenceIds(callerId, chunk)) {
+                found.add(item);
+                referenceMisses.remove(item.referenceId());
+            }
+        }
+        if (merchantId != null) {
+            for (List<String> chunk : chunks(orderMisses)) {
+                for (PaymentStatusItem item : archivedPaymentRepository.findStatusByOrderIds(merchantId, chunk)) {
+                    found.add(item);
+                    orderMisses.remove(item.orderId());
+                }
+            }
+        }
+        
+        return new BatchStatusResponse(found, List.copyOf(referenceMisses), List.copyOf(orderMisses));
     }
 
     /**
@@ -150,6 +340,7 @@ public class PaymentService {
      * @return Page ของ PaymentSummary
      */
     @Transactional(readOnly = true)
+    @Bulkhead(Bulkhead.Type.ANALYTICS)
     public PageResponse<PaymentSummary> getAllPayments(String search, PaymentStatus status, Pageable pageable) {
         Page<Payment> page;
         boolean hasSearch = search != null && !search.trim().isEmpty();
@@ -174,6 +365,7 @@ public class PaymentService {
      * @return Page ของ PaymentSummary
      */
     @Transactional(readOnly = true)
+    @Bulkhead(Bulkhead.Type.ANALYTICS)
     public PageResponse<PaymentSummary> getPaymentsByStatus(PaymentStatus status, Pageable pageable) {
         Page<Payment> page = paymentRepository.findByStatusOrderByCreatedAtDesc(status, pageable);
         return toPageResponse(page);
@@ -191,31 +383,33 @@ public class PaymentService {
         @CacheEvict(value = "payment-list", allEntries = true),
         @CacheEvict(value = "dashboard-stats", allEntries = true)
     })
+    @Bulkhead(Bulkhead.Type.CRITICAL)
     public PaymentResponse completePayment(String referenceId) {
         logger.info("Completing payment: {}", referenceId);
         
         Payment payment = findPaymentByReferenceId(referenceId);
         
         // ตรวจสอบสถานะปัจจุบัน
-        if (payment.getStatus() != PaymentStatus.PENDING && payment.getStatus() != PaymentStatus.PROCESSING) {
+        if (!stateMachine.canTransition(payment.getStatus(), PaymentStatus.COMPLETED)) {
             throw new InvalidRequestException("Payment cannot be completed. Current status: " + payment.getStatus());
         }
         
         // ตรวจสอบว่าหมดอายุหรือยัง
         if (payment.getExpiresAt() != null && payment.getExpiresAt().isBefore(LocalDateTime.now())) {
-            payment.setStatus(PaymentStatus.EXPIRED);
-            paymentRepository.save(payment);
+            stateMachine.transition(payment, PaymentStatus.EXPIRED, null);
             throw new InvalidRequestException("Payment has expired");
         }
         
-        // อัพเดทสถานะ
-        payment.setStatus(PaymentStatus.COMPLETED);
-        payment.setPaidAt(LocalDateTime.now());
-        payment = paymentRepository.save(payment);
+        // อัพเดทสถานะ (Compare-and-Set - ถ้ามีคำขออื่นเปลี่ยนไปก่อนจะไม่เขียนทับ)
+        if (!stateMachine.transition(payment, PaymentStatus.COMPLETED, null)) {
+            throw new InvalidRequestException("Payment cannot be completed. Current status: " + payment.getStatus());
+        }
         
         // สร้าง Transaction
         createTransaction(payment, TransactionType.CAPTURE, payment.getAmount(), TransactionStatus.SUCCESS);
         
+        usageMeteringService.record(payment.getMerchant().getId(), UsageOperation.PAYMENT_COMPLETED);
+        
         logger.info("Payment completed: {}", referenceId);
         return toResponse(payment);
     }
@@ -232,35 +426,159 @@ public class PaymentService {
         @CacheEvict(value = "payment-list", allEntries = true),
         @CacheEvict(value = "dashboard-stats", allEntries = true)
     })
+    @Bulkhead(Bulkhead.Type.CRITICAL)
     public PaymentResponse cancelPayment(String referenceId, String reason) {
         logger.info("Cancelling payment: {}", referenceId);
         
-        Payment payment = findPaymentByReferenceId(referenceId);
+        PaymentResponse response = applyCancel(findPaymentByReferenceId(referenceId), reason);
         
-        // ตรวจสอบว่าสามารถยกเลิกได้หรือไม่
-        if (payment.getStatus() == PaymentStatus.COMPLETED) {
-            throw new InvalidRequestException("Cannot cancel completed payment. Use refund instead.");
+        logger.info("Payment cancelled: {}", referenceId);
+        return response;
+    }
+
+    /**
+     * คืนเงินหลายรายการใน Transaction เดียว (Bulk Refund)
+     * 
+     * โหลด Payment ของทั้ง Chunk ด้วย Query เดียวและ Commit ครั้งเดียว
+     * แถวที่ผิดเงื่อนไขจะถูกรายงานเป็น Error โดยไม่กระทบแถวอื่น
+     * ถ้าเกิด Version Conflict ทั้ง Chunk จะ Rollback (ผู้เรียกต้องทำทีละแถวแทน)
+     * 
+     * @param rows รายการ Refund
+     * @return ผลลัพธ์ตามลำดับของ rows
+     */
+    @Caching(evict = {
+        @CacheEvict(value = "payment-by-ref", allEntries = true),
+        @CacheEvict(value = "payment-list", allEntries = true),
+        @CacheEvict(value = "dashboard-stats", allEntries = true)
+    })
+    @Bulkhead(Bulkhead.Type.CRITICAL)
+    public List<BulkItemResult> refundChunk(List<BulkRow<RefundRequest>> rows) {
+        return applyChunk(rows, RefundRequest::referenceId,
+            this::prepareRefund, UsageOperation.PAYMENT_REFUNDED);
+    }
+
+    /**
+     * ยกเลิกหลายรายการใน Transaction เดียว (Bulk Cancel)
+     * 
+     * @param rows รายการยกเลิก
+     * @return ผลลัพธ์ตามลำดับของ rows
+     */
+    @Caching(evict = {
+        @CacheEvict(value = "payment-by-ref", allEntries = true),
+        @CacheEvict(value = "payment-list", allEntries = true),
+        @CacheEvict(value = "dashboard-stats", allEntries = true)
+    })
+    @Bulkhead(Bulkhead.Type.CRITICAL)
+    public List<BulkItemResult> cancelChunk(List<BulkRow<CancelRequest>> rows) {
+        return applyChunk(rows, CancelRequest::referenceId,
+            (payment, request) -> prepareCancel(payment, request.reason()), UsageOperation.PAYMENT_CANCELLED);
+    }
+
+    /**
+     * ทำทั้ง Chunk ใน Transaction เดียว
+     * 
+     * แต่ละแถวถูกตรวจสอบและแก้ Payment ในหน่วยความจำก่อน (ไม่มีการเขียนระหว่างแถว)
+     * จากนั้น Flush ครั้งเดียว: UPDATE payments ... AND version = ? ถูกรวมเป็น JDBC Batch
+     * ส่วน Transaction และ LedgerEntry (ID แบบ IDENTITY) เขียนด้วย JDBC Batch INSERT
+     * ถ้ามีคนแก้ Payment ระหว่างนั้น Flush จะได้ OptimisticLockingFailureException และทั้ง Chunk Rollback
+     */
+    private <T> List<BulkItemResult> applyChunk(
+            List<BulkRow<T>> rows,
+            Function<T, String> referenceIdOf,
+            BiFunction<Payment, T, PaymentChange> prepare,
+            UsageOperation operation) {
+        Map<String, Payment> payments = loadPayments(rows.stream().map(row -> referenceIdOf.apply(row.request())));
+        
+        BulkItemResult[] results = new BulkItemResult[rows.size()];
+        PaymentChange[] changes = new PaymentChange[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            BulkRow<T> row = rows.get(i);
+            String referenceId = referenceIdOf.apply(row.request());
+            try {
+                changes[i] = prepare.apply(requirePayment(payments, referenceId), row.request());
+            } catch (PaymentException e) {
+                results[i] = BulkItemResult.failure(row.line(), referenceId, e.getErrorCode(), e.getMessage());
+            }
         }
         
-        if (payment.getStatus() == PaymentStatus.CANCELLED) {
-            throw new InvalidRequestException("Payment is already cancelled");
+        List<Transaction> transactions = Arrays.stream(changes)
+            .filter(Objects::nonNull)
+            .map(PaymentChange::transaction)
+            .toList();
+        paymentRepository.flush();
+        transactionWriter.writeAll(transactions);
+        ledgerService.postAll(transactions);
+        
+        for (int i = 0; i < rows.size(); i++) {
+            PaymentChange change = changes[i];
+            if (change == null) {
+                continue;
+            }
+            Payment payment = change.payment();
+            stateMachine.fire(payment, change.from(), change.to());
+            usageMeteringService.record(payment.getMerchant().getId(), operation);
+            results[i] = BulkItemResult.success(rows.get(i).line(), toResponse(payment));
         }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * ยกเลิก Payment (ภายใน Transaction)
+     * ตรวจสอบทุกเงื่อนไขก่อนเขียน Database
+     */
+    private PaymentResponse applyCancel(Payment payment, String reason) {
+        requireCancellable(payment);
         
-        // อัพเดทสถานะ
-        payment.setStatus(PaymentStatus.CANCELLED);
-        payment.setFailureReason(reason);
-        payment = paymentRepository.save(payment);
+        // อัพเดทสถานะ (Compare-and-Set)
+        if (!stateMachine.transition(payment, PaymentStatus.CANCELLED, reason)) {
+            throw new InvalidRequestException("Payment cannot be cancelled. Current status: " + payment.getStatus());
+        }
         
         // สร้าง Transaction
         createTransaction(payment, TransactionType.VOID, payment.getAmount(), TransactionStatus.SUCCESS);
         
-        logger.info("Payment cancelled: {}", referenceId);
+        usageMeteringService.record(payment.getMerchant().getId(), UsageOperation.PAYMENT_CANCELLED);
+        
         return toResponse(payment);
     }
 
+    /**
+     * ยกเลิก Payment ในหน่วยความจำ (ใช้กับ Bulk Cancel ซึ่ง Flush ครั้งเดียวทั้ง Chunk)
+     * การชนกับผู้อื่นถูกตรวจด้วย @Version ตอน Flush แทน Compare-and-Set
+     */
+    private PaymentChange prepareCancel(Payment payment, String reason) {
+        requireCancellable(payment);
+        
+        PaymentStatus previousStatus = payment.getStatus();
+        if (!stateMachine.canTransition(previousStatus, PaymentStatus.CANCELLED)) {
+            throw new InvalidRequestException("Payment cannot be cancelled. Current status: " + previousStatus);
+        }
+        
+        payment.setStatus(PaymentStatus.CANCELLED);
+        if (reason != null) {
+            payment.setFailureReason(reason);
+        }
+        return new PaymentChange(payment, previousStatus, PaymentStatus.CANCELLED,
+            buildTransaction(payment, TransactionType.VOID, payment.getAmount(), TransactionStatus.SUCCESS));
+    }
+
+    private void requireCancellable(Payment payment) {
+        // ตรวจสอบว่าสามารถยกเลิกได้หรือไม่
+        if (payment.getStatus() == PaymentStatus.COMPLETED) {
+            throw new InvalidRequestException("Cannot cancel completed payment. Use refund instead.");
+        }
+        
+        if (payment.getStatus() == PaymentStatus.CANCELLED) {
+            throw new InvalidRequestException("Payment is already cancelled");
+        }
+    }
+
     /**
      * คืนเงิน (Refund)
      * 
+     * แต่ละครั้งทำงานใน Transaction ของตัวเอง หาก Refund พร้อมกันชน Version
+     * จะเริ่มใหม่ด้วยข้อมูลล่าสุด (สูงสุด payment.refund.max-attempts ครั้ง)
+     * 
      * @param request RefundRequest
      * @return PaymentResponse
      */
@@ -269,43 +587,24 @@ public class PaymentService {
         @CacheEvict(value = "payment-list", allEntries = true),
         @CacheEvict(value = "dashboard-stats", allEntries = true)
     })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Bulkhead(Bulkhead.Type.CRITICAL)
     public PaymentResponse refundPayment(RefundRequest request) {
         logger.info("Processing refund for payment: {}", request.referenceId());
         
-        Payment payment = findPaymentByReferenceId(request.referenceId());
-        
-        // ตรวจสอบว่าชำระเงินสำเร็จแล้วหรือไม่
-        if (payment.getStatus() != PaymentStatus.COMPLETED && 
-            payment.getStatus() != PaymentStatus.PARTIALLY_REFUNDED) {
-            throw new InvalidRequestException("Can only refund completed payments");
-        }
-        
-        // คำนวณยอดคืนเงิน
-        BigDecimal refundAmount = request.amount() != null ? request.amount() : payment.getAmount();
-        
-        // ตรวจสอบว่ายอดคืนไม่เกินยอดที่ชำระ
-        BigDecimal alreadyRefunded = calculateRefundedAmount(payment.getId());
-        BigDecimal availableForRefund = payment.getAmount().subtract(alreadyRefunded);
-        
-        if (refundAmount.compareTo(availableForRefund) > 0) {
-            throw new InvalidRequestException("Refund amount exceeds available amount. Available: " + availableForRefund);
-        }
-        
-        // อัพเดทสถานะ
-        if (refundAmount.compareTo(availableForRefund) == 0) {
-            payment.setStatus(PaymentStatus.REFUNDED);
-        } else {
-            payment.setStatus(PaymentStatus.PARTIALLY_REFUNDED);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyRefund(request));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= refundMaxAttempts) {
+                    logger.warn("Refund for payment {} gave up after {} conflicting attempts",
+                        request.referenceId(), attempt);
+                    throw e;
+                }
+                logger.debug("Refund conflict on payment {} (attempt {}), retrying", request.referenceId(), attempt);
+                backoff(attempt);
+            }
         }
-        payment = paymentRepository.save(payment);
-        
-        // สร้าง Refund Transaction
-        Transaction refundTx = createTransaction(payment, TransactionType.REFUND, refundAmount, TransactionStatus.SUCCESS);
-        refundTx.setResponseMessage(request.reason());
-        transactionRepository.save(refundTx);
-        
-        logger.info("Refund processed for payment: {}, amount: {}", request.referenceId(), refundAmount);
-        return toResponse(payment);
     }
 
     /**
@@ -313,10 +612,12 @@ public class PaymentService {
      * 
      * @param payload WebhookPayload
      */
+    @Bulkhead(Bulkhead.Type.CRITICAL)
     public void processWebhook(WebhookPayload payload) {
         logger.info("Processing webhook for payment: {}", payload.referenceId());
         
         Payment payment = findPaymentByReferenceId(payload.referenceId());
+        PaymentStatus previousStatus = payment.getStatus();
         
         // อัพเดทสถานะตาม Event Type
         PaymentStatus newStatus = switch (payload.eventType()) {
@@ -327,25 +628,36 @@ public class PaymentService {
             default -> payment.getStatus();
         };
         
-        if (newStatus == PaymentStatus.COMPLETED) {
-            payment.setPaidAt(LocalDateTime.now());
-        }
+        String failureReason = newStatus == PaymentStatus.FAILED || newStatus == PaymentStatus.CANCELLED
+            ? payload.failureReason()
+            : null;
         
-        if (newStatus == PaymentStatus.FAILED || newStatus == PaymentStatus.CANCELLED) {
-            payment.setFailureReason(payload.failureReason());
+        // เปลี่ยนสถานะแบบ Compare-and-Set (Webhook ที่มาช้า/ซ้ำจะไม่เขียนทับสถานะที่ใหม่กว่า)
+        boolean transitioned = newStatus != previousStatus
+            && stateMachine.transition(payment, newStatus, failureReason);
+        if (newStatus != previousStatus && !transitioned) {
+            logger.warn("Ignoring {} for payment {}: cannot change from {}",
+                payload.eventType(), payload.referenceId(), payment.getStatus());
         }
         
-        payment.setStatus(newStatus);
-        paymentRepository.save(payment);
+        // ชำระสำเร็จผ่าน Gateway: บันทึก CAPTURE เหมือน completePayment (Ledger และ Settlement นับจากรายการนี้)
+        if (transitioned && newStatus == PaymentStatus.COMPLETED) {
+            Transaction capture = buildTransaction(payment, TransactionType.CAPTURE, payment.getAmount(),
+                TransactionStatus.SUCCESS);
+            capture.setGatewayReference(payload.gatewayReference());
+            recordTransaction(capture);
+        }
         
         // สร้าง Webhook Transaction
-        Transaction tx = createTransaction(payment, TransactionType.WEBHOOK, payment.getAmount(), TransactionStatus.SUCCESS);
+        Transaction tx = buildTransaction(payment, TransactionType.WEBHOOK, payment.getAmount(), TransactionStatus.SUCCESS);
         tx.setGatewayReference(payload.gatewayReference());
         tx.setResponseCode(payload.responseCode());
         tx.setResponseMessage(payload.responseMessage());
-        transactionRepository.save(tx);
+        recordTransaction(tx);
         
-        logger.info("Webhook processed for payment: {}, new status: {}", payload.referenceId(), newStatus);
+        usageMeteringService.record(payment.getMerchant().getId(), UsageOperation.WEBHOOK_RECEIVED);
+        
+        logger.info("Webhook processed for payment: {}, status: {}", payload.referenceId(), payment.getStatus());
     }
 
     /**
@@ -355,6 +667,7 @@ public class PaymentService {
      */
     @Transactional(readOnly = true)
     @Cacheable(value = "dashboard-stats", key = "'stats'")
+    @Bulkhead(Bulkhead.Type.ANALYTICS)
     public DashboardStats getDashboardStats() {
         logger.debug("Cache MISS - Fetching dashboard stats from database");
         LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
@@ -374,12 +687,50 @@ public class PaymentService {
 
     // ==================== Private Methods ====================
 
+    /**
+     * การเปลี่ยนสถานะที่แก้ใน Payment แล้วแต่ยังไม่ได้บันทึก Transaction/Ledger
+     */
+    private record PaymentChange(Payment payment, PaymentStatus from, PaymentStatus to, Transaction transaction) {}
+
     /**
      * ค้นหา Payment Entity จาก Reference ID
      */
     private Payment findPaymentByReferenceId(String referenceId) {
         return paymentRepository.findByReferenceId(referenceId)
-            .orElseThrow(() -> new ResourceNotFoundException("Payment", "referenceId", referenceId));
+            .orElseThrow(() -> archivedPaymentRepository.findByReferenceId(referenceId).isPresent()
+                ? new InvalidRequestException("PAYMENT_ARCHIVED", "Payment is archived and can no longer be changed: " + referenceId)
+                : new ResourceNotFoundException("Payment", "referenceId", referenceId));
+    }
+
+    /**
+     * โหลด Payment หลายรายการด้วย Query เดียว
+     */
+    private Map<String, Payment> loadPayments(Stream<String> referenceIds) {
+        return paymentRepository.findByReferenceIdIn(referenceIds.collect(Collectors.toSet())).stream()
+            .collect(Collectors.toMap(Payment::getReferenceId, Function.identity()));
+    }
+
+    /**
+     * แบ่งรายการเป็นชุดละ IN_CLAUSE_CHUNK (จำกัดขนาดของ IN (...))
+     */
+    private List<List<String>> chunks(Collection<String> values) {
+        List<String> all = new ArrayList<>(values);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CLAUSE_CHUNK) {
+            chunks.add(all.subList(from, Math.min(from + IN_CLAUSE_CHUNK, all.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * ดึง Payment จาก Map ที่โหลดไว้ (ไม่พบ = ResourceNotFoundException)
+     */
+    private Payment requirePayment(Map<String, Payment> payments, String referenceId) {
+        Payment payment = payments.get(referenceId);
+        if (payment == null) {
+            throw new ResourceNotFoundException("Payment", "referenceId", referenceId);
+        }
+        return payment;
     }
 
     /**
@@ -391,10 +742,17 @@ public class PaymentService {
     }
 
     /**
-     * สร้าง Transaction
+     * สร้างและบันทึก Transaction
+     */
+    private void createTransaction(Payment payment, TransactionType type, BigDecimal amount, TransactionStatus status) {
+        recordTransaction(buildTransaction(payment, type, amount, status));
+    }
+
+    /**
+     * สร้าง Transaction (ยังไม่บันทึก) ให้ผู้เรียกกรอกข้อมูลเพิ่มก่อนบันทึกครั้งเดียว
      */
-    private Transaction createTransaction(Payment payment, TransactionType type, BigDecimal amount, TransactionStatus status) {
-        Transaction transaction = Transaction.builder()
+    private Transaction buildTransaction(Payment payment, TransactionType type, BigDecimal amount, TransactionStatus status) {
+        return Transaction.builder()
             .transactionId("TXN-" + UUID.randomUUID().toString().toUpperCase().substring(0, 18))
             .transactionType(type)
             .amount(amount)
@@ -402,12 +760,106 @@ public class PaymentService {
             .status(status)
             .payment(payment)
             .build();
+    }
+
+    /**
+     * บันทึก Transaction ผ่าน TransactionWriter พร้อมลงบัญชีใน Ledger (Transaction เดียวกัน)
+     */
+    private void recordTransaction(Transaction transaction) {
+        transactionWriter.write(transaction);
+        ledgerService.post(transaction);
+    }
+
+    /**
+     * คืนเงินหนึ่งครั้ง (ภายใน Transaction)
+     * 
+     * อ่านยอดคืนสะสมจาก Payment แล้วเขียนกลับพร้อมสถานะ
+     * Hibernate จะ UPDATE ... WHERE id = ? AND version = ? ถ้ามีคนแก้ไขก่อน
+     * จะได้ OptimisticLockingFailureException และไม่มีการคืนเงินเกินยอด
+     */
+    private PaymentResponse applyRefund(RefundRequest request) {
+        return applyRefund(findPaymentByReferenceId(request.referenceId()), request);
+    }
+
+    /**
+     * คืนเงินหนึ่งครั้งกับ Payment ที่โหลดไว้แล้ว
+     */
+    private PaymentResponse applyRefund(Payment payment, RefundRequest request) {
+        PaymentChange change = prepareRefund(payment, request);
+        
+        // Flush ทันทีเพื่อตรวจ Version ก่อนสร้าง Transaction
+        paymentRepository.saveAndFlush(payment);
+        
+        // สร้าง Refund Transaction
+        recordTransaction(change.transaction());
+        
+        // แจ้ง Listener (Outbox)
+        stateMachine.fire(payment, change.from(), change.to());
+        
+        usageMeteringService.record(payment.getMerchant().getId(), UsageOperation.PAYMENT_REFUNDED);
         
-        return transactionRepository.save(transaction);
+        logger.info("Refund processed for payment: {}, amount: {}",
+            request.referenceId(), change.transaction().getAmount());
+        return toResponse(payment);
+    }
+
+    /**
+     * ตรวจสอบเงื่อนไขและแก้ยอดคืนสะสม/สถานะของ Payment ในหน่วยความจำ (ยังไม่เขียน Database)
+     * 
+     * @return การเปลี่ยนแปลงพร้อม Refund Transaction ที่ยังไม่บันทึก
+     */
+    private PaymentChange prepareRefund(Payment payment, RefundRequest request) {
+        // ตรวจสอบว่าชำระเงินสำเร็จแล้วหรือไม่
+        if (payment.getStatus() != PaymentStatus.COMPLETED && 
+            payment.getStatus() != PaymentStatus.PARTIALLY_REFUNDED) {
+            throw new InvalidRequestException("Can only refund completed payments");
+        }
+        
+        // คำนวณยอดคืนเงิน
+        BigDecimal refundAmount = request.amount() != null ? request.amount() : payment.getAmount();
+        
+        // ตรวจสอบว่ายอดคืนไม่เกินยอดที่ชำระ
+        BigDecimal alreadyRefunded = payment.getRefundedAmount();
+        if (payment.getStatus() == PaymentStatus.PARTIALLY_REFUNDED && alreadyRefunded.signum() == 0) {
+            // ข้อมูลเก่าที่ยังไม่มี refunded_amount
+            alreadyRefunded = calculateRefundedAmount(payment.getId());
+        }
+        BigDecimal availableForRefund = payment.getAmount().subtract(alreadyRefunded);
+        
+        if (refundAmount.compareTo(availableForRefund) > 0) {
+            throw new InvalidRequestException("Refund amount exceeds available amount. Available: " + availableForRefund);
+        }
+        
+        // อัพเดทยอดสะสมและสถานะ
+        PaymentStatus previousStatus = payment.getStatus();
+        PaymentStatus newStatus = refundAmount.compareTo(availableForRefund) == 0
+            ? PaymentStatus.REFUNDED
+            : PaymentStatus.PARTIALLY_REFUNDED;
+        stateMachine.requireTransition(previousStatus, newStatus);
+        
+        payment.setRefundedAmount(alreadyRefunded.add(refundAmount));
+        payment.setStatus(newStatus);
+        
+        Transaction refundTx = buildTransaction(payment, TransactionType.REFUND, refundAmount, TransactionStatus.SUCCESS);
+        refundTx.setResponseMessage(request.reason());
+        return new PaymentChange(payment, previousStatus, newStatus, refundTx);
+    }
+
+    /**
+     * รอแบบสุ่มก่อนลองใหม่ (ลดโอกาสชนซ้ำ)
+     */
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5L * attempt, 20L * attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("Refund interrupted", e);
+        }
     }
 
     /**
-     * คำนวณยอดที่คืนเงินแล้ว
+     * คำนวณยอดที่คืนเงินแล้วจาก Transaction
+     * (ใช้เฉพาะ Payment เก่าที่ยังไม่มี refunded_amount)
      */
     private BigDecimal calculateRefundedAmount(Long paymentId) {
         List<Transaction> refunds = transactionRepository.findByPaymentIdAndTransactionType(paymentId, TransactionType.REFUND);
@@ -440,7 +892,36 @@ public class PaymentService {
             payment.getExpiresAt(),
             payment.getCreatedAt(),
             payment.getUpdatedAt(),
-            "/pay/" + payment.getReferenceId() // URL สำหรับหน้าชำระเงิน
+            "/pay/" + payment.getReferenceId(), // URL สำหรับหน้าชำระเงิน
+            payment.getMerchant().getId()
+        );
+    }
+
+    /**
+     * แปลง Payment ใน Archive เป็น Response DTO
+     */
+    private PaymentResponse toResponse(ArchivedPayment payment) {
+        return new PaymentResponse(
+            payment.getId(),
+            payment.getReferenceId(),
+            payment.getOrderId(),
+            payment.getAmount(),
+            payment.getCurrency(),
+            payment.getStatus(),
+            payment.getPaymentMethod(),
+            payment.getDescription(),
+            new PaymentResponse.CustomerInfo(
+                payment.getCustomerName(),
+                payment.getCustomerEmail(),
+                payment.getCustomerPhone()
+            ),
+            payment.getFailureReason(),
+            payment.getPaidAt(),
+            payment.getExpiresAt(),
+            payment.getCreatedAt(),
+            payment.getUpdatedAt(),
+            "/pay/" + payment.getReferenceId(),
+            payment.getMerchantId()
         );
     }
 
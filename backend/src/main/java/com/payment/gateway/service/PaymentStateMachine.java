@@ -0,0 +1,150 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.payment.gateway.entity.PaymentStatus.*;
+
+/**
+ * PaymentStateMachine - กฎการเปลี่ยนสถานะของ Payment
+ * 
+ * ตารางการเปลี่ยนสถานะถูกคำนวณไว้ล่วงหน้าเป็น EnumSet ทั้งสองทิศทาง:
+ * - สถานะถัดไปที่เป็นไปได้ของแต่ละสถานะ
+ * - สถานะต้นทางที่อนุญาตของแต่ละสถานะปลายทาง (ใช้ใน WHERE status IN)
+ * 
+ * การเปลี่ยนสถานะเป็น Compare-and-Set:
+ * UPDATE payments SET status = ? WHERE id = ? AND status IN (...)
+ * ถ้ามีคำขออื่นเปลี่ยนสถานะไปก่อน จะได้ 0 แถวแทนการเขียนทับ (ไม่ต้องล็อคแถว)
+ */
+@Component
+public class PaymentStateMachine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStateMachine.class);
+    
+    private static final Map<PaymentStatus, Set<PaymentStatus>> TRANSITIONS = new EnumMap<>(PaymentStatus.class);
+    private static final Map<PaymentStatus, Set<PaymentStatus>> SOURCES = new EnumMap<>(PaymentStatus.class);
+
+    static {
+        allow(PENDING, PROCESSING, COMPLETED, FAILED, CANCELLED, EXPIRED);
+        allow(PROCESSING, COMPLETED, FAILED, CANCELLED, EXPIRED);
+        allow(COMPLETED, PARTIALLY_REFUNDED, REFUNDED);
+        allow(PARTIALLY_REFUNDED, PARTIALLY_REFUNDED, REFUNDED);
+        // FAILED, CANCELLED, REFUNDED, EXPIRED เป็นสถานะสุดท้าย
+        
+        for (PaymentStatus status : PaymentStatus.values()) {
+            TRANSITIONS.putIfAbsent(status, EnumSet.noneOf(PaymentStatus.class));
+            SOURCES.putIfAbsent(status, EnumSet.noneOf(PaymentStatus.class));
+        }
+        TRANSITIONS.replaceAll((status, targets) -> Collections.unmodifiableSet(targets));
+        SOURCES.replaceAll((status, sources) -> Collections.unmodifiableSet(sources));
+    }
+
+    private static void allow(PaymentStatus from, PaymentStatus... targets) {
+        for (PaymentStatus to : targets) {
+            TRANSITIONS.computeIfAbsent(from, k -> EnumSet.noneOf(PaymentStatus.class)).add(to);
+            SOURCES.computeIfAbsent(to, k -> EnumSet.noneOf(PaymentStatus.class)).add(from);
+        }
+    }
+
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final List<PaymentTransitionListener> listeners;
+
+    public PaymentStateMachine(
+            PaymentRepository paymentRepository,
+            EntityManager entityManager,
+            List<PaymentTransitionListener> listeners) {
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.listeners = listeners;
+    }
+
+    /**
+     * ตรวจสอบว่าเปลี่ยนสถานะได้หรือไม่
+     */
+    public boolean canTransition(PaymentStatus from, PaymentStatus to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * สถานะสุดท้าย (เปลี่ยนต่อไม่ได้อีก)
+     */
+    public boolean isTerminal(PaymentStatus status) {
+        return TRANSITIONS.get(status).isEmpty();
+    }
+
+    /**
+     * สถานะต้นทางทั้งหมดที่เปลี่ยนมาเป็น to ได้
+     */
+    public Set<PaymentStatus> sourcesOf(PaymentStatus to) {
+        return SOURCES.get(to);
+    }
+
+    /**
+     * ตรวจสอบการเปลี่ยนสถานะ ถ้าไม่อนุญาตจะโยน InvalidRequestException
+     */
+    public void requireTransition(PaymentStatus from, PaymentStatus to) {
+        if (!canTransition(from, to)) {
+            throw new InvalidRequestException("INVALID_TRANSITION",
+                "Payment cannot change from " + from + " to " + to);
+        }
+    }
+
+    /**
+     * เปลี่ยนสถานะแบบ Compare-and-Set
+     * 
+     * Payment จะถูก Refresh จาก Database เสมอ (ทั้งกรณีสำเร็จและไม่สำเร็จ)
+     * ถ้าสำเร็จจะเรียก Listener ทั้งหมด
+     * 
+     * @param payment Payment (Managed Entity)
+     * @param to สถานะใหม่
+     * @param failureReason เหตุผล (null = ไม่เปลี่ยน)
+     * @return true ถ้าเปลี่ยนสถานะสำเร็จ
+     */
+    public boolean transition(Payment payment, PaymentStatus to, String failureReason) {
+        PaymentStatus from = payment.getStatus();
+        LocalDateTime now = LocalDateTime.now();
+        
+        int updated = paymentRepository.compareAndSetStatus(
+            payment.getId(),
+            sourcesOf(to),
+            to,
+            to == COMPLETED ? now : null,
+            failureReason,
+            now
+        );
+        entityManager.refresh(payment);
+        
+        if (updated == 0) {
+            logger.debug("Transition {} -> {} rejected for payment {} (current: {})",
+                from, to, payment.getReferenceId(), payment.getStatus());
+            return false;
+        }
+        
+        fire(payment, from, to);
+        return true;
+    }
+
+    /**
+     * แจ้ง Listener สำหรับการเปลี่ยนสถานะที่ทำผ่านทางอื่น (เช่น Refund ที่ใช้ @Version)
+     */
+    public void fire(Payment payment, PaymentStatus from, PaymentStatus to) {
+        for (PaymentTransitionListener listener : listeners) {
+            listener.onTransition(payment, from, to);
+        }
+    }
+}
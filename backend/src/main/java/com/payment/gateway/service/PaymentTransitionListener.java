@@ -0,0 +1,21 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentStatus;
+
+/**
+ * PaymentTransitionListener - Hook ที่ถูกเรียกหลัง Payment เปลี่ยนสถานะสำเร็จ
+ * 
+ * ถูกเรียกภายใน Transaction เดียวกับการเปลี่ยนสถานะ
+ * (ถ้า Transaction Rollback สิ่งที่ Listener เขียนลง Database จะ Rollback ด้วย)
+ */
+@FunctionalInterface
+public interface PaymentTransitionListener {
+
+    /**
+     * @param payment Payment หลังเปลี่ยนสถานะ
+     * @param from สถานะก่อนหน้า
+     * @param to สถานะใหม่
+     */
+    void onTransition(Payment payment, PaymentStatus from, PaymentStatus to);
+}
@@ -0,0 +1,314 @@
+package com.payment.gateway.service;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RateLimitService - จำกัดอัตรา Request ต่อ Merchant ด้วย Token Bucket สองชั้น
+ *
+ * - Bucket รวมของ Merchant (payment.rate-limit.merchant.*)
+ * - Bucket ต่อ Endpoint ของ Merchant (payment.rate-limit.endpoints.{ชื่อ Method}.* หรือ endpoint-default)
+ * Request ผ่านเมื่อทั้งสอง Bucket มี Token
+ *
+ * Bucket เก็บในรูป GCRA (Generic Cell Rate Algorithm) ซึ่งให้ผลเท่ากับ Token Bucket
+ * แต่ใช้ค่าเดียว (TAT: เวลาที่ Bucket จะกลับมาเต็ม) จึงอัปเดตแบบ Lock-free ด้วย CAS บน AtomicLong ได้
+ *
+ * mode: redis ใช้ Lua Script (StringRedisTemplate ตาม spring.data.redis.*) ตรวจและตัด Token ทุก Bucket ในคำสั่งเดียว (ใช้นาฬิกาของ Redis)
+ * Connection ของ Rate Limit แยกจาก Connection หลักเพื่อใช้ Command Timeout = redis.timeout-ms
+ * ถ้า Redis ตอบช้ากว่า redis.timeout-ms หรือผิดพลาด จะตัดสินด้วย Bucket ในเครื่องแทน
+ * และไม่เรียก Redis อีกจนครบ redis.fallback-cooldown-ms (แต่ละ Node จำกัดเต็มโควตาของตัวเองระหว่างนั้น)
+ *
+ * Metrics: ratelimit.throttled (Tag merchant, endpoint), ratelimit.redis.fallback
+ */
+@Service
+public class RateLimitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
+
+    // KEYS = Bucket ทั้งหมด, ARGV = (interval_us, capacity) ต่อ Bucket
+    // คืนค่า {allowed, ลำดับ Bucket ที่จำกัด, remaining, retry_after_us, reset_us}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GCRA_SCRIPT = RedisScript.of("""
+        local t = redis.call('TIME')
+        local now = tonumber(t[1]) * 1000000 + tonumber(t[2])
+        local tats = {}
+        local idx, remaining, reset = 1, -1, 0
+        for i = 1, #KEYS do
+          local interval = tonumber(ARGV[2 * i - 1])
+          local burst = tonumber(ARGV[2 * i]) * interval
+          local tat = tonumber(redis.call('GET', KEYS[i]) or now)
+          if tat < now then tat = now end
+          local nextTat = tat + interval
+          local wait = nextTat - now - burst
+          if wait > 0 then
+            return {0, i, 0, wait, tat - now}
+          end
+          tats[i] = nextTat
+          local left = math.floor((burst - (nextTat - now)) / interval)
+          if remaining < 0 or left < remaining then
+            idx, remaining, reset = i, left, nextTat - now
+          end
+        end
+        for i = 1, #KEYS do
+          redis.call('SET', KEYS[i], string.format('%.0f', tats[i]), 'PX', math.ceil((tats[i] - now) / 1000) + 1000)
+        end
+        return {1, idx, remaining, 0, reset}
+        """, List.class);
+
+    /**
+     * โควตาของ Bucket
+     *
+     * @param capacity จำนวน Token สูงสุด (Burst)
+     * @param refillPerSecond อัตราเติม Token ต่อวินาที
+     */
+    public record Quota(long capacity, double refillPerSecond) {
+
+        long intervalNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        }
+    }
+
+    /**
+     * ผลการตัดสิน (ค่า limit/remaining/reset มาจาก Bucket ที่ตึงที่สุด)
+     *
+     * @param allowed ผ่านหรือไม่
+     * @param limit ขนาด Bucket
+     * @param remaining Token ที่เหลือหลัง Request นี้
+     * @param resetSeconds วินาทีจนกว่า Bucket จะเต็ม
+     * @param retryAfterSeconds วินาทีที่ต้องรอ (เมื่อไม่ผ่าน)
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+    }
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Quota> endpointQuotas = new ConcurrentHashMap<>();
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final LettuceConnectionFactory redisConnectionFactory;
+    private final StringRedisTemplate redis;
+    private final Counter redisFallbacks;
+    private final Quota merchantQuota;
+    private final Quota endpointDefault;
+    private final String keyPrefix;
+    private final long fallbackCooldownNanos;
+    private volatile long redisSkipUntil;
+
+    public RateLimitService(
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${payment.rate-limit.mode:local}") String mode,
+            @Value("${spring.data.redis.host:localhost}") String redisHost,
+            @Value("${spring.data.redis.port:6379}") int redisPort,
+            @Value("${spring.data.redis.password:}") String redisPassword,
+            @Value("${payment.rate-limit.merchant.capacity:200}") long merchantCapacity,
+            @Value("${payment.rate-limit.merchant.refill-per-second:100}") double merchantRefill,
+            @Value("${payment.rate-limit.endpoint-default.capacity:100}") long endpointCapacity,
+            @Value("${payment.rate-limit.endpoint-default.refill-per-second:50}") double endpointRefill,
+            @Value("${payment.rate-limit.redis.key-prefix:payment-gateway::ratelimit:}") String keyPrefix,
+            @Value("${payment.rate-limit.redis.timeout-ms:20}") int redisTimeoutMs,
+            @Value("${payment.rate-limit.redis.fallback-cooldown-ms:5000}") long fallbackCooldownMs) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.merchantQuota = new Quota(merchantCapacity, merchantRefill);
+        this.endpointDefault = new Quota(endpointCapacity, endpointRefill);
+        this.keyPrefix = keyPrefix;
+        this.fallbackCooldownNanos = TimeUnit.MILLISECONDS.toNanos(fallbackCooldownMs);
+        this.redisConnectionFactory = "redis".equalsIgnoreCase(mode)
+            ? redisConnectionFactory(redisHost, redisPort, redisPassword, Duration.ofMillis(redisTimeoutMs))
+            : null;
+        this.redis = redisConnectionFactory != null ? new StringRedisTemplate(redisConnectionFactory) : null;
+        this.redisFallbacks = Counter.builder("ratelimit.redis.fallback")
+            .description("Rate limit decisions made locally because Redis was slow or unavailable")
+            .register(meterRegistry);
+        logger.info("Rate limiting in {} mode (merchant {} burst, {}/s)",
+            redis != null ? "redis" : "local", merchantCapacity, merchantRefill);
+    }
+
+    /**
+     * Connection เดียวที่ใช้ร่วมกันทุก Thread (Lettuce ส่งคำสั่งแบบ Pipeline)
+     * - Connect และทุกคำสั่งมี Timeout = timeout ผู้เรียกจึงไม่ถูกแขวนเมื่อ Redis ช้า
+     * - ระหว่างหลุดการเชื่อมต่อ คำสั่งถูกปฏิเสธทันที (ไม่ค้างในคิวรอ Reconnect)
+     */
+    private static LettuceConnectionFactory redisConnectionFactory(
+            String host, int port, String password, Duration timeout) {
+        RedisStandaloneConfiguration server = new RedisStandaloneConfiguration(host, port);
+        if (password != null && !password.isEmpty()) {
+            server.setPassword(password);
+        }
+        LettuceClientConfiguration client = LettuceClientConfiguration.builder()
+            .commandTimeout(timeout)
+            .clientOptions(ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(timeout).build())
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build())
+            .build();
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(server, client);
+        factory.afterPropertiesSet();
+        factory.start();
+        // เปิด Connection ตอนเริ่มระบบ (ครั้งแรกต้องเตรียม Netty นานกว่า timeout) Request แรกจึงไม่ตกไป Bucket ในเครื่อง
+        for (int attempt = 1; ; attempt++) {
+            try {
+                factory.getConnection().close();
+                break;
+            } catch (RuntimeException e) {
+                if (attempt == 3) {
+                    logger.warn("Redis rate limiter not reachable at startup ({}), will retry on first request", e.toString());
+                    break;
+                }
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * ตรวจและตัด Token ของ Request หนึ่งครั้ง
+     *
+     * @param client รหัส Client จาก {@link ApiClientResolver} (merchant:{id} หรือ ip:{address})
+     * @param endpoint ชื่อ Endpoint (ชื่อ Method ของ Controller)
+     * @return Decision
+     */
+    public Decision tryConsume(String client, String endpoint) {
+        Quota endpointQuota = endpointQuotas.computeIfAbsent(endpoint, this::resolveEndpointQuota);
+        String[] keys = {"m:" + client, "e:" + client + ":" + endpoint};
+        Quota[] quotas = {merchantQuota, endpointQuota};
+
+        Decision decision = null;
+        if (redis != null && System.nanoTime() - redisSkipUntil > 0) {
+            decision = consumeRedis(keys, quotas);
+        }
+        if (decision == null) {
+            decision = consumeLocal(keys, quotas);
+        }
+        if (!decision.allowed()) {
+            Counter.builder("ratelimit.throttled")
+                .description("Requests rejected by the per-merchant rate limiter")
+                .tag("merchant", merchantTag(client))
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+        }
+        return decision;
+    }
+
+    /**
+     * ตัด Token จาก Bucket ในเครื่อง (ทุก Bucket ต้องผ่าน ถ้า Bucket หลังไม่ผ่านจะคืน Token ของ Bucket ก่อนหน้า)
+     */
+    private Decision consumeLocal(String[] keys, Quota[] quotas) {
+        long now = System.nanoTime();
+        AtomicLong[] taken = new AtomicLong[keys.length];
+        Decision tightest = null;
+        for (int i = 0; i < keys.length; i++) {
+            AtomicLong tat = buckets.computeIfAbsent(keys[i], k -> new AtomicLong(now));
+            long interval = quotas[i].intervalNanos();
+            long burst = quotas[i].capacity() * interval;
+            while (true) {
+                long current = tat.get();
+                long base = current - now > 0 ? current : now;
+                long next = base + interval;
+                long wait = next - now - burst;
+                if (wait > 0) {
+                    for (int j = 0; j < i; j++) {
+                        taken[j].addAndGet(-quotas[j].intervalNanos());
+                    }
+                    return new Decision(false, quotas[i].capacity(), 0, seconds(base - now), seconds(wait));
+                }
+                if (tat.compareAndSet(current, next)) {
+                    taken[i] = tat;
+                    long remaining = (burst - (next - now)) / interval;
+                    if (tightest == null || remaining < tightest.remaining()) {
+                        tightest = new Decision(true, quotas[i].capacity(), remaining, seconds(next - now), 0);
+                    }
+                    break;
+                }
+            }
+        }
+        return tightest;
+    }
+
+    /**
+     * ตัด Token ผ่าน Redis (คืน null เมื่อต้องใช้ Bucket ในเครื่องแทน)
+     */
+    private Decision consumeRedis(String[] keys, Quota[] quotas) {
+        List<String> redisKeys = new ArrayList<>(keys.length);
+        List<String> args = new ArrayList<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            redisKeys.add(keyPrefix + keys[i]);
+            args.add(String.valueOf(Math.max(1, quotas[i].intervalNanos() / 1000)));
+            args.add(String.valueOf(quotas[i].capacity()));
+        }
+        try {
+            // EVALSHA ก่อน ถ้า Redis ยังไม่มี Script จึงส่ง EVAL พร้อมเนื้อ Script
+            List<?> result = redis.execute(GCRA_SCRIPT, redisKeys, args.toArray());
+            boolean allowed = ((Number) result.get(0)).longValue() == 1;
+            Quota quota = quotas[((Number) result.get(1)).intValue() - 1];
+            long remaining = ((Number) result.get(2)).longValue();
+            long retryAfterMicros = ((Number) result.get(3)).longValue();
+            long resetMicros = ((Number) result.get(4)).longValue();
+            return new Decision(allowed, quota.capacity(), remaining,
+                seconds(TimeUnit.MICROSECONDS.toNanos(resetMicros)),
+                allowed ? 0 : seconds(TimeUnit.MICROSECONDS.toNanos(retryAfterMicros)));
+        } catch (RuntimeException e) {
+            redisFallbacks.increment();
+            redisSkipUntil = System.nanoTime() + fallbackCooldownNanos;
+            logger.warn("Redis rate limiter unavailable ({}), using local buckets for {} ms",
+                e.toString(), TimeUnit.NANOSECONDS.toMillis(fallbackCooldownNanos));
+            return null;
+        }
+    }
+
+    private Quota resolveEndpointQuota(String endpoint) {
+        String prefix = "payment.rate-limit.endpoints." + endpoint + ".";
+        return new Quota(
+            environment.getProperty(prefix + "capacity", Long.class, endpointDefault.capacity()),
+            environment.getProperty(prefix + "refill-per-second", Double.class, endpointDefault.refillPerSecond()));
+    }
+
+    /**
+     * Tag ของ Merchant สำหรับ Metrics (Merchant ID หรือ anonymous)
+     */
+    private static String merchantTag(String client) {
+        return client.startsWith("merchant:") ? client.substring("merchant:".length()) : "anonymous";
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(0, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /**
+     * ลบ Bucket ที่เต็มแล้ว (ไม่มีผลต่อการตัดสินเพราะ Bucket ใหม่ก็เริ่มเต็ม)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(tat -> tat.get() - now <= 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (redisConnectionFactory != null) {
+            redisConnectionFactory.destroy();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.ReconciliationReport;
+import com.payment.gateway.dto.ReconciliationReport.Discrepancy;
+import com.payment.gateway.dto.ReconciliationReport.DiscrepancyType;
+import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/**
+ * ReconciliationService - กระทบยอดไฟล์ Settlement ของ Gateway กับ Transaction ในระบบ
+ *
+ * การทำงาน (Hash Join):
+ * - Build: อ่าน Transaction ของวันนั้นที่มี gatewayReference ของ Payment ที่ชำระสำเร็จ แบบ Streaming ลง ReferenceHashTable
+ * - Probe: Memory-map ไฟล์ CSV ทีละช่วง แล้วไล่ Byte หา Reference/จำนวนเงิน
+ *   โดยไม่สร้าง String ต่อ Field (สร้างเฉพาะรายการที่ต้องรายงาน)
+ * - Transaction ที่ไม่ถูกจับคู่หลังอ่านไฟล์จบ = ไม่พบในไฟล์
+ *
+ * รูปแบบไฟล์: CSV มี Header, ต้องมีคอลัมน์ gateway_reference (หรือ reference) และ amount
+ * คอลัมน์อื่นถูกข้าม, Field ห้ามมี Comma ภายใน
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationService.class);
+
+    // Map ไฟล์ทีละ 1 GB (MappedByteBuffer รองรับได้ไม่เกิน 2 GB ต่อก้อน)
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final long INVALID_AMOUNT = Long.MIN_VALUE;
+
+    // เฉพาะ CAPTURE/CHARGE ของ Payment ที่ชำระสำเร็จ (รวมที่คืนเงินภายหลัง)
+    // แถว WEBHOOK ก็มี gateway_reference แต่เป็น Audit ที่เขียนแบบ Write-behind จึงไม่ใช้จับคู่
+    private static final String SETTLED_FILTER =
+        "FROM transactions t JOIN payments p ON p.id = t.payment_id " +
+        "WHERE t.created_at >= ? AND t.created_at < ? AND t.status = 'SUCCESS' AND t.gateway_reference IS NOT NULL " +
+        "AND t.transaction_type IN ('CAPTURE', 'CHARGE') " +
+        "AND p.status IN ('COMPLETED', 'PARTIALLY_REFUNDED', 'REFUNDED')";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) " + SETTLED_FILTER;
+
+    private static final String TRANSACTIONS_SQL = "SELECT t.gateway_reference, t.amount " + SETTLED_FILTER;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final Path directory;
+    private final Semaphore permits;
+
+    @Value("${payment.reconciliation.max-discrepancies:1000}")
+    private int maxDiscrepancies;
+
+    public ReconciliationService(
+            DataSource dataSource,
+            @Value("${payment.reconciliation.directory:${java.io.tmpdir}/payment-reconciliation}") String directory,
+            @Value("${payment.reconciliation.max-concurrent:1}") int maxConcurrent,
+            @Value("${payment.reconciliation.fetch-size:5000}") int fetchSize) throws IOException {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.directory = Files.createDirectories(Path.of(directory));
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * กระทบยอดไฟล์ที่อัปโหลดมา (บันทึกลงไฟล์ชั่วคราวก่อนเพื่อ Memory-map)
+     *
+     * @param date วันที่ของ Transaction
+     * @param content เนื้อหาไฟล์ CSV
+     * @return ผลการกระทบยอด
+     */
+    public ReconciliationReport reconcile(LocalDate date, InputStream content) throws IOException {
+        if (!permits.tryAcquire()) {
+            throw new ServiceUnavailableException("RECONCILIATION_BUSY",
+                "Another reconciliation is running. Please retry later.", 30);
+        }
+        Path file = Files.createTempFile(directory, "recon-", ".csv");
+        try {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            return reconcile(date, file);
+        } finally {
+            Files.deleteIfExists(file);
+            permits.release();
+        }
+    }
+
+    /**
+     * กระทบยอดไฟล์บน Disk
+     *
+     * @param date วันที่ของ Transaction
+     * @param file ไฟล์ CSV
+     * @return ผลการกระทบยอด
+     */
+    public ReconciliationReport reconcile(LocalDate date, Path file) throws IOException {
+        long started = System.currentTimeMillis();
+        ReferenceHashTable table = loadTransactions(date);
+        long loadedMs = System.currentTimeMillis() - started;
+
+        Probe probe = new Probe(table);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(SEGMENT_SIZE, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int limit = (int) length;
+                if (position + length < size) {
+                    // ตัดที่ขึ้นบรรทัดใหม่ตัวสุดท้าย ส่วนที่เหลือไปอ่านในช่วงถัดไป
+                    limit = lastLineEnd(buffer, limit);
+                    if (limit == 0) {
+                        throw new InvalidRequestException("INVALID_FILE", "Line exceeds " + SEGMENT_SIZE + " bytes");
+                    }
+                }
+                probe.scan(buffer, limit);
+                position += limit;
+            }
+        }
+
+        table.forEachUnmatched(entry -> {
+            probe.missingInFile++;
+            probe.record(new Discrepancy(DiscrepancyType.MISSING_IN_FILE, table.key(entry),
+                null, BigDecimal.valueOf(table.amount(entry), 2), null));
+        });
+
+        ReconciliationReport report = new ReconciliationReport(
+            date,
+            probe.rows,
+            table.size(),
+            probe.matched,
+            probe.amountMismatched,
+            probe.missingInSystem,
+            probe.missingInFile,
+            probe.duplicateInFile,
+            probe.invalidRows,
+            System.currentTimeMillis() - started,
+            probe.discrepancies
+        );
+        logger.info("Reconciliation {}: {} rows vs {} transactions (loaded in {} ms), {} matched, {} mismatched, " +
+                "{} missing in system, {} missing in file in {} ms",
+            date, report.fileRows(), report.transactions(), loadedMs, report.matched(), report.amountMismatched(),
+            report.missingInSystem(), report.missingInFile(), report.durationMs());
+        return report;
+    }
+
+    /**
+     * ฝั่ง Build: โหลด Reference + จำนวนเงินของวันนั้นลง Hash Table
+     */
+    private ReferenceHashTable loadTransactions(LocalDate date) {
+        Timestamp from = Timestamp.valueOf(date.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(date.plusDays(1).atStartOfDay());
+
+        Long expected = streamingJdbcTemplate.queryForObject(COUNT_SQL, Long.class, from, to);
+        ReferenceHashTable table = new ReferenceHashTable((int) Math.min(Integer.MAX_VALUE / 4, expected != null ? expected : 0));
+        streamingJdbcTemplate.query(TRANSACTIONS_SQL, rs -> {
+            // Reference ซ้ำ (เช่น Webhook ส่งซ้ำ) เก็บรายการแรก
+            table.put(rs.getString(1).getBytes(StandardCharsets.UTF_8),
+                rs.getBigDecimal(2).movePointRight(2).longValueExact());
+        }, from, to);
+        return table;
+    }
+
+    /**
+     * ตำแหน่งหลัง '\n' ตัวสุดท้ายใน Buffer (0 ถ้าไม่มี)
+     */
+    private static int lastLineEnd(MappedByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * แปลงช่วง Byte เป็นจำนวนเงินหน่วยสตางค์ (รองรับทศนิยมไม่เกิน 2 ตำแหน่งและเครื่องหมายลบ)
+     *
+     * @return INVALID_AMOUNT ถ้ารูปแบบไม่ถูกต้อง
+     */
+    static long parseCents(MappedByteBuffer buffer, int from, int to) {
+        if (from >= to) {
+            return INVALID_AMOUNT;
+        }
+        boolean negative = buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        long value = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (decimals >= 0 && ++decimals > 2) {
+                    return INVALID_AMOUNT;
+                }
+                value = value * 10 + (b - '0');
+                if (++digits > 17) {
+                    return INVALID_AMOUNT;
+                }
+            } else if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                return INVALID_AMOUNT;
+            }
+        }
+        if (digits == 0) {
+            return INVALID_AMOUNT;
+        }
+        for (int scale = Math.max(decimals, 0); scale < 2; scale++) {
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * ฝั่ง Probe: สถานะการอ่านไฟล์ (ต่อเนื่องข้ามช่วงที่ Map)
+     */
+    private final class Probe {
+        private final ReferenceHashTable table;
+        private final List<Discrepancy> discrepancies = new ArrayList<>();
+        private int referenceColumn = -1;
+        private int amountColumn = -1;
+        private long line;
+        private long rows;
+        private long matched;
+        private long amountMismatched;
+        private long missingInSystem;
+        private long missingInFile;
+        private long duplicateInFile;
+        private long invalidRows;
+
+        Probe(ReferenceHashTable table) {
+            this.table = table;
+        }
+
+        void scan(MappedByteBuffer buffer, int limit) {
+            int start = 0;
+            while (start < limit) {
+                int end = start;
+                while (end < limit && buffer.get(end) != '\n') {
+                    end++;
+                }
+                line++;
+                int contentEnd = end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+                if (contentEnd > start) {
+                    if (referenceColumn < 0) {
+                        readHeader(buffer, start, contentEnd);
+                    } else {
+                        readRow(buffer, start, contentEnd);
+                    }
+                }
+                start = end + 1;
+            }
+        }
+
+        /**
+         * หาตำแหน่งคอลัมน์จาก Header (ชื่อคอลัมน์ไม่สนตัวพิมพ์ และไม่สน _)
+         */
+        private void readHeader(MappedByteBuffer buffer, int from, int to) {
+            String[] names = decode(buffer, from, to).split(",");
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i].replace("\"", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+                if (name.equals("gatewayreference") || (name.equals("reference") && referenceColumn < 0)) {
+                    referenceColumn = i;
+                } else if (name.equals("amount")) {
+                    amountColumn = i;
+                }
+            }
+            if (referenceColumn < 0 || amountColumn < 0) {
+                throw new InvalidRequestException("INVALID_FILE",
+                    "Header must contain gateway_reference and amount columns");
+            }
+        }
+
+        private void readRow(MappedByteBuffer buffer, int from, int to) {
+            rows++;
+            int referenceStart = -1;
+            int referenceEnd = -1;
+            int amountStart = -1;
+            int amountEnd = -1;
+            int column = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to; i++) {
+                if (i == to || buffer.get(i) == ',') {
+                    if (column == referenceColumn) {
+                        referenceStart = fieldStart;
+                        referenceEnd = i;
+                    } else if (column == amountColumn) {
+                        amountStart = fieldStart;
+                        amountEnd = i;
+                    }
+                    column++;
+                    fieldStart = i + 1;
+                }
+            }
+            if (referenceStart < 0 || amountStart < 0) {
+                invalid(buffer, referenceStart, referenceEnd);
+                return;
+            }
+
+            // ตัดช่องว่างและเครื่องหมายคำพูดรอบค่า
+            while (referenceStart < referenceEnd && isPadding(buffer.get(referenceStart))) referenceStart++;
+            while (referenceEnd > referenceStart && isPadding(buffer.get(referenceEnd - 1))) referenceEnd--;
+            while (amountStart < amountEnd && isPadding(buffer.get(amountStart))) amountStart++;
+            while (amountEnd > amountStart && isPadding(buffer.get(amountEnd - 1))) amountEnd--;
+
+            long amount = parseCents(buffer, amountStart, amountEnd);
+            if (referenceStart == referenceEnd || amount == INVALID_AMOUNT) {
+                invalid(buffer, referenceStart, referenceEnd);
+                return;
+            }
+
+            int entry = table.find(buffer, referenceStart, referenceEnd);
+            if (entry < 0) {
+                missingInSystem++;
+                if (discrepancies.size() < maxDiscrepancies) {
+                    record(new Discrepancy(DiscrepancyType.MISSING_IN_SYSTEM,
+                        decode(buffer, referenceStart, referenceEnd), BigDecimal.valueOf(amount, 2), null, line));
+                }
+            } else if (!table.markMatched(entry)) {
+                duplicateInFile++;
+                if (discrepancies.size() < maxDiscrepancies) {
+                    record(new Discrepancy(DiscrepancyType.DUPLICATE_IN_FILE,
+                        decode(buffer, referenceStart, referenceEnd), BigDecimal.valueOf(amount, 2), null, line));
+                }
+            } else if (table.amount(entry) != amount) {
+                amountMismatched++;
+                if (discrepancies.size() < maxDiscrepancies) {
+                    record(new Discrepancy(DiscrepancyType.AMOUNT_MISMATCH, table.key(entry),
+                        BigDecimal.valueOf(amount, 2), BigDecimal.valueOf(table.amount(entry), 2), line));
+                }
+            } else {
+                matched++;
+            }
+        }
+
+        private void invalid(MappedByteBuffer buffer, int referenceStart, int referenceEnd) {
+            invalidRows++;
+            if (discrepancies.size() < maxDiscrepancies) {
+                String reference = referenceStart >= 0 && referenceEnd > referenceStart
+                    ? decode(buffer, referenceStart, referenceEnd) : null;
+                record(new Discrepancy(DiscrepancyType.INVALID_ROW, reference, null, null, line));
+            }
+        }
+
+        void record(Discrepancy discrepancy) {
+            if (discrepancies.size() < maxDiscrepancies) {
+                discrepancies.add(discrepancy);
+            }
+        }
+
+        private static boolean isPadding(byte b) {
+            return b == ' ' || b == '"' || b == '\t';
+        }
+
+        private static String decode(MappedByteBuffer buffer, int from, int to) {
+            byte[] bytes = new byte[to - from];
+            buffer.get(from, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.payment.gateway.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * ReferenceHashTable - Hash Table แบบ Open Addressing ที่ใช้ Byte เป็น Key
+ *
+ * ใช้เป็นฝั่ง Build ของ Hash Join ตอน Reconcile
+ * - Key (gatewayReference) ถูกเก็บต่อกันใน byte[] Arena ก้อนเดียว ไม่มี Object ต่อรายการ
+ * - ค้นหาด้วยช่วง Byte ของ ByteBuffer ได้โดยตรง (ไม่ต้องสร้าง String จากไฟล์)
+ * - จำนวนเงินเก็บเป็น long หน่วยสตางค์
+ *
+ * Class นี้ไม่ Thread-safe
+ */
+public final class ReferenceHashTable {
+
+    private static final int MAX_LOAD_PERCENT = 50;
+
+    // Slot เก็บ Entry Index + 1 (0 = ว่าง)
+    private int[] slots;
+    private int mask;
+
+    private int[] hashes;
+    private int[] keyOffsets;
+    private int[] keyLengths;
+    private long[] amounts;
+    private boolean[] matched;
+    private int size;
+
+    private byte[] arena;
+    private int arenaSize;
+
+    /**
+     * @param expectedSize จำนวนรายการที่คาดไว้ (ใช้จองพื้นที่ล่วงหน้า)
+     */
+    public ReferenceHashTable(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        int slotCount = Integer.highestOneBit(Math.max(32, capacity * (100 / MAX_LOAD_PERCENT)) - 1) << 1;
+        this.slots = new int[slotCount];
+        this.mask = slotCount - 1;
+        this.hashes = new int[capacity];
+        this.keyOffsets = new int[capacity];
+        this.keyLengths = new int[capacity];
+        this.amounts = new long[capacity];
+        this.matched = new boolean[capacity];
+        this.arena = new byte[(int) Math.min(Integer.MAX_VALUE - 8, capacity * 24L)];
+    }
+
+    /**
+     * เพิ่มรายการ (Key ซ้ำจะถูกข้าม)
+     *
+     * @param key gatewayReference
+     * @param amountCents จำนวนเงิน (สตางค์)
+     * @return false ถ้ามี Key นี้อยู่แล้ว
+     */
+    public boolean put(byte[] key, long amountCents) {
+        int hash = hash(key, 0, key.length);
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && Arrays.equals(arena, keyOffsets[entry], keyOffsets[entry] + keyLengths[entry], key, 0, key.length)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == hashes.length) {
+            growEntries();
+        }
+        if (arenaSize + key.length > arena.length) {
+            growArena(key.length);
+        }
+        System.arraycopy(key, 0, arena, arenaSize, key.length);
+        hashes[size] = hash;
+        keyOffsets[size] = arenaSize;
+        keyLengths[size] = key.length;
+        amounts[size] = amountCents;
+        arenaSize += key.length;
+        slots[slot] = ++size;
+
+        if (size * 100L > (long) slots.length * MAX_LOAD_PERCENT) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * ค้นหาด้วยช่วง Byte ของ Buffer (Absolute Index)
+     *
+     * @param buffer Buffer ที่มี Key
+     * @param from ตำแหน่งเริ่ม (รวม)
+     * @param to ตำแหน่งสิ้นสุด (ไม่รวม)
+     * @return Entry Index หรือ -1 ถ้าไม่พบ
+     */
+    public int find(ByteBuffer buffer, int from, int to) {
+        int hash = hash(buffer, from, to);
+        int length = to - from;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && keyLengths[entry] == length && equalsAt(entry, buffer, from, length)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * ทำเครื่องหมายว่า Entry ถูกจับคู่แล้ว
+     *
+     * @return false ถ้าเคยถูกจับคู่ไปแล้ว (รายการซ้ำในไฟล์)
+     */
+    public boolean markMatched(int entry) {
+        if (matched[entry]) {
+            return false;
+        }
+        matched[entry] = true;
+        return true;
+    }
+
+    /**
+     * วนทุก Entry ที่ยังไม่ถูกจับคู่
+     */
+    public void forEachUnmatched(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            if (!matched[i]) {
+                consumer.accept(i);
+            }
+        }
+    }
+
+    public long amount(int entry) {
+        return amounts[entry];
+    }
+
+    /**
+     * Key ของ Entry เป็น String (ใช้เฉพาะตอนรายงานผล)
+     */
+    public String key(int entry) {
+        return new String(arena, keyOffsets[entry], keyLengths[entry], StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hash ของ byte[] (ต้องให้ผลเดียวกับ hash(ByteBuffer, ...))
+     */
+    static int hash(byte[] key, int from, int to) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ key[i]) * 0x01000193;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Hash ของช่วง Byte ใน Buffer (FNV-1a + Finalizer)
+     */
+    static int hash(ByteBuffer buffer, int from, int to) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ buffer.get(i)) * 0x01000193;
+        }
+        return mix(h);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private boolean equalsAt(int entry, ByteBuffer buffer, int from, int length) {
+        int offset = keyOffsets[entry];
+        for (int i = 0; i < length; i++) {
+            if (arena[offset + i] != buffer.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void growEntries() {
+        int capacity = hashes.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+        keyLengths = Arrays.copyOf(keyLengths, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        matched = Arrays.copyOf(matched, capacity);
+    }
+
+    private void growArena(int needed) {
+        long capacity = Math.max((long) arena.length * 2, (long) arenaSize + needed);
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Reference arena exceeds 2 GB");
+        }
+        arena = Arrays.copyOf(arena, (int) capacity);
+    }
+
+    private void rehash() {
+        int[] resized = new int[slots.length * 2];
+        int resizedMask = resized.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hashes[entry] & resizedMask;
+            while (resized[slot] != 0) {
+                slot = (slot + 1) & resizedMask;
+            }
+            resized[slot] = entry + 1;
+        }
+        slots = resized;
+        mask = resizedMask;
+    }
+}
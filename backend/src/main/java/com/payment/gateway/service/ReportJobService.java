@@ -0,0 +1,303 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.ReportJobRequest;
+import com.payment.gateway.dto.ReportJobResponse;
+import com.payment.gateway.entity.ReportJob;
+import com.payment.gateway.entity.ReportJobStatus;
+import com.payment.gateway.exception.ResourceNotFoundException;
+import com.payment.gateway.exception.ServiceUnavailableException;
+import com.payment.gateway.repository.ReportJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ReportJobService - งานสร้างรายงาน Payment แบบ Asynchronous
+ * 
+ * รับผิดชอบ:
+ * - รับงานและคืน Job ID ทันที (ไม่ถือ HTTP Connection ระหว่าง Export)
+ * - เขียนไฟล์ลง Local Disk ผ่าน FileChannel + Buffer (และ GZIP ถ้าต้องการ)
+ * - รายงานความคืบหน้าเป็นระยะ และลบไฟล์เก่าตาม Retention
+ * - ตอนเริ่มระบบ: งานของ Node นี้ที่ค้าง QUEUED/RUNNING (Process ตาย/Restart) ถูกตั้งเป็น FAILED และลบไฟล์ .part
+ * 
+ * งานรันบน Thread Pool ขนาดคงที่พร้อมคิวจำกัด
+ * จึงใช้ Database Connection ไม่เกินจำนวน Worker (ไม่แย่ง Pool ของ API หลัก)
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Set<ReportJobStatus> UNFINISHED = EnumSet.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING);
+    
+    private final ReportJobRepository reportJobRepository;
+    private final PaymentExportService paymentExportService;
+    private final String node;
+    private final Path directory;
+    private final ThreadPoolExecutor executor;
+
+    @Value("${payment.report.retention-hours:24}")
+    private long retentionHours;
+
+    public ReportJobService(
+            ReportJobRepository reportJobRepository,
+            PaymentExportService paymentExportService,
+            LeaseService leaseService,
+            @Value("${payment.report.directory:${java.io.tmpdir}/payment-reports}") String directory,
+            @Value("${payment.report.workers:2}") int workers,
+            @Value("${payment.report.queue-capacity:20}") int queueCapacity) throws IOException {
+        this.reportJobRepository = reportJobRepository;
+        this.paymentExportService = paymentExportService;
+        this.node = leaseService.hostName();
+        this.directory = Files.createDirectories(Path.of(directory));
+        this.executor = new ThreadPoolExecutor(
+            workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofPlatform().name("report-worker-", 1).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * สร้างงานใหม่และเข้าคิว
+     * 
+     * @param request เงื่อนไขของรายงาน
+     * @return สถานะงาน (QUEUED)
+     * @throws ServiceUnavailableException ถ้าคิวเต็ม
+     */
+    public ReportJobResponse submit(ReportJobRequest request) {
+        ReportJob job = reportJobRepository.save(ReportJob.builder()
+            .jobId("RPT-" + UUID.randomUUID().toString().toUpperCase().substring(0, 18))
+            .node(node)
+            .format(request.format())
+            .gzip(request.gzip())
+            .merchantId(request.merchantId())
+            .paymentStatus(request.status())
+            .startDate(request.startDate())
+            .endDate(request.endDate())
+            .build());
+        
+        ReportJobResponse response = toResponse(job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            reportJobRepository.delete(job);
+            throw new ServiceUnavailableException("REPORT_QUEUE_FULL", "Report queue is full, please retry later", 30);
+        }
+        
+        logger.info("Report job {} queued ({} running, {} waiting)",
+            job.getJobId(), executor.getActiveCount(), executor.getQueue().size());
+        return response;
+    }
+
+    /**
+     * ดึงสถานะงาน
+     * 
+     * @param jobId Job ID
+     * @return ReportJobResponse
+     */
+    public ReportJobResponse getJob(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    /**
+     * ดึงไฟล์ของงานที่เสร็จแล้ว
+     * 
+     * @param jobId Job ID
+     * @return Path ของไฟล์
+     */
+    public Path getFile(String jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new ResourceNotFoundException("Report file is not ready: " + jobId);
+        }
+        Path file = Path.of(job.getFilePath());
+        if (!Files.isReadable(file)) {
+            throw new ResourceNotFoundException("Report file is no longer available: " + jobId);
+        }
+        return file;
+    }
+
+    /**
+     * ชื่อไฟล์สำหรับดาวน์โหลด
+     */
+    public String fileName(String jobId) {
+        ReportJob job = findJob(jobId);
+        return "payments-" + job.getJobId() + "." + job.getFormat().getExtension() + (job.getGzip() ? ".gz" : "");
+    }
+
+    /**
+     * กู้งานที่ค้างจาก Process ก่อนหน้าของ Node นี้ (ก่อนรับ Request ใหม่)
+     * Worker ของ Process เดิมไม่มีอยู่แล้ว ไม่เช่นนั้นผู้เรียกจะ Poll งานที่ไม่มีวันเสร็จ
+     */
+    @PostConstruct
+    void recoverInterruptedJobs() {
+        for (ReportJob job : reportJobRepository.findByNodeAndStatusIn(node, UNFINISHED)) {
+            deleteQuietly(partFile(job));
+            markInterrupted(job, "Report job was interrupted by a node restart");
+        }
+    }
+
+    /**
+     * ลบไฟล์และงานที่เก่ากว่า Retention
+     * 
+     * งานที่ยัง QUEUED/RUNNING เกิน Retention เป็นงานของ Node ที่ไม่กลับมาอีก (เช่น ชื่อเครื่องเปลี่ยน)
+     * ถูกตั้งเป็น FAILED ก่อน และลบในรอบถัดไปที่เกิน Retention
+     */
+    @Scheduled(fixedDelayString = "${payment.report.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        for (ReportJob job : reportJobRepository.findByCreatedAtBefore(before)) {
+            if (UNFINISHED.contains(job.getStatus())) {
+                if (node.equals(job.getNode())) {
+                    deleteQuietly(partFile(job));
+                }
+                markInterrupted(job, "Report job did not finish within the retention period");
+                continue;
+            }
+            try {
+                if (job.getFilePath() != null) {
+                    Files.deleteIfExists(Path.of(job.getFilePath()));
+                }
+                reportJobRepository.delete(job);
+            } catch (IOException e) {
+                logger.warn("Failed to delete report file {}: {}", job.getFilePath(), e.getMessage());
+            }
+        }
+    }
+
+    private void markInterrupted(ReportJob job, String error) {
+        logger.warn("Report job {} ({}) left {} - marking FAILED", job.getJobId(), job.getNode(), job.getStatus());
+        job.setStatus(ReportJobStatus.FAILED);
+        job.setError(error);
+        job.setCompletedAt(LocalDateTime.now());
+        reportJobRepository.save(job);
+    }
+
+    /**
+     * ทำงานหนึ่งงาน (บน Worker Thread)
+     * เขียนลงไฟล์ .part ก่อน แล้ว Rename เมื่อสำเร็จ
+     */
+    private void run(ReportJob job) {
+        job.setStatus(ReportJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        reportJobRepository.save(job);
+        
+        Path target = targetFile(job);
+        Path part = partFile(job);
+        
+        try {
+            long rows;
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+                
+                GZIPOutputStream gzip = job.getGzip() ? new GZIPOutputStream(buffered, BUFFER_SIZE) : null;
+                rows = paymentExportService.export(
+                    job.getFormat(),
+                    job.getMerchantId(),
+                    job.getPaymentStatus(),
+                    job.getStartDate(),
+                    job.getEndDate(),
+                    gzip != null ? gzip : buffered,
+                    written -> reportJobRepository.updateProgress(job.getJobId(), written));
+                if (gzip != null) {
+                    gzip.finish();
+                }
+                buffered.flush();
+                channel.force(false);
+            }
+            
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            
+            job.setStatus(ReportJobStatus.COMPLETED);
+            job.setRowsWritten(rows);
+            job.setFileSize(Files.size(target));
+            job.setFilePath(target.toString());
+            logger.info("Report job {} completed: {} rows, {} bytes", job.getJobId(), rows, job.getFileSize());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Report job {} failed", job.getJobId(), e);
+            deleteQuietly(part);
+            job.setStatus(ReportJobStatus.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.setError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        }
+        
+        job.setCompletedAt(LocalDateTime.now());
+        // rows_written ถูกอัพเดทแยกระหว่างทำงาน - ดึงค่าล่าสุดก่อนบันทึกกรณี FAILED
+        if (job.getStatus() == ReportJobStatus.FAILED) {
+            reportJobRepository.findByJobId(job.getJobId())
+                .ifPresent(current -> job.setRowsWritten(current.getRowsWritten()));
+        }
+        reportJobRepository.save(job);
+    }
+
+    private Path targetFile(ReportJob job) {
+        String extension = job.getFormat().getExtension() + (job.getGzip() ? ".gz" : "");
+        return directory.resolve(job.getJobId() + "." + extension);
+    }
+
+    private Path partFile(ReportJob job) {
+        return directory.resolve(targetFile(job).getFileName() + ".part");
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private ReportJob findJob(String jobId) {
+        return reportJobRepository.findByJobId(jobId)
+            .orElseThrow(() -> new ResourceNotFoundException("ReportJob", "jobId", jobId));
+    }
+
+    /**
+     * แปลง Entity เป็น Response DTO
+     */
+    private ReportJobResponse toResponse(ReportJob job) {
+        return new ReportJobResponse(
+            job.getJobId(),
+            job.getStatus(),
+            job.getFormat(),
+            job.getGzip(),
+            job.getRowsWritten(),
+            job.getFileSize(),
+            job.getError(),
+            job.getCreatedAt(),
+            job.getStartedAt(),
+            job.getCompletedAt(),
+            job.getStatus() == ReportJobStatus.COMPLETED ? "/api/v1/reports/" + job.getJobId() + "/file" : null
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,306 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.SettlementBatchResponse;
+import com.payment.gateway.dto.SettlementRunResult;
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.entity.SettlementBatch;
+import com.payment.gateway.entity.SettlementLine;
+import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.repository.SettlementBatchRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * SettlementService - คำนวณยอดชำระคืนให้ Merchant รายวัน
+ * 
+ * การทำงาน:
+ * - หา Merchant ที่มีรายการ CAPTURE/REFUND/VOID ในวันนั้น
+ * - แบ่งงานตาม Merchant ด้วย Fork/Join (RecursiveTask แบ่งครึ่งจนเหลือทีละ Merchant)
+ * - แต่ละ Merchant อ่าน Transaction แบบ Streaming และรวมยอดตาม PaymentMethod + สกุลเงิน
+ * - บันทึก Batch ละหนึ่ง Transaction (Unique ต่อ Merchant/วัน จึงรันซ้ำได้ปลอดภัย)
+ */
+@Service
+public class SettlementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementService.class);
+    private static final String LEASE_NAME = "daily-settlement";
+    
+    private static final String MERCHANTS_SQL =
+        "SELECT DISTINCT p.merchant_id FROM transactions t JOIN payments p ON p.id = t.payment_id " +
+        "WHERE t.created_at >= ? AND t.created_at < ? AND t.status = 'SUCCESS' " +
+        "AND t.transaction_type IN ('CAPTURE', 'REFUND', 'VOID')";
+    
+    private static final String TRANSACTIONS_SQL =
+        "SELECT p.payment_method, t.currency, t.transaction_type, t.amount " +
+        "FROM transactions t JOIN payments p ON p.id = t.payment_id " +
+        "WHERE p.merchant_id = ? AND t.created_at >= ? AND t.created_at < ? AND t.status = 'SUCCESS' " +
+        "AND t.transaction_type IN ('CAPTURE', 'REFUND', 'VOID')";
+    
+    private final SettlementBatchRepository batchRepository;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaseService leaseService;
+    private final ForkJoinPool pool;
+    private final BackgroundJob job = new BackgroundJob("settlement");
+
+    @Value("${payment.settlement.enabled:true}")
+    private boolean enabled;
+
+    public SettlementService(
+            SettlementBatchRepository batchRepository,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            LeaseService leaseService,
+            @Value("${payment.settlement.parallelism:0}") int parallelism,
+            @Value("${payment.settlement.fetch-size:1000}") int fetchSize) {
+        this.batchRepository = batchRepository;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseService = leaseService;
+        // 0 = ตามจำนวน Core
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * คำนวณ Settlement ของวันที่กำหนด
+     * Merchant ที่มี Batch ของวันนั้นแล้วจะถูกข้าม
+     * 
+     * @param date วันที่ (ต้องเป็นวันที่ผ่านไปแล้ว เพราะ Batch ที่บันทึกแล้วไม่ถูกคำนวณใหม่)
+     * @return สรุปผล
+     * @throws InvalidRequestException ถ้าเป็นวันนี้หรือวันในอนาคต
+     */
+    public SettlementRunResult settle(LocalDate date) {
+        if (!date.isBefore(LocalDate.now())) {
+            throw new InvalidRequestException("INVALID_SETTLEMENT_DATE",
+                "Settlement date must be before today: " + date);
+        }
+        long started = System.currentTimeMillis();
+        Timestamp from = Timestamp.valueOf(date.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(date.plusDays(1).atStartOfDay());
+        
+        List<Long> merchantIds = streamingJdbcTemplate.queryForList(MERCHANTS_SQL, Long.class, from, to);
+        Tally tally = merchantIds.isEmpty()
+            ? new Tally(0, 0, 0)
+            : pool.invoke(new SettleTask(merchantIds, date, from, to));
+        
+        SettlementRunResult result = new SettlementRunResult(
+            date,
+            merchantIds.size(),
+            tally.created(),
+            tally.skipped(),
+            tally.transactions(),
+            pool.getParallelism(),
+            System.currentTimeMillis() - started
+        );
+        logger.info("Settlement {}: {} merchants, {} created, {} skipped, {} transactions in {} ms",
+            date, result.merchants(), result.batchesCreated(), result.batchesSkipped(),
+            result.transactions(), result.durationMs());
+        return result;
+    }
+
+    /**
+     * รัน Settlement ของเมื่อวานตามเวลาที่ตั้ง (Node เดียวผ่าน Lease)
+     * รันบน Thread ของตัวเอง ไม่ให้ Scheduler ถูกกันระหว่างคำนวณ
+     */
+    @Scheduled(cron = "${payment.settlement.cron:0 30 0 * * *}")
+    public void settleYesterday() {
+        if (!enabled) {
+            return;
+        }
+        job.submit(() -> {
+            if (!leaseService.tryAcquire(LEASE_NAME, Duration.ofHours(1))) {
+                return;
+            }
+            try {
+                settle(LocalDate.now().minusDays(1));
+            } finally {
+                leaseService.release(LEASE_NAME);
+            }
+        });
+    }
+
+    /**
+     * ดึง Batch ของวันที่กำหนด
+     * 
+     * @param date วันที่
+     * @param merchantId Merchant ID (optional)
+     * @return รายการ SettlementBatchResponse
+     */
+    public List<SettlementBatchResponse> getBatches(LocalDate date, Long merchantId) {
+        List<SettlementBatch> batches = merchantId != null
+            ? batchRepository.findBySettlementDateAndMerchantId(date, merchantId)
+            : batchRepository.findBySettlementDateOrderByMerchantId(date);
+        return batches.stream().map(this::toResponse).toList();
+    }
+
+    /**
+     * คำนวณและบันทึก Batch ของหนึ่ง Merchant
+     */
+    private Tally settleMerchant(long merchantId, LocalDate date, Timestamp from, Timestamp to) {
+        if (batchRepository.existsByMerchantIdAndSettlementDate(merchantId, date)) {
+            return new Tally(0, 1, 0);
+        }
+        
+        Map<LineKey, LineTotals> totals = new HashMap<>();
+        long[] transactions = {0};
+        streamingJdbcTemplate.query(TRANSACTIONS_SQL, rs -> {
+            String method = rs.getString(1);
+            LineKey key = new LineKey(method != null ? PaymentMethod.valueOf(method) : null, rs.getString(2));
+            totals.computeIfAbsent(key, k -> new LineTotals()).add(rs.getString(3), rs.getBigDecimal(4));
+            transactions[0]++;
+        }, merchantId, from, to);
+        
+        SettlementBatch batch = SettlementBatch.builder()
+            .batchId("STL-" + UUID.randomUUID().toString().toUpperCase().substring(0, 18))
+            .merchantId(merchantId)
+            .settlementDate(date)
+            .transactionCount(transactions[0])
+            .build();
+        totals.forEach((key, line) -> batch.getLines().add(line.toEntity(batch, key)));
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchRepository.save(batch));
+        } catch (DataIntegrityViolationException e) {
+            // Node อื่นบันทึก Batch ของ Merchant/วันนี้ไปก่อนแล้ว
+            return new Tally(0, 1, 0);
+        }
+        return new Tally(1, 0, transactions[0]);
+    }
+
+    /**
+     * แปลง Entity เป็น Response DTO
+     */
+    private SettlementBatchResponse toResponse(SettlementBatch batch) {
+        return new SettlementBatchResponse(
+            batch.getBatchId(),
+            batch.getMerchantId(),
+            batch.getSettlementDate(),
+            batch.getTransactionCount(),
+            batch.getCreatedAt(),
+            batch.getLines().stream()
+                .sorted(Comparator.comparing(SettlementLine::getCurrency)
+                    .thenComparing(line -> line.getPaymentMethod() != null ? line.getPaymentMethod().name() : ""))
+                .map(line -> new SettlementBatchResponse.Line(
+                    line.getPaymentMethod(),
+                    line.getCurrency(),
+                    line.getCaptureCount(),
+                    line.getGrossAmount(),
+                    line.getRefundCount(),
+                    line.getRefundAmount(),
+                    line.getVoidCount(),
+                    line.getNetAmount()))
+                .toList()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        job.close();
+        pool.shutdownNow();
+    }
+
+    /**
+     * งาน Fork/Join: แบ่งรายการ Merchant ครึ่งหนึ่งจนเหลือทีละ Merchant
+     */
+    private final class SettleTask extends RecursiveTask<Tally> {
+        private final List<Long> merchantIds;
+        private final LocalDate date;
+        private final Timestamp from;
+        private final Timestamp to;
+
+        SettleTask(List<Long> merchantIds, LocalDate date, Timestamp from, Timestamp to) {
+            this.merchantIds = merchantIds;
+            this.date = date;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (merchantIds.size() == 1) {
+                return settleMerchant(merchantIds.getFirst(), date, from, to);
+            }
+            int middle = merchantIds.size() / 2;
+            SettleTask left = new SettleTask(merchantIds.subList(0, middle), date, from, to);
+            SettleTask right = new SettleTask(merchantIds.subList(middle, merchantIds.size()), date, from, to);
+            left.fork();
+            return right.compute().plus(left.join());
+        }
+    }
+
+    /**
+     * ผลรวมของงานย่อย
+     */
+    private record Tally(int created, int skipped, long transactions) {
+        Tally plus(Tally other) {
+            return new Tally(created + other.created, skipped + other.skipped, transactions + other.transactions);
+        }
+    }
+
+    /**
+     * Key ของ Line: PaymentMethod + สกุลเงิน
+     */
+    private record LineKey(PaymentMethod paymentMethod, String currency) {}
+
+    /**
+     * ตัวสะสมยอดของหนึ่ง Line (ใช้ภายใน Merchant เดียว จึงไม่ต้อง Synchronize)
+     */
+    private static final class LineTotals {
+        private long captureCount;
+        private BigDecimal gross = BigDecimal.ZERO;
+        private long refundCount;
+        private BigDecimal refunds = BigDecimal.ZERO;
+        private long voidCount;
+
+        void add(String type, BigDecimal amount) {
+            switch (type) {
+                case "CAPTURE" -> {
+                    captureCount++;
+                    gross = gross.add(amount);
+                }
+                case "REFUND" -> {
+                    refundCount++;
+                    refunds = refunds.add(amount);
+                }
+                case "VOID" -> voidCount++;
+                default -> { }
+            }
+        }
+
+        SettlementLine toEntity(SettlementBatch batch, LineKey key) {
+            return SettlementLine.builder()
+                .batch(batch)
+                .paymentMethod(key.paymentMethod())
+                .currency(key.currency())
+                .captureCount(captureCount)
+                .grossAmount(gross)
+                .refundCount(refundCount)
+                .refundAmount(refunds)
+                .voidCount(voidCount)
+                .netAmount(gross.subtract(refunds))
+                .build();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.payment.gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight - รวมการโหลด Key เดียวกันที่เกิดพร้อมกันให้เหลือการโหลดจริงครั้งเดียว
+ *
+ * - ผู้เรียกคนแรกของ Key เป็นผู้โหลด (Leader) คนที่มาระหว่างนั้นรอผลเดียวกัน (ทั้งค่าและ Exception)
+ * - Stale-While-Revalidate (ถ้าเปิด): เก็บค่าล่าสุดไว้ชั่วคราว
+ *   อายุไม่เกิน fresh ตอบทันที, ไม่เกิน stale ตอบค่าเดิมแล้วโหลดใหม่เบื้องหลังหนึ่งครั้ง, เกินกว่านั้นโหลดใหม่
+ * - {@link #invalidate} ลบค่าที่เก็บไว้และไม่ให้ผลของการโหลดที่กำลังทำอยู่ถูกเก็บ
+ *
+ * @param <K> ชนิดของ Key
+ * @param <V> ชนิดของค่า
+ */
+public final class SingleFlight<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Entry<V>> recent = new ConcurrentHashMap<>();
+    private final boolean staleWhileRevalidate;
+    private final long freshNanos;
+    private final long staleNanos;
+    private final int maxEntries;
+    private final Executor refresher;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+
+    /**
+     * @param staleWhileRevalidate เก็บค่าล่าสุดไว้ตอบระหว่างโหลดใหม่หรือไม่
+     * @param freshNanos อายุที่ตอบได้โดยไม่โหลดใหม่
+     * @param staleNanos อายุสูงสุดที่ยังตอบค่าเดิมได้ (โหลดใหม่เบื้องหลัง)
+     * @param maxEntries จำนวนค่าที่เก็บได้สูงสุด (เต็มแล้วจะไม่เก็บเพิ่มจนกว่าจะ {@link #prune})
+     * @param refresher Executor สำหรับโหลดใหม่เบื้องหลัง
+     */
+    public SingleFlight(boolean staleWhileRevalidate, long freshNanos, long staleNanos,
+                        int maxEntries, Executor refresher) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.freshNanos = freshNanos;
+        this.staleNanos = Math.max(freshNanos, staleNanos);
+        this.maxEntries = maxEntries;
+        this.refresher = refresher;
+    }
+
+    /**
+     * อ่านค่าของ Key
+     *
+     * @param key Key
+     * @param loader ตัวโหลดค่าจริง (เช่น Query Database)
+     * @return ค่า (อาจเป็นค่าเดิมไม่เกิน stale ถ้าเปิด Stale-While-Revalidate)
+     */
+    public V get(K key, Supplier<V> loader) {
+        if (staleWhileRevalidate) {
+            Entry<V> entry = recent.get(key);
+            if (entry != null) {
+                long age = System.nanoTime() - entry.loadedAt();
+                if (age < freshNanos) {
+                    return entry.value();
+                }
+                if (age < staleNanos) {
+                    staleServed.increment();
+                    refreshAsync(key, loader);
+                    return entry.value();
+                }
+                recent.remove(key, entry);
+            }
+        }
+
+        Flight<V> flight = new Flight<>();
+        Flight<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.await();
+        }
+        return run(key, flight, loader);
+    }
+
+    /**
+     * ลบค่าที่เก็บไว้ของ Key (เรียกเมื่อข้อมูลเปลี่ยน)
+     *
+     * @param key Key
+     */
+    public void invalidate(K key) {
+        Flight<V> flight = inFlight.remove(key);
+        if (flight != null) {
+            // โหลดก่อนข้อมูลเปลี่ยน: ผู้ที่รออยู่ยังได้ผลนี้ แต่ไม่เก็บไว้ตอบคนถัดไป
+            flight.invalidated = true;
+        }
+        recent.remove(key);
+    }
+
+    /**
+     * ลบค่าที่เกิน stale แล้ว
+     */
+    public void prune() {
+        long now = System.nanoTime();
+        recent.values().removeIf(entry -> now - entry.loadedAt() >= staleNanos);
+    }
+
+    public long loads() {
+        return loads.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long staleServed() {
+        return staleServed.sum();
+    }
+
+    public int size() {
+        return recent.size();
+    }
+
+    private void refreshAsync(K key, Supplier<V> loader) {
+        Flight<V> flight = new Flight<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    run(key, flight, loader);
+                } catch (RuntimeException e) {
+                    logger.debug("Background refresh of {} failed: {}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            flight.future.completeExceptionally(e);
+        }
+    }
+
+    private V run(K key, Flight<V> flight, Supplier<V> loader) {
+        long start = System.nanoTime();
+        loads.increment();
+        try {
+            V value = loader.get();
+            if (staleWhileRevalidate && !flight.invalidated && value != null
+                    && (recent.size() < maxEntries || recent.containsKey(key))) {
+                recent.put(key, new Entry<>(value, start));
+            }
+            flight.future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    /**
+     * การโหลดที่กำลังทำของหนึ่ง Key
+     */
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile boolean invalidated;
+
+        private V await() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
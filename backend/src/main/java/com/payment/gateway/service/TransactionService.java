@@ -1,8 +1,12 @@
 package com.payment.gateway.service;
 
 import com.payment.gateway.dto.TransactionResponse;
+import com.payment.gateway.entity.ArchivedPayment;
+import com.payment.gateway.entity.ArchivedTransaction;
 import com.payment.gateway.entity.Transaction;
 import com.payment.gateway.exception.ResourceNotFoundException;
+import com.payment.gateway.repository.ArchivedPaymentRepository;
+import com.payment.gateway.repository.ArchivedTransactionRepository;
 import com.payment.gateway.repository.TransactionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +21,8 @@ import java.util.List;
  * รับผิดชอบ:
  * - ค้นหา Transaction
  * - ดึงประวัติ Transaction ของ Payment
+ * 
+ * ถ้าไม่พบในตารางหลักจะดูใน Archive ต่อ (Payment ที่ย้ายไป Cold Storage แล้ว)
  */
 @Service
 @Transactional(readOnly = true)
@@ -25,9 +31,16 @@ public class TransactionService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
     
     private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final ArchivedPaymentRepository archivedPaymentRepository;
 
-    public TransactionService(TransactionRepository transactionRepository) {
+    public TransactionService(
+            TransactionRepository transactionRepository,
+            ArchivedTransactionRepository archivedTransactionRepository,
+            ArchivedPaymentRepository archivedPaymentRepository) {
         this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.archivedPaymentRepository = archivedPaymentRepository;
     }
 
     /**
@@ -36,10 +49,13 @@ public class TransactionService {
      * @param transactionId Transaction ID
      * @return TransactionResponse
      */
+    @Bulkhead(Bulkhead.Type.LOOKUP)
     public TransactionResponse getTransactionById(String transactionId) {
-        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+        return transactionRepository.findByTransactionId(transactionId)
+            .map(this::toResponse)
+            .or(() -> archivedTransactionRepository.findByTransactionId(transactionId)
+                .map(transaction -> toResponse(transaction, archivedReferenceId(transaction.getPaymentId()))))
             .orElseThrow(() -> new ResourceNotFoundException("Transaction", "transactionId", transactionId));
-        return toResponse(transaction);
     }
 
     /**
@@ -48,16 +64,32 @@ public class TransactionService {
      * @param paymentId Payment ID
      * @return รายการ TransactionResponse
      */
+    @Bulkhead(Bulkhead.Type.LOOKUP)
     public List<TransactionResponse> getTransactionsByPaymentId(Long paymentId) {
         logger.debug("Fetching transactions for payment: {}", paymentId);
         
         List<Transaction> transactions = transactionRepository.findByPaymentIdOrderByCreatedAtDesc(paymentId);
+        if (transactions.isEmpty()) {
+            String referenceId = archivedReferenceId(paymentId);
+            if (referenceId != null) {
+                return archivedTransactionRepository.findByPaymentIdOrderByCreatedAtDesc(paymentId).stream()
+                    .map(transaction -> toResponse(transaction, referenceId))
+                    .toList();
+            }
+        }
         
         return transactions.stream()
             .map(this::toResponse)
             .toList();
     }
 
+    /**
+     * Reference ID ของ Payment ใน Archive (null ถ้าไม่ได้ถูกย้าย)
+     */
+    private String archivedReferenceId(Long paymentId) {
+        return archivedPaymentRepository.findById(paymentId).map(ArchivedPayment::getReferenceId).orElse(null);
+    }
+
     /**
      * แปลง Entity เป็น Response DTO
      */
@@ -76,4 +108,23 @@ public class TransactionService {
             transaction.getCreatedAt()
         );
     }
+
+    /**
+     * แปลง Transaction ใน Archive เป็น Response DTO
+     */
+    private TransactionResponse toResponse(ArchivedTransaction transaction, String referenceId) {
+        return new TransactionResponse(
+            transaction.getId(),
+            transaction.getTransactionId(),
+            referenceId,
+            transaction.getTransactionType(),
+            transaction.getAmount(),
+            transaction.getCurrency(),
+            transaction.getStatus(),
+            transaction.getGatewayReference(),
+            transaction.getResponseCode(),
+            transaction.getResponseMessage(),
+            transaction.getCreatedAt()
+        );
+    }
 }
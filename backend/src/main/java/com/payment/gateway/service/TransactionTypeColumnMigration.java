@@ -0,0 +1,49 @@
+package com.payment.gateway.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * TransactionTypeColumnMigration - เปลี่ยน Column transaction_type ที่เป็น ENUM ของ MySQL เป็น VARCHAR
+ *
+ * Hibernate 6 สร้าง @Enumerated(STRING) บน MySQL เป็น ENUM('AUTHORIZE', ...) และ ddl-auto update
+ * ไม่เพิ่มค่าใหม่ให้ Column ที่มีอยู่แล้ว Database เดิมจึงปฏิเสธ EXPIRE (และค่าที่จะเพิ่มในอนาคต)
+ * Entity ประกาศเป็น VARCHAR(20) แล้ว ที่นี่แก้ Column ของ Database ที่สร้างไว้ก่อนหน้า
+ *
+ * รันตอนเริ่มระบบหลัง Hibernate อัพเดท Schema (ก่อนงาน @Scheduled เริ่ม)
+ */
+@Component
+public class TransactionTypeColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionTypeColumnMigration.class);
+
+    private static final List<String> TABLES = List.of("transactions", "transactions_archive");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // รับ EntityManagerFactory เพื่อให้รันหลังสร้าง/อัพเดท Schema
+    public TransactionTypeColumnMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void migrate() {
+        for (String table : TABLES) {
+            List<String> types = jdbcTemplate.queryForList(
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = ? AND COLUMN_NAME = 'transaction_type'",
+                String.class, table);
+            if (types.isEmpty() || !"enum".equalsIgnoreCase(types.getFirst())) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY COLUMN transaction_type VARCHAR(20) NOT NULL");
+            logger.info("Converted {}.transaction_type from ENUM to VARCHAR(20)", table);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.Transaction;
+import com.payment.gateway.entity.TransactionType;
+import com.payment.gateway.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionWriter - บันทึก Transaction ตามระดับ Durability ของแต่ละประเภท
+ *
+ * - ประเภทที่ไม่อยู่ใน batched-types (เช่น CAPTURE/REFUND): บันทึกทันทีใน Transaction ของผู้เรียก
+ *   (Commit พร้อมการเปลี่ยนสถานะ Payment และ Ledger)
+ * - ประเภทใน batched-types (เช่น WEBHOOK): เข้าคิวหลังผู้เรียก Commit แล้ว (Write-behind)
+ *   Thread เดียวรวมรายการจากหลาย Request เป็น Batch INSERT เดียว
+ *   รอไม่เกิน max-delay-ms หรือจนครบ batch-size
+ *
+ * ถ้าคิวเต็ม ผู้เรียกจะเขียนเองทันที (ไม่ทิ้งรายการ)
+ * รายการในคิวที่ยังไม่ถูกเขียนจะสูญหายหาก Process ตายกะทันหัน จึงใช้กับรายการ Audit เท่านั้น
+ */
+@Service
+public class TransactionWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionWriter.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO transactions (transaction_id, transaction_type, amount, currency, status, gateway_reference, " +
+        "response_code, response_message, ip_address, user_agent, created_at, payment_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // ประเภทที่มีผลต่อ Ledger ต้องเขียนพร้อมกันใน Transaction เดียวเสมอ
+    private static final Set<TransactionType> LEDGER_TYPES =
+        EnumSet.of(TransactionType.CAPTURE, TransactionType.CHARGE, TransactionType.REFUND);
+
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<TransactionType> batchedTypes;
+    private final BlockingQueue<Transaction> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public TransactionWriter(
+            TransactionRepository transactionRepository,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${payment.transaction-writer.batched-types:WEBHOOK}") List<TransactionType> batchedTypes,
+            @Value("${payment.transaction-writer.batch-size:100}") int batchSize,
+            @Value("${payment.transaction-writer.max-delay-ms:5}") long maxDelayMs,
+            @Value("${payment.transaction-writer.queue-capacity:10000}") int queueCapacity) {
+        this.transactionRepository = transactionRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // อาจถูกเรียกจาก afterCommit ของผู้เรียก (Resource ของ Transaction เดิมยังผูกอยู่) จึงต้องเปิดใหม่เสมอ
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchedTypes = batchedTypes.isEmpty() ? EnumSet.noneOf(TransactionType.class) : EnumSet.copyOf(batchedTypes);
+        if (this.batchedTypes.removeAll(LEDGER_TYPES)) {
+            logger.warn("CAPTURE/CHARGE/REFUND must commit with the ledger; writing them synchronously");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.flusher = Thread.ofPlatform().name("transaction-writer").daemon(true).start(this::run);
+    }
+
+    /**
+     * บันทึก Transaction (ต้องกรอกข้อมูลครบก่อนเรียก เพราะจะไม่มีการ Save ซ้ำ)
+     *
+     * @param transaction Transaction ที่สร้างเสร็จแล้ว
+     */
+    public void write(Transaction transaction) {
+        // รายการที่มี Payload ต้องบันทึกผ่าน JPA (Cascade ไปตาราง transaction_payloads)
+        if (!batchedTypes.contains(transaction.getTransactionType()) || transaction.getPayload() != null) {
+            transactionRepository.save(transaction);
+            return;
+        }
+        if (transaction.getCreatedAt() == null) {
+            transaction.setCreatedAt(LocalDateTime.now());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // เขียนหลัง Commit เท่านั้น: Rollback แล้วต้องไม่มี Audit ค้าง และ Payment ต้องมีอยู่จริงก่อน INSERT
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(transaction);
+                }
+            });
+        } else {
+            enqueue(transaction);
+        }
+    }
+
+    /**
+     * บันทึกหลายรายการทันทีใน Transaction ของผู้เรียกด้วย Batch INSERT เดียว (ใช้กับ Bulk Refund/Cancel)
+     *
+     * Transaction ใช้ ID แบบ IDENTITY ซึ่ง Hibernate ไม่รวม INSERT เป็น Batch จึงเขียนผ่าน JDBC
+     * ทุกประเภทถูกเขียนทันทีไม่ผ่านคิว และ ID ของ Entity จะไม่ถูกกรอก (อ้างอิงด้วย transactionId)
+     *
+     * @param transactions Transaction ที่สร้างเสร็จแล้ว
+     */
+    public void writeAll(List<Transaction> transactions) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> batch = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (transaction.getPayload() != null) {
+                transactionRepository.save(transaction);
+                continue;
+            }
+            if (transaction.getCreatedAt() == null) {
+                transaction.setCreatedAt(now);
+            }
+            batch.add(transaction);
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), TransactionWriter::bind);
+        }
+    }
+
+    private void enqueue(Transaction transaction) {
+        if (!running || !queue.offer(transaction)) {
+            // คิวเต็ม/กำลังปิด: เขียนเองทันที (Backpressure ไปที่ผู้เรียก)
+            insert(List.of(transaction));
+        }
+    }
+
+    /**
+     * Loop ของ Thread เขียน: รอรายการแรก แล้วเก็บเพิ่มจนครบ batch-size หรือหมดเวลา max-delay-ms
+     */
+    private void run() {
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Transaction first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Transaction next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * INSERT เป็น Batch เดียวใน Transaction เดียว
+     * ถ้า Batch ล้มเหลวจะลองทีละแถว เพื่อไม่ให้แถวที่เสียทำให้รายการอื่นหายไปด้วย
+     */
+    private void insert(List<Transaction> transactions) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, transactions, transactions.size(), TransactionWriter::bind));
+            logger.debug("Wrote {} transactions in one batch", transactions.size());
+        } catch (RuntimeException e) {
+            if (transactions.size() == 1) {
+                logger.error("Failed to write transaction {}: {}",
+                    transactions.getFirst().getTransactionId(), e.getMessage());
+                return;
+            }
+            logger.warn("Batch insert of {} transactions failed, retrying one by one: {}", transactions.size(), e.getMessage());
+            transactions.forEach(tx -> insert(List.of(tx)));
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Transaction tx) throws SQLException {
+        ps.setString(1, tx.getTransactionId());
+        ps.setString(2, tx.getTransactionType().name());
+        ps.setBigDecimal(3, tx.getAmount());
+        ps.setString(4, tx.getCurrency());
+        ps.setString(5, tx.getStatus().name());
+        ps.setString(6, tx.getGatewayReference());
+        ps.setString(7, tx.getResponseCode());
+        ps.setString(8, tx.getResponseMessage());
+        ps.setString(9, tx.getIpAddress());
+        ps.setString(10, tx.getUserAgent());
+        ps.setTimestamp(11, Timestamp.valueOf(tx.getCreatedAt()));
+        ps.setLong(12, tx.getPayment().getId());
+    }
+
+    /**
+     * หยุดรับเข้าคิวและรอให้ Thread เขียนรายการที่ค้างจนหมด
+     * (ไม่ Interrupt เพื่อไม่ให้ JDBC ที่กำลังเขียนถูกตัดกลางทาง)
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
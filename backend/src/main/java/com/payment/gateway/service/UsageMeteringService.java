@@ -0,0 +1,200 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.UsageGranularity;
+import com.payment.gateway.dto.UsageResponse;
+import com.payment.gateway.entity.MerchantUsage;
+import com.payment.gateway.entity.UsageOperation;
+import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.repository.MerchantUsageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UsageMeteringService - นับการใช้งานของ Merchant เพื่อคิดค่าบริการ
+ *
+ * - Hot Path: เพิ่มค่า LongAdder ในหน่วยความจำ (Striped Counter แยก Cell ตาม Thread ไม่มีการแย่ง Lock)
+ *   แยกตาม Merchant + ประเภท + ชั่วโมง และนับหลัง Commit เท่านั้น (Rollback ไม่ถูกคิดเงิน)
+ * - ทุก flush-interval-ms: รวมค่าทั้งหมดเป็น Batch Upsert เดียวลงตาราง merchant_usage
+ *   ถ้าเขียนไม่สำเร็จ ค่าจะถูกบวกกลับเข้าตัวนับเพื่อเขียนรอบถัดไป
+ *
+ * Process ตายกะทันหันจะเสียยอดไม่เกิน flush-interval-ms ล่าสุดของ Node นั้น (ปิดปกติจะ Flush ก่อนเสมอ)
+ * แต่ละ Node เขียนยอดของตัวเองแบบบวกเพิ่ม จึงรันหลาย Node พร้อมกันได้
+ */
+@Service
+public class UsageMeteringService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageMeteringService.class);
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO merchant_usage (merchant_id, operation, period_start, usage_count, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE usage_count = usage_count + VALUES(usage_count), updated_at = VALUES(updated_at)";
+
+    /**
+     * Key ของตัวนับ (ชั่วโมงเก็บเป็น Epoch Hour เพื่อไม่ต้องสร้าง LocalDateTime ทุกครั้ง)
+     */
+    private record CounterKey(long merchantId, UsageOperation operation, long epochHour) {
+    }
+
+    private final Map<CounterKey, LongAdder> counters = new ConcurrentHashMap<>();
+    private final MerchantUsageRepository usageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public UsageMeteringService(
+            MerchantUsageRepository usageRepository,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${payment.usage.batch-size:500}") int batchSize) {
+        this.usageRepository = usageRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // อาจถูกเรียกระหว่าง Transaction อื่น (เช่นตอนปิดระบบ) จึงแยกเป็นของตัวเอง
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * นับการใช้งานหนึ่งครั้ง (ถ้าอยู่ใน Transaction จะนับเมื่อ Commit สำเร็จ)
+     *
+     * @param merchantId Merchant ID
+     * @param operation ประเภทการใช้งาน
+     */
+    public void record(Long merchantId, UsageOperation operation) {
+        if (merchantId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(merchantId, operation, 1);
+                }
+            });
+        } else {
+            increment(merchantId, operation, 1);
+        }
+    }
+
+    private void increment(long merchantId, UsageOperation operation, long count) {
+        CounterKey key = new CounterKey(merchantId, operation, System.currentTimeMillis() / HOUR_MILLIS);
+        increment(key, count);
+    }
+
+    private void increment(CounterKey key, long count) {
+        LongAdder adder = counters.get(key);
+        if (adder == null) {
+            adder = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.add(count);
+    }
+
+    /**
+     * เขียนยอดที่สะสมไว้ลง Database เป็น Batch Upsert เดียว
+     */
+    @Scheduled(fixedDelayString = "${payment.usage.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        long currentHour = System.currentTimeMillis() / HOUR_MILLIS;
+        Map<CounterKey, Long> pending = new LinkedHashMap<>();
+        counters.forEach((key, adder) -> {
+            // sumThenReset อ่านและล้างทีละ Cell แบบ Atomic ค่าที่เพิ่มระหว่างนี้จะไปอยู่รอบถัดไป
+            long count = adder.sumThenReset();
+            if (count > 0) {
+                pending.put(key, count);
+            } else if (key.epochHour() < currentHour) {
+                // ชั่วโมงที่ผ่านไปแล้วและไม่มียอดใหม่ทั้งรอบ
+                counters.remove(key, adder);
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<CounterKey, Long>> rows = new ArrayList<>(pending.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, row) -> {
+                    CounterKey key = row.getKey();
+                    ps.setLong(1, key.merchantId());
+                    ps.setString(2, key.operation().name());
+                    ps.setTimestamp(3, Timestamp.valueOf(periodStart(key.epochHour())));
+                    ps.setLong(4, row.getValue());
+                    ps.setTimestamp(5, now);
+                }));
+            logger.debug("Flushed {} usage counters", rows.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to flush {} usage counters, keeping them for the next flush: {}",
+                rows.size(), e.getMessage());
+            pending.forEach(this::increment);
+        }
+    }
+
+    /**
+     * ดึงการใช้งานของ Merchant (เฉพาะยอดที่ Flush แล้ว)
+     *
+     * @param merchantId Merchant ID
+     * @param from เวลาเริ่มต้น (ปัดลงเป็นต้นช่วง)
+     * @param to เวลาสิ้นสุด (ไม่รวม)
+     * @param granularity HOUR หรือ DAY
+     * @return รายการเรียงตามเวลาและประเภท
+     */
+    @Transactional(readOnly = true)
+    public List<UsageResponse> getUsage(Long merchantId, LocalDateTime from, LocalDateTime to,
+                                        UsageGranularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("'from' must be before 'to'");
+        }
+        Map<LocalDateTime, Map<UsageOperation, Long>> periods = new LinkedHashMap<>();
+        for (MerchantUsage usage : usageRepository
+                .findByMerchantIdAndPeriodStartGreaterThanEqualAndPeriodStartLessThanOrderByPeriodStartAsc(
+                    merchantId, granularity.truncate(from), to)) {
+            periods.computeIfAbsent(granularity.truncate(usage.getPeriodStart()), p -> new LinkedHashMap<>())
+                .merge(usage.getOperation(), usage.getUsageCount(), Long::sum);
+        }
+
+        List<UsageResponse> result = new ArrayList<>();
+        periods.forEach((periodStart, operations) -> operations.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(e -> result.add(new UsageResponse(merchantId, e.getKey(), periodStart, e.getValue()))));
+        return result;
+    }
+
+    private static LocalDateTime periodStart(long epochHour) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochHour * HOUR_MILLIS), ZoneId.systemDefault());
+    }
+
+    /**
+     * Flush ยอดที่เหลือก่อนปิดระบบ
+     */
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
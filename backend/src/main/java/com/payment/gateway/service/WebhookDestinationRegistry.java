@@ -0,0 +1,339 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.WebhookDestinationStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebhookDestinationRegistry - แยกการส่ง Webhook ของแต่ละ Merchant ออกจากกัน
+ * 
+ * Merchant ที่ช้าหรือล่มต้องไม่กินความสามารถในการส่งของ Merchant อื่น
+ * แต่ละ Merchant (Destination) มี:
+ * - Bulkhead: จำกัดจำนวน Request พร้อมกัน (Semaphore)
+ * - Circuit Breaker: CLOSED -> OPEN เมื่อล้มเหลวติดกัน, OPEN -> HALF_OPEN เมื่อครบเวลา
+ * - Adaptive Timeout: คำนวณจาก Latency จริง (แบบ TCP RTO: srtt + 4 * rttvar)
+ * - Metrics: Latency Histogram, Breaker State, In-Flight, Backlog (Micrometer)
+ */
+@Component
+public class WebhookDestinationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookDestinationRegistry.class);
+    
+    private final Map<Long, Destination> destinations = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.outbound-webhook.max-concurrency-per-merchant:4}")
+    private int maxConcurrencyPerMerchant;
+
+    @Value("${payment.outbound-webhook.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${payment.outbound-webhook.breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${payment.outbound-webhook.min-timeout-ms:500}")
+    private long minTimeoutMs;
+
+    @Value("${payment.outbound-webhook.request-timeout-ms:10000}")
+    private long maxTimeoutMs;
+
+    @Value("${payment.outbound-webhook.coalesce.recovery-window-ms:60000}")
+    private long recoveryWindowMs;
+
+    public WebhookDestinationRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * ดึง (หรือสร้าง) Destination ของ Merchant
+     * 
+     * @param merchantId Merchant ID
+     * @return Destination
+     */
+    public Destination destination(Long merchantId) {
+        return destinations.computeIfAbsent(merchantId, this::register);
+    }
+
+    /**
+     * Merchant ที่ยังรับงานเพิ่มไม่ได้ (Breaker เปิดอยู่ หรือ Bulkhead เต็ม)
+     * ใช้ตัดออกตอน Claim จาก Outbox เพื่อไม่ให้ Batch ถูกกินโดย Merchant ที่มีปัญหา
+     * 
+     * @return Set ของ Merchant ID
+     */
+    public Set<Long> unavailableMerchants() {
+        Set<Long> unavailable = new HashSet<>();
+        long now = System.currentTimeMillis();
+        destinations.forEach((id, destination) -> {
+            if (!destination.isAvailable(now)) {
+                unavailable.add(id);
+            }
+        });
+        return unavailable;
+    }
+
+    /**
+     * อัพเดทจำนวน Event ค้างส่งของแต่ละ Merchant
+     * 
+     * @param backlog Map ของ Merchant ID -> จำนวน PENDING
+     */
+    public void updateBacklog(Map<Long, Long> backlog) {
+        backlog.keySet().forEach(this::destination);
+        destinations.forEach((id, destination) -> destination.backlog = backlog.getOrDefault(id, 0L));
+    }
+
+    /**
+     * สถานะของทุก Destination
+     * 
+     * @return รายการ WebhookDestinationStats
+     */
+    public List<WebhookDestinationStats> stats() {
+        return destinations.values().stream()
+            .sorted(Comparator.comparing(Destination::merchantId))
+            .map(Destination::toStats)
+            .toList();
+    }
+
+    /**
+     * สร้าง Destination ใหม่พร้อมลงทะเบียน Metrics
+     */
+    private Destination register(Long merchantId) {
+        String tag = String.valueOf(merchantId);
+        Timer latency = Timer.builder("webhook.delivery.latency")
+            .description("Outbound webhook delivery latency per merchant")
+            .tag("merchant", tag)
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        
+        Destination destination = new Destination(merchantId, latency);
+        
+        Gauge.builder("webhook.destination.breaker.state", destination, d -> d.state().ordinal())
+            .description("Circuit breaker state (0=CLOSED, 1=OPEN, 2=HALF_OPEN)")
+            .tag("merchant", tag)
+            .register(meterRegistry);
+        Gauge.builder("webhook.destination.in.flight", destination, Destination::inFlight)
+            .tag("merchant", tag)
+            .register(meterRegistry);
+        Gauge.builder("webhook.destination.backlog", destination, d -> d.backlog)
+            .tag("merchant", tag)
+            .register(meterRegistry);
+        
+        return destination;
+    }
+
+    /**
+     * BreakerState - สถานะของ Circuit Breaker
+     */
+    public enum BreakerState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Destination - สถานะการส่งของ Merchant หนึ่งราย
+     */
+    public final class Destination {
+        
+        private final Long merchantId;
+        private final Timer latency;
+        private final Semaphore permits;
+        
+        private BreakerState state = BreakerState.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private long recoveredAt;
+        private boolean trialInFlight;
+        
+        // Adaptive Timeout (ms)
+        private double smoothedLatency = -1;
+        private double latencyVariance;
+        private long timeoutMs;
+        
+        private volatile long backlog;
+
+        private Destination(Long merchantId, Timer latency) {
+            this.merchantId = merchantId;
+            this.latency = latency;
+            this.permits = new Semaphore(maxConcurrencyPerMerchant);
+            this.timeoutMs = maxTimeoutMs;
+        }
+
+        public Long merchantId() {
+            return merchantId;
+        }
+
+        public synchronized BreakerState state() {
+            return state;
+        }
+
+        public int inFlight() {
+            return maxConcurrencyPerMerchant - permits.availablePermits();
+        }
+
+        /**
+         * Timeout ที่ควรใช้กับ Request ถัดไป
+         */
+        public synchronized long timeoutMs() {
+            return timeoutMs;
+        }
+
+        /**
+         * จองสิทธิ์ส่งหนึ่ง Request (Bulkhead + Circuit Breaker)
+         * ถ้าได้ true ต้องเรียก release() เสมอเมื่อเสร็จ
+         * 
+         * @return true ถ้าส่งได้
+         */
+        public boolean tryAcquire() {
+            if (!permits.tryAcquire()) {
+                return false;
+            }
+            if (!allowRequest(System.currentTimeMillis())) {
+                permits.release();
+                return false;
+            }
+            return true;
+        }
+
+        public void release() {
+            permits.release();
+        }
+
+        /**
+         * ควรรวม Event เป็น Batch หรือไม่
+         * (Breaker ยังไม่ปิด หรือเพิ่งฟื้นตัวภายใน Recovery Window)
+         */
+        public synchronized boolean isRecovering() {
+            return state != BreakerState.CLOSED
+                || (recoveredAt > 0 && System.currentTimeMillis() - recoveredAt < recoveryWindowMs);
+        }
+
+        /**
+         * บันทึกผลของ Request หนึ่งครั้ง
+         * 
+         * @param status ผลการส่ง
+         * @param statusCode HTTP Status (null ถ้าไม่ได้รับ Response)
+         * @param elapsedNanos เวลาที่ใช้
+         */
+        public synchronized void record(WebhookSender.Status status, Integer statusCode, long elapsedNanos) {
+            latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            long now = System.currentTimeMillis();
+            trialInFlight = false;
+            
+            if (status == WebhookSender.Status.TIMED_OUT) {
+                // Timeout: ขยาย Timeout แบบ Backoff เหมือน TCP RTO
+                timeoutMs = Math.min(maxTimeoutMs, timeoutMs * 2);
+                onFailure(now);
+                return;
+            }
+            
+            updateTimeout(elapsedNanos / 1_000_000.0);
+            if (status == WebhookSender.Status.DELIVERED || !isDestinationFault(statusCode)) {
+                // Merchant ตอบกลับได้ (แม้จะเป็น 4xx) ถือว่าปลายทางยังทำงาน
+                consecutiveFailures = 0;
+                if (state != BreakerState.CLOSED) {
+                    state = BreakerState.CLOSED;
+                    recoveredAt = now;
+                    logger.info("Webhook circuit for merchant {} closed", merchantId);
+                }
+                return;
+            }
+            onFailure(now);
+        }
+
+        private boolean isAvailable(long now) {
+            if (permits.availablePermits() == 0) {
+                return false;
+            }
+            synchronized (this) {
+                return state != BreakerState.OPEN || now - openedAt >= openDurationMs;
+            }
+        }
+
+        private synchronized boolean allowRequest(long now) {
+            if (state == BreakerState.OPEN) {
+                if (now - openedAt < openDurationMs) {
+                    return false;
+                }
+                state = BreakerState.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == BreakerState.HALF_OPEN) {
+                // ยอมให้ Request ทดลองผ่านได้ทีละหนึ่ง
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+            }
+            return true;
+        }
+
+        private void onFailure(long now) {
+            consecutiveFailures++;
+            if (state == BreakerState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                if (state != BreakerState.OPEN) {
+                    logger.warn("Webhook circuit for merchant {} opened after {} failures", merchantId, consecutiveFailures);
+                }
+                state = BreakerState.OPEN;
+                openedAt = now;
+            }
+        }
+
+        /**
+         * 5xx, 408, 429 หรือไม่ได้รับ Response ถือเป็นปัญหาของปลายทาง
+         */
+        private boolean isDestinationFault(Integer statusCode) {
+            return statusCode == null || statusCode >= 500 || statusCode == 408 || statusCode == 429;
+        }
+
+        private void updateTimeout(double sampleMs) {
+            if (smoothedLatency < 0) {
+                smoothedLatency = sampleMs;
+                latencyVariance = sampleMs / 2;
+            } else {
+                latencyVariance = 0.75 * latencyVariance + 0.25 * Math.abs(smoothedLatency - sampleMs);
+                smoothedLatency = 0.875 * smoothedLatency + 0.125 * sampleMs;
+            }
+            long computed = (long) Math.ceil(smoothedLatency + 4 * latencyVariance);
+            timeoutMs = Math.max(minTimeoutMs, Math.min(maxTimeoutMs, computed));
+        }
+
+        private synchronized WebhookDestinationStats toStats() {
+            double p50 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                if (value.percentile() == 0.5) {
+                    p50 = value.value(TimeUnit.MILLISECONDS);
+                } else if (value.percentile() == 0.99) {
+                    p99 = value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return new WebhookDestinationStats(
+                merchantId,
+                state.name(),
+                inFlight(),
+                backlog,
+                consecutiveFailures,
+                timeoutMs,
+                p50,
+                p99,
+                latency.count()
+            );
+        }
+    }
+}
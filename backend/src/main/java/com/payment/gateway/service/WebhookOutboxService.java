@@ -0,0 +1,273 @@
+package com.payment.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.MerchantWebhookEvent;
+import com.payment.gateway.entity.Merchant;
+import com.payment.gateway.entity.OutboxStatus;
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.entity.WebhookOutbox;
+import com.payment.gateway.exception.PaymentException;
+import com.payment.gateway.repository.MerchantRepository;
+import com.payment.gateway.repository.WebhookOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * WebhookOutboxService - บริการจัดการ Outbox ของ Webhook ขาออก
+ * 
+ * รับผิดชอบ:
+ * - บันทึก Event ลง Outbox ใน Transaction เดียวกับการเปลี่ยนสถานะ Payment
+ *   (รับ Event จาก PaymentStateMachine ในฐานะ PaymentTransitionListener)
+ * - Claim Event ที่ถึงเวลาส่งเป็น Batch (SELECT ... FOR UPDATE SKIP LOCKED)
+ * - บันทึกผลการส่งและคำนวณเวลา Retry แบบ Exponential Backoff
+ */
+@Service
+@Transactional
+public class WebhookOutboxService implements PaymentTransitionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookOutboxService.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    private final WebhookOutboxRepository outboxRepository;
+    private final MerchantRepository merchantRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payment.outbound-webhook.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${payment.outbound-webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.outbound-webhook.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${payment.outbound-webhook.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${payment.outbound-webhook.defer-delay-ms:1000}")
+    private long deferDelayMs;
+
+    public WebhookOutboxService(
+            WebhookOutboxRepository outboxRepository,
+            MerchantRepository merchantRepository,
+            ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.merchantRepository = merchantRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * แปลงการเปลี่ยนสถานะเป็น Event payment.{status}
+     * เช่น payment.completed, payment.partially_refunded
+     */
+    @Override
+    public void onTransition(Payment payment, PaymentStatus from, PaymentStatus to) {
+        enqueue(payment, "payment." + to.name().toLowerCase());
+    }
+
+    /**
+     * บันทึก Event ลง Outbox
+     * ต้องถูกเรียกภายใน Transaction ที่เปลี่ยนสถานะ Payment
+     * 
+     * @param payment Payment ที่เปลี่ยนสถานะ
+     * @param eventType ประเภท Event
+     */
+    public void enqueue(Payment payment, String eventType) {
+        Merchant merchant = payment.getMerchant();
+        if (merchant.getWebhookUrl() == null || merchant.getWebhookUrl().isBlank()) {
+            logger.debug("Merchant {} has no webhook URL, skip event {}", merchant.getId(), eventType);
+            return;
+        }
+        
+        String eventId = "EVT-" + UUID.randomUUID().toString().toUpperCase().substring(0, 18);
+        MerchantWebhookEvent event = new MerchantWebhookEvent(
+            eventId,
+            eventType,
+            payment.getReferenceId(),
+            payment.getOrderId(),
+            payment.getStatus(),
+            payment.getAmount(),
+            payment.getCurrency(),
+            payment.getFailureReason(),
+            LocalDateTime.now()
+        );
+        
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new PaymentException("Failed to serialize webhook event", e);
+        }
+        
+        outboxRepository.save(WebhookOutbox.builder()
+            .eventId(eventId)
+            .merchantId(merchant.getId())
+            .paymentId(payment.getId())
+            .eventType(eventType)
+            .payload(payload)
+            .status(OutboxStatus.PENDING)
+            .nextAttemptAt(LocalDateTime.now())
+            .build());
+        
+        logger.debug("Webhook event queued: {} {} for payment {}", eventId, eventType, payment.getReferenceId());
+    }
+
+    /**
+     * Claim Event ที่ถึงเวลาส่ง
+     * 
+     * แถวที่ถูก Claim จะถูกเลื่อน nextAttemptAt ออกไปเป็น Lease
+     * ถ้า Node ล่มระหว่างส่ง Event จะกลับมาให้ส่งใหม่เมื่อ Lease หมด
+     * 
+     * @param batchSize จำนวนสูงสุดต่อ Batch
+     * @param excludedMerchantIds Merchant ที่ไม่ต้อง Claim รอบนี้
+     * @return รายการ Delivery ที่พร้อมส่ง
+     */
+    public List<WebhookSender.Delivery> claimDue(int batchSize, Set<Long> excludedMerchantIds) {
+        LocalDateTime now = LocalDateTime.now();
+        // NOT IN () ว่างไม่ได้ จึงใส่ค่าที่ไม่มีอยู่จริงแทน
+        Collection<Long> excluded = excludedMerchantIds.isEmpty() ? List.of(-1L) : excludedMerchantIds;
+        List<WebhookOutbox> rows = outboxRepository.findDueForUpdate(
+            OutboxStatus.PENDING, now, excluded, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Merchant> merchants = merchantRepository.findAllById(
+                rows.stream().map(WebhookOutbox::getMerchantId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(Merchant::getId, Function.identity()));
+        
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+        List<WebhookSender.Delivery> deliveries = new ArrayList<>(rows.size());
+        
+        for (WebhookOutbox row : rows) {
+            Merchant merchant = merchants.get(row.getMerchantId());
+            if (merchant == null || merchant.getWebhookUrl() == null || merchant.getWebhookUrl().isBlank()) {
+                row.setStatus(OutboxStatus.FAILED);
+                row.setLastError("Merchant webhook URL is not configured");
+                continue;
+            }
+            if (merchant.getWebhookSecret() == null || merchant.getWebhookSecret().isBlank()) {
+                // Sign ไม่ได้ ส่งซ้ำก็ไม่สำเร็จ
+                row.setStatus(OutboxStatus.FAILED);
+                row.setLastError("Merchant webhook secret is not configured");
+                continue;
+            }
+            
+            row.setAttempts(row.getAttempts() + 1);
+            row.setNextAttemptAt(leaseUntil);
+            deliveries.add(new WebhookSender.Delivery(
+                row.getId(),
+                row.getEventId(),
+                row.getEventType(),
+                merchant.getId(),
+                merchant.getWebhookUrl(),
+                merchant.getWebhookSecret(),
+                row.getPayload(),
+                row.getAttempts()
+            ));
+        }
+        
+        return deliveries;
+    }
+
+    /**
+     * บันทึกผลการส่ง
+     * 
+     * - สำเร็จ: DELIVERED
+     * - ยังไม่ได้ส่ง (DEFERRED): คืน Lease โดยไม่นับเป็นความพยายาม
+     * - ไม่สำเร็จ: ตั้งเวลา Retry ด้วย Exponential Backoff
+     * - ครบจำนวนครั้งแล้ว: FAILED
+     * 
+     * @param results ผลการส่งของแต่ละ Event
+     */
+    public void recordResults(List<WebhookSender.Result> results) {
+        Map<Long, WebhookOutbox> rows = outboxRepository.findAllById(
+                results.stream().map(WebhookSender.Result::outboxId).toList())
+            .stream()
+            .collect(Collectors.toMap(WebhookOutbox::getId, Function.identity()));
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (WebhookSender.Result result : results) {
+            WebhookOutbox row = rows.get(result.outboxId());
+            if (row == null) {
+                continue;
+            }
+            
+            if (result.status() == WebhookSender.Status.DEFERRED) {
+                row.setAttempts(row.getAttempts() - 1);
+                row.setNextAttemptAt(now.plus(Duration.ofMillis(deferDelayMs)));
+                continue;
+            }
+            
+            row.setLastResponseStatus(result.statusCode());
+            if (result.success()) {
+                row.setStatus(OutboxStatus.DELIVERED);
+                row.setDeliveredAt(now);
+                row.setLastError(null);
+                continue;
+            }
+            
+            row.setLastError(truncate(result.error()));
+            if (row.getAttempts() >= maxAttempts) {
+                row.setStatus(OutboxStatus.FAILED);
+                logger.warn("Webhook event {} failed after {} attempts: {}", 
+                    row.getEventId(), row.getAttempts(), result.error());
+            } else {
+                row.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMillis(row.getAttempts()))));
+            }
+        }
+    }
+
+    /**
+     * นับจำนวน Event ค้างส่งแยกตาม Merchant
+     * 
+     * @return Map ของ Merchant ID -> จำนวน PENDING
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Long> countBacklogByMerchant() {
+        return outboxRepository.countByMerchant(OutboxStatus.PENDING).stream()
+            .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+    }
+
+    /**
+     * คำนวณเวลารอก่อน Retry (Exponential Backoff + Jitter 20%)
+     */
+    private long backoffMillis(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        long delay = Math.min(maxBackoffMs, initialBackoffMs << exponent);
+        if (delay <= 0) {
+            delay = maxBackoffMs;
+        }
+        long jitter = ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+        return delay + jitter;
+    }
+
+    /**
+     * ตัดข้อความให้พอดีกับ Column
+     */
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
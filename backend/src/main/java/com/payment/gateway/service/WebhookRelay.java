@@ -0,0 +1,163 @@
+package com.payment.gateway.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * WebhookRelay - ดึง Event จาก Outbox แล้วส่งไปยัง Merchant
+ * 
+ * ทำงานเป็นรอบตาม poll-interval:
+ * 1. บันทึกผลการส่งที่เสร็จแล้วจากรอบก่อนเป็น Batch
+ * 2. Claim Event (ข้าม Merchant ที่ Breaker เปิดหรือ Bulkhead เต็ม)
+ * 3. แยกตาม Merchant แล้วส่งบน Virtual Threads ภายใต้ Bulkhead ของ Merchant นั้น
+ *    - ไม่รอผลใน Relay ดังนั้น Merchant ที่ช้าจะไม่หน่วง Merchant อื่น
+ *    - ส่งไม่ได้ (Bulkhead เต็ม) จะคืน Lease ให้ Claim ใหม่ภายหลัง
+ *    - Merchant ที่เพิ่งฟื้นตัวรวม Event เป็น Batch POST ได้ (coalesce)
+ * 
+ * รันหลาย Node ได้ เพราะการ Claim ใช้ SKIP LOCKED
+ */
+@Component
+@ConditionalOnProperty(name = "payment.outbound-webhook.enabled", havingValue = "true", matchIfMissing = true)
+public class WebhookRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookRelay.class);
+    
+    private final WebhookOutboxService outboxService;
+    private final WebhookSender webhookSender;
+    private final WebhookDestinationRegistry destinationRegistry;
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Queue<WebhookSender.Result> completed = new ConcurrentLinkedQueue<>();
+
+    @Value("${payment.outbound-webhook.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.outbound-webhook.coalesce.enabled:false}")
+    private boolean coalesceEnabled;
+
+    @Value("${payment.outbound-webhook.coalesce.max-events:50}")
+    private int coalesceMaxEvents;
+
+    public WebhookRelay(
+            WebhookOutboxService outboxService,
+            WebhookSender webhookSender,
+            WebhookDestinationRegistry destinationRegistry) {
+        this.outboxService = outboxService;
+        this.webhookSender = webhookSender;
+        this.destinationRegistry = destinationRegistry;
+    }
+
+    /**
+     * ส่ง Event ที่ถึงเวลาจนกว่าจะหมด Outbox
+     */
+    @Scheduled(fixedDelayString = "${payment.outbound-webhook.poll-interval-ms:1000}")
+    public void relay() {
+        flushResults();
+        
+        List<WebhookSender.Delivery> batch;
+        do {
+            batch = outboxService.claimDue(batchSize, destinationRegistry.unavailableMerchants());
+            if (batch.isEmpty()) {
+                return;
+            }
+            dispatch(batch);
+            logger.debug("Dispatched {} webhook events", batch.size());
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * อัพเดทจำนวน Event ค้างส่งของแต่ละ Merchant (สำหรับ Metrics)
+     */
+    @Scheduled(fixedDelayString = "${payment.outbound-webhook.backlog-refresh-ms:10000}")
+    public void refreshBacklog() {
+        destinationRegistry.updateBacklog(outboxService.countBacklogByMerchant());
+    }
+
+    /**
+     * แยก Batch ตาม Merchant แล้วส่งภายใต้ Bulkhead ของแต่ละราย
+     */
+    private void dispatch(List<WebhookSender.Delivery> batch) {
+        Map<Long, List<WebhookSender.Delivery>> byMerchant = new LinkedHashMap<>();
+        for (WebhookSender.Delivery delivery : batch) {
+            byMerchant.computeIfAbsent(delivery.merchantId(), id -> new ArrayList<>()).add(delivery);
+        }
+        
+        List<WebhookSender.Result> deferred = new ArrayList<>();
+        byMerchant.forEach((merchantId, deliveries) -> {
+            WebhookDestinationRegistry.Destination destination = destinationRegistry.destination(merchantId);
+            int callSize = coalesceEnabled && destination.isRecovering() ? coalesceMaxEvents : 1;
+            
+            for (int from = 0; from < deliveries.size(); from += callSize) {
+                List<WebhookSender.Delivery> call = deliveries.subList(from, Math.min(from + callSize, deliveries.size()));
+                if (!destination.tryAcquire()) {
+                    // Bulkhead เต็มหรือ Breaker เปิด - คืน Lease ของที่เหลือทั้งหมด
+                    deliveries.subList(from, deliveries.size())
+                        .forEach(d -> deferred.add(WebhookSender.Result.deferred(d.outboxId())));
+                    break;
+                }
+                List<WebhookSender.Delivery> snapshot = List.copyOf(call);
+                deliveryExecutor.execute(() -> deliver(destination, snapshot));
+            }
+        });
+        
+        completed.addAll(deferred);
+    }
+
+    /**
+     * ส่งหนึ่ง Request (Event เดียวหรือ Batch) แล้วเก็บผลไว้บันทึกรอบถัดไป
+     */
+    private void deliver(WebhookDestinationRegistry.Destination destination, List<WebhookSender.Delivery> call) {
+        long start = System.nanoTime();
+        List<WebhookSender.Result> results = List.of();
+        try {
+            Duration timeout = Duration.ofMillis(destination.timeoutMs());
+            results = call.size() == 1
+                ? List.of(webhookSender.send(call.get(0), timeout))
+                : webhookSender.sendBatch(call, timeout);
+            WebhookSender.Result first = results.get(0);
+            destination.record(first.status(), first.statusCode(), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            logger.error("Unexpected webhook delivery error for merchant {}", destination.merchantId(), e);
+            results = call.stream()
+                .map(d -> new WebhookSender.Result(d.outboxId(), WebhookSender.Status.FAILED, null, e.toString()))
+                .toList();
+            destination.record(WebhookSender.Status.FAILED, null, System.nanoTime() - start);
+        } finally {
+            destination.release();
+            completed.addAll(results);
+        }
+    }
+
+    /**
+     * บันทึกผลที่สะสมไว้ลง Outbox ใน Transaction เดียว
+     */
+    private void flushResults() {
+        List<WebhookSender.Result> results = new ArrayList<>();
+        WebhookSender.Result result;
+        while ((result = completed.poll()) != null) {
+            results.add(result);
+        }
+        if (!results.isEmpty()) {
+            outboxService.recordResults(results);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deliveryExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,212 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.security.HmacSignatureService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * WebhookSender - ส่ง Webhook ไปยัง Merchant ผ่าน HTTP
+ * 
+ * ใช้ java.net.http.HttpClient ตัวเดียวทั้ง Application
+ * - Connection Pool ภายใน HttpClient (HTTP/2 Multiplexing ถ้าปลายทางรองรับ)
+ * - Executor เป็น Virtual Threads
+ * - Sign Payload ด้วย Webhook Secret ของ Merchant (HMAC-SHA256)
+ * - Timeout กำหนดต่อ Request (Adaptive Timeout ของแต่ละ Merchant)
+ * 
+ * ปลายทางเป็น URL ใดก็ได้ จึงทดสอบกับ Stub HTTP Server บน localhost ได้
+ */
+@Component
+public class WebhookSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookSender.class);
+    
+    private final HmacSignatureService hmacSignatureService;
+    private final HttpClient httpClient;
+
+    public WebhookSender(
+            HmacSignatureService hmacSignatureService,
+            @Value("${payment.outbound-webhook.connect-timeout-ms:3000}") long connectTimeoutMs) {
+        this.hmacSignatureService = hmacSignatureService;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    /**
+     * ส่ง Webhook หนึ่งรายการ (Blocking - ควรเรียกบน Virtual Thread)
+     * 
+     * @param delivery ข้อมูลที่จะส่ง
+     * @param timeout Timeout ของ Request นี้
+     * @return ผลการส่ง (ไม่ Throw Exception)
+     */
+    public Result send(Delivery delivery, Duration timeout) {
+        byte[] body = delivery.payload().getBytes(StandardCharsets.UTF_8);
+        Outcome outcome = post(delivery.url(), delivery.secret(), body, timeout,
+            "X-Webhook-Event", delivery.eventType(),
+            "X-Webhook-Id", delivery.eventId(),
+            "X-Webhook-Attempt", String.valueOf(delivery.attempt()));
+        
+        if (outcome.status() == Status.DELIVERED) {
+            logger.debug("Webhook {} delivered to merchant {}", delivery.eventId(), delivery.merchantId());
+        }
+        return new Result(delivery.outboxId(), outcome.status(), outcome.statusCode(), outcome.error());
+    }
+
+    /**
+     * ส่งหลาย Event ของ Merchant เดียวกันใน POST เดียว (Coalesced Batch)
+     * 
+     * Body: {"events":[payload1, payload2, ...]}
+     * ผลลัพธ์ของ Request ใช้กับทุก Event ใน Batch
+     * 
+     * @param deliveries รายการ Event (ต้องเป็น Merchant เดียวกัน)
+     * @param timeout Timeout ของ Request นี้
+     * @return ผลการส่งของแต่ละ Event
+     */
+    public List<Result> sendBatch(List<Delivery> deliveries, Duration timeout) {
+        Delivery first = deliveries.get(0);
+        StringBuilder json = new StringBuilder("{\"events\":[");
+        for (int i = 0; i < deliveries.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(deliveries.get(i).payload());
+        }
+        json.append("]}");
+        
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        Outcome outcome = post(first.url(), first.secret(), body, timeout,
+            "X-Webhook-Event", "batch",
+            "X-Webhook-Batch-Size", String.valueOf(deliveries.size()));
+        
+        List<Result> results = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries) {
+            results.add(new Result(delivery.outboxId(), outcome.status(), outcome.statusCode(), outcome.error()));
+        }
+        return results;
+    }
+
+    /**
+     * POST Body ที่ Sign แล้วไปยัง URL
+     */
+    private Outcome post(String url, String secret, byte[] body, Duration timeout, String... headers) {
+        if (secret == null || secret.isBlank()) {
+            return new Outcome(Status.FAILED, null, "Webhook secret is not configured");
+        }
+        String signature = HexFormat.of().formatHex(
+            hmacSignatureService.generateSignature(body, 0, body.length, secret));
+        
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-Webhook-Signature", "sha256=" + signature)
+                .headers(headers)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+            
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                return new Outcome(Status.DELIVERED, status, null);
+            }
+            return new Outcome(Status.FAILED, status, "HTTP " + status);
+            
+        } catch (HttpTimeoutException e) {
+            return new Outcome(Status.TIMED_OUT, null, e.toString());
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Webhook delivery to {} failed: {}", url, e.toString());
+            return new Outcome(Status.FAILED, null, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome(Status.FAILED, null, "Interrupted");
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * ผลลัพธ์ของ HTTP Request หนึ่งครั้ง
+     */
+    private record Outcome(Status status, Integer statusCode, String error) {}
+
+    /**
+     * Status - ผลการส่งของ Event หนึ่งรายการ
+     */
+    public enum Status {
+        
+        /**
+         * Merchant ตอบ 2xx
+         */
+        DELIVERED,
+        
+        /**
+         * Merchant ตอบ Error หรือเชื่อมต่อไม่ได้
+         */
+        FAILED,
+        
+        /**
+         * เกิน Timeout
+         */
+        TIMED_OUT,
+        
+        /**
+         * ยังไม่ได้ส่ง (Bulkhead เต็ม / Circuit Breaker เปิด) - คืน Lease ให้ส่งใหม่ภายหลัง
+         */
+        DEFERRED
+    }
+
+    /**
+     * Delivery - ข้อมูล Webhook หนึ่งรายการที่พร้อมส่ง
+     */
+    public record Delivery(
+        Long outboxId,
+        String eventId,
+        String eventType,
+        Long merchantId,
+        String url,
+        String secret,
+        String payload,
+        int attempt
+    ) {}
+
+    /**
+     * Result - ผลการส่ง Webhook หนึ่งรายการ
+     */
+    public record Result(
+        Long outboxId,
+        Status status,
+        Integer statusCode,
+        String error
+    ) {
+        
+        public boolean success() {
+            return status == Status.DELIVERED;
+        }
+        
+        public static Result deferred(Long outboxId) {
+            return new Result(outboxId, Status.DEFERRED, null, null);
+        }
+    }
+}
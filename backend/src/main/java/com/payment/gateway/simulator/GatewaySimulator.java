@@ -0,0 +1,391 @@
+package com.payment.gateway.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.dto.CreatePaymentRequest;
+import com.payment.gateway.dto.SimulationReport;
+import com.payment.gateway.dto.SimulationRequest;
+import com.payment.gateway.dto.WebhookPayload;
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.security.HmacSignatureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GatewaySimulator - จำลอง Payment Processor ภายนอกสำหรับ Load Test บนเครื่อง
+ * 
+ * ไม่ขึ้นกับ Spring Context (สร้างด้วย new แล้วชี้ไปที่ Base URL ใดก็ได้)
+ * 
+ * ขั้นตอน:
+ * 1. สร้าง Payment ผ่าน POST /api/v1/payments
+ * 2. ส่ง Webhook ที่ Sign แล้ว (payment.completed/failed/expired) ตามสัดส่วนที่กำหนด
+ *    - จำกัดอัตราการส่ง (webhooksPerSecond) และจำนวนพร้อมกัน (concurrency)
+ *    - Delay แบบสุ่ม, ส่งซ้ำ (Duplicate), สลับลำดับ (Reorder)
+ * 3. รายงาน Throughput และ Latency (Request และ End-to-End)
+ */
+public class GatewaySimulator implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewaySimulator.class);
+    private static final String[] EVENT_TYPES = {"payment.completed", "payment.failed", "payment.expired"};
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+    
+    private final URI baseUri;
+    private final String apiKey;
+    private final String webhookSecret;
+    private final ObjectMapper objectMapper;
+    private final HmacSignatureService hmacSignatureService;
+    private final HttpClient httpClient;
+
+    /**
+     * @param baseUrl URL ของ Payment Gateway (เช่น http://localhost:8080)
+     * @param apiKey API Key ของ Merchant ที่ใช้สร้าง Payment
+     * @param webhookSecret Secret สำหรับ Sign Webhook (payment.webhook.secret)
+     * @param objectMapper ObjectMapper
+     * @param hmacSignatureService ใช้สร้าง Signature
+     */
+    public GatewaySimulator(
+            String baseUrl,
+            String apiKey,
+            String webhookSecret,
+            ObjectMapper objectMapper,
+            HmacSignatureService hmacSignatureService) {
+        this.baseUri = URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        this.apiKey = apiKey;
+        this.webhookSecret = webhookSecret;
+        this.objectMapper = objectMapper;
+        this.hmacSignatureService = hmacSignatureService;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    /**
+     * รันการจำลองหนึ่งรอบ (Blocking จนกว่าจะส่งครบ)
+     * 
+     * @param request การตั้งค่า
+     * @return SimulationReport
+     */
+    public SimulationReport run(SimulationRequest request) throws InterruptedException {
+        Random random = new Random(request.seed());
+        String runId = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        Semaphore limiter = new Semaphore(request.concurrency());
+        logger.info("Simulation {} started: {} payments at {} webhooks/s", 
+            runId, request.payments(), request.webhooksPerSecond());
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // ==================== Phase 1: สร้าง Payment ====================
+            long createStart = System.nanoTime();
+            List<Future<CreatedPayment>> futures = new ArrayList<>(request.payments());
+            for (int i = 0; i < request.payments(); i++) {
+                String orderId = "SIM-" + runId + "-" + i;
+                BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(490_000), 2);
+                PaymentMethod method = METHODS[random.nextInt(METHODS.length)];
+                limiter.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return createPayment(orderId, amount, method);
+                    } finally {
+                        limiter.release();
+                    }
+                }));
+            }
+            
+            List<CreatedPayment> created = new ArrayList<>(request.payments());
+            int createErrors = 0;
+            for (Future<CreatedPayment> future : futures) {
+                CreatedPayment payment = await(future);
+                if (payment == null) {
+                    createErrors++;
+                } else {
+                    created.add(payment);
+                }
+            }
+            long createPhaseMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createStart);
+            
+            // ==================== Phase 2: วางแผน Webhook ====================
+            List<PlannedEvent> plan = plan(created, request, random);
+            
+            // ==================== Phase 3: ส่ง Webhook ====================
+            Map<Integer, AtomicInteger> responses = new ConcurrentHashMap<>();
+            Map<String, Long> firstAck = new ConcurrentHashMap<>();
+            Queue<Long> requestLatencies = new ConcurrentLinkedQueue<>();
+            AtomicInteger acked = new AtomicInteger();
+            
+            long webhookStart = System.nanoTime();
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / request.webhooksPerSecond();
+            List<Future<?>> sends = new ArrayList<>(plan.size());
+            for (int i = 0; i < plan.size(); i++) {
+                PlannedEvent event = plan.get(i);
+                long due = Math.max(webhookStart + i * intervalNanos, event.dueNanos());
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                limiter.acquire();
+                sends.add(executor.submit(() -> {
+                    try {
+                        long start = System.nanoTime();
+                        int status = sendWebhook(event);
+                        long end = System.nanoTime();
+                        requestLatencies.add(end - start);
+                        responses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                        if (status >= 200 && status < 300) {
+                            acked.incrementAndGet();
+                            firstAck.putIfAbsent(event.payment().referenceId(), end);
+                        }
+                    } finally {
+                        limiter.release();
+                    }
+                }));
+            }
+            sends.forEach(this::await);
+            long webhookPhaseNanos = System.nanoTime() - webhookStart;
+            
+            // ==================== สรุปผล ====================
+            Map<String, Integer> eventsByType = new TreeMap<>();
+            int duplicates = 0;
+            int reordered = 0;
+            for (PlannedEvent event : plan) {
+                eventsByType.merge(event.eventType(), 1, Integer::sum);
+                duplicates += event.duplicate() ? 1 : 0;
+                reordered += event.reordered() ? 1 : 0;
+            }
+            
+            Map<Integer, Integer> responsesByStatus = new TreeMap<>();
+            responses.forEach((status, count) -> responsesByStatus.put(status, count.get()));
+            
+            long[] completion = created.stream()
+                .filter(p -> firstAck.containsKey(p.referenceId()))
+                .mapToLong(p -> firstAck.get(p.referenceId()) - p.createdNanos())
+                .toArray();
+            
+            SimulationReport report = new SimulationReport(
+                created.size(),
+                createErrors,
+                plan.size(),
+                duplicates,
+                reordered,
+                responsesByStatus,
+                eventsByType,
+                createPhaseMs,
+                TimeUnit.NANOSECONDS.toMillis(webhookPhaseNanos),
+                webhookPhaseNanos == 0 ? 0 : acked.get() * 1e9 / webhookPhaseNanos,
+                percentiles(requestLatencies.stream().mapToLong(Long::longValue).toArray()),
+                percentiles(completion)
+            );
+            logger.info("Simulation {} finished: {} webhooks, {} acked, {}/s", 
+                runId, plan.size(), acked.get(), String.format("%.1f", report.webhookThroughput()));
+            return report;
+        }
+    }
+
+    /**
+     * วางแผน Event ของแต่ละ Payment (ประเภท, เวลา, Duplicate, Reorder)
+     */
+    private List<PlannedEvent> plan(List<CreatedPayment> created, SimulationRequest request, Random random) {
+        double[] weights = {request.completedWeight(), request.failedWeight(), request.expiredWeight()};
+        double totalWeight = Arrays.stream(weights).sum();
+        long delayRange = request.maxDelayMs() - request.minDelayMs();
+        
+        List<PlannedEvent> plan = new ArrayList<>(created.size());
+        for (CreatedPayment payment : created) {
+            String eventType = pick(weights, totalWeight, random);
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(
+                request.minDelayMs() + (delayRange > 0 ? random.nextLong(delayRange + 1) : 0));
+            long due = payment.createdNanos() + delayNanos;
+            plan.add(new PlannedEvent(payment, eventType, due, false, false));
+            
+            if (random.nextDouble() < request.duplicateRate()) {
+                // Duplicate มาถึงช้ากว่าตัวจริงเล็กน้อย (เหมือน Retry ของ Gateway)
+                long extra = TimeUnit.MILLISECONDS.toNanos(random.nextLong(Math.max(delayRange, 1) + 1));
+                plan.add(new PlannedEvent(payment, eventType, due + extra, true, false));
+            }
+        }
+        
+        // Reorder: สลับเวลาส่งกับ Event อื่นแบบสุ่ม
+        for (int i = 0; i < plan.size() && plan.size() > 1; i++) {
+            if (random.nextDouble() < request.reorderRate()) {
+                int j = random.nextInt(plan.size());
+                PlannedEvent a = plan.get(i);
+                PlannedEvent b = plan.get(j);
+                plan.set(i, new PlannedEvent(a.payment(), a.eventType(), b.dueNanos(), a.duplicate(), true));
+                plan.set(j, new PlannedEvent(b.payment(), b.eventType(), a.dueNanos(), b.duplicate(), true));
+            }
+        }
+        
+        plan.sort(Comparator.comparingLong(PlannedEvent::dueNanos));
+        return plan;
+    }
+
+    /**
+     * สร้าง Payment ผ่าน API
+     * 
+     * @return CreatedPayment หรือ null ถ้าไม่สำเร็จ
+     */
+    private CreatedPayment createPayment(String orderId, BigDecimal amount, PaymentMethod method) {
+        CreatePaymentRequest body = new CreatePaymentRequest(
+            orderId, amount, "THB", method,
+            "Simulated order " + orderId,
+            "Simulator", "simulator@example.com", null,
+            null, null, null
+        );
+        
+        try {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("api/v1/payments"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("X-API-Key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 201) {
+                logger.debug("Create payment {} failed: HTTP {}", orderId, response.statusCode());
+                return null;
+            }
+            JsonNode json = objectMapper.readTree(response.body());
+            return new CreatedPayment(json.get("referenceId").asText(), System.nanoTime());
+        } catch (IOException e) {
+            logger.debug("Create payment {} failed: {}", orderId, e.toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * ส่ง Webhook ที่ Sign แล้ว
+     * 
+     * @return HTTP Status (0 ถ้าเชื่อมต่อไม่ได้)
+     */
+    private int sendWebhook(PlannedEvent event) {
+        boolean failed = event.eventType().equals("payment.failed");
+        WebhookPayload payload = new WebhookPayload(
+            event.eventType(),
+            event.payment().referenceId(),
+            event.eventType().substring("payment.".length()).toUpperCase(),
+            "SIMGW-" + event.payment().referenceId(),
+            failed ? "51" : "00",
+            failed ? "Insufficient funds" : "Approved",
+            failed ? "Simulated decline" : null,
+            LocalDateTime.now().toString(),
+            null
+        );
+        
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(payload);
+            String signature = HexFormat.of().formatHex(
+                hmacSignatureService.generateSignature(body, 0, body.length, webhookSecret));
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("api/v1/webhooks/payment"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("X-Webhook-Signature", "sha256=" + signature)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /**
+     * เลือกประเภท Event ตามน้ำหนัก
+     */
+    private String pick(double[] weights, double totalWeight, Random random) {
+        double roll = random.nextDouble() * totalWeight;
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return EVENT_TYPES[i];
+            }
+        }
+        return EVENT_TYPES[0];
+    }
+
+    /**
+     * คำนวณ p50/p95/p99/max (ms)
+     */
+    private Map<String, Double> percentiles(long[] nanos) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (nanos.length == 0) {
+            return result;
+        }
+        Arrays.sort(nanos);
+        result.put("p50", toMillis(nanos[(int) Math.ceil(nanos.length * 0.50) - 1]));
+        result.put("p95", toMillis(nanos[(int) Math.ceil(nanos.length * 0.95) - 1]));
+        result.put("p99", toMillis(nanos[(int) Math.ceil(nanos.length * 0.99) - 1]));
+        result.put("max", toMillis(nanos[nanos.length - 1]));
+        return result;
+    }
+
+    private double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.debug("Simulation task failed: {}", e.getCause().toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Payment ที่สร้างแล้ว พร้อมเวลาที่สร้าง (System.nanoTime)
+     */
+    private record CreatedPayment(String referenceId, long createdNanos) {}
+
+    /**
+     * Webhook ที่วางแผนจะส่ง
+     */
+    private record PlannedEvent(
+        CreatedPayment payment,
+        String eventType,
+        long dueNanos,
+        boolean duplicate,
+        boolean reordered
+    ) {}
+}
@@ -0,0 +1,125 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.dto.CreatePaymentRequest;
+import com.payment.gateway.dto.PaymentResponse;
+import com.payment.gateway.dto.RefundRequest;
+import com.payment.gateway.entity.Payment;
+import com.payment.gateway.entity.PaymentMethod;
+import com.payment.gateway.entity.PaymentStatus;
+import com.payment.gateway.entity.Transaction;
+import com.payment.gateway.entity.TransactionStatus;
+import com.payment.gateway.entity.TransactionType;
+import com.payment.gateway.exception.InvalidRequestException;
+import com.payment.gateway.repository.PaymentRepository;
+import com.payment.gateway.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ยิง Partial Refund พร้อมกันหลาย Thread ไปที่ Payment เดียว
+ *
+ * ยืนยันว่า Optimistic Locking ของ refundedAmount ไม่ยอมให้คืนเงินเกินยอดชำระ
+ * และผลรวมของ REFUND Transaction ตรงกับ refundedAmount เสมอ
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:refund-concurrency;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=INFO",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+    "payment.expiry.enabled=false",
+    "payment.outbound-webhook.enabled=false",
+    "payment.settlement.enabled=false",
+    "payment.archive.enabled=false",
+    "payment.ledger.jobs-enabled=false",
+    "payment.rate-limit.enabled=false",
+    "payment.load-shedding.enabled=false",
+    "payment.refund.max-attempts=1000"
+})
+class PaymentRefundConcurrencyTest {
+
+    private static final String API_KEY = "pk_live_demo_key_for_testing";
+    private static final int THREADS = 16;
+    private static final int REFUNDS = 64;
+    private static final BigDecimal PAYMENT_AMOUNT = new BigDecimal("1000.00");
+    private static final BigDecimal REFUND_AMOUNT = new BigDecimal("30.00");
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void concurrentPartialRefundsNeverExceedPaymentAmount() throws Exception {
+        PaymentResponse created = paymentService.createPayment(new CreatePaymentRequest(
+            "ORD-REFUND-" + UUID.randomUUID(), PAYMENT_AMOUNT, "THB", PaymentMethod.CREDIT_CARD,
+            "Refund concurrency", "Test", "refund@example.com", null, null, null, null), API_KEY);
+        paymentService.completePayment(created.referenceId());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < REFUNDS; i++) {
+                RefundRequest request = new RefundRequest(created.referenceId(), REFUND_AMOUNT, "refund " + i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        paymentService.refundPayment(request);
+                        return true;
+                    } catch (InvalidRequestException | OptimisticLockingFailureException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+
+            Payment payment = paymentRepository.findByReferenceId(created.referenceId()).orElseThrow();
+            BigDecimal refundRows = transactionRepository
+                .findByPaymentIdAndTransactionType(payment.getId(), TransactionType.REFUND).stream()
+                .filter(tx -> tx.getStatus() == TransactionStatus.SUCCESS)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            assertThat(payment.getRefundedAmount()).isLessThanOrEqualTo(payment.getAmount());
+            assertThat(refundRows).isEqualByComparingTo(payment.getRefundedAmount());
+            assertThat(payment.getRefundedAmount())
+                .isEqualByComparingTo(REFUND_AMOUNT.multiply(BigDecimal.valueOf(succeeded)));
+            // 1000 / 30 = 33 ครั้ง เหลือ 10 ซึ่งน้อยกว่ายอดต่อครั้ง
+            assertThat(succeeded).isEqualTo(PAYMENT_AMOUNT.divideToIntegralValue(REFUND_AMOUNT).intValue());
+            assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PARTIALLY_REFUNDED);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
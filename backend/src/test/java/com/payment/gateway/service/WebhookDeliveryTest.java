@@ -0,0 +1,217 @@
+package com.payment.gateway.service;
+
+import com.payment.gateway.entity.Merchant;
+import com.payment.gateway.entity.OutboxStatus;
+import com.payment.gateway.entity.WebhookOutbox;
+import com.payment.gateway.repository.MerchantRepository;
+import com.payment.gateway.repository.WebhookOutboxRepository;
+import com.payment.gateway.security.HmacSignatureService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * ส่ง Webhook ขาออกผ่าน WebhookRelay / WebhookSender ไปยัง Stub HTTP Server บน localhost
+ *
+ * - 2xx: Event เป็น DELIVERED และ Signature ตรงกับ Secret ของ Merchant
+ * - 5xx: ยัง PENDING และเลื่อนรอบถัดไปตาม Backoff
+ * - ล้มเหลวครบ max-attempts: FAILED
+ * - Merchant ไม่มี Webhook Secret: FAILED โดยไม่ส่ง
+ *
+ * Relay ตามตารางเวลาถูกตั้งให้ห่างมาก Test จึงเรียก relay() เองทุกรอบ
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:webhook-delivery;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=INFO",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+    "payment.expiry.enabled=false",
+    "payment.settlement.enabled=false",
+    "payment.archive.enabled=false",
+    "payment.ledger.jobs-enabled=false",
+    "payment.rate-limit.enabled=false",
+    "payment.load-shedding.enabled=false",
+    "payment.outbound-webhook.enabled=true",
+    "payment.outbound-webhook.poll-interval-ms=3600000",
+    "payment.outbound-webhook.max-attempts=3",
+    "payment.outbound-webhook.initial-backoff-ms=5000"
+})
+class WebhookDeliveryTest {
+
+    private static final String SECRET = "whsec_test_delivery_secret";
+
+    @Autowired
+    private WebhookRelay relay;
+
+    @Autowired
+    private WebhookOutboxRepository outboxRepository;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private HmacSignatureService hmacSignatureService;
+
+    private HttpServer server;
+    private volatile int responseStatus;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+
+    private record Received(String signature, String body) {}
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        received.add(new Received(exchange.getRequestHeaders().getFirst("X-Webhook-Signature"), body));
+        exchange.sendResponseHeaders(responseStatus, -1);
+        exchange.close();
+    }
+
+    @Test
+    void deliversEventOn2xx() throws Exception {
+        responseStatus = 204;
+        WebhookOutbox event = enqueue(merchant(SECRET));
+
+        WebhookOutbox row = relayUntil(event.getId(), r -> r.getStatus() != OutboxStatus.PENDING);
+
+        assertThat(row.getStatus()).isEqualTo(OutboxStatus.DELIVERED);
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getLastResponseStatus()).isEqualTo(204);
+        assertThat(row.getDeliveredAt()).isNotNull();
+        assertThat(received).hasSize(1);
+        Received request = received.getFirst();
+        assertThat(request.body()).isEqualTo(event.getPayload());
+        assertThat(request.signature()).isEqualTo("sha256=" + hmacSignatureService.generateSignature(request.body(), SECRET));
+    }
+
+    @Test
+    void schedulesRetryOn5xx() throws Exception {
+        responseStatus = 503;
+        WebhookOutbox event = enqueue(merchant(SECRET));
+        LocalDateTime before = LocalDateTime.now();
+
+        WebhookOutbox row = relayUntil(event.getId(), r -> r.getLastResponseStatus() != null);
+
+        assertThat(row.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getLastResponseStatus()).isEqualTo(503);
+        assertThat(row.getLastError()).isEqualTo("HTTP 503");
+        // initial-backoff-ms = 5000 (+ Jitter)
+        assertThat(row.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(5));
+        assertThat(received).hasSize(1);
+    }
+
+    @Test
+    void failsAfterMaxAttempts() throws Exception {
+        responseStatus = 500;
+        WebhookOutbox event = enqueue(merchant(SECRET));
+
+        WebhookOutbox row = event;
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            int expected = attempt;
+            row = relayUntil(event.getId(), r -> r.getAttempts() == expected && r.getLastResponseStatus() != null);
+            if (attempt < 3) {
+                assertThat(row.getStatus()).isEqualTo(OutboxStatus.PENDING);
+                // เลื่อนเวลาถึงรอบ Retry ถัดไป
+                row.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+                row.setLastResponseStatus(null);
+                outboxRepository.save(row);
+            }
+        }
+
+        assertThat(row.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(row.getAttempts()).isEqualTo(3);
+        assertThat(row.getLastError()).isEqualTo("HTTP 500");
+        assertThat(received).hasSize(3);
+    }
+
+    @Test
+    void failsWithoutSendingWhenSecretIsMissing() throws Exception {
+        responseStatus = 200;
+        WebhookOutbox event = enqueue(merchant(""));
+
+        WebhookOutbox row = relayUntil(event.getId(), r -> r.getStatus() != OutboxStatus.PENDING);
+
+        assertThat(row.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(row.getLastError()).isEqualTo("Merchant webhook secret is not configured");
+        assertThat(received).isEmpty();
+    }
+
+    private Merchant merchant(String webhookSecret) {
+        String suffix = UUID.randomUUID().toString();
+        return merchantRepository.save(Merchant.builder()
+            .name("Webhook Test " + suffix)
+            .email(suffix + "@example.com")
+            .webhookUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/hook")
+            .webhookSecret(webhookSecret)
+            .apiKey("pk_test_" + suffix)
+            .apiSecret("sk_test_" + suffix)
+            .isActive(true)
+            .build());
+    }
+
+    private WebhookOutbox enqueue(Merchant merchant) {
+        String eventId = "EVT-" + UUID.randomUUID().toString().toUpperCase().substring(0, 18);
+        return outboxRepository.save(WebhookOutbox.builder()
+            .eventId(eventId)
+            .merchantId(merchant.getId())
+            .paymentId(1L)
+            .eventType("payment.completed")
+            .payload("{\"eventId\":\"" + eventId + "\",\"eventType\":\"payment.completed\"}")
+            .status(OutboxStatus.PENDING)
+            .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+            .build());
+    }
+
+    /**
+     * เรียก relay() ซ้ำ (ส่ง แล้วบันทึกผลในรอบถัดไป) จนแถวเป็นไปตามเงื่อนไข
+     */
+    private WebhookOutbox relayUntil(Long outboxId, Predicate<WebhookOutbox> done) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            relay.relay();
+            WebhookOutbox row = outboxRepository.findById(outboxId).orElseThrow();
+            if (done.test(row)) {
+                return row;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                fail("Outbox row %d did not reach the expected state: status=%s attempts=%d",
+                    outboxId, row.getStatus(), row.getAttempts());
+            }
+            Thread.sleep(20);
+        }
+    }
+}
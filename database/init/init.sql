@@ -112,7 +112,9 @@ CREATE TABLE IF NOT EXISTS payments (
     INDEX idx_payments_status (status),
     INDEX idx_payments_created_at (created_at),
     INDEX idx_payments_customer_email (customer_email),
-    INDEX idx_payments_merchant_status (merchant_id, status)
+    INDEX idx_payments_merchant_status (merchant_id, status),
+    -- Rescan ของ PaymentAnalyticsStore (updated_at >= ?)
+    INDEX idx_payments_updated_at (updated_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
 COMMENT='ตารางเก็บข้อมูลการชำระเงิน';
 